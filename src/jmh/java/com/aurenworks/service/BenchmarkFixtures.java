@@ -0,0 +1,137 @@
+package com.aurenworks.service;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.aurenworks.model.Component;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.runtime.configuration.MemorySize;
+
+/**
+ * Wires the services outside CDI and builds synthetic schemas and values for the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+  private static final String[] TYPES = {"string", "number", "boolean"};
+
+  private BenchmarkFixtures() {
+  }
+
+  static RecordService recordService() {
+    return recordService(0, null);
+  }
+
+  /** A record service whose store spills to {@code spillPath} past {@code heapBudget} bytes; 0 never spills. */
+  static RecordService recordService(long heapBudget, Path spillPath) {
+    RecordService service = new RecordService();
+    service.changeFeed = changeFeed();
+    service.metrics = metrics();
+    service.slowQueryLog = slowQueryLog();
+    service.coalescing = coalescing(service.metrics);
+    service.componentService = componentService(service);
+    service.heapBudget = new MemorySize(BigInteger.valueOf(heapBudget));
+    service.spillPath = spillPath == null ? null : spillPath.toString();
+    service.init();
+    return service;
+  }
+
+  /** A component service paired with a fresh record service, which holds its components' schemas. */
+  static ComponentService componentService() {
+    return recordService().componentService;
+  }
+
+  static ComponentService componentService(RecordService recordService) {
+    ComponentService service = new ComponentService();
+    service.recordService = recordService;
+    service.changeFeed = changeFeed();
+    service.metrics = metrics();
+    service.slowQueryLog = slowQueryLog();
+    service.coalescing = coalescing(service.metrics);
+    service.bindMetrics();
+    return service;
+  }
+
+  static SnapshotService snapshotService(RecordService recordService, ComponentService componentService, Path file) {
+    SnapshotService service = new SnapshotService();
+    service.recordService = recordService;
+    service.componentService = componentService;
+    service.enabled = true;
+    service.path = file.toString();
+    service.interval = Duration.ZERO;
+    return service;
+  }
+
+  static ServiceMetrics metrics() {
+    ServiceMetrics metrics = new ServiceMetrics();
+    metrics.registry = new SimpleMeterRegistry();
+    metrics.maxTaggedPartitions = 100;
+    return metrics;
+  }
+
+  static SlowQueryLog slowQueryLog() {
+    SlowQueryLog slowQueryLog = new SlowQueryLog();
+    slowQueryLog.threshold = Duration.ofSeconds(10);
+    return slowQueryLog;
+  }
+
+  static QueryCoalescing coalescing(ServiceMetrics metrics) {
+    QueryCoalescing coalescing = new QueryCoalescing();
+    coalescing.metrics = metrics;
+    coalescing.enabled = true;
+    coalescing.followerTimeout = Duration.ofSeconds(2);
+    return coalescing;
+  }
+
+  static ChangeFeedService changeFeed() {
+    ChangeFeedService changeFeed = new ChangeFeedService();
+    changeFeed.retention = 1024;
+    changeFeed.maxInFlight = 64;
+    changeFeed.init();
+    return changeFeed;
+  }
+
+  /**
+   * A schema whose first field is a required string called {@code name}; the rest cycle through string, number and
+   * boolean fields named {@code f1..fN}.
+   */
+  static Component schema(String componentId, int fieldCount) {
+    return new Component(componentId, componentId, "Benchmark component", fields(fieldCount), Map.of());
+  }
+
+  static List<Component.ComponentField> fields(int fieldCount) {
+    List<Component.ComponentField> fields = new ArrayList<>(fieldCount);
+    fields.add(new Component.ComponentField("name", "string", true, Map.of("maxLength", 100)));
+    for (int i = 1; i < fieldCount; i++) {
+      fields.add(new Component.ComponentField("f" + i, TYPES[i % TYPES.length], false, Map.of()));
+    }
+    return fields;
+  }
+
+  static Map<String, Object> values(int fieldCount, long seed) {
+    Map<String, Object> values = new LinkedHashMap<>();
+    values.put("name", "record " + seed);
+    for (int i = 1; i < fieldCount; i++) {
+      values.put("f" + i, switch (TYPES[i % TYPES.length]) {
+        case "string" -> "value " + (seed * 31 + i) % 997;
+        case "number" -> (int) ((seed * 17 + i) % 10_000);
+        default -> (seed + i) % 2 == 0;
+      });
+    }
+    return values;
+  }
+
+  /**
+   * The services write audit lines to stdout on every mutation; keep them out of the benchmark output.
+   */
+  static void silenceAuditLog() {
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+  }
+}
@@ -0,0 +1,98 @@
+package com.aurenworks.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aurenworks.api.RecordProjection;
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.api.dto.RecordsListResponse;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Serialization throughput of a {@code GET /records} page as JSON, CBOR and Smile, with mappers configured like the
+ * application's (ISO-8601 instants, unknown properties ignored). {@code serializeProjected} writes the same page with
+ * {@code fields=name,f1,f2}, as a three-column list view asks for it. Encoded sizes are printed to stderr at setup
+ * since they do not change between iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BodyFormatBenchmark {
+
+  @Param({"20", "100"})
+  int pageSize;
+
+  @Param({"20"})
+  int fieldsPerSchema;
+
+  @Param({"json", "cbor", "smile"})
+  String format;
+
+  private ObjectMapper mapper;
+  private RecordsListResponse page;
+  private RecordProjection.ProjectedPage projectedPage;
+  private byte[] encoded;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    BenchmarkFixtures.silenceAuditLog();
+    RecordService service = BenchmarkFixtures.recordService();
+    service.registerComponent(BenchmarkFixtures.schema("bench", fieldsPerSchema));
+    for (int i = 0; i < pageSize; i++) {
+      service.createRecord(new CreateRecordRequest("bench", BenchmarkFixtures.values(fieldsPerSchema, i),
+          Map.of("source", "benchmark")));
+    }
+    page = service.getRecords("bench", 0, pageSize, null, "asc");
+
+    ObjectMapper json = new ObjectMapper().registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    mapper = switch (format) {
+      case "json" -> json;
+      case "cbor" -> json.copyWith(new CBORFactory());
+      case "smile" -> json.copyWith(new SmileFactory());
+      default -> throw new IllegalArgumentException(format);
+    };
+    projectedPage = RecordProjection.parse("name,f1,f2").apply(page);
+    encoded = mapper.writeValueAsBytes(page);
+    System.err.printf("%s page of %d records x %d fields: %d bytes, %d bytes with 3 fields%n", format, pageSize,
+        fieldsPerSchema, encoded.length, mapper.writeValueAsBytes(projectedPage).length);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    return mapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] serializeProjected() throws IOException {
+    return mapper.writeValueAsBytes(projectedPage);
+  }
+
+  @Benchmark
+  public RecordsListResponse deserialize() throws IOException {
+    return mapper.readValue(encoded, RecordsListResponse.class);
+  }
+}
@@ -0,0 +1,86 @@
+package com.aurenworks.service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aurenworks.api.dto.ComponentResponse;
+import com.aurenworks.api.dto.ComponentsListResponse;
+import com.aurenworks.api.dto.CreateComponentRequest;
+import com.aurenworks.model.Component;
+import com.aurenworks.model.Role;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentServiceBenchmark {
+
+  @Param({"1", "100"})
+  int projects;
+
+  @Param({"10", "500"})
+  int componentsPerProject;
+
+  @Param({"5", "20"})
+  int fieldsPerSchema;
+
+  private ComponentService service;
+  private Component component;
+  private String componentId;
+  private final Instant timestamp = Instant.now();
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    BenchmarkFixtures.silenceAuditLog();
+    service = BenchmarkFixtures.componentService();
+    for (int p = 0; p < projects; p++) {
+      for (int c = 0; c < componentsPerProject; c++) {
+        ComponentResponse created = service.createComponent("project-" + p,
+            new CreateComponentRequest("Component " + c, "Benchmark component",
+                BenchmarkFixtures.fields(fieldsPerSchema), Map.of("version", "1.0")),
+            Role.BUILDER);
+        if (p == 0 && c == 0) {
+          componentId = created.id();
+        }
+      }
+    }
+    component = new Component(componentId, "Component 0", "Benchmark component",
+        BenchmarkFixtures.fields(fieldsPerSchema), Map.of("version", "1.0"));
+  }
+
+  @Benchmark
+  public ComponentsListResponse listComponentsDefaultOrder() {
+    return service.listComponents("project-0", 0, 20, null, "asc", Role.VIEWER);
+  }
+
+  @Benchmark
+  public ComponentsListResponse listComponentsSortedByName() {
+    return service.listComponents("project-0", 0, 20, "name", "asc", Role.VIEWER);
+  }
+
+  @Benchmark
+  public String generateETag() {
+    return service.generateETag(component, timestamp);
+  }
+
+  @Benchmark
+  public ComponentResponse getComponent() {
+    return service.getComponent("project-0", componentId, Role.VIEWER);
+  }
+}
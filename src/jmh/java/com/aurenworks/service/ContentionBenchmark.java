@@ -0,0 +1,126 @@
+package com.aurenworks.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aurenworks.api.dto.ComponentResponse;
+import com.aurenworks.api.dto.CreateComponentRequest;
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.api.dto.UpdateComponentRequest;
+import com.aurenworks.model.Role;
+
+/**
+ * Mixed read/write workload against shared {@link RecordService} and {@link ComponentService} instances. Run through
+ * {@link ContentionSuite} to sweep thread counts; each invocation is one create, list, get or update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class ContentionBenchmark {
+
+  private static final int FIELDS = 5;
+  private static final int SPREAD_PARTITIONS = 64;
+  private static final int RECORDS_PER_COMPONENT = 1000;
+  private static final int COMPONENTS_PER_PROJECT = 50;
+
+  /**
+   * Fraction of operations that are reads.
+   */
+  @Param({"0.9", "0.5"})
+  double readRatio;
+
+  /**
+   * {@code hot}: all threads share one project and one record component; {@code spread}: operations are spread over
+   * many of each.
+   */
+  @Param({"hot", "spread"})
+  String tenancy;
+
+  private RecordService recordService;
+  private ComponentService componentService;
+  private int partitions;
+  private List<List<String>> recordIds;
+  private List<List<String>> componentIds;
+
+  // The dataset is rebuilt every iteration so write-heavy runs do not keep growing it
+  @Setup(Level.Iteration)
+  public void setUp() {
+    BenchmarkFixtures.silenceAuditLog();
+    recordService = BenchmarkFixtures.recordService();
+    componentService = recordService.componentService;
+    partitions = "hot".equals(tenancy) ? 1 : SPREAD_PARTITIONS;
+    recordIds = new ArrayList<>(partitions);
+    componentIds = new ArrayList<>(partitions);
+
+    for (int p = 0; p < partitions; p++) {
+      recordService.registerComponent(BenchmarkFixtures.schema(componentKey(p), FIELDS));
+      List<String> ids = new ArrayList<>(RECORDS_PER_COMPONENT);
+      for (int i = 0; i < RECORDS_PER_COMPONENT; i++) {
+        ids.add(recordService.createRecord(
+            new CreateRecordRequest(componentKey(p), BenchmarkFixtures.values(FIELDS, i), Map.of())).id());
+      }
+      recordIds.add(ids);
+
+      List<String> components = new ArrayList<>(COMPONENTS_PER_PROJECT);
+      for (int c = 0; c < COMPONENTS_PER_PROJECT; c++) {
+        ComponentResponse created = componentService.createComponent(projectKey(p), new CreateComponentRequest(
+            "Component " + c, "Contention component", BenchmarkFixtures.fields(FIELDS), Map.of()), Role.BUILDER);
+        components.add(created.id());
+      }
+      componentIds.add(components);
+    }
+  }
+
+  @Benchmark
+  public Object mixedWorkload() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int partition = random.nextInt(partitions);
+
+    if (random.nextDouble() < readRatio) {
+      return switch (random.nextInt(3)) {
+        case 0 -> recordService.getRecords(componentKey(partition), 0, 20, null, "asc");
+        case 1 -> recordService.getRecord(pick(recordIds.get(partition), random));
+        default -> componentService.listComponents(projectKey(partition), 0, 20, null, "asc", Role.VIEWER);
+      };
+    }
+
+    if (random.nextBoolean()) {
+      return recordService.createRecord(new CreateRecordRequest(componentKey(partition),
+          BenchmarkFixtures.values(FIELDS, random.nextInt(10_000)), Map.of()));
+    }
+    return componentService.updateComponent(projectKey(partition), pick(componentIds.get(partition), random),
+        new UpdateComponentRequest("Updated", "Contention component", BenchmarkFixtures.fields(FIELDS), Map.of()),
+        null, Role.BUILDER);
+  }
+
+  private static String pick(List<String> ids, ThreadLocalRandom random) {
+    return ids.get(random.nextInt(ids.size()));
+  }
+
+  private static String componentKey(int partition) {
+    return "contention-" + partition;
+  }
+
+  private static String projectKey(int partition) {
+    return "project-" + partition;
+  }
+}
@@ -0,0 +1,106 @@
+package com.aurenworks.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.Statistics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Runs {@link ContentionBenchmark} once per thread count and reports throughput and p99 latency per workload.
+ *
+ * <p>
+ * Scaling efficiency is {@code throughput(n) / (n * throughput(1))}. The run fails (non-zero exit) if any workload
+ * drops below {@code contention.min-efficiency} at a thread count that the machine can actually run in parallel;
+ * oversubscribed thread counts are reported but not gated.
+ *
+ * <p>
+ * System properties: {@code contention.threads} (default {@code 1,2,4,8,16,32,64}), {@code contention.min-efficiency}
+ * (default {@code 0.5}), {@code contention.max-gated-threads} (default: available processors) and
+ * {@code contention.result} (JSON report path).
+ */
+public final class ContentionSuite {
+
+  private ContentionSuite() {
+  }
+
+  public static void main(String[] args) throws RunnerException, IOException {
+    TreeSet<Integer> threadCounts = new TreeSet<>(List.of(1));
+    Arrays.stream(System.getProperty("contention.threads", "1,2,4,8,16,32,64").split(",")).map(String::trim)
+        .filter(value -> !value.isEmpty()).map(Integer::valueOf).forEach(threadCounts::add);
+    double minEfficiency = Double.parseDouble(System.getProperty("contention.min-efficiency", "0.5"));
+    int maxGatedThreads = Integer.getInteger("contention.max-gated-threads",
+        Runtime.getRuntime().availableProcessors());
+    Path result = Path.of(System.getProperty("contention.result", "target/contention-results.json"));
+
+    Map<String, List<Point>> workloads = new LinkedHashMap<>();
+    for (int threads : threadCounts) {
+      Options options = new OptionsBuilder().include(ContentionBenchmark.class.getName() + ".mixedWorkload")
+          .threads(threads).build();
+      for (RunResult run : new Runner(options).run()) {
+        BenchmarkParams params = run.getParams();
+        String workload = "readRatio=" + params.getParam("readRatio") + ",tenancy=" + params.getParam("tenancy");
+        Statistics statistics = run.getPrimaryResult().getStatistics();
+        // Closed-loop throughput from mean latency (Little's law): every thread always has one operation in flight
+        double throughput = threads * 1_000_000.0 / statistics.getMean();
+        workloads.computeIfAbsent(workload, key -> new ArrayList<>())
+            .add(new Point(threads, throughput, statistics.getPercentile(50.0), statistics.getPercentile(99.0), null));
+      }
+    }
+
+    List<String> failures = new ArrayList<>();
+    Map<String, List<Point>> report = new LinkedHashMap<>();
+    StringBuilder table = new StringBuilder(String.format("%n%-34s %8s %14s %10s %10s %10s%n", "Workload", "Threads",
+        "Ops/s", "p50 (us)", "p99 (us)", "Efficiency"));
+    workloads.forEach((workload, points) -> {
+      double baseline = points.stream().filter(point -> point.threads() == 1).findFirst()
+          .map(Point::throughputOpsPerSec).orElse(Double.NaN);
+      List<Point> withEfficiency = new ArrayList<>();
+      for (Point point : points) {
+        double efficiency = point.throughputOpsPerSec() / (point.threads() * baseline);
+        Point scored = new Point(point.threads(), point.throughputOpsPerSec(), point.p50Micros(), point.p99Micros(),
+            efficiency);
+        withEfficiency.add(scored);
+        boolean gated = point.threads() > 1 && point.threads() <= maxGatedThreads;
+        table.append(String.format("%-34s %8d %14.0f %10.2f %10.2f %9.2f%s%n", workload, point.threads(),
+            point.throughputOpsPerSec(), point.p50Micros(), point.p99Micros(), efficiency, gated ? "" : "*"));
+        if (gated && efficiency < minEfficiency) {
+          failures.add(String.format("%s at %d threads: efficiency %.2f < %.2f", workload, point.threads(),
+              efficiency, minEfficiency));
+        }
+      }
+      report.put(workload, withEfficiency);
+    });
+    table.append(String.format("* not gated (single thread or more than %d threads)%n", maxGatedThreads));
+    System.out.print(table);
+
+    Files.createDirectories(result.toAbsolutePath().getParent());
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(result.toFile(),
+        Map.of("minEfficiency", minEfficiency, "maxGatedThreads", maxGatedThreads, "workloads", report));
+    System.out.println("Contention report written to " + result);
+
+    if (!failures.isEmpty()) {
+      System.err.println("Scaling below threshold:");
+      failures.forEach(failure -> System.err.println("  " + failure));
+      System.exit(1);
+    }
+  }
+
+  record Point(int threads, double throughputOpsPerSec, double p50Micros, double p99Micros, Double efficiency) {
+  }
+}
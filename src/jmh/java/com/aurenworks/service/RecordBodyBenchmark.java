@@ -0,0 +1,110 @@
+package com.aurenworks.service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aurenworks.api.JacksonConfiguration;
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.model.Component;
+import com.aurenworks.model.RecordRow;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reading a {@code POST /records} JSON body up to a validated row: {@code *AsMap} parses into a map and validates it
+ * afterwards, as the body was read before the schema-aware deserializer; {@code *Streaming} validates while it parses.
+ * The {@code reject*} pair reads a body whose first value has the wrong type, followed by {@code padding} more values
+ * the schema does not declare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordBodyBenchmark {
+
+  @Param({"20"})
+  int fieldsPerSchema;
+
+  @Param({"1000"})
+  int padding;
+
+  private RecordService service;
+  private Component schema;
+  private ObjectMapper plain;
+  private ObjectMapper streaming;
+  private byte[] valid;
+  private byte[] invalid;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    service = BenchmarkFixtures.recordService();
+    schema = BenchmarkFixtures.schema("bench", fieldsPerSchema);
+    service.registerComponent(schema);
+    plain = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    streaming = plain.copy().registerModule(JacksonConfiguration.recordsModule(service::schema));
+
+    valid = plain.writeValueAsBytes(body(BenchmarkFixtures.values(fieldsPerSchema, 42)));
+    Map<String, Object> values = new LinkedHashMap<>();
+    values.put("name", 42);
+    for (int i = 0; i < padding; i++) {
+      values.put("note" + i, List.of("padding " + i, i));
+    }
+    invalid = plain.writeValueAsBytes(body(values));
+  }
+
+  private static Map<String, Object> body(Map<String, Object> values) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("componentId", "bench");
+    body.put("values", values);
+    body.put("metadata", Map.of("source", "benchmark"));
+    return body;
+  }
+
+  @Benchmark
+  public RecordRow readAsMap() throws IOException {
+    CreateRecordRequest request = plain.readValue(valid, CreateRecordRequest.class);
+    return service.validateRecordValues(request.values(), schema);
+  }
+
+  @Benchmark
+  public Map<String, Object> readStreaming() throws IOException {
+    return streaming.readValue(valid, CreateRecordRequest.class).values();
+  }
+
+  @Benchmark
+  public Object rejectAsMap() throws IOException {
+    CreateRecordRequest request = plain.readValue(invalid, CreateRecordRequest.class);
+    try {
+      return service.validateRecordValues(request.values(), schema);
+    } catch (DomainException.Validation e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object rejectStreaming() throws IOException {
+    try {
+      return streaming.readValue(invalid, CreateRecordRequest.class);
+    } catch (DomainException.Validation e) {
+      return e;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package com.aurenworks.service;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.api.dto.RecordResponse;
+import com.aurenworks.api.dto.RecordsListResponse;
+import com.aurenworks.model.Component;
+import com.aurenworks.model.Record;
+import com.aurenworks.model.RecordRow;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordServiceBenchmark {
+
+  @Param({"1000", "20000"})
+  int recordsPerComponent;
+
+  @Param({"5", "20"})
+  int fieldsPerSchema;
+
+  @Param({"1", "10"})
+  int components;
+
+  private RecordService service;
+  private Component schema;
+  private Map<String, Object> values;
+  private Record record;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    BenchmarkFixtures.silenceAuditLog();
+    service = BenchmarkFixtures.recordService();
+    for (int c = 0; c < components; c++) {
+      Component component = BenchmarkFixtures.schema("bench-" + c, fieldsPerSchema);
+      service.registerComponent(component);
+      for (int i = 0; i < recordsPerComponent; i++) {
+        service.createRecord(new CreateRecordRequest(component.id(), BenchmarkFixtures.values(fieldsPerSchema, i),
+            Map.of("source", "benchmark")));
+      }
+    }
+    schema = BenchmarkFixtures.schema("bench-0", fieldsPerSchema);
+    values = BenchmarkFixtures.values(fieldsPerSchema, 42);
+    RecordResponse created = service.createRecord(new CreateRecordRequest("bench-0", values, Map.of()));
+    record = new Record(created.id(), created.componentId(), created.values(), created.createdAt(),
+        created.updatedAt(), created.createdBy(), created.metadata());
+  }
+
+  @Benchmark
+  public RecordsListResponse getRecordsDefaultOrder() {
+    return service.getRecords("bench-0", 0, 20, null, "asc");
+  }
+
+  @Benchmark
+  public RecordsListResponse getRecordsSorted() {
+    return service.getRecords("bench-0", 0, 20, "name", "asc");
+  }
+
+  @Benchmark
+  public RecordsListResponse getRecordsAllComponentsDefaultOrder() {
+    return service.getRecords(null, 0, 20, null, "asc");
+  }
+
+  @Benchmark
+  public RecordRow validateRecordValues() {
+    return service.validateRecordValues(values, schema);
+  }
+
+  @Benchmark
+  public RecordResponse toRecordResponse() {
+    return service.toRecordResponse(record);
+  }
+
+  @Benchmark
+  public RecordResponse createRecord(WriteState state) {
+    return state.service.createRecord(state.request);
+  }
+
+  /**
+   * Writes go to a fresh store every iteration so the measured dataset does not keep growing.
+   */
+  @State(Scope.Benchmark)
+  public static class WriteState {
+    RecordService service;
+    CreateRecordRequest request;
+
+    @Setup(Level.Iteration)
+    public void setUp(RecordServiceBenchmark benchmark) {
+      BenchmarkFixtures.silenceAuditLog();
+      service = BenchmarkFixtures.recordService();
+      service.registerComponent(BenchmarkFixtures.schema("bench-write", benchmark.fieldsPerSchema));
+      request = new CreateRecordRequest("bench-write", BenchmarkFixtures.values(benchmark.fieldsPerSchema, 7),
+          Map.of("source", "benchmark"));
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.aurenworks.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.api.dto.SnapshotResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Warm restart of a populated record store: restoring the binary snapshot versus replaying every write as the JSON
+ * request that created it. Each invocation rebuilds the whole store, so this is single-shot time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SnapshotBenchmark {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Param({"100000"})
+  int records;
+
+  @Param({"20"})
+  int fieldsPerSchema;
+
+  private Path directory;
+  private SnapshotService snapshots;
+  private List<byte[]> requestBodies;
+  private RecordService replayTarget;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    BenchmarkFixtures.silenceAuditLog();
+    directory = Files.createTempDirectory("aurenworks-snapshot-bench");
+    RecordService recordService = BenchmarkFixtures.recordService();
+    recordService.registerComponent(BenchmarkFixtures.schema("bench", fieldsPerSchema));
+    requestBodies = new ArrayList<>(records);
+    for (int i = 0; i < records; i++) {
+      CreateRecordRequest request = new CreateRecordRequest("bench", BenchmarkFixtures.values(fieldsPerSchema, i),
+          Map.of("source", "benchmark"));
+      recordService.createRecord(request);
+      requestBodies.add(MAPPER.writeValueAsBytes(request));
+    }
+    snapshots = BenchmarkFixtures.snapshotService(recordService, recordService.componentService,
+        directory.resolve("bench.snapshot"));
+    snapshots.snapshot();
+  }
+
+  @Setup(Level.Invocation)
+  public void freshReplayTarget() {
+    replayTarget = BenchmarkFixtures.recordService();
+    replayTarget.registerComponent(BenchmarkFixtures.schema("bench", fieldsPerSchema));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(directory.resolve("bench.snapshot"));
+    Files.deleteIfExists(directory);
+  }
+
+  @Benchmark
+  public SnapshotResponse restoreSnapshot() throws IOException {
+    return snapshots.restore();
+  }
+
+  @Benchmark
+  public SnapshotResponse writeSnapshot() throws IOException {
+    return snapshots.snapshot();
+  }
+
+  @Benchmark
+  public RecordService replayJsonWrites() throws IOException {
+    for (byte[] body : requestBodies) {
+      replayTarget.createRecord(MAPPER.readValue(body, CreateRecordRequest.class));
+    }
+    return replayTarget;
+  }
+}
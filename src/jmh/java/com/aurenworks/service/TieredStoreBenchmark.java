@@ -0,0 +1,135 @@
+package com.aurenworks.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.api.dto.RecordResponse;
+import com.aurenworks.api.dto.RecordsListResponse;
+import com.aurenworks.model.Record;
+
+import io.micrometer.core.instrument.search.Search;
+
+/**
+ * Point reads and a sorted scan against a store whose heap budget holds {@code heapShare} percent of the records
+ * (100 = no budget, nothing spills). {@code getRecordSkewed} sends 90% of reads to 10% of the ids, the access pattern
+ * the hot tier is for; {@code getRecordUniform} spreads them evenly; {@code getMissingRecord} looks up ids that were
+ * never stored, which the cold tier's Bloom filters answer. The hit ratio and the tier sizes are printed to stderr at
+ * the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TieredStoreBenchmark {
+
+  @Param({"50000"})
+  int records;
+
+  @Param({"20"})
+  int fieldsPerSchema;
+
+  @Param({"100", "25"})
+  int heapShare;
+
+  private RecordService service;
+  private Path spillPath;
+  private String[] ids;
+  private String[] missingIds;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    BenchmarkFixtures.silenceAuditLog();
+    spillPath = Files.createTempDirectory("tiered-store-benchmark");
+    Map<String, Object> sample = BenchmarkFixtures.values(fieldsPerSchema, 0);
+    long recordBytes = TieredRecordStore
+        .estimateBytes(new Record("00000000-0000-7000-8000-000000000000", "bench", sample, null, null, "system",
+            Map.of("source", "benchmark")));
+    long budget = heapShare >= 100 ? 0 : recordBytes * records * heapShare / 100;
+    service = BenchmarkFixtures.recordService(budget, spillPath);
+    service.registerComponent(BenchmarkFixtures.schema("bench", fieldsPerSchema));
+    List<String> created = new ArrayList<>(records);
+    for (int i = 0; i < records; i++) {
+      created.add(service.createRecord(new CreateRecordRequest("bench", BenchmarkFixtures.values(fieldsPerSchema, i),
+          Map.of("source", "benchmark"))).id());
+    }
+    ids = created.toArray(String[]::new);
+    RecordIds future = new RecordIds(() -> System.currentTimeMillis() + 86_400_000L);
+    missingIds = new String[4096];
+    for (int i = 0; i < missingIds.length; i++) {
+      missingIds[i] = RecordIds.format(future.nextSequence());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    System.err.printf("heapShare=%d%%: hit ratio %.3f, %.0f hot / %.0f cold records, %.0f segments%n", heapShare,
+        meter("aurenworks.records.tier.hit.ratio", null), meter("aurenworks.records.tier.records", "hot"),
+        meter("aurenworks.records.tier.records", "cold"), meter("aurenworks.records.tier.segments", null));
+    try (Stream<Path> files = Files.list(spillPath)) {
+      for (Path file : files.toList()) {
+        Files.deleteIfExists(file);
+      }
+    }
+    Files.deleteIfExists(spillPath);
+  }
+
+  @Benchmark
+  public RecordResponse getRecordSkewed() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int hotSet = Math.max(1, ids.length / 10);
+    int index = random.nextInt(10) < 9 ? random.nextInt(hotSet) : random.nextInt(ids.length);
+    return service.getRecord(ids[index]);
+  }
+
+  @Benchmark
+  public RecordResponse getRecordUniform() {
+    return service.getRecord(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+  }
+
+  @Benchmark
+  public boolean getMissingRecord() {
+    try {
+      service.getRecord(missingIds[ThreadLocalRandom.current().nextInt(missingIds.length)]);
+      return true;
+    } catch (DomainException.NotFound e) {
+      return false;
+    }
+  }
+
+  @Benchmark
+  public RecordsListResponse getRecordsSorted() {
+    return service.getRecords("bench", 0, 20, "name", "asc");
+  }
+
+  private double meter(String name, String tier) {
+    Search search = service.metrics.registry.find(name);
+    if (tier != null) {
+      search = search.tag("tier", tier);
+    }
+    return search.gauge().value();
+  }
+}
@@ -0,0 +1,97 @@
+package com.aurenworks.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.api.dto.RecordsListResponse;
+
+/**
+ * Time to serve a burst of concurrent requests whose store access blocks for {@code ioLatencyMillis}, on a bounded
+ * platform-thread pool (sized like the Quarkus worker pool) versus one virtual thread per request.
+ *
+ * <p>
+ * Requests per second is {@code concurrentRequests / score}. With blocking I/O the platform pool can only have
+ * {@value #WORKER_POOL_SIZE} requests in flight, so its burst time grows with the burst size; virtual threads park
+ * during the I/O and keep all requests in flight.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+  // quarkus.thread-pool.max-threads defaults to max(200, 8 * cores)
+  static final int WORKER_POOL_SIZE = 200;
+
+  @Param({"platform", "virtual"})
+  String executor;
+
+  @Param({"1", "10"})
+  int ioLatencyMillis;
+
+  @Param({"200", "2000"})
+  int concurrentRequests;
+
+  private RecordService service;
+  private ExecutorService pool;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    BenchmarkFixtures.silenceAuditLog();
+    service = BenchmarkFixtures.recordService();
+    service.registerComponent(BenchmarkFixtures.schema("bench", 5));
+    for (int i = 0; i < 1000; i++) {
+      service.createRecord(new CreateRecordRequest("bench", BenchmarkFixtures.values(5, i), Map.of()));
+    }
+    pool = "virtual".equals(executor)
+        ? Executors.newVirtualThreadPerTaskExecutor()
+        : Executors.newFixedThreadPool(WORKER_POOL_SIZE);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Benchmark
+  public int burst() throws InterruptedException, ExecutionException {
+    List<Future<RecordsListResponse>> responses = new ArrayList<>(concurrentRequests);
+    for (int i = 0; i < concurrentRequests; i++) {
+      responses.add(pool.submit(this::request));
+    }
+    int records = 0;
+    for (Future<RecordsListResponse> response : responses) {
+      records += response.get().records().size();
+    }
+    return records;
+  }
+
+  private RecordsListResponse request() throws InterruptedException {
+    // Stands in for the round trip to a persistent store; a virtual thread unmounts while sleeping
+    Thread.sleep(ioLatencyMillis);
+    return service.getRecords("bench", 0, 20, null, null);
+  }
+}
@@ -0,0 +1,135 @@
+package com.aurenworks.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The packaged application ({@code target/quarkus-app/quarkus-run.jar}) running in its own JVM on a random local
+ * port, so the load generator does not compete with the server for heap or JIT. The native executable
+ * ({@code target/*-runner}) is started the same way.
+ */
+final class ApplicationProcess implements AutoCloseable {
+
+  private static final Pattern LISTENING = Pattern.compile("Listening on: (http://\\S+:\\d+)");
+
+  private final Process process;
+  private final URI baseUri;
+  private final long launchedNanos;
+
+  private ApplicationProcess(Process process, URI baseUri, long launchedNanos) {
+    this.process = process;
+    this.baseUri = baseUri;
+    this.launchedNanos = launchedNanos;
+  }
+
+  static ApplicationProcess start(Path runnerJar, List<String> jvmArgs, Path logFile, Duration timeout)
+      throws IOException, InterruptedException {
+    if (!Files.isRegularFile(runnerJar)) {
+      throw new IllegalStateException("Application jar not found: " + runnerJar + " (run the package phase first)");
+    }
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(jvmArgs);
+    command.add("-Dquarkus.http.host=127.0.0.1");
+    command.add("-Dquarkus.http.port=0");
+    command.add("-jar");
+    command.add(runnerJar.toString());
+    return launch(command, logFile, timeout);
+  }
+
+  static ApplicationProcess startNative(Path executable, List<String> args, Path logFile, Duration timeout)
+      throws IOException, InterruptedException {
+    if (!Files.isExecutable(executable)) {
+      throw new IllegalStateException("Native executable not found: " + executable + " (run package -Dnative first)");
+    }
+    List<String> command = new ArrayList<>();
+    command.add(executable.toString());
+    command.addAll(args);
+    command.add("-Dquarkus.http.host=127.0.0.1");
+    command.add("-Dquarkus.http.port=0");
+    return launch(command, logFile, timeout);
+  }
+
+  private static ApplicationProcess launch(List<String> command, Path logFile, Duration timeout)
+      throws IOException, InterruptedException {
+    long launchedNanos = System.nanoTime();
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+    // Copy the server output to a log file and pick the bound port out of the startup banner
+    Files.createDirectories(logFile.toAbsolutePath().getParent());
+    CompletableFuture<URI> listening = new CompletableFuture<>();
+    Thread pump = new Thread(() -> {
+      try (BufferedReader reader = new BufferedReader(
+          new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+          PrintWriter log = new PrintWriter(Files.newBufferedWriter(logFile, StandardCharsets.UTF_8), true)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          log.println(line);
+          Matcher matcher = LISTENING.matcher(line);
+          if (!listening.isDone() && matcher.find()) {
+            listening.complete(URI.create(matcher.group(1)));
+          }
+        }
+      } catch (IOException e) {
+        listening.completeExceptionally(e);
+      }
+      listening.completeExceptionally(new IllegalStateException("Application exited before listening"));
+    }, "loadtest-app-output");
+    pump.setDaemon(true);
+    pump.start();
+
+    try {
+      return new ApplicationProcess(process, listening.get(timeout.toMillis(), TimeUnit.MILLISECONDS),
+          launchedNanos);
+    } catch (ExecutionException | TimeoutException e) {
+      process.destroyForcibly();
+      throw new IllegalStateException("Application did not start, see " + logFile, e);
+    }
+  }
+
+  URI baseUri() {
+    return baseUri;
+  }
+
+  /** {@link System#nanoTime()} just before the process was spawned. */
+  long launchedNanos() {
+    return launchedNanos;
+  }
+
+  /** Resident set size of the application process in KiB, or -1 where {@code /proc} is not available. */
+  long residentSetKilobytes() throws IOException {
+    Path status = Path.of("/proc", Long.toString(process.pid()), "status");
+    if (!Files.isReadable(status)) {
+      return -1;
+    }
+    for (String line : Files.readAllLines(status, StandardCharsets.UTF_8)) {
+      if (line.startsWith("VmRSS:")) {
+        return Long.parseLong(line.substring("VmRSS:".length()).replace("kB", "").trim());
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    process.destroy();
+    if (!process.waitFor(10, TimeUnit.SECONDS)) {
+      process.destroyForcibly();
+    }
+  }
+}
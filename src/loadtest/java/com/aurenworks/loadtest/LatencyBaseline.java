@@ -0,0 +1,69 @@
+package com.aurenworks.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Stored p50/p99/p999 latencies per scenario, and the regression check against them.
+ *
+ * <p>
+ * A percentile regresses when it exceeds both {@code baseline * maxRatio} and {@code baseline + slackMicros}; the
+ * absolute slack keeps sub-millisecond scenarios such as {@code /healthz} from failing on scheduler noise.
+ */
+record LatencyBaseline(int ratePerSecond, Map<String, Percentiles> scenarios) {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  record Percentiles(double p50Micros, double p99Micros, double p999Micros) {
+  }
+
+  record Thresholds(double p50Ratio, double p99Ratio, double p999Ratio, double slackMicros) {
+  }
+
+  static LatencyBaseline read(Path file) throws IOException {
+    return Files.isRegularFile(file) ? MAPPER.readValue(file.toFile(), LatencyBaseline.class) : null;
+  }
+
+  void write(Path file) throws IOException {
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    MAPPER.writeValue(file.toFile(), this);
+  }
+
+  List<String> regressions(LatencyBaseline current, Thresholds thresholds) {
+    List<String> failures = new ArrayList<>();
+    current.scenarios().forEach((scenario, measured) -> {
+      Percentiles expected = scenarios.get(scenario);
+      if (expected == null) {
+        return;
+      }
+      check(failures, scenario, "p50", expected.p50Micros(), measured.p50Micros(), thresholds.p50Ratio(),
+          thresholds.slackMicros());
+      check(failures, scenario, "p99", expected.p99Micros(), measured.p99Micros(), thresholds.p99Ratio(),
+          thresholds.slackMicros());
+      check(failures, scenario, "p999", expected.p999Micros(), measured.p999Micros(), thresholds.p999Ratio(),
+          thresholds.slackMicros());
+    });
+    return failures;
+  }
+
+  private static void check(List<String> failures, String scenario, String percentile, double baseline,
+      double measured, double maxRatio, double slackMicros) {
+    double allowed = Math.max(baseline * maxRatio, baseline + slackMicros);
+    if (measured > allowed) {
+      failures.add(String.format("%s %s: %.0f us > %.0f us allowed (baseline %.0f us)", scenario, percentile,
+          measured, allowed, baseline));
+    }
+  }
+
+  static LatencyBaseline of(int ratePerSecond, Map<String, Percentiles> scenarios) {
+    return new LatencyBaseline(ratePerSecond, new LinkedHashMap<>(scenarios));
+  }
+}
@@ -0,0 +1,227 @@
+package com.aurenworks.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Open-model HTTP load test against the packaged application.
+ *
+ * <p>
+ * Boots the application on a random local port, seeds components and records through the public endpoints, then
+ * offers each scenario a constant arrival rate. Request {@code i} is due at {@code start + i / rate} and its latency
+ * is measured from that due time, not from when it was actually sent: if the server (or the generator) stalls, the
+ * requests queued behind the stall are charged for the wait, so the histograms are free of coordinated omission.
+ *
+ * <p>
+ * System properties ({@code loadtest.*}): {@code app} (runner jar), {@code rate} (requests/s per scenario, default
+ * 200), {@code warmup} and {@code duration} (seconds, default 10 and 30), {@code scenarios} (comma-separated subset),
+ * {@code projects}, {@code components-per-project}, {@code records}, {@code baseline} (JSON file),
+ * {@code update-baseline}, {@code max-ratio.p50|p99|p999}, {@code slack-micros}, {@code max-error-rate} and
+ * {@code output} (report directory).
+ */
+public final class LoadGenerator {
+
+  private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(5)).build();
+  private final URI baseUri;
+  private final List<String> projectIds = new ArrayList<>();
+  private final List<String> recordIds = new ArrayList<>();
+
+  private LoadGenerator(URI baseUri) {
+    this.baseUri = baseUri;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Path app = Path.of(System.getProperty("loadtest.app", "target/quarkus-app/quarkus-run.jar"));
+    Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest"));
+    Path baselineFile = Path.of(System.getProperty("loadtest.baseline", "src/loadtest/baseline.json"));
+    int rate = Integer.getInteger("loadtest.rate", 200);
+    Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup", 10));
+    Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 30));
+    List<String> selected = Arrays.stream(System.getProperty("loadtest.scenarios", "").split(","))
+        .map(String::trim).filter(name -> !name.isEmpty()).toList();
+    List<String> jvmArgs = Arrays.stream(System.getProperty("loadtest.app-jvm-args", "").split(" "))
+        .filter(arg -> !arg.isBlank()).toList();
+
+    Map<String, LatencyBaseline.Percentiles> measured = new LinkedHashMap<>();
+    Map<String, Long> errors = new LinkedHashMap<>();
+    try (ApplicationProcess process = ApplicationProcess.start(app, jvmArgs, output.resolve("app.log"),
+        Duration.ofSeconds(60))) {
+      LoadGenerator generator = new LoadGenerator(process.baseUri());
+      generator.seed(Integer.getInteger("loadtest.projects", 10),
+          Integer.getInteger("loadtest.components-per-project", 50), Integer.getInteger("loadtest.records", 5000));
+
+      for (Map.Entry<String, LongFunction<HttpRequest>> scenario : generator.scenarios().entrySet()) {
+        if (!selected.isEmpty() && !selected.contains(scenario.getKey())) {
+          continue;
+        }
+        System.out.printf("%s: warmup %ds, measuring %ds at %d req/s%n", scenario.getKey(), warmup.toSeconds(),
+            duration.toSeconds(), rate);
+        generator.drive(scenario.getValue(), rate, warmup);
+        Result result = generator.drive(scenario.getValue(), rate, duration);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(output.resolve(scenario.getKey() + ".hgrm")))) {
+          // Percentile distribution in milliseconds, loadable in the HdrHistogram plotter
+          result.histogram().outputPercentileDistribution(out, 1_000_000.0);
+        }
+        measured.put(scenario.getKey(), percentiles(result.histogram()));
+        errors.put(scenario.getKey(), result.errors());
+      }
+    }
+
+    LatencyBaseline current = LatencyBaseline.of(rate, measured);
+    MAPPER.writerWithDefaultPrettyPrinter().writeValue(output.resolve("results.json").toFile(),
+        Map.of("ratePerSecond", rate, "durationSeconds", duration.toSeconds(), "scenarios", measured, "errors",
+            errors));
+    System.out.printf("%n%-18s %12s %12s %12s %8s%n", "Scenario", "p50 (us)", "p99 (us)", "p999 (us)", "Errors");
+    measured.forEach((name, p) -> System.out.printf("%-18s %12.0f %12.0f %12.0f %8d%n", name, p.p50Micros(),
+        p.p99Micros(), p.p999Micros(), errors.get(name)));
+    System.out.println("Histograms and results written to " + output);
+
+    List<String> failures = new ArrayList<>();
+    double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.001"));
+    long requests = (long) rate * duration.toSeconds();
+    errors.forEach((name, count) -> {
+      if (count > requests * maxErrorRate) {
+        failures.add(String.format("%s: %d of %d requests failed", name, count, requests));
+      }
+    });
+
+    if (Boolean.getBoolean("loadtest.update-baseline")) {
+      current.write(baselineFile);
+      System.out.println("Baseline updated: " + baselineFile);
+    } else {
+      LatencyBaseline baseline = LatencyBaseline.read(baselineFile);
+      if (baseline == null) {
+        System.out.println("No baseline at " + baselineFile + "; rerun with -Dloadtest.update-baseline=true");
+      } else {
+        if (baseline.ratePerSecond() != rate) {
+          System.out.printf("Warning: baseline was recorded at %d req/s, this run used %d req/s%n",
+              baseline.ratePerSecond(), rate);
+        }
+        failures.addAll(baseline.regressions(current, new LatencyBaseline.Thresholds(
+            Double.parseDouble(System.getProperty("loadtest.max-ratio.p50", "1.5")),
+            Double.parseDouble(System.getProperty("loadtest.max-ratio.p99", "2.0")),
+            Double.parseDouble(System.getProperty("loadtest.max-ratio.p999", "3.0")),
+            Double.parseDouble(System.getProperty("loadtest.slack-micros", "1000")))));
+      }
+    }
+
+    if (!failures.isEmpty()) {
+      System.err.println("Latency regressions:");
+      failures.forEach(failure -> System.err.println("  " + failure));
+      System.exit(1);
+    }
+  }
+
+  private Map<String, LongFunction<HttpRequest>> scenarios() {
+    Map<String, LongFunction<HttpRequest>> scenarios = new LinkedHashMap<>();
+    scenarios.put("records-list", i -> get("/records?componentId=user&page=" + (i % 10) + "&size=20"));
+    scenarios.put("records-sorted", i -> get("/records?componentId=user&sortBy=age&sortOrder=desc&size=20"));
+    scenarios.put("records-get", i -> get("/records/" + recordIds.get((int) (i % recordIds.size()))));
+    scenarios.put("components-list",
+        i -> get("/projects/" + projectIds.get((int) (i % projectIds.size())) + "/components?size=20"));
+    scenarios.put("healthz", i -> get("/healthz"));
+    return scenarios;
+  }
+
+  private void seed(int projects, int componentsPerProject, int records) throws IOException, InterruptedException {
+    long started = System.nanoTime();
+    for (int p = 0; p < projects; p++) {
+      String projectId = "loadtest-" + p;
+      projectIds.add(projectId);
+      for (int c = 0; c < componentsPerProject; c++) {
+        post("/projects/" + projectId + "/components",
+            Map.of("name", "Component " + c, "description", "Seeded by the load test", "fields",
+                List.of(Map.of("name", "title", "type", "string", "required", true, "constraints", Map.of()),
+                    Map.of("name", "amount", "type", "number", "required", false, "constraints", Map.of())),
+                "metadata", Map.of()));
+      }
+    }
+    for (int r = 0; r < records; r++) {
+      HttpResponse<String> response = post("/records", Map.of("componentId", "user", "values",
+          Map.of("name", "Load User " + r, "age", r % 100, "active", r % 3 == 0)));
+      recordIds.add(MAPPER.readTree(response.body()).get("id").asText());
+    }
+    System.out.printf("Seeded %d projects x %d components and %d records in %d ms%n", projects,
+        componentsPerProject, records, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+  }
+
+  private Result drive(LongFunction<HttpRequest> requests, int rate, Duration duration) throws InterruptedException {
+    Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    LongAdder errors = new LongAdder();
+    long total = rate * duration.toSeconds();
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+    CountDownLatch done = new CountDownLatch((int) total);
+
+    long start = System.nanoTime();
+    for (long i = 0; i < total; i++) {
+      long due = start + i * intervalNanos;
+      long wait;
+      while ((wait = due - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      client.sendAsync(requests.apply(i), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+        histogram.recordValue(Math.min(System.nanoTime() - due, HIGHEST_TRACKABLE_NANOS));
+        if (error != null || response.statusCode() >= 400) {
+          errors.increment();
+        }
+        done.countDown();
+      });
+    }
+    if (!done.await(REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS)) {
+      throw new IllegalStateException(done.getCount() + " requests did not complete");
+    }
+    return new Result(histogram, errors.sum());
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT).header("Accept", "application/json")
+        .GET().build();
+  }
+
+  private HttpResponse<String> post(String path, Object body) throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT)
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body))).build();
+    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 201) {
+      throw new IllegalStateException("Seeding " + path + " failed with " + response.statusCode() + ": "
+          + response.body());
+    }
+    return response;
+  }
+
+  private static LatencyBaseline.Percentiles percentiles(Histogram histogram) {
+    return new LatencyBaseline.Percentiles(histogram.getValueAtPercentile(50.0) / 1000.0,
+        histogram.getValueAtPercentile(99.0) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0);
+  }
+
+  private record Result(Histogram histogram, long errors) {
+  }
+}
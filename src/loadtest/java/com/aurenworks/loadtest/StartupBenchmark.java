@@ -0,0 +1,140 @@
+package com.aurenworks.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Cold-start benchmark of the packaged application: JVM ({@code quarkus-run.jar}) and, when it has been built, the
+ * native executable.
+ *
+ * <p>
+ * Each iteration starts a fresh process and measures the time from spawning it to the first successful
+ * {@code GET /records?componentId=user}. That request creates the services, serializes a page and is what a client
+ * waits for when a pod is scaled up from zero. The resident set size is read from {@code /proc} right after it.
+ *
+ * <p>
+ * System properties ({@code startup.*}): {@code jar} and {@code native} (artifacts; a missing one is skipped),
+ * {@code iterations} (default 5), {@code app-args} (space-separated, passed to both) and {@code output} (report
+ * directory).
+ */
+public final class StartupBenchmark {
+
+  private static final Duration START_TIMEOUT = Duration.ofSeconds(60);
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private StartupBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    Path jar = Path.of(System.getProperty("startup.jar", "target/quarkus-app/quarkus-run.jar"));
+    Path executable = Path.of(System.getProperty("startup.native", "target/aurenworks-api-1.0.0-SNAPSHOT-runner"));
+    Path output = Path.of(System.getProperty("startup.output", "target/startup"));
+    int iterations = Integer.getInteger("startup.iterations", 5);
+    List<String> appArgs = Arrays.stream(System.getProperty("startup.app-args", "").split(" "))
+        .filter(arg -> !arg.isBlank()).toList();
+    Files.createDirectories(output);
+
+    HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5)).build();
+    Map<String, Summary> results = new LinkedHashMap<>();
+    if (Files.isRegularFile(jar)) {
+      results.put("jvm", measure(iterations, client,
+          () -> ApplicationProcess.start(jar, appArgs, output.resolve("jvm.log"), START_TIMEOUT)));
+    } else {
+      System.out.println("Skipping JVM: " + jar + " not found");
+    }
+    if (Files.isExecutable(executable)) {
+      results.put("native", measure(iterations, client,
+          () -> ApplicationProcess.startNative(executable, appArgs, output.resolve("native.log"), START_TIMEOUT)));
+    } else {
+      System.out.println("Skipping native: " + executable + " not found (build it with package -Dnative)");
+    }
+    if (results.isEmpty()) {
+      System.err.println("Nothing to measure");
+      System.exit(1);
+    }
+
+    MAPPER.writerWithDefaultPrettyPrinter().writeValue(output.resolve("results.json").toFile(),
+        Map.of("iterations", iterations, "modes", results));
+    System.out.printf("%n%-8s %18s %18s %18s %14s%n", "Mode", "listening (ms)", "first req p50 (ms)",
+        "first req max (ms)", "RSS p50 (MiB)");
+    results.forEach((mode, summary) -> System.out.printf("%-8s %18.1f %18.1f %18.1f %14.1f%n", mode,
+        summary.listeningMillisP50(), summary.firstRequestMillisP50(), summary.firstRequestMillisMax(),
+        summary.rssKilobytesP50() / 1024.0));
+    System.out.println("Results written to " + output);
+  }
+
+  private static Summary measure(int iterations, HttpClient client, Launcher launcher) throws Exception {
+    List<Double> listening = new ArrayList<>();
+    List<Double> firstRequest = new ArrayList<>();
+    List<Double> rss = new ArrayList<>();
+    for (int i = 0; i < iterations; i++) {
+      try (ApplicationProcess process = launcher.launch()) {
+        listening.add(millisSince(process.launchedNanos()));
+        awaitFirstResponse(client, process.baseUri());
+        firstRequest.add(millisSince(process.launchedNanos()));
+        rss.add((double) process.residentSetKilobytes());
+      }
+    }
+    return new Summary(median(listening), median(firstRequest), max(firstRequest), median(rss), firstRequest, rss);
+  }
+
+  private static void awaitFirstResponse(HttpClient client, URI baseUri) throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/records?componentId=user&size=10"))
+        .timeout(Duration.ofSeconds(30)).GET().build();
+    long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+    while (true) {
+      try {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 200) {
+          return;
+        }
+        if (System.nanoTime() > deadline) {
+          throw new IllegalStateException("First request returned " + response.statusCode());
+        }
+      } catch (IOException e) {
+        if (System.nanoTime() > deadline) {
+          throw e;
+        }
+      }
+      Thread.sleep(1);
+    }
+  }
+
+  private static double millisSince(long nanos) {
+    return (System.nanoTime() - nanos) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private static double median(List<Double> values) {
+    List<Double> sorted = values.stream().sorted().toList();
+    int middle = sorted.size() / 2;
+    return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+  }
+
+  private static double max(List<Double> values) {
+    return values.stream().mapToDouble(Double::doubleValue).max().orElse(0);
+  }
+
+  @FunctionalInterface
+  private interface Launcher {
+    ApplicationProcess launch() throws IOException, InterruptedException;
+  }
+
+  record Summary(double listeningMillisP50, double firstRequestMillisP50, double firstRequestMillisMax,
+      double rssKilobytesP50, List<Double> firstRequestMillis, List<Double> rssKilobytes) {
+  }
+}
@@ -0,0 +1,120 @@
+package com.aurenworks.api;
+
+import java.util.Map;
+
+import com.aurenworks.service.AdmissionControl;
+import com.aurenworks.service.ComponentService;
+
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.net.SocketAddress;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Sheds load with {@code 429 Too Many Requests} before the resource method runs.
+ *
+ * <p>
+ * Every request is admitted before its body is read and without touching the record store, so a shed request costs
+ * no parsing, validation or disk read. The scope is the project: the {@code projectId} path parameter, or the project
+ * of the component named by the {@code componentId} query parameter, looked up in memory. A request that names no
+ * known component (a record addressed by id, a create or batch lookup, an unfiltered list, a made-up id) is scoped to
+ * the calling client instead, so it neither shares one bucket with every other tenant nor gets a fresh one per id.
+ *
+ * <p>
+ * GET requests with an id in the path are cheap reads, other GETs are list queries, and every other method is a
+ * write, unless the resource method says otherwise with {@link AdmittedAs}.
+ */
+@Provider
+@AdmissionControlled
+public class AdmissionFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  static final String PROJECT = "project:";
+  static final String CLIENT = "client:";
+  private static final String STARTED = AdmissionFilter.class.getName() + ".started";
+
+  @Inject
+  AdmissionControl admission;
+
+  @Inject
+  RequestId requestId;
+
+  @Inject
+  ComponentService componentService;
+
+  @Context
+  ResourceInfo resourceInfo;
+
+  @Context
+  HttpServerRequest httpRequest;
+
+  @Override
+  public void filter(ContainerRequestContext request) {
+    if (!admission.isEnabled()) {
+      return;
+    }
+    MultivaluedMap<String, String> pathParameters = request.getUriInfo().getPathParameters();
+    AdmittedAs admittedAs = resourceInfo.getResourceMethod().getAnnotation(AdmittedAs.class);
+    AdmissionControl.RouteClass routeClass = admittedAs != null ? admittedAs.value()
+        : routeClass(request.getMethod(), pathParameters);
+    AdmissionControl.Decision decision = admission.admit(scope(request, pathParameters), routeClass);
+    if (!decision.admitted()) {
+      String message = "RATE_LIMITED".equals(decision.code())
+          ? "Too many " + routeClass.tag() + " requests for this scope"
+          : "Server is at its concurrency limit";
+      request.abortWith(Response.status(Response.Status.TOO_MANY_REQUESTS)
+          .header(HttpHeaders.RETRY_AFTER, decision.retryAfterSeconds()).type(MediaType.APPLICATION_JSON_TYPE)
+          .entity(ErrorEnvelope.of(decision.code(), message,
+              Map.of("routeClass", routeClass.tag(), "retryAfterSeconds", decision.retryAfterSeconds()),
+              requestId.get()))
+          .build());
+      return;
+    }
+    request.setProperty(STARTED, System.nanoTime());
+  }
+
+  @Override
+  public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+    // Also called for requests aborted above, which never took a permit
+    if (request.getProperty(STARTED) instanceof Long started) {
+      request.removeProperty(STARTED);
+      admission.complete(System.nanoTime() - started);
+    }
+  }
+
+  static AdmissionControl.RouteClass routeClass(String method, MultivaluedMap<String, String> pathParameters) {
+    if (!HttpMethod.GET.equals(method)) {
+      return AdmissionControl.RouteClass.WRITE;
+    }
+    return pathParameters.containsKey("id") || pathParameters.containsKey("componentId")
+        ? AdmissionControl.RouteClass.READ
+        : AdmissionControl.RouteClass.LIST;
+  }
+
+  private String scope(ContainerRequestContext request, MultivaluedMap<String, String> pathParameters) {
+    String projectId = pathParameters.getFirst("projectId");
+    if (projectId != null) {
+      return PROJECT + projectId;
+    }
+    // An in-memory lookup; record ids are not resolved, since that could read a cold segment for a request about to
+    // be shed
+    String projectOfComponent = componentService.projectOf(
+        request.getUriInfo().getQueryParameters().getFirst("componentId"));
+    return projectOfComponent != null ? PROJECT + projectOfComponent : clientScope();
+  }
+
+  private String clientScope() {
+    SocketAddress address = httpRequest.remoteAddress();
+    return CLIENT + (address == null ? "unknown" : address.hostAddress());
+  }
+}
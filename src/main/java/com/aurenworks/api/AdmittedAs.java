@@ -0,0 +1,17 @@
+package com.aurenworks.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.aurenworks.service.AdmissionControl;
+
+/**
+ * Overrides the route class {@link AdmissionFilter} derives from the HTTP method, e.g. for a POST that only reads.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AdmittedAs {
+  AdmissionControl.RouteClass value();
+}
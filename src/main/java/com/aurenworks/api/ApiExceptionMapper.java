@@ -1,26 +1,45 @@
 package com.aurenworks.api;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
 import java.util.Map;
-import java.util.UUID;
+
+import com.aurenworks.service.DomainException;
 
 @Provider
 @ApplicationScoped
 public class ApiExceptionMapper implements ExceptionMapper<Throwable> {
 
+  @Inject
+  RequestId requestId;
+
   @Override
   public Response toResponse(Throwable ex) {
-    // simple requestId for now; later pull from MDC/context
-    String requestId = UUID.randomUUID().toString();
+    if (ex instanceof DomainException domain) {
+      return switch (domain) {
+        case DomainException.Validation validation -> error(400, "VALIDATION_ERROR", domain);
+        case DomainException.Forbidden forbidden -> error(403, "FORBIDDEN", domain);
+        case DomainException.NotFound notFound -> error(404, "NOT_FOUND", domain);
+        case DomainException.Conflict conflict -> error(409, "CONFLICT", domain);
+        case DomainException.Unprocessable unprocessable -> error(422, "UNPROCESSABLE", domain);
+      };
+    }
+
     int status = (ex instanceof UnsupportedOperationException) ? 501 : 500;
     String code = (status == 501) ? "NOT_IMPLEMENTED" : "INTERNAL";
     String message = (status == 501) ? "Not implemented" : "Internal server error";
 
-    ErrorEnvelope body = ErrorEnvelope.of(code, message, Map.of("exception", ex.getClass().getSimpleName()), requestId);
+    ErrorEnvelope body = ErrorEnvelope.of(code, message, Map.of("exception", ex.getClass().getSimpleName()),
+        requestId.get());
+    return Response.status(status).type(MediaType.APPLICATION_JSON_TYPE).entity(body).build();
+  }
+
+  private Response error(int status, String code, DomainException ex) {
+    ErrorEnvelope body = ErrorEnvelope.of(code, ex.getMessage(), ex.details(), requestId.get());
     return Response.status(status).type(MediaType.APPLICATION_JSON_TYPE).entity(body).build();
   }
 }
@@ -0,0 +1,95 @@
+package com.aurenworks.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Map;
+
+import com.aurenworks.service.DomainException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Reads and writes request and response bodies as CBOR or Smile.
+ *
+ * <p>
+ * Both mappers are copies of the application's JSON {@link ObjectMapper}, so the data model, modules and date handling
+ * are the same in every format; only the token encoding differs. Bodies are streamed through Jackson without an
+ * intermediate tree. Error responses stay {@code application/json}.
+ */
+@Provider
+@Consumes({BinaryMediaTypes.CBOR, BinaryMediaTypes.SMILE})
+@Produces({BinaryMediaTypes.CBOR, BinaryMediaTypes.SMILE})
+public class BinaryBodyProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+  private final ObjectMapper cbor;
+  private final ObjectMapper smile;
+
+  @Inject
+  public BinaryBodyProvider(ObjectMapper json) {
+    this.cbor = binaryMapper(json, new CBORFactory());
+    this.smile = binaryMapper(json, new SmileFactory());
+  }
+
+  static ObjectMapper binaryMapper(ObjectMapper json, JsonFactory factory) {
+    // The container owns the entity streams
+    factory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    factory.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    return json.copyWith(factory);
+  }
+
+  @Override
+  public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return mapperFor(mediaType) != null;
+  }
+
+  @Override
+  public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+      MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+    ObjectMapper mapper = mapperFor(mediaType);
+    try {
+      return mapper.readValue(entityStream, mapper.constructType(genericType == null ? type : genericType));
+    } catch (StreamReadException | DatabindException e) {
+      throw new DomainException.Validation("Malformed " + mediaType.getSubtype() + " body: " + e.getOriginalMessage(),
+          Map.of("contentType", mediaType.getType() + "/" + mediaType.getSubtype()));
+    }
+  }
+
+  @Override
+  public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return mapperFor(mediaType) != null;
+  }
+
+  @Override
+  public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+      MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+    mapperFor(mediaType).writeValue(entityStream, value);
+  }
+
+  private ObjectMapper mapperFor(MediaType mediaType) {
+    if (mediaType == null) {
+      return null;
+    }
+    if (mediaType.isCompatible(BinaryMediaTypes.CBOR_TYPE)) {
+      return cbor;
+    }
+    return mediaType.isCompatible(BinaryMediaTypes.SMILE_TYPE) ? smile : null;
+  }
+}
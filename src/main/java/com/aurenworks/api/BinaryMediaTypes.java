@@ -0,0 +1,20 @@
+package com.aurenworks.api;
+
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Binary encodings of the JSON data model accepted and produced next to {@code application/json}.
+ */
+public final class BinaryMediaTypes {
+
+  /** RFC 8949 Concise Binary Object Representation. */
+  public static final String CBOR = "application/cbor";
+  public static final MediaType CBOR_TYPE = MediaType.valueOf(CBOR);
+
+  /** Jackson's binary JSON; usually the fastest to encode and decode between JVM services. */
+  public static final String SMILE = "application/x-jackson-smile";
+  public static final MediaType SMILE_TYPE = MediaType.valueOf(SMILE);
+
+  private BinaryMediaTypes() {
+  }
+}
@@ -0,0 +1,97 @@
+package com.aurenworks.api;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import com.aurenworks.model.ChangeEvent;
+import com.aurenworks.service.ChangeFeedService;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+@Path("/changes")
+@Tag(name = "Changes", description = "Live change feed for records and components")
+public class ChangeFeedResource {
+
+  @Inject
+  ChangeFeedService changeFeedService;
+
+  @GET
+  @Produces(MediaType.SERVER_SENT_EVENTS)
+  @Operation(summary = "Stream changes", description = "Streams create, update and delete events as Server-Sent Events. Every event id is a monotonically increasing offset; reconnect with Last-Event-ID to resume. A 'reset' event means events were lost and the client has to resync.")
+  @APIResponses({@APIResponse(responseCode = "200", description = "Event stream opened")})
+  public void streamChanges(@Parameter(description = "Filter by project ID") @QueryParam("projectId") String projectId,
+      @Parameter(description = "Filter by component ID") @QueryParam("componentId") String componentId,
+      @Parameter(description = "Offset of the last event received", in = ParameterIn.HEADER) @HeaderParam("Last-Event-ID") String lastEventId,
+      @Context SseEventSink sink, @Context Sse sse) {
+    changeFeedService.subscribe(projectId, componentId, parseOffset(lastEventId), new SseSubscriber(sink, sse));
+  }
+
+  private static Long parseOffset(String lastEventId) {
+    if (lastEventId == null || lastEventId.isBlank()) {
+      return null;
+    }
+    try {
+      return Long.parseLong(lastEventId.trim());
+    } catch (NumberFormatException e) {
+      // Unknown offsets resume from the oldest retained event with a reset
+      return -1L;
+    }
+  }
+
+  private static final class SseSubscriber implements ChangeFeedService.Subscriber {
+    private final SseEventSink sink;
+    private final Sse sse;
+
+    private SseSubscriber(SseEventSink sink, Sse sse) {
+      this.sink = sink;
+      this.sse = sse;
+    }
+
+    @Override
+    public CompletionStage<?> send(ChangeEvent event) {
+      try {
+        return sink.send(sse.newEventBuilder().id(Long.toString(event.offset())).name(eventName(event))
+            .mediaType(MediaType.APPLICATION_JSON_TYPE).data(ChangeEvent.class, event).build());
+      } catch (IllegalStateException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+
+    @Override
+    public void reset(long oldestOffset) {
+      sink.send(sse.newEventBuilder().name("reset").mediaType(MediaType.APPLICATION_JSON_TYPE)
+          .data(Map.class, Map.of("oldestOffset", oldestOffset)).build());
+    }
+
+    @Override
+    public boolean isClosed() {
+      return sink.isClosed();
+    }
+
+    @Override
+    public void close() {
+      sink.close();
+    }
+
+    private static String eventName(ChangeEvent event) {
+      return event.entityType().name().toLowerCase() + "." + event.operation().name().toLowerCase();
+    }
+  }
+}
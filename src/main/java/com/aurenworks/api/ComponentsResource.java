@@ -1,14 +1,15 @@
 package com.aurenworks.api;
 
-import java.util.UUID;
-
 import com.aurenworks.api.dto.ComponentResponse;
 import com.aurenworks.api.dto.ComponentsListResponse;
 import com.aurenworks.api.dto.CreateComponentRequest;
 import com.aurenworks.api.dto.UpdateComponentRequest;
 import com.aurenworks.model.Role;
 import com.aurenworks.service.ComponentService;
+import com.aurenworks.service.DomainException;
+import com.aurenworks.service.IdempotencyKeys;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
@@ -34,14 +35,20 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
 @Path("/projects/{projectId}/components")
-@Consumes(MediaType.APPLICATION_JSON)
-@Produces(MediaType.APPLICATION_JSON)
+@Consumes({MediaType.APPLICATION_JSON, BinaryMediaTypes.CBOR, BinaryMediaTypes.SMILE})
+@Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.CBOR, BinaryMediaTypes.SMILE})
 @Tag(name = "Components", description = "Operations for managing components")
+@RunOnVirtualThread
+@AdmissionControlled
+@APIResponse(responseCode = "429", description = "Rate or concurrency limit reached; retry after the Retry-After header", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))
 public class ComponentsResource {
 
   @Inject
   ComponentService componentService;
 
+  @Inject
+  IdempotencyKeys idempotencyKeys;
+
   @GET
   @Operation(summary = "List components", description = "Retrieves a paginated list of components for a project")
   @APIResponses({
@@ -55,60 +62,41 @@ public class ComponentsResource {
       @Parameter(description = "Sort order (asc/desc)") @QueryParam("sortOrder") @jakarta.ws.rs.DefaultValue("asc") String sortOrder) {
     // Validate pagination parameters
     if (page < 0) {
-      return Response.status(400).entity(ErrorEnvelope.of("VALIDATION_ERROR", "Page must be non-negative",
-          java.util.Map.of("field", "page"), UUID.randomUUID().toString())).build();
+      throw DomainException.Validation.field("page", "Page must be non-negative");
     }
 
     if (size < 1 || size > 100) {
-      return Response.status(400).entity(ErrorEnvelope.of("VALIDATION_ERROR", "Size must be between 1 and 100",
-          java.util.Map.of("field", "size"), UUID.randomUUID().toString())).build();
+      throw DomainException.Validation.field("size", "Size must be between 1 and 100");
     }
 
-    try {
-      // TODO: Get user role from security context
-      Role userRole = Role.VIEWER; // Placeholder - should come from security context
+    // TODO: Get user role from security context
+    Role userRole = Role.VIEWER; // Placeholder - should come from security context
 
-      ComponentsListResponse response = componentService.listComponents(projectId, page, size, sortBy, sortOrder,
-          userRole);
-      return Response.ok(response).build();
-    } catch (IllegalArgumentException e) {
-      return Response.status(400).entity(ErrorEnvelope.of("VALIDATION_ERROR", e.getMessage(),
-          java.util.Map.of("projectId", projectId), UUID.randomUUID().toString())).build();
-    }
+    ComponentsListResponse response = componentService.listComponents(projectId, page, size, sortBy, sortOrder,
+        userRole);
+    return Response.ok(response).build();
   }
 
   @POST
-  @Operation(summary = "Create component", description = "Creates a new component in a project")
+  @Operation(summary = "Create component", description = "Creates a new component in a project. Retries sent with the same Idempotency-Key return the first response, with Idempotent-Replayed: true.")
   @RequestBody(description = "Component creation request", required = true, content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreateComponentRequest.class)))
   @APIResponses({
       @APIResponse(responseCode = "201", description = "Component created successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ComponentResponse.class)), headers = @org.eclipse.microprofile.openapi.annotations.headers.Header(name = "ETag", description = "Component version for optimistic concurrency")),
       @APIResponse(responseCode = "400", description = "Validation error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class))),
-      @APIResponse(responseCode = "403", description = "Insufficient permissions", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))})
+      @APIResponse(responseCode = "403", description = "Insufficient permissions", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class))),
+      @APIResponse(responseCode = "409", description = "A request with this Idempotency-Key is still in progress", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class))),
+      @APIResponse(responseCode = "422", description = "Idempotency-Key was already used for a different request", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))})
   public Response createComponent(
       @Parameter(description = "Project ID", in = ParameterIn.PATH) @PathParam("projectId") String projectId,
-      @RequestBody CreateComponentRequest request) {
-    try {
-      // TODO: Get user role from security context
-      Role userRole = Role.BUILDER; // Placeholder - should come from security context
-
-      ComponentResponse component = componentService.createComponent(projectId, request, userRole);
-      return Response.status(201).entity(component).header("ETag", component.etag()).build();
-    } catch (IllegalArgumentException e) {
-      String errorCode = "VALIDATION_ERROR";
-      int statusCode = 400;
-
-      if (e.getMessage().contains("Insufficient permissions")) {
-        errorCode = "FORBIDDEN";
-        statusCode = 403;
-      } else if (e.getMessage().contains("Component must have") || e.getMessage().contains("Field name cannot be")
-          || e.getMessage().contains("Field type cannot be")) {
-        errorCode = "VALIDATION_ERROR";
-        statusCode = 400;
-      }
-
-      return Response.status(statusCode).entity(ErrorEnvelope.of(errorCode, e.getMessage(),
-          java.util.Map.of("projectId", projectId), UUID.randomUUID().toString())).build();
-    }
+      @RequestBody CreateComponentRequest request,
+      @Parameter(description = Idempotency.KEY_DESCRIPTION, in = ParameterIn.HEADER) @HeaderParam(Idempotency.KEY_HEADER) String idempotencyKey) {
+    // TODO: Get user role from security context
+    Role userRole = Role.BUILDER; // Placeholder - should come from security context
+
+    String scope = "projects/" + projectId + "/components";
+    IdempotencyKeys.Outcome<ComponentResponse> outcome = idempotencyKeys.execute(scope, idempotencyKey, request,
+        () -> componentService.createComponent(projectId, request, userRole));
+    return Idempotency.created(outcome).header("ETag", outcome.value().etag()).build();
   }
 
   @GET
@@ -120,18 +108,11 @@ public class ComponentsResource {
   public Response getComponent(
       @Parameter(description = "Project ID", in = ParameterIn.PATH) @PathParam("projectId") String projectId,
       @Parameter(description = "Component ID", in = ParameterIn.PATH) @PathParam("componentId") String componentId) {
-    try {
-      // TODO: Get user role from security context
-      Role userRole = Role.VIEWER; // Placeholder - should come from security context
-
-      ComponentResponse component = componentService.getComponent(projectId, componentId, userRole);
-      return Response.ok(component).header("ETag", component.etag()).build();
-    } catch (IllegalArgumentException e) {
-      return Response.status(404)
-          .entity(ErrorEnvelope.of("NOT_FOUND", e.getMessage(),
-              java.util.Map.of("projectId", projectId, "componentId", componentId), UUID.randomUUID().toString()))
-          .build();
-    }
+    // TODO: Get user role from security context
+    Role userRole = Role.VIEWER; // Placeholder - should come from security context
+
+    ComponentResponse component = componentService.getComponent(projectId, componentId, userRole);
+    return Response.ok(component).header("ETag", component.etag()).build();
   }
 
   @PUT
@@ -149,34 +130,12 @@ public class ComponentsResource {
       @Parameter(description = "Component ID", in = ParameterIn.PATH) @PathParam("componentId") String componentId,
       @RequestBody UpdateComponentRequest request,
       @Parameter(description = "ETag for optimistic concurrency", in = ParameterIn.HEADER) @HeaderParam("If-Match") String ifMatch) {
-    try {
-      // TODO: Get user role from security context
-      Role userRole = Role.BUILDER; // Placeholder - should come from security context
-
-      ComponentResponse component = componentService.updateComponent(projectId, componentId, request, ifMatch,
-          userRole);
-      return Response.ok(component).header("ETag", component.etag()).build();
-    } catch (IllegalArgumentException e) {
-      String errorCode = "NOT_FOUND";
-      int statusCode = 404;
-
-      if (e.getMessage().contains("ETag mismatch")) {
-        errorCode = "CONFLICT";
-        statusCode = 409;
-      } else if (e.getMessage().contains("Insufficient permissions")) {
-        errorCode = "FORBIDDEN";
-        statusCode = 403;
-      } else if (e.getMessage().contains("Component must have") || e.getMessage().contains("Field name cannot be")
-          || e.getMessage().contains("Field type cannot be")) {
-        errorCode = "VALIDATION_ERROR";
-        statusCode = 400;
-      }
-
-      return Response.status(statusCode)
-          .entity(ErrorEnvelope.of(errorCode, e.getMessage(),
-              java.util.Map.of("projectId", projectId, "componentId", componentId), UUID.randomUUID().toString()))
-          .build();
-    }
+    // TODO: Get user role from security context
+    Role userRole = Role.BUILDER; // Placeholder - should come from security context
+
+    ComponentResponse component = componentService.updateComponent(projectId, componentId, request, ifMatch,
+        userRole);
+    return Response.ok(component).header("ETag", component.etag()).build();
   }
 
   @DELETE
@@ -188,25 +147,10 @@ public class ComponentsResource {
   public Response deleteComponent(
       @Parameter(description = "Project ID", in = ParameterIn.PATH) @PathParam("projectId") String projectId,
       @Parameter(description = "Component ID", in = ParameterIn.PATH) @PathParam("componentId") String componentId) {
-    try {
-      // TODO: Get user role from security context
-      Role userRole = Role.BUILDER; // Placeholder - should come from security context
-
-      componentService.deleteComponent(projectId, componentId, userRole);
-      return Response.noContent().build();
-    } catch (IllegalArgumentException e) {
-      String errorCode = "NOT_FOUND";
-      int statusCode = 404;
-
-      if (e.getMessage().contains("Insufficient permissions")) {
-        errorCode = "FORBIDDEN";
-        statusCode = 403;
-      }
-
-      return Response.status(statusCode)
-          .entity(ErrorEnvelope.of(errorCode, e.getMessage(),
-              java.util.Map.of("projectId", projectId, "componentId", componentId), UUID.randomUUID().toString()))
-          .build();
-    }
+    // TODO: Get user role from security context
+    Role userRole = Role.BUILDER; // Placeholder - should come from security context
+
+    componentService.deleteComponent(projectId, componentId, userRole);
+    return Response.noContent().build();
   }
 }
@@ -0,0 +1,168 @@
+package com.aurenworks.api;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.model.RecordRow;
+import com.aurenworks.service.DomainException;
+import com.aurenworks.service.RecordSchema;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Reads a {@code POST /records} body in one pass, validating {@code values} against the component's compiled schema
+ * as the tokens arrive and writing each value straight into the record's {@link RecordRow}. No intermediate map is
+ * built, and the first wrong-typed value ends the read, so the rest of a bad body is never parsed.
+ *
+ * <p>
+ * That needs {@code componentId} before {@code values}. A body that sends them the other way round has its values
+ * buffered as tokens until the component is known, which costs a copy but no map. Keys the schema does not declare are
+ * kept as Jackson would read them into a map. The same deserializer serves JSON, CBOR and Smile bodies.
+ */
+final class CreateRecordRequestDeserializer extends StdDeserializer<CreateRecordRequest> {
+
+  private final Function<String, RecordSchema> schemas;
+
+  CreateRecordRequestDeserializer(Function<String, RecordSchema> schemas) {
+    super(CreateRecordRequest.class);
+    this.schemas = schemas;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public CreateRecordRequest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+    if (!p.isExpectedStartObjectToken()) {
+      return (CreateRecordRequest) ctxt.handleUnexpectedToken(CreateRecordRequest.class, p);
+    }
+    String componentId = null;
+    RecordSchema schema = null;
+    Map<String, Object> values = null;
+    TokenBuffer pendingValues = null;
+    Map<String, Object> metadata = null;
+    String ttl = null;
+    for (String name = p.nextFieldName(); name != null; name = p.nextFieldName()) {
+      JsonToken token = p.nextToken();
+      switch (name) {
+        case "componentId" -> {
+          componentId = token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, String.class);
+          schema = resolve(componentId);
+          if (pendingValues != null) {
+            try (JsonParser buffered = pendingValues.asParser(p.getCodec())) {
+              buffered.nextToken();
+              values = readValues(buffered, ctxt, schema);
+            }
+            pendingValues = null;
+          }
+        }
+        case "values" -> {
+          if (schema != null) {
+            values = readValues(p, ctxt, schema);
+          } else {
+            pendingValues = ctxt.bufferAsCopyOfValue(p);
+          }
+        }
+        case "metadata" -> metadata = token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, Map.class);
+        case "ttl" -> ttl = token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, String.class);
+        default -> ctxt.handleUnknownProperty(p, this, CreateRecordRequest.class, name);
+      }
+    }
+    if (schema == null) {
+      throw notFound(componentId);
+    }
+    return new CreateRecordRequest(componentId, values, metadata, ttl);
+  }
+
+  private RecordSchema resolve(String componentId) {
+    RecordSchema schema = schemas.apply(componentId);
+    if (schema == null) {
+      throw notFound(componentId);
+    }
+    return schema;
+  }
+
+  private static DomainException notFound(String componentId) {
+    return DomainException.Validation.field("componentId", "Component not found: " + componentId);
+  }
+
+  private RecordRow readValues(JsonParser p, DeserializationContext ctxt, RecordSchema schema) throws IOException {
+    JsonToken token = p.currentToken();
+    if (token == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    if (token != JsonToken.START_OBJECT) {
+      throw DomainException.Validation.field("values", "values must be an object");
+    }
+    RecordRow.Builder row = schema.newRow();
+    for (String key = p.nextFieldName(); key != null; key = p.nextFieldName()) {
+      JsonToken value = p.nextToken();
+      int field = schema.ordinal(key);
+      if (field < 0 || value == JsonToken.VALUE_NULL) {
+        row.put(key, ctxt.readValue(p, Object.class));
+        continue;
+      }
+      switch (schema.type(field)) {
+        case STRING -> {
+          if (value != JsonToken.VALUE_STRING) {
+            throw schema.mismatch(field);
+          }
+          row.reference(field, p.getText());
+        }
+        case NUMBER -> readNumber(p, ctxt, schema, field, key, row);
+        case BOOLEAN -> {
+          if (value != JsonToken.VALUE_TRUE && value != JsonToken.VALUE_FALSE) {
+            throw schema.mismatch(field);
+          }
+          row.bool(field, value == JsonToken.VALUE_TRUE);
+        }
+        case ARRAY -> {
+          if (value != JsonToken.START_ARRAY) {
+            throw schema.mismatch(field);
+          }
+          row.reference(field, ctxt.readValue(p, Object.class));
+        }
+        case OBJECT -> {
+          if (value != JsonToken.START_OBJECT) {
+            throw schema.mismatch(field);
+          }
+          row.reference(field, ctxt.readValue(p, Object.class));
+        }
+        case ANY -> row.put(key, ctxt.readValue(p, Object.class));
+      }
+    }
+    return schema.finish(row);
+  }
+
+  // Numbers land in the same types Jackson's map reading would give them; only int, long and double fit a slot
+  private void readNumber(JsonParser p, DeserializationContext ctxt, RecordSchema schema, int field, String key,
+      RecordRow.Builder row) throws IOException {
+    switch (p.currentToken()) {
+      case VALUE_NUMBER_INT -> {
+        if (ctxt.hasSomeOfFeatures(F_MASK_INT_COERCIONS)) {
+          row.put(key, _coerceIntegral(p, ctxt));
+        } else if (p.getNumberType() == JsonParser.NumberType.INT) {
+          row.intValue(field, p.getIntValue());
+        } else if (p.getNumberType() == JsonParser.NumberType.LONG) {
+          row.longValue(field, p.getLongValue());
+        } else {
+          row.put(key, p.getNumberValue());
+        }
+      }
+      case VALUE_NUMBER_FLOAT -> {
+        if (ctxt.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)) {
+          row.put(key, p.getDecimalValue());
+        } else if (p.getNumberType() == JsonParser.NumberType.DOUBLE) {
+          row.doubleValue(field, p.getDoubleValue());
+        } else {
+          row.put(key, p.getNumberValue());
+        }
+      }
+      default -> throw schema.mismatch(field);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.aurenworks.api;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+import com.aurenworks.service.DomainException;
+import com.aurenworks.service.FlightRecordingService;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+@jakarta.ws.rs.Path("/admin/jfr")
+@Tag(name = "Diagnostics", description = "Operational diagnostics")
+public class DiagnosticsResource {
+
+  @Inject
+  FlightRecordingService flightRecording;
+
+  @ConfigProperty(name = "aurenworks.jfr.dump-endpoint.enabled", defaultValue = "false")
+  boolean dumpEndpointEnabled;
+
+  @POST
+  @jakarta.ws.rs.Path("/dump")
+  @Produces({"application/octet-stream", MediaType.APPLICATION_JSON})
+  @Operation(summary = "Dump flight recording", description = "Returns the retained window of the continuous JFR recording as a .jfr file")
+  @APIResponses({@APIResponse(responseCode = "200", description = "Recording dumped", content = @Content(mediaType = "application/octet-stream")),
+      @APIResponse(responseCode = "404", description = "Dump endpoint disabled", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class))),
+      @APIResponse(responseCode = "409", description = "No continuous recording is running", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))})
+  public Response dump() throws IOException {
+    if (!dumpEndpointEnabled) {
+      throw new DomainException.NotFound("JFR dump endpoint is disabled", Map.of());
+    }
+    if (!flightRecording.isRecording()) {
+      throw new DomainException.Conflict("No continuous recording is running (set aurenworks.jfr.enabled=true)",
+          Map.of());
+    }
+
+    Path file = flightRecording.dump();
+    StreamingOutput body = output -> {
+      try {
+        Files.copy(file, output);
+      } finally {
+        Files.deleteIfExists(file);
+      }
+    };
+    return Response.ok(body, "application/octet-stream")
+        .header("Content-Disposition",
+            "attachment; filename=\"aurenworks-" + Instant.now().getEpochSecond() + ".jfr\"")
+        .build();
+  }
+}
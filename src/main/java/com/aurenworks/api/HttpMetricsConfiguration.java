@@ -0,0 +1,39 @@
+package com.aurenworks.api;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+/**
+ * Publishes latency histograms for the records and components routes.
+ *
+ * <p>
+ * Quarkus already times every request as {@code http_server_requests_seconds}, tagged with the templated route
+ * ({@code /records/{id}}, not the raw path), method and status, so status counts come from the same series.
+ * Histogram buckets are only enabled for the API routes to keep the scrape small.
+ */
+@Singleton
+public class HttpMetricsConfiguration {
+
+  @Produces
+  @Singleton
+  public MeterFilter apiRouteHistograms() {
+    return new MeterFilter() {
+      @Override
+      public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        String uri = id.getTag("uri");
+        if (!"http.server.requests".equals(id.getName()) || uri == null
+            || !(uri.startsWith("/records") || uri.startsWith("/projects/"))) {
+          return config;
+        }
+        return DistributionStatisticConfig.builder().percentilesHistogram(true)
+            .minimumExpectedValue((double) TimeUnit.MICROSECONDS.toNanos(100))
+            .maximumExpectedValue((double) TimeUnit.SECONDS.toNanos(10)).build().merge(config);
+      }
+    };
+  }
+}
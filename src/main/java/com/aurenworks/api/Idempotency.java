@@ -0,0 +1,23 @@
+package com.aurenworks.api;
+
+import com.aurenworks.service.IdempotencyKeys;
+
+import jakarta.ws.rs.core.Response;
+
+/** Headers of idempotent writes, served by {@link IdempotencyKeys}. */
+final class Idempotency {
+
+  static final String KEY_HEADER = "Idempotency-Key";
+  static final String REPLAYED_HEADER = "Idempotent-Replayed";
+  static final String KEY_DESCRIPTION = "Client-chosen key (at most " + IdempotencyKeys.MAX_KEY_LENGTH
+      + " characters) that makes retries of this request return its first response instead of writing again";
+
+  private Idempotency() {
+  }
+
+  /** A 201 with the write's result, marked with {@code Idempotent-Replayed} when it answered an earlier request. */
+  static Response.ResponseBuilder created(IdempotencyKeys.Outcome<?> outcome) {
+    Response.ResponseBuilder response = Response.status(201).entity(outcome.value());
+    return outcome.replayed() ? response.header(REPLAYED_HEADER, "true") : response;
+  }
+}
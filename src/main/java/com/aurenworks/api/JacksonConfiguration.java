@@ -0,0 +1,36 @@
+package com.aurenworks.api;
+
+import java.util.function.Function;
+
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.service.RecordSchema;
+import com.aurenworks.service.RecordService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import io.quarkus.jackson.ObjectMapperCustomizer;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Registers the schema-aware reader for record creation bodies on the application's {@link ObjectMapper}, which the
+ * CBOR and Smile mappers are copied from.
+ */
+@Singleton
+public class JacksonConfiguration implements ObjectMapperCustomizer {
+
+  @Inject
+  RecordService recordService;
+
+  @Override
+  public void customize(ObjectMapper mapper) {
+    mapper.registerModule(recordsModule(recordService::schema));
+  }
+
+  /** The record body readers, resolving component ids to compiled schemas with {@code schemas}. */
+  public static SimpleModule recordsModule(Function<String, RecordSchema> schemas) {
+    SimpleModule records = new SimpleModule("aurenworks-records");
+    records.addDeserializer(CreateRecordRequest.class, new CreateRecordRequestDeserializer(schemas));
+    return records;
+  }
+}
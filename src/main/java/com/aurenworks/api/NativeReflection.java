@@ -0,0 +1,43 @@
+package com.aurenworks.api;
+
+import com.aurenworks.api.dto.BatchGetRecordsRequest;
+import com.aurenworks.api.dto.ComponentResponse;
+import com.aurenworks.api.dto.ComponentsListResponse;
+import com.aurenworks.api.dto.CreateComponentRequest;
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.api.dto.LoginRequest;
+import com.aurenworks.api.dto.RecordAggregateResponse;
+import com.aurenworks.api.dto.RecordBatchResponse;
+import com.aurenworks.api.dto.RecordQueryPlan;
+import com.aurenworks.api.dto.RecordResponse;
+import com.aurenworks.api.dto.RecordSearchResponse;
+import com.aurenworks.api.dto.RecordsListResponse;
+import com.aurenworks.api.dto.SnapshotResponse;
+import com.aurenworks.api.dto.UpdateComponentRequest;
+import com.aurenworks.model.ChangeEvent;
+import com.aurenworks.model.Component;
+import com.aurenworks.model.TotalMode;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Types Jackson (de)serializes that a native image cannot discover from the resource signatures.
+ *
+ * <p>
+ * Most endpoints return {@code Response} and the change feed sends {@link ChangeEvent} through {@code Sse}, so Quarkus
+ * only sees {@code Object} and would strip the record accessors from the image. Nested records (e.g.
+ * {@code RecordsListResponse.PaginationInfo}) are registered with their enclosing type. Custom serializers are
+ * instantiated reflectively from their {@code @JsonSerialize} annotation. {@code NativeReflectionTest} fails when a DTO
+ * is added without being listed here.
+ */
+@RegisterForReflection(targets = { BatchGetRecordsRequest.class, RecordBatchResponse.class, ComponentResponse.class,
+    ComponentsListResponse.class, CreateComponentRequest.class, CreateRecordRequest.class, LoginRequest.class,
+    RecordAggregateResponse.class, RecordQueryPlan.class, RecordResponse.class, RecordSearchResponse.class,
+    RecordsListResponse.class, SnapshotResponse.class, UpdateComponentRequest.class, ErrorEnvelope.class,
+    ChangeEvent.class, Component.class, TotalMode.class, RecordProjection.ProjectedSerializer.class,
+    RecordProjection.ProjectedPageSerializer.class })
+final class NativeReflection {
+
+  private NativeReflection() {
+  }
+}
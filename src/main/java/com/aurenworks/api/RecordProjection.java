@@ -0,0 +1,195 @@
+package com.aurenworks.api;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.aurenworks.api.dto.RecordResponse;
+import com.aurenworks.api.dto.RecordsListResponse;
+import com.aurenworks.service.DomainException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * The {@code fields=} selection of a record read.
+ *
+ * <p>
+ * Each comma-separated name is either a top-level property of {@link RecordResponse} or a key of its {@code values};
+ * {@code values.<key>} selects a value key whose name clashes with a property, and {@code values} selects all of them.
+ * {@code id} is always returned. Selected records are written by wrapping the response and serializing only the chosen
+ * entries straight from the stored maps, so nothing is copied and unselected values are never encoded.
+ */
+public final class RecordProjection {
+
+  static final int MAX_FIELDS = 100;
+
+  private static final String VALUES_PREFIX = "values.";
+
+  enum Property {
+    ID("id"), COMPONENT_ID("componentId"), VALUES("values"), CREATED_AT("createdAt"), UPDATED_AT("updatedAt"),
+    CREATED_BY("createdBy"), METADATA("metadata"), EXPIRES_AT("expiresAt");
+
+    final String jsonName;
+
+    Property(String jsonName) {
+      this.jsonName = jsonName;
+    }
+
+    static Property named(String name) {
+      for (Property property : values()) {
+        if (property.jsonName.equals(name)) {
+          return property;
+        }
+      }
+      return null;
+    }
+  }
+
+  private final Set<Property> properties;
+  // null when every value is selected
+  private final List<String> valueKeys;
+
+  private RecordProjection(Set<Property> properties, List<String> valueKeys) {
+    this.properties = properties;
+    this.valueKeys = valueKeys;
+  }
+
+  /**
+   * Parses a {@code fields} parameter; {@code null} or empty means no projection and returns {@code null}.
+   */
+  public static RecordProjection parse(String fields) {
+    if (fields == null || fields.isEmpty()) {
+      return null;
+    }
+    String[] names = fields.split(",", -1);
+    if (names.length > MAX_FIELDS) {
+      throw DomainException.Validation.field("fields", "At most " + MAX_FIELDS + " fields can be selected");
+    }
+    Set<Property> properties = EnumSet.of(Property.ID);
+    Set<String> valueKeys = new LinkedHashSet<>();
+    boolean allValues = false;
+    for (String raw : names) {
+      String name = raw.strip();
+      if (name.isEmpty()) {
+        throw DomainException.Validation.field("fields", "fields must be a comma-separated list of names");
+      }
+      Property property = Property.named(name);
+      if (property == Property.VALUES) {
+        allValues = true;
+      } else if (property != null) {
+        properties.add(property);
+      } else {
+        String key = name.startsWith(VALUES_PREFIX) ? name.substring(VALUES_PREFIX.length()) : name;
+        if (key.isEmpty()) {
+          throw DomainException.Validation.field("fields", "fields must be a comma-separated list of names");
+        }
+        valueKeys.add(key);
+      }
+    }
+    if (allValues || !valueKeys.isEmpty()) {
+      properties.add(Property.VALUES);
+    }
+    return new RecordProjection(Collections.unmodifiableSet(properties),
+        allValues ? null : List.copyOf(valueKeys));
+  }
+
+  public Projected apply(RecordResponse record) {
+    return new Projected(record, this);
+  }
+
+  public ProjectedPage apply(RecordsListResponse page) {
+    return new ProjectedPage(page, this);
+  }
+
+  void write(RecordResponse record, JsonGenerator gen, SerializerProvider provider) throws IOException {
+    gen.writeStartObject();
+    gen.writeStringField(Property.ID.jsonName, record.id());
+    if (properties.contains(Property.COMPONENT_ID)) {
+      gen.writeStringField(Property.COMPONENT_ID.jsonName, record.componentId());
+    }
+    if (properties.contains(Property.VALUES)) {
+      writeValues(record.values(), gen, provider);
+    }
+    if (properties.contains(Property.CREATED_AT)) {
+      provider.defaultSerializeField(Property.CREATED_AT.jsonName, record.createdAt(), gen);
+    }
+    if (properties.contains(Property.UPDATED_AT)) {
+      provider.defaultSerializeField(Property.UPDATED_AT.jsonName, record.updatedAt(), gen);
+    }
+    if (properties.contains(Property.CREATED_BY)) {
+      gen.writeStringField(Property.CREATED_BY.jsonName, record.createdBy());
+    }
+    if (properties.contains(Property.METADATA)) {
+      provider.defaultSerializeField(Property.METADATA.jsonName, record.metadata(), gen);
+    }
+    // Omitted for records without a TTL, as in the full response
+    if (properties.contains(Property.EXPIRES_AT) && record.expiresAt() != null) {
+      provider.defaultSerializeField(Property.EXPIRES_AT.jsonName, record.expiresAt(), gen);
+    }
+    gen.writeEndObject();
+  }
+
+  private void writeValues(Map<String, Object> values, JsonGenerator gen, SerializerProvider provider)
+      throws IOException {
+    if (valueKeys == null || values == null) {
+      provider.defaultSerializeField(Property.VALUES.jsonName, values, gen);
+      return;
+    }
+    gen.writeObjectFieldStart(Property.VALUES.jsonName);
+    for (String key : valueKeys) {
+      Object value = values.get(key);
+      // Keys the record does not have are left out, as in the full response
+      if (value != null || values.containsKey(key)) {
+        provider.defaultSerializeField(key, value, gen);
+      }
+    }
+    gen.writeEndObject();
+  }
+
+  /** A record serialized with only the selected properties and value keys. */
+  @JsonSerialize(using = ProjectedSerializer.class)
+  public record Projected(RecordResponse record, RecordProjection projection) {
+  }
+
+  /** A page whose records are projected; pagination is written unchanged. */
+  @JsonSerialize(using = ProjectedPageSerializer.class)
+  public record ProjectedPage(RecordsListResponse page, RecordProjection projection) {
+  }
+
+  static final class ProjectedSerializer extends StdSerializer<Projected> {
+
+    public ProjectedSerializer() {
+      super(Projected.class);
+    }
+
+    @Override
+    public void serialize(Projected value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      value.projection().write(value.record(), gen, provider);
+    }
+  }
+
+  static final class ProjectedPageSerializer extends StdSerializer<ProjectedPage> {
+
+    public ProjectedPageSerializer() {
+      super(ProjectedPage.class);
+    }
+
+    @Override
+    public void serialize(ProjectedPage value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      gen.writeStartObject();
+      gen.writeArrayFieldStart("records");
+      for (RecordResponse record : value.page().records()) {
+        value.projection().write(record, gen, provider);
+      }
+      gen.writeEndArray();
+      provider.defaultSerializeField("pagination", value.page().pagination(), gen);
+      gen.writeEndObject();
+    }
+  }
+}
@@ -1,15 +1,29 @@
 package com.aurenworks.api;
 
-import java.util.UUID;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 
+import com.aurenworks.api.dto.BatchGetRecordsRequest;
 import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.api.dto.RecordAggregateResponse;
+import com.aurenworks.api.dto.RecordBatchResponse;
+import com.aurenworks.api.dto.RecordQueryPlan;
 import com.aurenworks.api.dto.RecordResponse;
+import com.aurenworks.api.dto.RecordSearchResponse;
 import com.aurenworks.api.dto.RecordsListResponse;
+import com.aurenworks.model.CreatedRange;
+import com.aurenworks.model.TotalMode;
+import com.aurenworks.service.AdmissionControl;
+import com.aurenworks.service.DomainException;
+import com.aurenworks.service.IdempotencyKeys;
 import com.aurenworks.service.RecordService;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
@@ -19,6 +33,7 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
 import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
@@ -28,54 +43,160 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
 @Path("/records")
-@Consumes(MediaType.APPLICATION_JSON)
-@Produces(MediaType.APPLICATION_JSON)
+@Consumes({MediaType.APPLICATION_JSON, BinaryMediaTypes.CBOR, BinaryMediaTypes.SMILE})
+@Produces({MediaType.APPLICATION_JSON, BinaryMediaTypes.CBOR, BinaryMediaTypes.SMILE})
 @Tag(name = "Records", description = "Operations for managing records")
+@RunOnVirtualThread
+@AdmissionControlled
+@APIResponse(responseCode = "429", description = "Rate or concurrency limit reached; retry after the Retry-After header", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))
 public class RecordsResource {
 
+  static final int MAX_BATCH_IDS = 500;
+  // Deepest record a page may reach; every record before it is scanned or held in the sort heap
+  static final int MAX_RESULT_WINDOW = 10_000;
+
+  private static final String FIELDS_DESCRIPTION = "Comma-separated properties and value keys to return, e.g. "
+      + "name,age,createdAt (values.<key> for a key named like a property); id is always included";
+
   @Inject
   RecordService recordService;
 
+  @Inject
+  IdempotencyKeys idempotencyKeys;
+
   @POST
-  @Operation(summary = "Create a new record", description = "Creates a new record with the specified component schema and values")
+  @Operation(summary = "Create a new record", description = "Creates a new record with the specified component schema and values. Retries sent with the same Idempotency-Key return the first response, with Idempotent-Replayed: true.")
   @RequestBody(description = "Record creation request", required = true, content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreateRecordRequest.class)))
   @APIResponses({
       @APIResponse(responseCode = "201", description = "Record created successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RecordResponse.class))),
-      @APIResponse(responseCode = "400", description = "Validation error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))})
-  public Response createRecord(CreateRecordRequest request) {
-    try {
-      RecordResponse record = recordService.createRecord(request);
-      return Response.status(201).entity(record).build();
-    } catch (IllegalArgumentException e) {
-      return Response.status(400).entity(ErrorEnvelope.of("VALIDATION_ERROR", e.getMessage(),
-          java.util.Map.of("field", "componentId"), UUID.randomUUID().toString())).build();
-    }
+      @APIResponse(responseCode = "400", description = "Validation error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class))),
+      @APIResponse(responseCode = "409", description = "A request with this Idempotency-Key is still in progress", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class))),
+      @APIResponse(responseCode = "422", description = "Idempotency-Key was already used for a different request", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))})
+  public Response createRecord(CreateRecordRequest request,
+      @Parameter(description = Idempotency.KEY_DESCRIPTION, in = ParameterIn.HEADER) @HeaderParam(Idempotency.KEY_HEADER) String idempotencyKey) {
+    // Keys are scoped like admission buckets, per component
+    String scope = "records/" + (request == null ? null : request.componentId());
+    IdempotencyKeys.Outcome<RecordResponse> outcome = idempotencyKeys.execute(scope, idempotencyKey, request,
+        () -> recordService.createRecord(request));
+    return Idempotency.created(outcome).build();
   }
 
   @GET
-  @Operation(summary = "Get records", description = "Retrieves a paginated list of records with optional filtering and sorting")
+  @Operation(summary = "Get records", description = "Retrieves a paginated list of records with optional filtering and sorting. With explain=true the query is executed but its plan is returned instead of the records.")
   @APIResponses({
-      @APIResponse(responseCode = "200", description = "Records retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RecordsListResponse.class))),
+      @APIResponse(responseCode = "200", description = "Records retrieved successfully (RecordQueryPlan when explain=true)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RecordsListResponse.class))),
       @APIResponse(responseCode = "400", description = "Validation error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))})
   public Response getRecords(
       @Parameter(description = "Filter by component ID") @QueryParam("componentId") String componentId,
       @Parameter(description = "Page number (0-based)") @QueryParam("page") @jakarta.ws.rs.DefaultValue("0") int page,
       @Parameter(description = "Page size (1-100)") @QueryParam("size") @jakarta.ws.rs.DefaultValue("20") int size,
       @Parameter(description = "Field to sort by") @QueryParam("sortBy") String sortBy,
-      @Parameter(description = "Sort order (asc/desc)") @QueryParam("sortOrder") @jakarta.ws.rs.DefaultValue("asc") String sortOrder) {
+      @Parameter(description = "Sort order (asc/desc)") @QueryParam("sortOrder") @jakarta.ws.rs.DefaultValue("asc") String sortOrder,
+      @Parameter(description = "Report the total: true (exact), estimate, or false to skip counting") @QueryParam("includeTotal") @jakarta.ws.rs.DefaultValue("true") String includeTotal,
+      @Parameter(description = "Only records created after this instant (ISO-8601, exclusive)") @QueryParam("createdAfter") String createdAfter,
+      @Parameter(description = "Only records created before this instant (ISO-8601, exclusive)") @QueryParam("createdBefore") String createdBefore,
+      @Parameter(description = "Return the execution plan instead of the records") @QueryParam("explain") @jakarta.ws.rs.DefaultValue("false") boolean explain,
+      @Parameter(description = FIELDS_DESCRIPTION) @QueryParam("fields") String fields) {
 
     // Validate pagination parameters
     if (page < 0) {
-      return Response.status(400).entity(ErrorEnvelope.of("VALIDATION_ERROR", "Page must be non-negative",
-          java.util.Map.of("field", "page"), UUID.randomUUID().toString())).build();
+      throw DomainException.Validation.field("page", "Page must be non-negative");
     }
 
     if (size < 1 || size > 100) {
-      return Response.status(400).entity(ErrorEnvelope.of("VALIDATION_ERROR", "Size must be between 1 and 100",
-          java.util.Map.of("field", "size"), UUID.randomUUID().toString())).build();
+      throw DomainException.Validation.field("size", "Size must be between 1 and 100");
+    }
+
+    if (((long) page + 1) * size > MAX_RESULT_WINDOW) {
+      throw DomainException.Validation.field("page", "Pages may not reach past record " + MAX_RESULT_WINDOW
+          + "; narrow the query with createdAfter or createdBefore instead");
+    }
+
+    TotalMode totalMode = switch (includeTotal.toLowerCase()) {
+      case "true" -> TotalMode.EXACT;
+      case "estimate" -> TotalMode.ESTIMATE;
+      case "false" -> TotalMode.NONE;
+      default -> null;
+    };
+    if (totalMode == null) {
+      throw DomainException.Validation.field("includeTotal", "includeTotal must be one of true, false, estimate");
+    }
+
+    CreatedRange created = new CreatedRange(parseInstant("createdAfter", createdAfter),
+        parseInstant("createdBefore", createdBefore));
+    RecordProjection projection = RecordProjection.parse(fields);
+
+    if (explain) {
+      RecordQueryPlan plan = recordService.explainRecords(componentId, page, size, sortBy, sortOrder, totalMode,
+          created);
+      return Response.ok(plan).build();
+    }
+
+    RecordsListResponse response = recordService.getRecords(componentId, page, size, sortBy, sortOrder, totalMode,
+        created);
+    return Response.ok(projection == null ? response : projection.apply(response)).build();
+  }
+
+  @POST
+  @Path("/batch-get")
+  @AdmittedAs(AdmissionControl.RouteClass.LIST)
+  @Operation(summary = "Get records by id", description = "Looks up to " + MAX_BATCH_IDS + " records in one request. Found records are returned in request order; ids that do not exist are listed in missingIds.")
+  @RequestBody(description = "Ids to look up", required = true, content = @Content(mediaType = "application/json", schema = @Schema(implementation = BatchGetRecordsRequest.class)))
+  @APIResponses({
+      @APIResponse(responseCode = "200", description = "Lookup completed", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RecordBatchResponse.class))),
+      @APIResponse(responseCode = "400", description = "Validation error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))})
+  public Response batchGetRecords(BatchGetRecordsRequest request) {
+    List<String> ids = request == null ? null : request.ids();
+    if (ids == null || ids.isEmpty()) {
+      throw DomainException.Validation.field("ids", "ids must not be empty");
     }
+    if (ids.size() > MAX_BATCH_IDS) {
+      throw DomainException.Validation.field("ids", "At most " + MAX_BATCH_IDS + " ids can be requested at once");
+    }
+    for (String id : ids) {
+      if (id == null || id.isEmpty()) {
+        throw DomainException.Validation.field("ids", "ids must not contain empty values");
+      }
+    }
+    RecordBatchResponse response = recordService.getRecords(ids);
+    return Response.ok(response).build();
+  }
 
-    RecordsListResponse response = recordService.getRecords(componentId, page, size, sortBy, sortOrder);
+  @GET
+  @Path("/search")
+  @Operation(summary = "Search records", description = "Full-text search over the string fields of a component's records, ranked by BM25 relevance")
+  @APIResponses({
+      @APIResponse(responseCode = "200", description = "Search completed successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RecordSearchResponse.class))),
+      @APIResponse(responseCode = "400", description = "Validation error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))})
+  public Response searchRecords(
+      @Parameter(description = "Component ID to search in", required = true) @QueryParam("componentId") String componentId,
+      @Parameter(description = "Search terms", required = true) @QueryParam("q") String query,
+      @Parameter(description = "Match terms by prefix") @QueryParam("prefix") @jakarta.ws.rs.DefaultValue("false") boolean prefix,
+      @Parameter(description = "Maximum number of hits (1-100)") @QueryParam("limit") @jakarta.ws.rs.DefaultValue("20") int limit) {
+
+    if (query == null || query.isBlank()) {
+      throw DomainException.Validation.field("q", "Query must not be empty");
+    }
+
+    if (limit < 1 || limit > 100) {
+      throw DomainException.Validation.field("limit", "Limit must be between 1 and 100");
+    }
+
+    RecordSearchResponse response = recordService.searchRecords(componentId, query, prefix, limit);
+    return Response.ok(response).build();
+  }
+
+  @GET
+  @Path("/aggregate")
+  @Operation(summary = "Aggregate records", description = "Computes count, sum, avg, min and max of a number field grouped by a string or boolean field. Aggregates registered in the component metadata are served from materialized state; others are computed with a single scan.")
+  @APIResponses({
+      @APIResponse(responseCode = "200", description = "Aggregate computed successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RecordAggregateResponse.class))),
+      @APIResponse(responseCode = "400", description = "Validation error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))})
+  public Response aggregateRecords(
+      @Parameter(description = "Component ID", required = true) @QueryParam("componentId") String componentId,
+      @Parameter(description = "String or boolean field to group by", required = true) @QueryParam("groupBy") String groupBy,
+      @Parameter(description = "Number field to aggregate; omit for counts only") @QueryParam("field") String field) {
+    RecordAggregateResponse response = recordService.aggregateRecords(componentId, groupBy, field);
     return Response.ok(response).build();
   }
 
@@ -85,14 +206,21 @@ public class RecordsResource {
   @APIResponses({
       @APIResponse(responseCode = "200", description = "Record retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = RecordResponse.class))),
       @APIResponse(responseCode = "404", description = "Record not found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))})
-  public Response getRecord(@Parameter(description = "Record ID") @PathParam("id") String id) {
+  public Response getRecord(@Parameter(description = "Record ID") @PathParam("id") String id,
+      @Parameter(description = FIELDS_DESCRIPTION) @QueryParam("fields") String fields) {
+    RecordProjection projection = RecordProjection.parse(fields);
+    RecordResponse record = recordService.getRecord(id);
+    return Response.ok(projection == null ? record : projection.apply(record)).build();
+  }
+
+  private static Instant parseInstant(String field, String value) {
+    if (value == null || value.isEmpty()) {
+      return null;
+    }
     try {
-      RecordResponse record = recordService.getRecord(id);
-      return Response.ok(record).build();
-    } catch (IllegalArgumentException e) {
-      return Response.status(404).entity(
-          ErrorEnvelope.of("NOT_FOUND", e.getMessage(), java.util.Map.of("recordId", id), UUID.randomUUID().toString()))
-          .build();
+      return Instant.parse(value);
+    } catch (DateTimeParseException e) {
+      throw DomainException.Validation.field(field, field + " must be an ISO-8601 instant, e.g. 2024-01-31T12:00:00Z");
     }
   }
 }
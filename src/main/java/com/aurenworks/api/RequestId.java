@@ -0,0 +1,23 @@
+package com.aurenworks.api;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * The id of the current request, as sent back in {@code X-Request-Id} and in {@code error.requestId}.
+ */
+@RequestScoped
+public class RequestId {
+
+  private String value;
+
+  public String get() {
+    if (value == null) {
+      value = RequestIds.next();
+    }
+    return value;
+  }
+
+  void set(String value) {
+    this.value = value;
+  }
+}
@@ -0,0 +1,35 @@
+package com.aurenworks.api;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Assigns every request an id, or keeps the caller's {@code X-Request-Id}, and returns it in the same header. Runs
+ * before the other filters so that their error responses carry it too.
+ */
+@Provider
+@Priority(Priorities.AUTHENTICATION - 100)
+public class RequestIdFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+  public static final String HEADER = "X-Request-Id";
+
+  @Inject
+  RequestId requestId;
+
+  @Override
+  public void filter(ContainerRequestContext request) {
+    String supplied = request.getHeaderString(HEADER);
+    requestId.set(RequestIds.isAcceptable(supplied) ? supplied : RequestIds.next());
+  }
+
+  @Override
+  public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+    response.getHeaders().putSingle(HEADER, requestId.get());
+  }
+}
@@ -0,0 +1,60 @@
+package com.aurenworks.api;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request ids that are unique per process without touching {@code SecureRandom}: a random per-process prefix followed
+ * by a counter, e.g. {@code 5c0e19a2f7d3-00000000002a}.
+ *
+ * <p>
+ * They only correlate a response with its log lines, so they are not meant to be unguessable.
+ */
+final class RequestIds {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  private static final int PREFIX_LENGTH = 12;
+  private static final int COUNTER_LENGTH = 12;
+  private static final char[] PREFIX = new char[PREFIX_LENGTH];
+  private static final AtomicLong COUNTER = new AtomicLong();
+
+  static {
+    long random = ThreadLocalRandom.current().nextLong() ^ System.nanoTime();
+    for (int i = 0; i < PREFIX_LENGTH; i++) {
+      PREFIX[i] = HEX[(int) (random >>> (4 * i)) & 0xf];
+    }
+  }
+
+  private RequestIds() {
+  }
+
+  static String next() {
+    long sequence = COUNTER.incrementAndGet();
+    char[] id = new char[PREFIX_LENGTH + 1 + COUNTER_LENGTH];
+    System.arraycopy(PREFIX, 0, id, 0, PREFIX_LENGTH);
+    id[PREFIX_LENGTH] = '-';
+    for (int i = id.length - 1; i > PREFIX_LENGTH; i--) {
+      id[i] = HEX[(int) sequence & 0xf];
+      sequence >>>= 4;
+    }
+    return new String(id);
+  }
+
+  /**
+   * Ids supplied by a caller (e.g. a gateway) are kept when they are short and made of URL-safe characters only, so
+   * they can be echoed in headers and logs without escaping.
+   */
+  static boolean isAcceptable(String id) {
+    if (id == null || id.isEmpty() || id.length() > 64) {
+      return false;
+    }
+    for (int i = 0; i < id.length(); i++) {
+      char c = id.charAt(i);
+      if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_'
+          || c == '.')) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
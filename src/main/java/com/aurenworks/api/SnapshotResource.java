@@ -0,0 +1,41 @@
+package com.aurenworks.api;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.aurenworks.api.dto.SnapshotResponse;
+import com.aurenworks.service.DomainException;
+import com.aurenworks.service.SnapshotService;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+@Path("/admin/snapshot")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "Snapshots", description = "Binary snapshots of the in-memory stores")
+public class SnapshotResource {
+
+  @Inject
+  SnapshotService snapshotService;
+
+  @POST
+  @Operation(summary = "Write a snapshot", description = "Writes the component and record stores, including their indexes, to the configured snapshot file")
+  @APIResponses({@APIResponse(responseCode = "200", description = "Snapshot written", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SnapshotResponse.class))),
+      @APIResponse(responseCode = "404", description = "Snapshots are disabled", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorEnvelope.class)))})
+  public SnapshotResponse snapshot() throws IOException {
+    if (!snapshotService.isEnabled()) {
+      throw new DomainException.NotFound("Snapshots are disabled (set aurenworks.snapshot.enabled=true)", Map.of());
+    }
+    return snapshotService.snapshot();
+  }
+}
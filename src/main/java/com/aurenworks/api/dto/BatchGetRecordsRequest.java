@@ -0,0 +1,6 @@
+package com.aurenworks.api.dto;
+
+import java.util.List;
+
+public record BatchGetRecordsRequest(List<String> ids) {
+}
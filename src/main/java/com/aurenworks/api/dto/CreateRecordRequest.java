@@ -2,5 +2,13 @@ package com.aurenworks.api.dto;
 
 import java.util.Map;
 
-public record CreateRecordRequest(String componentId, Map<String, Object> values, Map<String, Object> metadata) {
+/**
+ * {@code ttl} is an optional ISO-8601 duration (e.g. {@code PT30M}) that overrides the component's default TTL.
+ */
+public record CreateRecordRequest(String componentId, Map<String, Object> values, Map<String, Object> metadata,
+    String ttl) {
+
+  public CreateRecordRequest(String componentId, Map<String, Object> values, Map<String, Object> metadata) {
+    this(componentId, values, metadata, null);
+  }
 }
@@ -0,0 +1,9 @@
+package com.aurenworks.api.dto;
+
+import java.util.List;
+
+public record RecordAggregateResponse(String componentId, String groupBy, String field, boolean materialized,
+    List<Group> groups) {
+  public record Group(Object key, long count, Double sum, Double avg, Double min, Double max) {
+  }
+}
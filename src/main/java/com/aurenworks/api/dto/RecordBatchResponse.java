@@ -0,0 +1,9 @@
+package com.aurenworks.api.dto;
+
+import java.util.List;
+
+/**
+ * Records found for a batch lookup, in request order, and the requested ids that do not exist.
+ */
+public record RecordBatchResponse(List<RecordResponse> records, List<String> missingIds) {
+}
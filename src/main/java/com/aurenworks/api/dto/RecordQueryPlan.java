@@ -0,0 +1,31 @@
+package com.aurenworks.api.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+import com.aurenworks.model.TotalMode;
+
+/**
+ * How a {@code GET /records} query was executed, returned instead of the data when {@code explain=true}.
+ *
+ * @param access
+ *          {@code component-index} when the query is answered from the component's partition, {@code id-range} when
+ *          only the ids inside the {@code createdAfter}/{@code createdBefore} window are visited, {@code full-scan}
+ *          when every record is a candidate
+ * @param sortStrategy
+ *          {@code index-order} (partition already ordered newest first), {@code k-way-merge} (newest first across
+ *          partitions), {@code top-k-heap} (bounded heap of {@code heapSize} for a sort field) or {@code none} (page
+ *          past the end)
+ * @param candidateCount
+ *          records matching the filters, or {@code -1} when a creation-time window was not counted
+ *          ({@code includeTotal=false}) or only estimated ({@code includeTotal=estimate})
+ * @param examinedCount
+ *          records visited to produce the page
+ * @param phaseMicros
+ *          wall time per phase, in execution order
+ */
+public record RecordQueryPlan(String componentId, int page, int size, String sortBy, String sortOrder,
+    TotalMode totalMode, Instant createdAfter, Instant createdBefore, String access, String sortStrategy,
+    Integer heapSize, long candidateCount, long examinedCount, int resultSize, Map<String, Long> phaseMicros,
+    long totalMicros) {
+}
@@ -3,6 +3,17 @@ package com.aurenworks.api.dto;
 import java.time.Instant;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * {@code expiresAt} is only present when the record has a TTL.
+ */
 public record RecordResponse(String id, String componentId, Map<String, Object> values, Instant createdAt,
-    Instant updatedAt, String createdBy, Map<String, Object> metadata) {
+    Instant updatedAt, String createdBy, Map<String, Object> metadata,
+    @JsonInclude(JsonInclude.Include.NON_NULL) Instant expiresAt) {
+
+  public RecordResponse(String id, String componentId, Map<String, Object> values, Instant createdAt,
+      Instant updatedAt, String createdBy, Map<String, Object> metadata) {
+    this(id, componentId, values, createdAt, updatedAt, createdBy, metadata, null);
+  }
 }
@@ -0,0 +1,8 @@
+package com.aurenworks.api.dto;
+
+import java.util.List;
+
+public record RecordSearchResponse(List<SearchHit> hits, int count) {
+  public record SearchHit(double score, RecordResponse record) {
+  }
+}
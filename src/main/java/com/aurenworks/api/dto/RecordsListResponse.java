@@ -3,6 +3,11 @@ package com.aurenworks.api.dto;
 import java.util.List;
 
 public record RecordsListResponse(List<RecordResponse> records, PaginationInfo pagination) {
-  public record PaginationInfo(int page, int size, long total, int totalPages, boolean hasNext, boolean hasPrevious) {
+  /**
+   * {@code total} and {@code totalPages} are {@code null} when the client asked to skip counting
+   * ({@code includeTotal=false}); {@code estimated} is set when {@code total} is an estimate.
+   */
+  public record PaginationInfo(int page, int size, Long total, Integer totalPages, boolean hasNext,
+      boolean hasPrevious, boolean estimated) {
   }
 }
@@ -0,0 +1,6 @@
+package com.aurenworks.api.dto;
+
+import java.time.Instant;
+
+public record SnapshotResponse(String path, long sizeBytes, int sections, Instant createdAt, long durationMillis) {
+}
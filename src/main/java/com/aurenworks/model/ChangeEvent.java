@@ -0,0 +1,14 @@
+package com.aurenworks.model;
+
+import java.time.Instant;
+
+public record ChangeEvent(long offset, EntityType entityType, Operation operation, String projectId,
+    String componentId, String entityId, Instant timestamp, Object data) {
+  public enum EntityType {
+    RECORD, COMPONENT
+  }
+
+  public enum Operation {
+    CREATED, UPDATED, DELETED
+  }
+}
@@ -0,0 +1,15 @@
+package com.aurenworks.model;
+
+import java.time.Instant;
+
+/**
+ * Optional creation-time window of a record listing; both bounds are exclusive and either may be {@code null}.
+ */
+public record CreatedRange(Instant after, Instant before) {
+
+  public static final CreatedRange ALL = new CreatedRange(null, null);
+
+  public boolean isBounded() {
+    return after != null || before != null;
+  }
+}
@@ -3,6 +3,14 @@ package com.aurenworks.model;
 import java.time.Instant;
 import java.util.Map;
 
+/**
+ * A stored record; {@code expiresAt} is {@code null} for records that never expire.
+ */
 public record Record(String id, String componentId, Map<String, Object> values, Instant createdAt, Instant updatedAt,
-    String createdBy, Map<String, Object> metadata) {
+    String createdBy, Map<String, Object> metadata, Instant expiresAt) {
+
+  public Record(String id, String componentId, Map<String, Object> values, Instant createdAt, Instant updatedAt,
+      String createdBy, Map<String, Object> metadata) {
+    this(id, componentId, values, createdAt, updatedAt, createdBy, metadata, null);
+  }
 }
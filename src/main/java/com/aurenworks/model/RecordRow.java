@@ -0,0 +1,367 @@
+package com.aurenworks.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Record values stored by schema position instead of as a hash map: string, array and object fields in an
+ * {@code Object[]}, number and boolean fields unboxed in a {@code long[]} with a one-byte kind each, and the field
+ * names once per schema in a shared {@link Layout}. Read-only; iterates the schema's fields in declaration order, then
+ * any values the schema does not describe.
+ */
+public final class RecordRow extends AbstractMap<String, Object> {
+
+  // Kinds of a scalar slot
+  private static final byte ABSENT = 0;
+  private static final byte NULL = 1;
+  private static final byte INT = 2;
+  private static final byte LONG = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte TRUE = 5;
+  private static final byte FALSE = 6;
+  // The value fits no slot (a BigDecimal in a number field, say) and is kept in the extras
+  private static final byte EXTRA = 7;
+
+  // Stands in for an explicit null in a reference slot, where null means absent
+  private static final Object NULL_REFERENCE = new Object();
+
+  private final Layout layout;
+  private final Object[] references;
+  private final long[] numbers;
+  private final byte[] kinds;
+  // Keys outside the schema and values that fit no slot, in insertion order; null when there are none
+  private final Map<String, Object> extras;
+  private final int size;
+
+  private RecordRow(Layout layout, Object[] references, long[] numbers, byte[] kinds, Map<String, Object> extras,
+      int size) {
+    this.layout = layout;
+    this.references = references;
+    this.numbers = numbers;
+    this.kinds = kinds;
+    this.extras = extras;
+    this.size = size;
+  }
+
+  /** Copies {@code values} into a row laid out by {@code layout}. */
+  public static RecordRow of(Layout layout, Map<String, Object> values) {
+    Builder row = builder(layout);
+    values.forEach(row::put);
+    return row.build();
+  }
+
+  public static Builder builder(Layout layout) {
+    return new Builder(layout);
+  }
+
+  public Layout layout() {
+    return layout;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int field = key instanceof String name ? layout.ordinal(name) : -1;
+    if (field >= 0 && isPresent(field)) {
+      return true;
+    }
+    return extras != null && extras.containsKey(key);
+  }
+
+  @Override
+  public Object get(Object key) {
+    int field = key instanceof String name ? layout.ordinal(name) : -1;
+    if (field >= 0 && isPresent(field)) {
+      return value(field);
+    }
+    return extras == null ? null : extras.get(key);
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        return new Entries();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /**
+   * Approximate retained size on a 64-bit JVM with compressed oops: the row and its arrays, plus
+   * {@code referenceBytes} of each value held by reference. The layout is shared and not counted.
+   */
+  public long footprint(ToLongFunction<Object> referenceBytes) {
+    long bytes = 32 + array(4L * references.length) + array(8L * numbers.length) + array(kinds.length);
+    for (Object reference : references) {
+      if (reference != null && reference != NULL_REFERENCE) {
+        bytes += referenceBytes.applyAsLong(reference);
+      }
+    }
+    return extras == null ? bytes : bytes + referenceBytes.applyAsLong(extras);
+  }
+
+  private static long array(long payload) {
+    return (16 + payload + 7) & ~7L;
+  }
+
+  private boolean isPresent(int field) {
+    int slot = layout.slots[field];
+    if (layout.types[field] == Layout.REFERENCE) {
+      return references[slot] != null;
+    }
+    return kinds[slot] != ABSENT && kinds[slot] != EXTRA;
+  }
+
+  private Object value(int field) {
+    int slot = layout.slots[field];
+    if (layout.types[field] == Layout.REFERENCE) {
+      Object value = references[slot];
+      return value == NULL_REFERENCE ? null : value;
+    }
+    return switch (kinds[slot]) {
+      case INT -> (int) numbers[slot];
+      case LONG -> numbers[slot];
+      case DOUBLE -> Double.longBitsToDouble(numbers[slot]);
+      case TRUE -> Boolean.TRUE;
+      case FALSE -> Boolean.FALSE;
+      default -> null;
+    };
+  }
+
+  /**
+   * Fills a row one value at a time, by key or by field ordinal, so a parser can write values straight into their
+   * slots. A value set twice keeps the last one, as a map would.
+   */
+  public static final class Builder {
+    private final Layout layout;
+    private final Object[] references;
+    private final long[] numbers;
+    private final byte[] kinds;
+    private Map<String, Object> extras;
+
+    private Builder(Layout layout) {
+      this.layout = layout;
+      this.references = new Object[layout.referenceCount];
+      this.numbers = new long[layout.numberCount];
+      this.kinds = new byte[layout.scalarCount];
+    }
+
+    /** Sets a value of any type under any key; values that fit no slot are kept beside the row. */
+    public Builder put(String key, Object value) {
+      int field = layout.ordinal(key);
+      if (field < 0) {
+        return extra(key, value);
+      }
+      if (layout.types[field] == Layout.REFERENCE) {
+        return reference(field, value);
+      }
+      return switch (value) {
+        case null -> scalar(field, NULL);
+        case Boolean flag when layout.types[field] == Layout.BOOLEAN -> bool(field, flag);
+        case Integer number when layout.types[field] == Layout.NUMBER -> intValue(field, number);
+        case Long number when layout.types[field] == Layout.NUMBER -> longValue(field, number);
+        case Double number when layout.types[field] == Layout.NUMBER -> doubleValue(field, number);
+        default -> {
+          // Marked so the field reads as absent from its slot and is found in the extras
+          kinds[layout.slots[field]] = EXTRA;
+          yield extra(key, value);
+        }
+      };
+    }
+
+    /** Sets a string, array or object field; {@code null} is kept as an explicit null. */
+    public Builder reference(int field, Object value) {
+      references[layout.slots[field]] = value == null ? NULL_REFERENCE : value;
+      return dropExtra(field);
+    }
+
+    public Builder intValue(int field, int value) {
+      numbers[layout.slots[field]] = value;
+      return scalar(field, INT);
+    }
+
+    public Builder longValue(int field, long value) {
+      numbers[layout.slots[field]] = value;
+      return scalar(field, LONG);
+    }
+
+    public Builder doubleValue(int field, double value) {
+      numbers[layout.slots[field]] = Double.doubleToRawLongBits(value);
+      return scalar(field, DOUBLE);
+    }
+
+    public Builder bool(int field, boolean value) {
+      return scalar(field, value ? TRUE : FALSE);
+    }
+
+    /** Sets a number or boolean field to an explicit null. */
+    public Builder nullValue(int field) {
+      return scalar(field, NULL);
+    }
+
+    /** Whether the field has a value other than {@code null}. */
+    public boolean hasValue(int field) {
+      int slot = layout.slots[field];
+      if (layout.types[field] == Layout.REFERENCE) {
+        return references[slot] != null && references[slot] != NULL_REFERENCE;
+      }
+      if (kinds[slot] == EXTRA) {
+        return extras.get(layout.keys[field]) != null;
+      }
+      return kinds[slot] != ABSENT && kinds[slot] != NULL;
+    }
+
+    public RecordRow build() {
+      int size = extras == null ? 0 : extras.size();
+      for (Object reference : references) {
+        if (reference != null) {
+          size++;
+        }
+      }
+      for (byte kind : kinds) {
+        if (kind != ABSENT && kind != EXTRA) {
+          size++;
+        }
+      }
+      return new RecordRow(layout, references, numbers, kinds, extras, size);
+    }
+
+    private Builder scalar(int field, byte kind) {
+      kinds[layout.slots[field]] = kind;
+      return dropExtra(field);
+    }
+
+    private Builder extra(String key, Object value) {
+      if (extras == null) {
+        extras = new LinkedHashMap<>();
+      }
+      extras.put(key, value);
+      return this;
+    }
+
+    // A schema field lives in its slot or in the extras, never both
+    private Builder dropExtra(int field) {
+      if (extras != null) {
+        extras.remove(layout.keys[field]);
+      }
+      return this;
+    }
+  }
+
+  private final class Entries implements Iterator<Entry<String, Object>> {
+    private int field = advance(0);
+    private final Iterator<Entry<String, Object>> extraEntries = extras == null ? null : extras.entrySet().iterator();
+
+    private int advance(int from) {
+      int next = from;
+      while (next < layout.keys.length && !isPresent(next)) {
+        next++;
+      }
+      return next;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return field < layout.keys.length || (extraEntries != null && extraEntries.hasNext());
+    }
+
+    @Override
+    public Entry<String, Object> next() {
+      if (field < layout.keys.length) {
+        Entry<String, Object> entry = new SimpleImmutableEntry<>(layout.keys[field], value(field));
+        field = advance(field + 1);
+        return entry;
+      }
+      if (extraEntries == null) {
+        throw new NoSuchElementException();
+      }
+      return new SimpleImmutableEntry<>(extraEntries.next());
+    }
+  }
+
+  /**
+   * The key table for one component schema, shared by all of its rows: each field's name, its ordinal, and its slot in
+   * either the reference array or the scalar arrays. Number fields take the first scalar slots and boolean fields the
+   * rest, so the number array stops short of the booleans.
+   */
+  public static final class Layout {
+    static final byte REFERENCE = 0;
+    static final byte NUMBER = 1;
+    static final byte BOOLEAN = 2;
+
+    private final String[] keys;
+    private final Map<String, Integer> ordinals;
+    private final byte[] types;
+    private final int[] slots;
+    private final int referenceCount;
+    private final int numberCount;
+    private final int scalarCount;
+
+    private Layout(String[] keys, byte[] types) {
+      this.keys = keys;
+      this.types = types;
+      this.ordinals = new HashMap<>();
+      this.slots = new int[keys.length];
+      int references = 0;
+      int numbers = 0;
+      for (int i = 0; i < keys.length; i++) {
+        // A repeated field name resolves to its first declaration; the later slots stay empty
+        ordinals.putIfAbsent(keys[i], i);
+        if (types[i] == REFERENCE) {
+          slots[i] = references++;
+        } else if (types[i] == NUMBER) {
+          slots[i] = numbers++;
+        }
+      }
+      int scalars = numbers;
+      for (int i = 0; i < keys.length; i++) {
+        if (types[i] == BOOLEAN) {
+          slots[i] = scalars++;
+        }
+      }
+      this.referenceCount = references;
+      this.numberCount = numbers;
+      this.scalarCount = scalars;
+    }
+
+    public static Layout of(Component component) {
+      List<Component.ComponentField> fields = component.fields() == null ? List.of() : component.fields();
+      String[] keys = new String[fields.size()];
+      byte[] types = new byte[fields.size()];
+      for (int i = 0; i < keys.length; i++) {
+        Component.ComponentField field = fields.get(i);
+        keys[i] = field.name();
+        types[i] = switch (field.type() == null ? "" : field.type().toLowerCase()) {
+          case "number" -> NUMBER;
+          case "boolean" -> BOOLEAN;
+          default -> REFERENCE;
+        };
+      }
+      return new Layout(keys, types);
+    }
+
+    /** The field's position in the schema, or -1 if the schema does not declare it. */
+    public int ordinal(String key) {
+      Integer ordinal = ordinals.get(key);
+      return ordinal == null ? -1 : ordinal;
+    }
+  }
+}
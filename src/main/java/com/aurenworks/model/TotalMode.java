@@ -0,0 +1,8 @@
+package com.aurenworks.model;
+
+/**
+ * How list endpoints report {@code pagination.total}: counted exactly, estimated, or skipped entirely.
+ */
+public enum TotalMode {
+  EXACT, ESTIMATE, NONE
+}
@@ -0,0 +1,73 @@
+package com.aurenworks.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that follows observed latency with AIMD: every response slower than the target shrinks the limit
+ * multiplicatively, every fast response while the limit is actually in use grows it by one.
+ *
+ * <p>
+ * The limit is a double stored in an {@link AtomicLong} so that both the in-flight count and the limit are updated
+ * with CAS only.
+ */
+final class AdaptiveConcurrencyLimit {
+
+  static final double BACKOFF_RATIO = 0.9;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long targetLatencyNanos;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong limitBits;
+
+  AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long targetLatencyNanos) {
+    if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.targetLatencyNanos = targetLatencyNanos;
+    this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+  }
+
+  boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit()) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  void release(long latencyNanos) {
+    int before = inFlight.getAndDecrement();
+    while (true) {
+      long bits = limitBits.get();
+      double current = Double.longBitsToDouble(bits);
+      double next;
+      if (latencyNanos > targetLatencyNanos) {
+        next = Math.max(minLimit, current * BACKOFF_RATIO);
+      } else if (before * 2 >= current) {
+        // Only grow while the limit is what bounds us; an idle service says nothing about how much more it can take
+        next = Math.min(maxLimit, current + 1);
+      } else {
+        return;
+      }
+      if (next == current || limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+        return;
+      }
+    }
+  }
+
+  int limit() {
+    return (int) Double.longBitsToDouble(limitBits.get());
+  }
+
+  int inFlight() {
+    return inFlight.get();
+  }
+}
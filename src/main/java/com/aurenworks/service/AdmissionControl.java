@@ -0,0 +1,187 @@
+package com.aurenworks.service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Decides whether a request may start before any resource or service work is done.
+ *
+ * <p>
+ * Two checks run in order. First a token bucket per (scope, route class), where the scope is the project, or the
+ * calling client when the request names no known project, so one tenant's burst of list queries cannot starve another
+ * tenant's reads. Then an instance-wide {@link AdaptiveConcurrencyLimit} that shrinks when responses get slower than
+ * the target latency.
+ *
+ * <p>
+ * Buckets are created on first use. Once {@code aurenworks.admission.max-tracked-buckets} exist, full (idle) buckets
+ * are dropped; if every bucket is still busy, new scopes share a single {@code _other} bucket per route class so the
+ * map stays bounded with thousands of projects.
+ */
+@ApplicationScoped
+public class AdmissionControl {
+
+  static final String OTHER = "_other";
+  private static final long SWEEP_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+  public enum RouteClass {
+    /** Single-entity lookups by id. */
+    READ,
+    /** List, search and aggregate queries, which filter and sort. */
+    LIST,
+    /** Creates, updates and deletes. */
+    WRITE;
+
+    public String tag() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  /**
+   * Outcome of {@link #admit}; {@code code} is {@code null} when the request was admitted.
+   */
+  public record Decision(String code, long retryAfterSeconds) {
+    static final Decision ADMITTED = new Decision(null, 0);
+
+    public boolean admitted() {
+      return code == null;
+    }
+  }
+
+  @Inject
+  MeterRegistry registry;
+
+  @ConfigProperty(name = "aurenworks.admission.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @ConfigProperty(name = "aurenworks.admission.read.rate", defaultValue = "200")
+  double readRate;
+
+  @ConfigProperty(name = "aurenworks.admission.read.burst", defaultValue = "400")
+  int readBurst;
+
+  @ConfigProperty(name = "aurenworks.admission.list.rate", defaultValue = "20")
+  double listRate;
+
+  @ConfigProperty(name = "aurenworks.admission.list.burst", defaultValue = "40")
+  int listBurst;
+
+  @ConfigProperty(name = "aurenworks.admission.write.rate", defaultValue = "50")
+  double writeRate;
+
+  @ConfigProperty(name = "aurenworks.admission.write.burst", defaultValue = "100")
+  int writeBurst;
+
+  @ConfigProperty(name = "aurenworks.admission.max-tracked-buckets", defaultValue = "10000")
+  int maxTrackedBuckets;
+
+  @ConfigProperty(name = "aurenworks.admission.concurrency.initial-limit", defaultValue = "64")
+  int initialConcurrency;
+
+  @ConfigProperty(name = "aurenworks.admission.concurrency.min-limit", defaultValue = "8")
+  int minConcurrency;
+
+  @ConfigProperty(name = "aurenworks.admission.concurrency.max-limit", defaultValue = "1024")
+  int maxConcurrency;
+
+  @ConfigProperty(name = "aurenworks.admission.concurrency.target-latency", defaultValue = "250ms")
+  Duration targetLatency;
+
+  private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+  private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+  private AdaptiveConcurrencyLimit concurrency;
+  private Counter rateLimited;
+  private Counter overloaded;
+
+  @PostConstruct
+  void init() {
+    concurrency = new AdaptiveConcurrencyLimit(initialConcurrency, minConcurrency, maxConcurrency,
+        targetLatency.toNanos());
+    Gauge.builder("aurenworks.admission.concurrency.limit", concurrency, AdaptiveConcurrencyLimit::limit)
+        .description("Current adaptive concurrency limit").strongReference(true).register(registry);
+    Gauge.builder("aurenworks.admission.concurrency.in.flight", concurrency, AdaptiveConcurrencyLimit::inFlight)
+        .description("Requests admitted and not yet completed").strongReference(true).register(registry);
+    rateLimited = rejections("RATE_LIMITED");
+    overloaded = rejections("OVERLOADED");
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Takes a token for the scope and a concurrency permit. An admitted request must be followed by exactly one
+   * {@link #complete} call.
+   */
+  public Decision admit(String scope, RouteClass routeClass) {
+    long now = System.nanoTime();
+    long waitNanos = bucket(scope, routeClass, now).tryAcquire(now);
+    if (waitNanos > 0) {
+      rateLimited.increment();
+      return new Decision("RATE_LIMITED", Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L));
+    }
+    if (!concurrency.tryAcquire()) {
+      overloaded.increment();
+      return new Decision("OVERLOADED", 1);
+    }
+    return Decision.ADMITTED;
+  }
+
+  public void complete(long latencyNanos) {
+    concurrency.release(latencyNanos);
+  }
+
+  int concurrencyLimit() {
+    return concurrency.limit();
+  }
+
+  int trackedBuckets() {
+    return buckets.size();
+  }
+
+  private TokenBucket bucket(String scope, RouteClass routeClass, long now) {
+    String key = routeClass.ordinal() + ":" + scope;
+    TokenBucket bucket = buckets.get(key);
+    if (bucket != null) {
+      return bucket;
+    }
+    if (buckets.size() >= maxTrackedBuckets) {
+      sweep(now);
+      if (buckets.size() >= maxTrackedBuckets) {
+        key = routeClass.ordinal() + ":" + OTHER;
+      }
+    }
+    return buckets.computeIfAbsent(key, k -> newBucket(routeClass, now));
+  }
+
+  private void sweep(long now) {
+    long last = lastSweep.get();
+    if (now - last >= SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+      buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+  }
+
+  private TokenBucket newBucket(RouteClass routeClass, long now) {
+    return switch (routeClass) {
+      case READ -> new TokenBucket(readRate, readBurst, now);
+      case LIST -> new TokenBucket(listRate, listBurst, now);
+      case WRITE -> new TokenBucket(writeRate, writeBurst, now);
+    };
+  }
+
+  private Counter rejections(String reason) {
+    return Counter.builder("aurenworks.admission.rejected").description("Requests shed before reaching the service")
+        .tag("reason", reason).register(registry);
+  }
+}
@@ -0,0 +1,86 @@
+package com.aurenworks.service;
+
+/**
+ * Fixed-size Bloom filter over string keys.
+ *
+ * <p>
+ * The {@code k} bit positions come from two 64-bit hashes of the key combined as {@code h1 + i * h2}
+ * (Kirsch-Mitzenmacher), and the second is derived from the first, so a key is hashed once however many filters it is
+ * probed against. Filled before it is shared and only read afterwards, so it needs no synchronization.
+ */
+final class BloomFilter {
+
+  private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+  private static final long FNV_PRIME = 0x100000001B3L;
+
+  private final long[] words;
+  private final long bitCount;
+  private final int hashes;
+
+  private BloomFilter(long bitCount, int hashes) {
+    this.words = new long[(int) ((bitCount + 63) >>> 6)];
+    this.bitCount = words.length * 64L;
+    this.hashes = hashes;
+  }
+
+  /** Sized so that {@code expectedKeys} keys give about the requested false-positive rate. */
+  static BloomFilter forKeys(int expectedKeys, double falsePositiveRate) {
+    int keys = Math.max(expectedKeys, 1);
+    double ln2 = Math.log(2);
+    long bits = Math.max(64, (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (ln2 * ln2)));
+    int hashes = Math.max(1, (int) Math.round((double) bits / keys * ln2));
+    return new BloomFilter(bits, hashes);
+  }
+
+  void add(String key) {
+    add(hash(key));
+  }
+
+  /** Adds a key by its {@link #hash}. */
+  void add(long hash) {
+    long h2 = mix(hash ^ FNV_PRIME) | 1;
+    for (int i = 0; i < hashes; i++) {
+      long bit = Long.remainderUnsigned(hash + i * h2, bitCount);
+      words[(int) (bit >>> 6)] |= 1L << bit;
+    }
+  }
+
+  /** {@code false} means the key was never added; {@code true} means it probably was. */
+  boolean mightContain(String key) {
+    return mightContain(hash(key));
+  }
+
+  /** {@link #mightContain(String)} by the key's {@link #hash}, so probing several filters hashes the key once. */
+  boolean mightContain(long hash) {
+    long h2 = mix(hash ^ FNV_PRIME) | 1;
+    for (int i = 0; i < hashes; i++) {
+      long bit = Long.remainderUnsigned(hash + i * h2, bitCount);
+      if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  long sizeInBytes() {
+    return words.length * (long) Long.BYTES;
+  }
+
+  static long hash(String key) {
+    long hash = FNV_OFFSET;
+    for (int i = 0; i < key.length(); i++) {
+      hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+    }
+    return mix(hash);
+  }
+
+  // MurmurHash3 finalizer: FNV-1a alone leaves the low bits of similar ids (which share long prefixes) correlated
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB93FE53E1A4DL;
+    h ^= h >>> 33;
+    return h;
+  }
+}
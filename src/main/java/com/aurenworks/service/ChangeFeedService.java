@@ -0,0 +1,212 @@
+package com.aurenworks.service;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.aurenworks.model.ChangeEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Publishes record and component changes with monotonically increasing offsets.
+ *
+ * <p>
+ * Events are kept in a fixed-size ring buffer so that subscribers can resume from a {@code Last-Event-ID}. Each
+ * subscription is a cursor into that buffer: it pulls events while it has fewer than {@code max-in-flight}
+ * unacknowledged sends, so a slow consumer never grows server memory. A consumer that falls further behind than the
+ * retention window is disconnected and has to resume (and resync) on reconnect.
+ */
+@ApplicationScoped
+public class ChangeFeedService {
+
+  @ConfigProperty(name = "aurenworks.change-feed.retention", defaultValue = "10000")
+  int retention;
+
+  @ConfigProperty(name = "aurenworks.change-feed.max-in-flight", defaultValue = "64")
+  int maxInFlight;
+
+  private final ReentrantLock publishLock = new ReentrantLock();
+  private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+  private AtomicReferenceArray<ChangeEvent> buffer;
+  private volatile long lastOffset;
+
+  @PostConstruct
+  void init() {
+    buffer = new AtomicReferenceArray<>(retention);
+  }
+
+  public ChangeEvent publish(ChangeEvent.EntityType entityType, ChangeEvent.Operation operation, String projectId,
+      String componentId, String entityId, Object data) {
+    ChangeEvent event;
+    publishLock.lock();
+    try {
+      long offset = lastOffset + 1;
+      event = new ChangeEvent(offset, entityType, operation, projectId, componentId, entityId, Instant.now(), data);
+      buffer.set(slot(offset), event);
+      lastOffset = offset;
+    } finally {
+      publishLock.unlock();
+    }
+
+    for (Subscription subscription : subscriptions) {
+      subscription.drain();
+    }
+    return event;
+  }
+
+  /**
+   * Subscribes to changes for a project and/or component. A {@code null} filter matches everything.
+   *
+   * @param lastEventId
+   *          offset of the last event the client has seen, or {@code null} to receive only new events. If that offset
+   *          is no longer retained (or unknown to this instance) the subscriber is reset and replay starts from the
+   *          oldest retained event.
+   */
+  public Subscription subscribe(String projectId, String componentId, Long lastEventId, Subscriber subscriber) {
+    Subscription subscription = new Subscription(projectId, componentId, subscriber);
+    long last = lastOffset;
+    long oldest = oldestOffset();
+
+    if (lastEventId == null) {
+      subscription.cursor = last;
+    } else if (lastEventId > last || lastEventId < oldest - 1) {
+      subscription.cursor = oldest - 1;
+      subscriber.reset(oldest);
+    } else {
+      subscription.cursor = lastEventId;
+    }
+
+    subscriptions.add(subscription);
+    subscription.drain();
+    return subscription;
+  }
+
+  public long lastOffset() {
+    return lastOffset;
+  }
+
+  public long oldestOffset() {
+    return Math.max(1, lastOffset - retention + 1);
+  }
+
+  public int subscriberCount() {
+    return subscriptions.size();
+  }
+
+  private ChangeEvent eventAt(long offset) {
+    ChangeEvent event = buffer.get(slot(offset));
+    return event != null && event.offset() == offset ? event : null;
+  }
+
+  private int slot(long offset) {
+    return (int) (offset % retention);
+  }
+
+  /**
+   * Transport for a single subscription, e.g. an SSE connection.
+   */
+  public interface Subscriber {
+    /**
+     * Sends an event; the returned stage completes once the transport has accepted it.
+     */
+    CompletionStage<?> send(ChangeEvent event);
+
+    /**
+     * Signals that events before {@code oldestOffset} were lost and the client has to resync.
+     */
+    void reset(long oldestOffset);
+
+    boolean isClosed();
+
+    void close();
+  }
+
+  public final class Subscription {
+    private final String projectId;
+    private final String componentId;
+    private final Subscriber subscriber;
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile long cursor;
+    private volatile boolean cancelled;
+
+    private Subscription(String projectId, String componentId, Subscriber subscriber) {
+      this.projectId = projectId;
+      this.componentId = componentId;
+      this.subscriber = subscriber;
+    }
+
+    public void cancel() {
+      cancelled = true;
+      subscriptions.remove(this);
+    }
+
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    void drain() {
+      // Only one thread drains a subscription at a time; concurrent signals are folded into another loop pass
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      do {
+        drainLoop();
+      } while (wip.decrementAndGet() != 0);
+    }
+
+    private void drainLoop() {
+      while (!cancelled) {
+        if (subscriber.isClosed()) {
+          cancel();
+          return;
+        }
+        if (inFlight.get() >= maxInFlight) {
+          return;
+        }
+
+        long next = cursor + 1;
+        if (next > lastOffset) {
+          return;
+        }
+
+        ChangeEvent event = next >= oldestOffset() ? eventAt(next) : null;
+        if (event == null) {
+          // Lapped by the ring buffer: disconnect and let the client resume from its last offset
+          cancel();
+          subscriber.close();
+          return;
+        }
+
+        cursor = next;
+        if (!matches(event)) {
+          continue;
+        }
+
+        inFlight.incrementAndGet();
+        subscriber.send(event).whenComplete((ignored, failure) -> {
+          inFlight.decrementAndGet();
+          if (failure != null) {
+            cancel();
+            subscriber.close();
+          } else {
+            drain();
+          }
+        });
+      }
+    }
+
+    private boolean matches(ChangeEvent event) {
+      return (projectId == null || projectId.equals(event.projectId()))
+          && (componentId == null || componentId.equals(event.componentId()));
+    }
+  }
+}
@@ -1,46 +1,108 @@
 package com.aurenworks.service;
 
+import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import com.aurenworks.api.dto.ComponentResponse;
 import com.aurenworks.api.dto.ComponentsListResponse;
 import com.aurenworks.api.dto.CreateComponentRequest;
 import com.aurenworks.api.dto.UpdateComponentRequest;
+import com.aurenworks.model.ChangeEvent;
 import com.aurenworks.model.Component;
 import com.aurenworks.model.Role;
 
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 
 @ApplicationScoped
 public class ComponentService {
 
+  @Inject
+  ChangeFeedService changeFeed;
+
+  @Inject
+  ServiceMetrics metrics;
+
+  @Inject
+  SlowQueryLog slowQueryLog;
+
+  @Inject
+  QueryCoalescing coalescing;
+
+  @Inject
+  RecordService recordService;
+
   // In-memory storage for demo purposes
   // In production, this would be replaced with database persistence
-  // Key format: projectId:componentId
-  private final Map<String, ComponentData> components = new ConcurrentHashMap<>();
+  // Partitioned by projectId, then componentId; the partition size is the project's live component count
+  private final Map<String, Map<String, ComponentData>> components = new ConcurrentHashMap<>();
+  // Component id -> owning project, for callers that only know the component (record events, admission)
+  private final Map<String, String> projects = new ConcurrentHashMap<>();
+  // Bumped after every write; part of the coalescing key so no list query joins a computation older than a write
+  private final AtomicLong writeVersion = new AtomicLong();
+
+  private ServiceMetrics.PartitionGauges<Map<String, ComponentData>> componentGauges;
+  private Timer sortTimer;
+  private Timer validationTimer;
+  private Timer etagTimer;
+  private SingleFlight<ListKey, ComponentsListResponse> listFlights;
 
   public ComponentService() {
     // Initialize with some sample components for testing
     initializeSampleComponents();
   }
 
+  @PostConstruct
+  void bindMetrics() {
+    componentGauges = metrics.partitionGauges("aurenworks.store.components", "project", components, Map::size);
+    sortTimer = metrics.phaseTimer("components", "sort");
+    validationTimer = metrics.phaseTimer("components", "validate");
+    etagTimer = metrics.phaseTimer("components", "etag");
+    listFlights = coalescing.singleFlight("components", "list");
+  }
+
   public ComponentsListResponse listComponents(String projectId, int page, int size, String sortBy, String sortOrder,
       Role userRole) {
-    // Filter by projectId
-    List<ComponentData> filteredComponents = components.values().stream()
-        .filter(data -> data.projectId().equals(projectId)).collect(Collectors.toList());
+    ListKey key = new ListKey(projectId, page, size, sortBy, sortOrder, writeVersion.get());
+    return listFlights.execute(key, () -> list(projectId, page, size, sortBy, sortOrder));
+  }
+
+  private ComponentsListResponse list(String projectId, int page, int size, String sortBy, String sortOrder) {
+    ServiceEvents.ComponentOperation event = ServiceEvents.ComponentOperation.start("list");
+    long started = System.nanoTime();
+    Map<String, ComponentData> projectComponents = components.getOrDefault(projectId, Map.of());
+
+    // Apply pagination; the total comes from the project partition without scanning other projects
+    int total = projectComponents.size();
+    int totalPages = (int) Math.ceil((double) total / size);
+
+    // Validate page is within bounds
+    // If totalPages is 0, only page 0 is valid (empty result)
+    // If totalPages > 0, page must be < totalPages
+    if ((totalPages == 0 && page > 0) || (totalPages > 0 && page >= totalPages)) {
+      throw DomainException.Validation.field("page",
+          String.format("Page %d is out of bounds. Total pages: %d (0-based indexing)", page, totalPages));
+    }
 
-    // Apply sorting
+    Comparator<ComponentData> order;
     if (sortBy != null && !sortBy.isEmpty()) {
-      filteredComponents.sort((c1, c2) -> {
+      order = (c1, c2) -> {
         Component comp1 = c1.component();
         Component comp2 = c2.component();
         Object v1 = getSortValue(comp1, sortBy);
@@ -55,150 +117,177 @@ public class ComponentService {
 
         int comparison = v1.toString().compareTo(v2.toString());
         return "desc".equals(sortOrder) ? -comparison : comparison;
-      });
+      };
     } else {
       // Default sort by createdAt desc
-      filteredComponents.sort((c1, c2) -> c2.createdAt().compareTo(c1.createdAt()));
-    }
-
-    // Apply pagination
-    int total = filteredComponents.size();
-    int totalPages = (int) Math.ceil((double) total / size);
-
-    // Validate page is within bounds
-    // If totalPages is 0, only page 0 is valid (empty result)
-    // If totalPages > 0, page must be < totalPages
-    if ((totalPages == 0 && page > 0) || (totalPages > 0 && page >= totalPages)) {
-      throw new IllegalArgumentException(
-          String.format("Page %d is out of bounds. Total pages: %d (0-based indexing)", page, totalPages));
+      order = (c1, c2) -> c2.createdAt().compareTo(c1.createdAt());
     }
 
+    // Keep only the first (page + 1) * size components in a bounded heap instead of sorting the whole project
     int startIndex = page * size;
     int endIndex = Math.min(startIndex + size, total);
-
-    List<ComponentData> paginatedComponents = filteredComponents.subList(startIndex, endIndex);
+    long sortStarted = System.nanoTime();
+    List<ComponentData> top = topComponents(projectComponents.values(), order, endIndex);
+    long sorted = System.nanoTime();
+    sortTimer.record(sorted - sortStarted, TimeUnit.NANOSECONDS);
+    List<ComponentData> paginatedComponents = top.subList(Math.min(startIndex, top.size()), top.size());
 
     List<ComponentResponse> componentResponses = paginatedComponents.stream().map(this::toComponentResponse)
         .collect(Collectors.toList());
 
     ComponentsListResponse.PaginationInfo pagination = new ComponentsListResponse.PaginationInfo(page, size, total,
         totalPages, page < totalPages - 1, page > 0);
+    long finished = System.nanoTime();
 
+    slowQueryLog.record("listComponents", finished - started,
+        new ListPlan(projectId, page, size, sortBy, sortOrder, total, endIndex, componentResponses.size(),
+            TimeUnit.NANOSECONDS.toMicros(sorted - sortStarted), TimeUnit.NANOSECONDS.toMicros(finished - sorted)));
+    event.complete(projectId, null, sortBy, componentResponses.size());
     return new ComponentsListResponse(componentResponses, pagination);
   }
 
   public ComponentResponse createComponent(String projectId, CreateComponentRequest request, Role userRole) {
+    ServiceEvents.ComponentOperation event = ServiceEvents.ComponentOperation.start("create");
     // Check write permissions
     if (userRole == null || userRole == Role.VIEWER) {
-      throw new IllegalArgumentException("Insufficient permissions: VIEWER role cannot create components");
+      throw new DomainException.Forbidden("Insufficient permissions: VIEWER role cannot create components",
+          Map.of("projectId", projectId));
     }
 
     // Validate component schema
-    validateComponentSchema(request.fields());
+    validationTimer.record(() -> validateComponentSchema(request.fields()));
 
     // Generate component ID
     String componentId = UUID.randomUUID().toString();
-    String key = projectId + ":" + componentId;
 
     // Create component
     Instant now = Instant.now();
     Component component = new Component(componentId, request.name(), request.description(), request.fields(),
         request.metadata());
 
-    String etag = generateETag(component, now);
+    // Compiles the record schema and applies the TTL and aggregates the metadata declares; rejects invalid ones
+    recordService.registerComponent(component);
+
+    String etag = etagTimer.record(() -> generateETag(component, now));
     ComponentData componentData = new ComponentData(projectId, component, now, now, "system", etag);
 
-    components.put(key, componentData);
+    partition(projectId).put(componentId, componentData);
+    projects.put(componentId, projectId);
+    componentGauges.track(projectId);
+    writeVersion.incrementAndGet();
 
     // Log audit trail
     logAuditEvent("COMPONENT_CREATED", componentId, projectId);
 
-    return toComponentResponse(componentData);
+    ComponentResponse response = toComponentResponse(componentData);
+    changeFeed.publish(ChangeEvent.EntityType.COMPONENT, ChangeEvent.Operation.CREATED, projectId, componentId,
+        componentId, response);
+    event.complete(projectId, componentId, null, 1);
+    return response;
   }
 
   public ComponentResponse getComponent(String projectId, String componentId, Role userRole) {
-    String key = projectId + ":" + componentId;
-    ComponentData componentData = components.get(key);
+    ServiceEvents.ComponentOperation event = ServiceEvents.ComponentOperation.start("get");
+    ComponentData componentData = components.getOrDefault(projectId, Map.of()).get(componentId);
     if (componentData == null) {
-      throw new IllegalArgumentException("Component not found: " + componentId);
+      throw notFound(projectId, componentId);
     }
 
     // Check read permissions
     if (userRole == null || userRole == Role.VIEWER) {
       // VIEWER can read all components
+      event.complete(projectId, componentId, null, 1);
       return toComponentResponse(componentData);
     }
 
+    event.complete(projectId, componentId, null, 1);
     return toComponentResponse(componentData);
   }
 
   public ComponentResponse updateComponent(String projectId, String componentId, UpdateComponentRequest request,
       String ifMatch, Role userRole) {
-    String key = projectId + ":" + componentId;
-    ComponentData existingData = components.get(key);
+    ServiceEvents.ComponentOperation event = ServiceEvents.ComponentOperation.start("update");
+    ComponentData existingData = components.getOrDefault(projectId, Map.of()).get(componentId);
     if (existingData == null) {
-      throw new IllegalArgumentException("Component not found: " + componentId);
+      throw notFound(projectId, componentId);
     }
 
     // Check write permissions
     if (userRole == null || userRole == Role.VIEWER) {
-      throw new IllegalArgumentException("Insufficient permissions: VIEWER role cannot modify components");
+      throw new DomainException.Forbidden("Insufficient permissions: VIEWER role cannot modify components",
+          Map.of("projectId", projectId, "componentId", componentId));
     }
 
     // Check optimistic concurrency
     if (ifMatch != null && !ifMatch.equals(existingData.etag())) {
-      throw new IllegalArgumentException("ETag mismatch: component was modified by another user");
+      throw new DomainException.Conflict("ETag mismatch: component was modified by another user",
+          Map.of("projectId", projectId, "componentId", componentId));
     }
 
     // Validate component schema
-    validateComponentSchema(request.fields());
+    validationTimer.record(() -> validateComponentSchema(request.fields()));
 
     // Update component
     Instant now = Instant.now();
     Component updatedComponent = new Component(componentId, request.name(), request.description(), request.fields(),
         request.metadata());
 
-    String newEtag = generateETag(updatedComponent, now);
+    recordService.registerComponent(updatedComponent);
+
+    String newEtag = etagTimer.record(() -> generateETag(updatedComponent, now));
     ComponentData updatedData = new ComponentData(projectId, updatedComponent, existingData.createdAt(), now,
         existingData.createdBy(), newEtag);
 
-    components.put(key, updatedData);
+    partition(projectId).put(componentId, updatedData);
+    writeVersion.incrementAndGet();
 
     // Log audit trail
     logAuditEvent("COMPONENT_UPDATED", componentId, projectId);
 
-    return toComponentResponse(updatedData);
+    ComponentResponse response = toComponentResponse(updatedData);
+    changeFeed.publish(ChangeEvent.EntityType.COMPONENT, ChangeEvent.Operation.UPDATED, projectId, componentId,
+        componentId, response);
+    event.complete(projectId, componentId, null, 1);
+    return response;
   }
 
   public void deleteComponent(String projectId, String componentId, Role userRole) {
-    String key = projectId + ":" + componentId;
-    ComponentData componentData = components.get(key);
+    ServiceEvents.ComponentOperation event = ServiceEvents.ComponentOperation.start("delete");
+    ComponentData componentData = components.getOrDefault(projectId, Map.of()).get(componentId);
     if (componentData == null) {
-      throw new IllegalArgumentException("Component not found: " + componentId);
+      throw notFound(projectId, componentId);
     }
 
     // Check write permissions
     if (userRole == null || userRole == Role.VIEWER) {
-      throw new IllegalArgumentException("Insufficient permissions: VIEWER role cannot delete components");
+      throw new DomainException.Forbidden("Insufficient permissions: VIEWER role cannot delete components",
+          Map.of("projectId", projectId, "componentId", componentId));
     }
 
-    components.remove(key);
+    partition(projectId).remove(componentId);
+    projects.remove(componentId, projectId);
+    recordService.unregisterComponent(componentId);
+    writeVersion.incrementAndGet();
 
     // Log audit trail
     logAuditEvent("COMPONENT_DELETED", componentId, projectId);
+
+    changeFeed.publish(ChangeEvent.EntityType.COMPONENT, ChangeEvent.Operation.DELETED, projectId, componentId,
+        componentId, null);
+    event.complete(projectId, componentId, null, 1);
   }
 
   private void validateComponentSchema(java.util.List<Component.ComponentField> fields) {
     if (fields == null || fields.isEmpty()) {
-      throw new IllegalArgumentException("Component must have at least one field");
+      throw DomainException.Validation.field("fields", "Component must have at least one field");
     }
 
     for (Component.ComponentField field : fields) {
       if (field.name() == null || field.name().trim().isEmpty()) {
-        throw new IllegalArgumentException("Field name cannot be empty");
+        throw DomainException.Validation.field("fields", "Field name cannot be empty");
       }
       if (field.type() == null || field.type().trim().isEmpty()) {
-        throw new IllegalArgumentException("Field type cannot be empty for field: " + field.name());
+        throw DomainException.Validation.field("fields", "Field type cannot be empty for field: " + field.name());
       }
     }
   }
@@ -210,7 +299,7 @@ public class ComponentService {
         componentData.etag());
   }
 
-  private String generateETag(Component component, Instant timestamp) {
+  String generateETag(Component component, Instant timestamp) {
     try {
       String content = component.id() + component.name() + component.description() + component.fields().toString()
           + component.metadata().toString() + timestamp.toString();
@@ -223,6 +312,34 @@ public class ComponentService {
     }
   }
 
+  private static DomainException.NotFound notFound(String projectId, String componentId) {
+    return new DomainException.NotFound("Component not found: " + componentId,
+        Map.of("projectId", projectId, "componentId", componentId));
+  }
+
+  private Map<String, ComponentData> partition(String projectId) {
+    return components.computeIfAbsent(projectId, id -> new ConcurrentHashMap<>());
+  }
+
+  private static List<ComponentData> topComponents(Collection<ComponentData> candidates,
+      Comparator<ComponentData> order, int limit) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    PriorityQueue<ComponentData> heap = new PriorityQueue<>(limit + 1, order.reversed());
+    for (ComponentData candidate : candidates) {
+      if (heap.size() < limit) {
+        heap.offer(candidate);
+      } else if (order.compare(candidate, heap.peek()) < 0) {
+        heap.poll();
+        heap.offer(candidate);
+      }
+    }
+    List<ComponentData> top = new ArrayList<>(heap);
+    top.sort(order);
+    return top;
+  }
+
   private Object getSortValue(Component component, String sortBy) {
     return switch (sortBy.toLowerCase()) {
       case "name" -> component.name();
@@ -238,21 +355,80 @@ public class ComponentService {
         projectId, Instant.now()));
   }
 
+  /**
+   * One section per project. Component writes are not paused: every entry is an immutable value, so each component
+   * is captured as it was at some point during the snapshot.
+   */
+  List<SnapshotFile.Section> snapshotSections() {
+    return components.entrySet().parallelStream().map(project -> {
+      List<ComponentData> entries = new ArrayList<>(project.getValue().values());
+      SnapshotFile.Writer out = new SnapshotFile.Writer();
+      out.writeString(project.getKey());
+      out.writeVarInt(entries.size());
+      for (ComponentData data : entries) {
+        SnapshotFile.writeComponent(out, data.component());
+        out.writeInstant(data.createdAt());
+        out.writeInstant(data.updatedAt());
+        out.writeString(data.createdBy());
+        out.writeString(data.etag());
+      }
+      return SnapshotFile.Section.of(SnapshotFile.Kind.COMPONENTS, out);
+    }).toList();
+  }
+
+  /** Empties the store ahead of a restore; only called at startup, before any traffic. */
+  void clearForRestore() {
+    components.clear();
+    projects.clear();
+  }
+
+  void restoreSection(SnapshotFile.Section section) throws IOException {
+    if (section.kind() != SnapshotFile.Kind.COMPONENTS) {
+      throw new IOException("Unexpected " + section.kind() + " section for the component store");
+    }
+    SnapshotFile.Reader in = section.reader();
+    String projectId = in.readString();
+    int count = in.readVarInt();
+    Map<String, ComponentData> projectComponents = new ConcurrentHashMap<>(count * 4 / 3 + 1);
+    for (int i = 0; i < count; i++) {
+      Component component = SnapshotFile.readComponent(in);
+      projectComponents.put(component.id(), new ComponentData(projectId, component, in.readInstant(),
+          in.readInstant(), in.readString(), in.readString()));
+      projects.put(component.id(), projectId);
+    }
+    components.put(projectId, projectComponents);
+  }
+
+  void restoreCompleted() {
+    components.keySet().forEach(componentGauges::track);
+    writeVersion.incrementAndGet();
+  }
+
+  /** The project the component belongs to, or {@code null} for an unknown component. */
+  public String projectOf(String componentId) {
+    return componentId == null ? null : projects.get(componentId);
+  }
+
+  long componentCount() {
+    return components.values().stream().mapToLong(Map::size).sum();
+  }
+
   private void initializeSampleComponents() {
     // Sample component for testing
-    String projectId = "default-project";
-    Component.ComponentField nameField = new Component.ComponentField("name", "string", true, Map.of("maxLength", 100));
-    Component.ComponentField ageField = new Component.ComponentField("age", "number", false,
-        Map.of("min", 0, "max", 150));
-    Component.ComponentField activeField = new Component.ComponentField("active", "boolean", false, Map.of());
+    Instant now = Instant.now();
+    String etag = generateETag(SampleData.USER, now);
+    ComponentData componentData = new ComponentData(SampleData.DEFAULT_PROJECT, SampleData.USER, now, now, "system",
+        etag);
+    partition(SampleData.DEFAULT_PROJECT).put(SampleData.USER.id(), componentData);
+    projects.put(SampleData.USER.id(), SampleData.DEFAULT_PROJECT);
+  }
 
-    Component userComponent = new Component("user", "User", "User information component",
-        java.util.List.of(nameField, ageField, activeField), Map.of("version", "1.0"));
+  private record ListKey(String projectId, int page, int size, String sortBy, String sortOrder, long writeVersion) {
+  }
 
-    Instant now = Instant.now();
-    String etag = generateETag(userComponent, now);
-    ComponentData componentData = new ComponentData(projectId, userComponent, now, now, "system", etag);
-    components.put(projectId + ":user", componentData);
+  // Slow-query log entry: every component of the project is a candidate for the bounded heap of heapSize
+  private record ListPlan(String projectId, int page, int size, String sortBy, String sortOrder, int candidateCount,
+      int heapSize, int resultSize, long sortMicros, long materializeMicros) {
   }
 
   private record ComponentData(String projectId, Component component, Instant createdAt, Instant updatedAt,
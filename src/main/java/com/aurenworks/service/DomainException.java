@@ -0,0 +1,63 @@
+package com.aurenworks.service;
+
+import java.util.Map;
+
+/**
+ * Expected failures of an API operation, mapped to a status and error code in one place ({@code ApiExceptionMapper}).
+ *
+ * <p>
+ * These are control flow on the request path, not bugs, so they are stackless: creating one costs no more than the
+ * message string. {@code details} ends up in the error envelope verbatim and must only hold ids and field names.
+ */
+public abstract sealed class DomainException extends RuntimeException {
+
+  private final transient Map<String, Object> details;
+
+  private DomainException(String message, Map<String, Object> details) {
+    super(message, null, false, false);
+    this.details = details;
+  }
+
+  public Map<String, Object> details() {
+    return details;
+  }
+
+  /** The addressed entity does not exist. */
+  public static final class NotFound extends DomainException {
+    public NotFound(String message, Map<String, Object> details) {
+      super(message, details);
+    }
+  }
+
+  /** The request conflicts with the entity's current state, e.g. a stale {@code If-Match}. */
+  public static final class Conflict extends DomainException {
+    public Conflict(String message, Map<String, Object> details) {
+      super(message, details);
+    }
+  }
+
+  /** The request is well-formed but cannot be applied as sent, e.g. an idempotency key reused for another body. */
+  public static final class Unprocessable extends DomainException {
+    public Unprocessable(String message, Map<String, Object> details) {
+      super(message, details);
+    }
+  }
+
+  /** The caller's role does not allow the operation. */
+  public static final class Forbidden extends DomainException {
+    public Forbidden(String message, Map<String, Object> details) {
+      super(message, details);
+    }
+  }
+
+  /** The request itself is invalid; {@code details.field} names the offending parameter or field when known. */
+  public static final class Validation extends DomainException {
+    public Validation(String message, Map<String, Object> details) {
+      super(message, details);
+    }
+
+    public static Validation field(String field, String message) {
+      return new Validation(message, Map.of("field", field));
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package com.aurenworks.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timing wheel for record expiry.
+ *
+ * <p>
+ * Four levels of 64 slots each. A slot on level {@code n} spans {@code 64^n} ticks, so with one-second ticks the wheel
+ * reaches about 194 days ahead; later deadlines wait in the furthest slot and are re-placed when it comes round.
+ * Scheduling appends to one slot. Each entry is moved down at most once per level before its slot on level 0 fires, so
+ * expiry costs O(1) per entry and never scans entries that are not due. Advancing over ticks with no entries costs one
+ * step per tick, and an empty wheel jumps straight to the new time.
+ */
+final class ExpiryWheel {
+
+  static final int SLOT_BITS = 6;
+  static final int SLOTS = 1 << SLOT_BITS;
+  static final int LEVELS = 4;
+  private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+  record Entry(String id, long expiresAtMillis) {
+  }
+
+  private final long tickMillis;
+  private final List<List<Entry>> slots = new ArrayList<>(LEVELS * SLOTS);
+  // Not a monitor: records are created on virtual threads, which must not pin their carrier
+  private final ReentrantLock lock = new ReentrantLock();
+  // Every tick up to and including this one has fired
+  private long currentTick;
+  private int size;
+
+  ExpiryWheel(long tickMillis, long nowMillis) {
+    this.tickMillis = tickMillis;
+    this.currentTick = nowMillis / tickMillis;
+    for (int i = 0; i < LEVELS * SLOTS; i++) {
+      slots.add(new ArrayList<>());
+    }
+  }
+
+  /** Schedules an entry; a deadline that has already passed fires on the next advance. */
+  void schedule(String id, long expiresAtMillis) {
+    lock.lock();
+    try {
+      Entry entry = new Entry(id, expiresAtMillis);
+      if (!place(entry)) {
+        slot(0, currentTick + 1).add(entry);
+      }
+      size++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Fires every tick up to {@code nowMillis} and returns the entries that are due, in deadline-tick order. */
+  List<Entry> advance(long nowMillis) {
+    long target = nowMillis / tickMillis;
+    lock.lock();
+    try {
+      if (target <= currentTick) {
+        return List.of();
+      }
+      if (size == 0) {
+        currentTick = target;
+        return List.of();
+      }
+      List<Entry> due = new ArrayList<>();
+      while (currentTick < target && size > 0) {
+        currentTick++;
+        // Crossing a level boundary brings that level's slot down before level 0 fires
+        for (int level = LEVELS - 1; level > 0; level--) {
+          if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+            cascade(level, due);
+          }
+        }
+        List<Entry> fired = slot(0, currentTick);
+        if (!fired.isEmpty()) {
+          due.addAll(fired);
+          size -= fired.size();
+          fired.clear();
+        }
+      }
+      currentTick = target;
+      return due;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int size() {
+    lock.lock();
+    try {
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void clear() {
+    lock.lock();
+    try {
+      slots.forEach(List::clear);
+      size = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void cascade(int level, List<Entry> due) {
+    List<Entry> slot = slot(level, currentTick);
+    if (slot.isEmpty()) {
+      return;
+    }
+    List<Entry> moving = new ArrayList<>(slot);
+    slot.clear();
+    for (Entry entry : moving) {
+      if (!place(entry)) {
+        due.add(entry);
+        size--;
+      }
+    }
+  }
+
+  /** Puts the entry in the lowest level that reaches its tick; {@code false} when that tick has already fired. */
+  private boolean place(Entry entry) {
+    long tick = Math.ceilDiv(entry.expiresAtMillis(), tickMillis);
+    long delta = tick - currentTick;
+    if (delta <= 0) {
+      return false;
+    }
+    if (delta >= SPAN) {
+      tick = currentTick + SPAN - 1;
+      delta = SPAN - 1;
+    }
+    int level = 0;
+    while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+      level++;
+    }
+    slot(level, tick).add(entry);
+    return true;
+  }
+
+  private List<Entry> slot(int level, long tick) {
+    return slots.get(level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+  }
+}
@@ -0,0 +1,123 @@
+package com.aurenworks.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+
+/**
+ * Continuous JDK Flight Recorder recording with the {@link ServiceEvents} enabled.
+ *
+ * <p>
+ * Started at boot when {@code aurenworks.jfr.enabled=true}. The recording keeps a rolling window
+ * ({@code aurenworks.jfr.max-age} / {@code max-size}) on disk and can be dumped at any time, either through
+ * {@link #dump()} or with {@code jcmd <pid> JFR.dump name=aurenworks}.
+ */
+@ApplicationScoped
+public class FlightRecordingService {
+
+  static final String RECORDING_NAME = "aurenworks";
+
+  @ConfigProperty(name = "aurenworks.jfr.enabled", defaultValue = "false")
+  boolean enabled;
+
+  // JDK settings file: "default" is the low-overhead continuous profile, "profile" samples more aggressively
+  @ConfigProperty(name = "aurenworks.jfr.settings", defaultValue = "default")
+  String settings;
+
+  @ConfigProperty(name = "aurenworks.jfr.max-age", defaultValue = "15m")
+  Duration maxAge;
+
+  @ConfigProperty(name = "aurenworks.jfr.max-size", defaultValue = "100M")
+  MemorySize maxSize;
+
+  // Service events shorter than this are dropped; 0ms records every operation
+  @ConfigProperty(name = "aurenworks.jfr.event-threshold", defaultValue = "1ms")
+  Duration eventThreshold;
+
+  // Dumping does file I/O under the lock; a ReentrantLock does not pin a virtual thread's carrier like a monitor
+  private final ReentrantLock lock = new ReentrantLock();
+  private Recording recording;
+
+  void onStart(@Observes StartupEvent event) throws IOException, ParseException {
+    if (enabled) {
+      start();
+    }
+  }
+
+  void onStop(@Observes ShutdownEvent event) {
+    stop();
+  }
+
+  public void start() throws IOException, ParseException {
+    lock.lock();
+    try {
+      if (recording != null) {
+        return;
+      }
+      Recording continuous = new Recording(Configuration.getConfiguration(settings));
+      continuous.setName(RECORDING_NAME);
+      continuous.setToDisk(true);
+      continuous.setMaxAge(maxAge);
+      continuous.setMaxSize(maxSize.asLongValue());
+      for (Class<? extends Event> type : ServiceEvents.ALL) {
+        continuous.enable(type).withThreshold(eventThreshold);
+      }
+      continuous.start();
+      recording = continuous;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void stop() {
+    lock.lock();
+    try {
+      if (recording != null) {
+        recording.close();
+        recording = null;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public boolean isRecording() {
+    lock.lock();
+    try {
+      return recording != null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes the retained window of the continuous recording to a temporary file; the caller owns (and deletes) it.
+   */
+  public Path dump() throws IOException {
+    lock.lock();
+    try {
+      if (recording == null) {
+        throw new IllegalStateException("No continuous recording is running");
+      }
+      Path file = Files.createTempFile("aurenworks-", ".jfr");
+      recording.dump(file);
+      return file;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package com.aurenworks.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Remembers the results of writes sent with an {@code Idempotency-Key}, so a client retrying a create after a timeout
+ * gets the original response back instead of creating a second entity.
+ *
+ * <p>
+ * Results are keyed by scope (the route and the project or component it writes to) and key, and keep the request they
+ * answered: a key reused for a request that is not equal to it is rejected rather than answered with the other
+ * request's result. A retry arriving while the original still runs waits for it, at most {@code wait-timeout}. Only
+ * results are kept; a write that fails releases its key, so a corrected retry runs again.
+ *
+ * <p>
+ * Completed entries expire {@code ttl} after they were written, and at most {@code max-entries} are kept, oldest
+ * dropped first. Entries whose write is still running are never dropped, so a retry always finds the original; while
+ * many are running the map may briefly hold more than {@code max-entries}. The map is in insertion order, so expired
+ * entries collect at its head and are purged from there under the same lock that looks keys up.
+ */
+@ApplicationScoped
+public class IdempotencyKeys {
+
+  public static final int MAX_KEY_LENGTH = 255;
+
+  private static final String HEADER = "Idempotency-Key";
+
+  @Inject
+  ServiceMetrics metrics;
+
+  @ConfigProperty(name = "aurenworks.idempotency.ttl", defaultValue = "24h")
+  Duration ttl;
+
+  @ConfigProperty(name = "aurenworks.idempotency.max-entries", defaultValue = "10000")
+  int maxEntries;
+
+  @ConfigProperty(name = "aurenworks.idempotency.wait-timeout", defaultValue = "10s")
+  Duration waitTimeout;
+
+  LongSupplier clock = System::nanoTime;
+
+  // Not a monitor: writes run on virtual threads, which must not pin their carrier
+  private final ReentrantLock lock = new ReentrantLock();
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>();
+  private Counter executed;
+  private Counter replayed;
+  private Counter joined;
+  private Counter mismatched;
+  private Counter timedOut;
+
+  /** A write's result, and whether it was replayed from an earlier request with the same key. */
+  public record Outcome<T>(T value, boolean replayed) {
+  }
+
+  private record Key(String scope, String key) {
+  }
+
+  private static final class Entry {
+    // Compared with equals, not by hash: two different bodies with colliding hashes must not share a result
+    final Object request;
+    final CompletableFuture<Object> result = new CompletableFuture<>();
+    volatile long expiresAt;
+
+    Entry(Object request) {
+      this.request = request;
+    }
+
+    boolean expired(long now) {
+      return result.isDone() && now - expiresAt >= 0;
+    }
+  }
+
+  @PostConstruct
+  void init() {
+    executed = counter("executed");
+    replayed = counter("replayed");
+    joined = counter("joined");
+    mismatched = counter("mismatch");
+    timedOut = counter("timeout");
+    metrics.gauge("aurenworks.idempotency.entries", "Write results kept for Idempotency-Key retries", this,
+        IdempotencyKeys::size);
+  }
+
+  private Counter counter(String outcome) {
+    return metrics.counter("aurenworks.idempotency.requests", "Writes sent with an Idempotency-Key", "outcome",
+        outcome);
+  }
+
+  /**
+   * Runs {@code write} once per {@code (scope, key)}: later calls with the same key and an equal {@code request} get
+   * its result, marked as replayed, without running it. A null key runs the write unconditionally.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Outcome<T> execute(String scope, String key, Object request, Supplier<T> write) {
+    if (key == null) {
+      return new Outcome<>(write.get(), false);
+    }
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      throw DomainException.Validation.field(HEADER,
+          HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " non-blank characters");
+    }
+    Key id = new Key(scope, key);
+    Entry entry;
+    boolean leader = false;
+    lock.lock();
+    try {
+      long now = clock.getAsLong();
+      purge(now);
+      entry = entries.get(id);
+      if (entry == null || entry.expired(now)) {
+        entry = new Entry(request);
+        // Removing first puts a replaced entry at the tail, where the purge expects the newest entries
+        entries.remove(id);
+        entries.put(id, entry);
+        evictOverflow();
+        leader = true;
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (leader) {
+      return new Outcome<>(lead(id, entry, write), false);
+    }
+    if (!Objects.equals(entry.request, request)) {
+      mismatched.increment();
+      throw new DomainException.Unprocessable(HEADER + " was already used for a different request",
+          Map.of("field", HEADER));
+    }
+    return new Outcome<>((T) follow(entry), true);
+  }
+
+  private <T> T lead(Key id, Entry entry, Supplier<T> write) {
+    T value;
+    try {
+      value = write.get();
+    } catch (RuntimeException | Error e) {
+      lock.lock();
+      try {
+        entries.remove(id, entry);
+      } finally {
+        lock.unlock();
+      }
+      entry.result.completeExceptionally(e);
+      throw e;
+    }
+    entry.expiresAt = clock.getAsLong() + ttl.toNanos();
+    entry.result.complete(value);
+    executed.increment();
+    return value;
+  }
+
+  private Object follow(Entry entry) {
+    if (entry.result.isDone()) {
+      replayed.increment();
+    } else {
+      joined.increment();
+    }
+    try {
+      return entry.result.get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      timedOut.increment();
+      throw inProgress();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw inProgress();
+    } catch (ExecutionException e) {
+      // The original failed while this retry waited; it shares that failure, as it would have hit it too
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw (Error) e.getCause();
+    }
+  }
+
+  private static DomainException inProgress() {
+    return new DomainException.Conflict("A request with this " + HEADER + " is still in progress",
+        Map.of("field", HEADER));
+  }
+
+  private void purge(long now) {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (iterator.hasNext() && iterator.next().expired(now)) {
+      iterator.remove();
+    }
+  }
+
+  private void evictOverflow() {
+    Iterator<Entry> iterator = entries.values().iterator();
+    int excess = entries.size() - maxEntries;
+    while (excess > 0 && iterator.hasNext()) {
+      // A running write keeps its entry: dropping it would let a retry run the write a second time
+      if (iterator.next().result.isDone()) {
+        iterator.remove();
+        excess--;
+      }
+    }
+  }
+
+  int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
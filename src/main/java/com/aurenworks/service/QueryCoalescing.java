@@ -0,0 +1,41 @@
+package com.aurenworks.service;
+
+import java.time.Duration;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Creates the {@link SingleFlight} groups the services use for their list queries, so a burst of identical requests
+ * costs one scan and sort instead of one per request.
+ *
+ * <p>
+ * Callers put their store's write version into the key. A request arriving after a write completed therefore never
+ * joins a computation that started before it.
+ */
+@ApplicationScoped
+public class QueryCoalescing {
+
+  @Inject
+  ServiceMetrics metrics;
+
+  @ConfigProperty(name = "aurenworks.coalescing.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @ConfigProperty(name = "aurenworks.coalescing.follower-timeout", defaultValue = "2s")
+  Duration followerTimeout;
+
+  <K, V> SingleFlight<K, V> singleFlight(String service, String operation) {
+    return new SingleFlight<>(enabled, followerTimeout.toNanos(), counter(service, operation, "shared"),
+        counter(service, operation, "timeout"));
+  }
+
+  private Counter counter(String service, String operation, String outcome) {
+    return metrics.counter("aurenworks.coalescing.followers",
+        "List queries that waited on an identical in-flight query", "service", service,
+        "operation", operation, "outcome", outcome);
+  }
+}
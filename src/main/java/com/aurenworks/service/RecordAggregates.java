@@ -0,0 +1,254 @@
+package com.aurenworks.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.aurenworks.api.dto.RecordAggregateResponse;
+import com.aurenworks.model.Record;
+
+/**
+ * Count/sum/avg/min/max of a {@code number} field grouped by a {@code string} or {@code boolean} field.
+ *
+ * <p>
+ * Aggregates registered for a component are materialized: every write updates the matching group in O(1), so reading
+ * them is O(groups). Anything else is answered by a single scan over the component's records.
+ *
+ * <p>
+ * Removing a record (expiry) also costs O(1): counts and sums are decremented. Min and max cannot be undone that way,
+ * so removing a value at either bound marks the aggregate's extrema stale and {@link #refreshExtrema} recomputes them
+ * with one scan before they are next read or snapshotted.
+ */
+class RecordAggregates {
+
+  // ConcurrentHashMap does not allow null keys; records without a group value are collected under this sentinel
+  private static final Object NULL_GROUP = new Object();
+
+  private final Map<String, List<MaterializedAggregate>> materialized = new ConcurrentHashMap<>();
+
+  /** Materializes an aggregate from the component's existing records; callers keep writes out while it runs. */
+  void register(String componentId, String groupBy, String field, Iterable<Record> existingRecords) {
+    List<MaterializedAggregate> aggregates = materialized.computeIfAbsent(componentId,
+        id -> new CopyOnWriteArrayList<>());
+    if (find(componentId, groupBy, field) != null) {
+      return;
+    }
+    MaterializedAggregate aggregate = new MaterializedAggregate(groupBy, field);
+    for (Record record : existingRecords) {
+      aggregate.apply(record);
+    }
+    aggregates.add(aggregate);
+  }
+
+  void apply(Record record) {
+    List<MaterializedAggregate> aggregates = materialized.get(record.componentId());
+    if (aggregates != null) {
+      for (MaterializedAggregate aggregate : aggregates) {
+        aggregate.apply(record);
+      }
+    }
+  }
+
+  void remove(Record record) {
+    List<MaterializedAggregate> aggregates = materialized.get(record.componentId());
+    if (aggregates != null) {
+      for (MaterializedAggregate aggregate : aggregates) {
+        aggregate.remove(record);
+      }
+    }
+  }
+
+  boolean hasStaleExtrema(String componentId) {
+    List<MaterializedAggregate> aggregates = materialized.get(componentId);
+    return aggregates != null && aggregates.stream().anyMatch(aggregate -> aggregate.staleExtrema);
+  }
+
+  /** Recomputes stale min/max from the component's records; callers keep writes out while it runs. */
+  void refreshExtrema(String componentId, Iterable<Record> records) {
+    List<MaterializedAggregate> aggregates = materialized.get(componentId);
+    if (aggregates == null) {
+      return;
+    }
+    List<MaterializedAggregate> stale = aggregates.stream().filter(aggregate -> aggregate.staleExtrema).toList();
+    if (stale.isEmpty()) {
+      return;
+    }
+    stale.forEach(MaterializedAggregate::resetExtrema);
+    for (Record record : records) {
+      for (MaterializedAggregate aggregate : stale) {
+        aggregate.accumulateExtrema(record);
+      }
+    }
+  }
+
+  List<RecordAggregateResponse.Group> materializedGroups(String componentId, String groupBy, String field) {
+    MaterializedAggregate aggregate = find(componentId, groupBy, field);
+    return aggregate == null ? null : toGroups(aggregate.groups);
+  }
+
+  void clear() {
+    materialized.clear();
+  }
+
+  Iterable<String> componentIds() {
+    return materialized.keySet();
+  }
+
+  /** Writes the running totals of every aggregate registered for the component. */
+  void writeSnapshot(String componentId, SnapshotFile.Writer out) {
+    List<MaterializedAggregate> aggregates = materialized.getOrDefault(componentId, List.of());
+    out.writeString(componentId);
+    out.writeVarInt(aggregates.size());
+    for (MaterializedAggregate aggregate : aggregates) {
+      out.writeString(aggregate.groupBy);
+      out.writeString(aggregate.field);
+      out.writeVarInt(aggregate.groups.size());
+      aggregate.groups.forEach((key, stats) -> {
+        out.writeValue(key == NULL_GROUP ? null : key);
+        out.writeVarLong(stats.count.sum());
+        out.writeVarLong(stats.valueCount.sum());
+        out.writeDouble(stats.sum.sum());
+        out.writeDouble(stats.min.get());
+        out.writeDouble(stats.max.get());
+      });
+    }
+  }
+
+  /** Replaces the aggregates of the component the section was written for. */
+  void restoreSnapshot(SnapshotFile.Reader in) {
+    String componentId = in.readString();
+    int count = in.readVarInt();
+    List<MaterializedAggregate> aggregates = new CopyOnWriteArrayList<>();
+    for (int i = 0; i < count; i++) {
+      MaterializedAggregate aggregate = new MaterializedAggregate(in.readString(), in.readString());
+      int groupCount = in.readVarInt();
+      for (int j = 0; j < groupCount; j++) {
+        Object key = in.readValue();
+        GroupStats stats = new GroupStats();
+        stats.count.add(in.readVarLong());
+        stats.valueCount.add(in.readVarLong());
+        stats.sum.add(in.readDouble());
+        stats.min.accumulate(in.readDouble());
+        stats.max.accumulate(in.readDouble());
+        aggregate.groups.put(key == null ? NULL_GROUP : key, stats);
+      }
+      aggregates.add(aggregate);
+    }
+    materialized.put(componentId, aggregates);
+  }
+
+  static List<RecordAggregateResponse.Group> scan(Iterable<Record> records, String groupBy, String field) {
+    MaterializedAggregate aggregate = new MaterializedAggregate(groupBy, field);
+    for (Record record : records) {
+      aggregate.apply(record);
+    }
+    return toGroups(aggregate.groups);
+  }
+
+  private MaterializedAggregate find(String componentId, String groupBy, String field) {
+    List<MaterializedAggregate> aggregates = materialized.get(componentId);
+    if (aggregates == null) {
+      return null;
+    }
+    return aggregates.stream()
+        .filter(aggregate -> aggregate.groupBy.equals(groupBy) && Objects.equals(aggregate.field, field)).findFirst()
+        .orElse(null);
+  }
+
+  private static List<RecordAggregateResponse.Group> toGroups(Map<Object, GroupStats> groups) {
+    List<RecordAggregateResponse.Group> result = new ArrayList<>(groups.size());
+    groups.forEach((key, stats) -> {
+      // Every record of the group has expired
+      if (stats.count.sum() > 0) {
+        result.add(stats.toGroup(key == NULL_GROUP ? null : key));
+      }
+    });
+    result.sort(Comparator.comparing(group -> String.valueOf(group.key())));
+    return result;
+  }
+
+  private static final class MaterializedAggregate {
+    private final String groupBy;
+    private final String field;
+    private final Map<Object, GroupStats> groups = new ConcurrentHashMap<>();
+    private volatile boolean staleExtrema;
+
+    MaterializedAggregate(String groupBy, String field) {
+      this.groupBy = groupBy;
+      this.field = field;
+    }
+
+    void apply(Record record) {
+      Object key = record.values().get(groupBy);
+      GroupStats stats = groups.computeIfAbsent(key == null ? NULL_GROUP : key, k -> new GroupStats());
+      stats.count.increment();
+      if (field != null && record.values().get(field) instanceof Number number) {
+        double value = number.doubleValue();
+        stats.valueCount.increment();
+        stats.sum.add(value);
+        stats.min.accumulate(value);
+        stats.max.accumulate(value);
+      }
+    }
+
+    void remove(Record record) {
+      Object key = record.values().get(groupBy);
+      GroupStats stats = groups.get(key == null ? NULL_GROUP : key);
+      if (stats == null) {
+        return;
+      }
+      stats.count.decrement();
+      if (field != null && record.values().get(field) instanceof Number number) {
+        double value = number.doubleValue();
+        stats.valueCount.decrement();
+        stats.sum.add(-value);
+        if (value <= stats.min.get() || value >= stats.max.get()) {
+          staleExtrema = true;
+        }
+      }
+    }
+
+    void resetExtrema() {
+      staleExtrema = false;
+      groups.values().forEach(stats -> {
+        stats.min.reset();
+        stats.max.reset();
+      });
+    }
+
+    void accumulateExtrema(Record record) {
+      if (field != null && record.values().get(field) instanceof Number number) {
+        Object key = record.values().get(groupBy);
+        GroupStats stats = groups.get(key == null ? NULL_GROUP : key);
+        if (stats != null) {
+          stats.min.accumulate(number.doubleValue());
+          stats.max.accumulate(number.doubleValue());
+        }
+      }
+    }
+  }
+
+  private static final class GroupStats {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder valueCount = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+    private final DoubleAccumulator min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+    private final DoubleAccumulator max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+
+    RecordAggregateResponse.Group toGroup(Object key) {
+      long values = valueCount.sum();
+      if (values == 0) {
+        return new RecordAggregateResponse.Group(key, count.sum(), null, null, null, null);
+      }
+      double total = sum.sum();
+      return new RecordAggregateResponse.Group(key, count.sum(), total, total / values, min.get(), max.get());
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.aurenworks.service;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered record ids in UUIDv7 layout: 48 bits of Unix milliseconds, a 12-bit counter that keeps ids created in
+ * the same millisecond monotonic, and 62 random bits from {@link ThreadLocalRandom}.
+ *
+ * <p>
+ * The canonical lowercase string form sorts the same way as the ids were generated, so an ordered map keyed by id is
+ * also ordered by creation time and a creation-time window is a key range. When more than 4096 ids are needed in one
+ * millisecond the counter carries into the timestamp, which then runs slightly ahead of the clock.
+ */
+final class RecordIds {
+
+  private static final int COUNTER_BITS = 12;
+  private static final long VERSION = 0x7000L;
+  private static final long VARIANT = 0x8000_0000_0000_0000L;
+  private static final long RANDOM_MASK = 0x3fff_ffff_ffff_ffffL;
+
+  private final LongSupplier clock;
+  // Last issued (millis << COUNTER_BITS | counter)
+  private final AtomicLong last = new AtomicLong();
+
+  RecordIds() {
+    this(System::currentTimeMillis);
+  }
+
+  RecordIds(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Reserves the next (timestamp, counter) pair; turn it into an id with {@link #format} and into the creation time
+   * with {@link #createdAt}.
+   */
+  long nextSequence() {
+    long now = clock.getAsLong() << COUNTER_BITS;
+    while (true) {
+      long previous = last.get();
+      long next = Math.max(now, previous + 1);
+      if (last.compareAndSet(previous, next)) {
+        return next;
+      }
+    }
+  }
+
+  static String format(long sequence) {
+    long millis = sequence >>> COUNTER_BITS;
+    long counter = sequence & ((1L << COUNTER_BITS) - 1);
+    long mostSignificant = millis << 16 | VERSION | counter;
+    long leastSignificant = VARIANT | ThreadLocalRandom.current().nextLong() & RANDOM_MASK;
+    return new UUID(mostSignificant, leastSignificant).toString();
+  }
+
+  static Instant createdAt(long sequence) {
+    return Instant.ofEpochMilli(sequence >>> COUNTER_BITS);
+  }
+
+  /** The creation time encoded in {@code id}, in Unix milliseconds. */
+  static long epochMillis(String id) {
+    return Long.parseLong(id, 0, 8, 16) << 16 | Long.parseLong(id, 9, 13, 16);
+  }
+
+  /** The smallest id any record created at {@code epochMillis} or later can have. */
+  static String lowerBound(long epochMillis) {
+    return new UUID(epochMillis << 16 | VERSION, VARIANT).toString();
+  }
+}
@@ -0,0 +1,158 @@
+package com.aurenworks.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.logging.Logger;
+
+import com.aurenworks.model.Component;
+import com.aurenworks.model.RecordRow;
+
+/**
+ * A component's schema compiled for record validation: each field's ordinal, type and requiredness, and the row
+ * layout its records are stored in. Validating a record and building its {@link RecordRow} are one pass, whether the
+ * values arrive as a map ({@link #rowOf}) or are fed in while a request body is parsed ({@link #newRow},
+ * {@link #finish}). Immutable; a schema change compiles a new instance.
+ */
+public final class RecordSchema {
+
+  private static final Logger LOG = Logger.getLogger(RecordSchema.class);
+
+  public enum FieldType {
+    STRING("a string"), NUMBER("a number"), BOOLEAN("a boolean"), ARRAY("an array"), OBJECT("an object"),
+    // A type the schema names but validation does not know; any value is accepted
+    ANY(null);
+
+    private final String description;
+
+    FieldType(String description) {
+      this.description = description;
+    }
+
+    static FieldType of(String type) {
+      return switch (type == null ? "" : type.toLowerCase()) {
+        case "string" -> STRING;
+        case "number" -> NUMBER;
+        case "boolean" -> BOOLEAN;
+        case "array" -> ARRAY;
+        case "object" -> OBJECT;
+        default -> ANY;
+      };
+    }
+  }
+
+  private final Component component;
+  private final RecordRow.Layout layout;
+  private final String[] names;
+  private final FieldType[] types;
+  private final int[] required;
+
+  private RecordSchema(Component component) {
+    List<Component.ComponentField> fields = component.fields() == null ? List.of() : component.fields();
+    this.component = component;
+    this.layout = RecordRow.Layout.of(component);
+    this.names = new String[fields.size()];
+    this.types = new FieldType[fields.size()];
+    int requiredCount = 0;
+    for (int i = 0; i < names.length; i++) {
+      names[i] = fields.get(i).name();
+      types[i] = FieldType.of(fields.get(i).type());
+      if (types[i] == FieldType.ANY) {
+        LOG.warnf("Unknown field type %s for field %s of component %s; any value is accepted", fields.get(i).type(),
+            names[i], component.id());
+      }
+      if (fields.get(i).required()) {
+        requiredCount++;
+      }
+    }
+    this.required = new int[requiredCount];
+    for (int i = 0, next = 0; i < names.length; i++) {
+      if (fields.get(i).required()) {
+        required[next++] = i;
+      }
+    }
+  }
+
+  public static RecordSchema compile(Component component) {
+    return new RecordSchema(component);
+  }
+
+  public Component component() {
+    return component;
+  }
+
+  public RecordRow.Layout layout() {
+    return layout;
+  }
+
+  /** The field's ordinal, or -1 for a key the schema does not declare. */
+  public int ordinal(String key) {
+    return layout.ordinal(key);
+  }
+
+  public FieldType type(int field) {
+    return types[field];
+  }
+
+  public RecordRow.Builder newRow() {
+    return RecordRow.builder(layout);
+  }
+
+  /** Checks the required fields of a row fed through {@link #newRow} and builds it. */
+  public RecordRow finish(RecordRow.Builder row) {
+    for (int field : required) {
+      if (!row.hasValue(field)) {
+        throw DomainException.Validation.field(names[field], "Required field missing: " + names[field]);
+      }
+    }
+    return row.build();
+  }
+
+  /** Whether {@code values} is a row this schema built, and so was validated against it. */
+  public boolean built(Map<String, Object> values) {
+    return values instanceof RecordRow row && row.layout() == layout;
+  }
+
+  /** Validates map values and copies them into a row, in one walk of the map. */
+  public RecordRow rowOf(Map<String, Object> values) {
+    ServiceEvents.RecordValidate event = new ServiceEvents.RecordValidate();
+    event.begin();
+    boolean valid = false;
+    try {
+      RecordRow.Builder row = newRow();
+      for (Map.Entry<String, Object> entry : values.entrySet()) {
+        int field = ordinal(entry.getKey());
+        if (field >= 0 && entry.getValue() != null) {
+          check(field, entry.getValue());
+        }
+        row.put(entry.getKey(), entry.getValue());
+      }
+      RecordRow built = finish(row);
+      valid = true;
+      return built;
+    } finally {
+      // Failed validations are recorded too; a slow rejection is as interesting as a slow accept
+      event.complete(component.id(), names.length, valid);
+    }
+  }
+
+  private void check(int field, Object value) {
+    boolean matches = switch (types[field]) {
+      case STRING -> value instanceof String;
+      case NUMBER -> value instanceof Number;
+      case BOOLEAN -> value instanceof Boolean;
+      case ARRAY -> value instanceof List;
+      case OBJECT -> value instanceof Map;
+      case ANY -> true;
+    };
+    if (!matches) {
+      throw mismatch(field);
+    }
+  }
+
+  /** The error for a value of the wrong type in {@code field}. */
+  public DomainException.Validation mismatch(int field) {
+    return DomainException.Validation.field(names[field],
+        "Field " + names[field] + " must be " + types[field].description);
+  }
+}
@@ -0,0 +1,255 @@
+package com.aurenworks.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.aurenworks.model.Component;
+import com.aurenworks.model.Record;
+
+/**
+ * Incremental inverted index over the {@code string} fields of records, ranked with BM25.
+ *
+ * <p>
+ * There is one index per component. Terms are kept in a sorted map so that prefix queries are a range scan over the
+ * term dictionary; each posting list maps a record id to its term frequency.
+ */
+class RecordSearchIndex {
+
+  static final int MAX_TOKEN_LENGTH = 64;
+  static final int MAX_PREFIX_EXPANSIONS = 64;
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+
+  private final Map<String, ComponentIndex> indexes = new ConcurrentHashMap<>();
+
+  void index(Record record, Component component) {
+    Map<String, Integer> termFrequencies = termFrequencies(record, component);
+    int length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+    indexes.computeIfAbsent(record.componentId(), id -> new ComponentIndex()).add(record.id(), termFrequencies,
+        length);
+  }
+
+  void remove(Record record, Component component) {
+    ComponentIndex index = indexes.get(record.componentId());
+    if (index != null) {
+      index.remove(record.id(), termFrequencies(record, component).keySet());
+    }
+  }
+
+  void clear() {
+    indexes.clear();
+  }
+
+  /**
+   * Writes one component's index: its documents with their lengths, then every term with a posting list that refers
+   * to documents by position, so a record id is stored once per component rather than once per term.
+   */
+  void writeSnapshot(String componentId, SnapshotFile.Writer out) {
+    ComponentIndex index = indexes.get(componentId);
+    Map<String, Integer> documentLengths = index == null ? Map.of() : index.documentLengths;
+    out.writeString(componentId);
+    out.writeVarInt(documentLengths.size());
+    Map<String, Integer> positions = new HashMap<>(documentLengths.size() * 4 / 3 + 1);
+    documentLengths.forEach((recordId, length) -> {
+      positions.put(recordId, positions.size());
+      out.writeString(recordId);
+      out.writeVarInt(length);
+    });
+    NavigableMap<String, PostingList> postings = index == null ? new ConcurrentSkipListMap<>() : index.postings;
+    out.writeVarInt(postings.size());
+    postings.forEach((term, postingList) -> {
+      out.writeString(term);
+      out.writeVarInt(postingList.size());
+      postingList.forEach((recordId, frequency) -> {
+        out.writeVarInt(positions.get(recordId));
+        out.writeVarInt(frequency);
+      });
+    });
+  }
+
+  /** Replaces the index of the component the section was written for. */
+  void restoreSnapshot(SnapshotFile.Reader in) {
+    String componentId = in.readString();
+    ComponentIndex index = new ComponentIndex();
+    String[] documents = new String[in.readVarInt()];
+    long totalLength = 0;
+    for (int i = 0; i < documents.length; i++) {
+      documents[i] = in.readString();
+      int length = in.readVarInt();
+      index.documentLengths.put(documents[i], length);
+      totalLength += length;
+    }
+    index.totalLength.add(totalLength);
+    int termCount = in.readVarInt();
+    for (int i = 0; i < termCount; i++) {
+      String term = in.readString();
+      int postingCount = in.readVarInt();
+      PostingList postingList = new PostingList(postingCount * 4 / 3 + 1);
+      for (int j = 0; j < postingCount; j++) {
+        postingList.put(documents[in.readVarInt()], in.readVarInt());
+      }
+      // Terms were written in sorted order, so every insert lands at the tail of the skip list
+      index.postings.put(term, postingList);
+    }
+    indexes.put(componentId, index);
+  }
+
+  Iterable<String> componentIds() {
+    return indexes.keySet();
+  }
+
+  List<Hit> search(String componentId, String query, boolean prefix, int limit) {
+    ComponentIndex index = indexes.get(componentId);
+    List<String> queryTerms = tokenize(query);
+    if (index == null || queryTerms.isEmpty()) {
+      return List.of();
+    }
+    return index.search(queryTerms, prefix, limit);
+  }
+
+  static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (tokenChar && start < 0) {
+        start = i;
+      } else if (!tokenChar && start >= 0) {
+        if (i - start <= MAX_TOKEN_LENGTH) {
+          tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        }
+        start = -1;
+      }
+    }
+    return tokens;
+  }
+
+  private static Map<String, Integer> termFrequencies(Record record, Component component) {
+    Map<String, Integer> frequencies = new HashMap<>();
+    for (Component.ComponentField field : component.fields()) {
+      if ("string".equalsIgnoreCase(field.type()) && record.values().get(field.name()) instanceof String text) {
+        for (String token : tokenize(text)) {
+          frequencies.merge(token, 1, Integer::sum);
+        }
+      }
+    }
+    return frequencies;
+  }
+
+  record Hit(String recordId, double score) {
+  }
+
+  /**
+   * Record id to term frequency. A list that empties is retired and unlinked from the term dictionary under its lock,
+   * so an add that raced with the removal sees the flag and retries against a fresh list instead of writing into a
+   * detached one.
+   */
+  @SuppressWarnings("serial")
+  private static final class PostingList extends ConcurrentHashMap<String, Integer> {
+    private final transient ReentrantLock lock = new ReentrantLock();
+    private transient boolean retired;
+
+    PostingList(int initialCapacity) {
+      super(initialCapacity);
+    }
+  }
+
+  private static final class ComponentIndex {
+    private final ConcurrentSkipListMap<String, PostingList> postings = new ConcurrentSkipListMap<>();
+    private final Map<String, Integer> documentLengths = new ConcurrentHashMap<>();
+    private final LongAdder totalLength = new LongAdder();
+
+    void add(String recordId, Map<String, Integer> termFrequencies, int length) {
+      termFrequencies.forEach((term, frequency) -> {
+        while (true) {
+          PostingList list = postings.computeIfAbsent(term, t -> new PostingList(4));
+          list.lock.lock();
+          try {
+            if (!list.retired) {
+              list.put(recordId, frequency);
+              return;
+            }
+          } finally {
+            list.lock.unlock();
+          }
+        }
+      });
+      Integer previous = documentLengths.put(recordId, length);
+      totalLength.add(length - (previous == null ? 0 : previous));
+    }
+
+    void remove(String recordId, Iterable<String> terms) {
+      for (String term : terms) {
+        PostingList list = postings.get(term);
+        if (list == null) {
+          continue;
+        }
+        list.lock.lock();
+        try {
+          list.remove(recordId);
+          if (list.isEmpty() && !list.retired) {
+            list.retired = true;
+            postings.remove(term, list);
+          }
+        } finally {
+          list.lock.unlock();
+        }
+      }
+      Integer previous = documentLengths.remove(recordId);
+      if (previous != null) {
+        totalLength.add(-previous);
+      }
+    }
+
+    List<Hit> search(List<String> queryTerms, boolean prefix, int limit) {
+      int documentCount = documentLengths.size();
+      if (documentCount == 0) {
+        return List.of();
+      }
+      double averageLength = Math.max(1.0, (double) totalLength.sum() / documentCount);
+
+      Map<String, Double> scores = new HashMap<>();
+      for (String queryTerm : queryTerms) {
+        for (PostingList postingList : matchingPostings(queryTerm, prefix)) {
+          double idf = Math.log(1 + (documentCount - postingList.size() + 0.5) / (postingList.size() + 0.5));
+          postingList.forEach((recordId, frequency) -> {
+            int length = documentLengths.getOrDefault(recordId, 0);
+            double tf = frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+            scores.merge(recordId, idf * tf, Double::sum);
+          });
+        }
+      }
+
+      // Keep only the top results in a bounded min-heap instead of sorting every match
+      PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+      scores.forEach((recordId, score) -> {
+        top.offer(new Hit(recordId, score));
+        if (top.size() > limit) {
+          top.poll();
+        }
+      });
+      List<Hit> hits = new ArrayList<>(top);
+      hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::recordId));
+      return hits;
+    }
+
+    private List<PostingList> matchingPostings(String term, boolean prefix) {
+      if (!prefix) {
+        PostingList postingList = postings.get(term);
+        return postingList == null ? List.of() : List.of(postingList);
+      }
+      NavigableMap<String, PostingList> range = postings.subMap(term, true, term + Character.MAX_VALUE, false);
+      return range.values().stream().limit(MAX_PREFIX_EXPANSIONS).toList();
+    }
+  }
+}
@@ -1,162 +1,625 @@
 package com.aurenworks.service;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
 import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.api.dto.RecordAggregateResponse;
+import com.aurenworks.api.dto.RecordBatchResponse;
+import com.aurenworks.api.dto.RecordQueryPlan;
 import com.aurenworks.api.dto.RecordResponse;
+import com.aurenworks.api.dto.RecordSearchResponse;
 import com.aurenworks.api.dto.RecordsListResponse;
+import com.aurenworks.model.ChangeEvent;
 import com.aurenworks.model.Component;
+import com.aurenworks.model.CreatedRange;
 import com.aurenworks.model.Record;
-
+import com.aurenworks.model.RecordRow;
+import com.aurenworks.model.TotalMode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
 
 @ApplicationScoped
 public class RecordService {
 
-  // In-memory storage for demo purposes
+  private static final Logger LOG = Logger.getLogger(RecordService.class);
+  // TTL granularity: expired records are evicted within one tick of their deadline
+  static final long EXPIRY_TICK_MILLIS = 1000;
+  // Records removed per hold of the store lock, so expiring a large cohort does not stall writers
+  static final int EXPIRY_BATCH = 1024;
+  // Top-k heaps grow from this size, so a deep page over few candidates does not allocate for the page depth
+  private static final int INITIAL_HEAP_CAPACITY = 1024;
+
+  @Inject
+  ChangeFeedService changeFeed;
+
+  @Inject
+  ServiceMetrics metrics;
+
+  @Inject
+  SlowQueryLog slowQueryLog;
+
+  @Inject
+  QueryCoalescing coalescing;
+
+  // Resolves the project of a record's component for its change events
+  @Inject
+  ComponentService componentService;
+
+  @ConfigProperty(name = "aurenworks.records.expiry.enabled", defaultValue = "true")
+  boolean expiryEnabled;
+
+  // 0 keeps every record on the heap
+  @ConfigProperty(name = "aurenworks.records.tier.heap-budget", defaultValue = "0")
+  MemorySize heapBudget;
+
+  @ConfigProperty(name = "aurenworks.records.tier.spill-path", defaultValue = "data/spill")
+  String spillPath;
+
+  // In-memory storage for demo purposes, spilling to local disk past the heap budget
   // In production, this would be replaced with database persistence
-  private final Map<String, Record> records = new ConcurrentHashMap<>();
+  private TieredRecordStore records;
+  // Per-component record ids, time-ordered, each with a live counter for O(1) totals
+  private final Map<String, RecordPartition> partitions = new ConcurrentHashMap<>();
   private final Map<String, Component> components = new ConcurrentHashMap<>();
+  private final RecordSearchIndex searchIndex = new RecordSearchIndex();
+  private final RecordAggregates aggregates = new RecordAggregates();
+  private final RecordIds recordIds = new RecordIds();
+  // Bumped after every write; part of the coalescing key so no list query joins a computation older than a write
+  private final AtomicLong writeVersion = new AtomicLong();
+  // Writes share the read side; a snapshot takes the write side so the indexes it captures match the records
+  private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+  // Default TTL per component, from its "ttl" metadata
+  private final Map<String, Duration> defaultTtls = new ConcurrentHashMap<>();
+  // Compiled schema per component; its row layout is shared by all of the component's records
+  private final Map<String, RecordSchema> schemas = new ConcurrentHashMap<>();
+  private final ExpiryWheel expiryWheel = new ExpiryWheel(EXPIRY_TICK_MILLIS, System.currentTimeMillis());
+  private ScheduledExecutorService expiryScheduler;
+
+  private ServiceMetrics.PartitionGauges<RecordPartition> recordGauges;
+  private Timer filterTimer;
+  private Timer sortTimer;
+  private Timer validationTimer;
+  private SingleFlight<ListKey, RecordsListResponse> listFlights;
+  private Counter expiredCounter;
 
   public RecordService() {
     // Initialize with some sample components for testing
     initializeSampleComponents();
   }
 
-  public RecordResponse createRecord(CreateRecordRequest request) {
-    // Validate component exists
-    Component component = components.get(request.componentId());
-    if (component == null) {
-      throw new IllegalArgumentException("Component not found: " + request.componentId());
+  @PostConstruct
+  void init() {
+    records = new TieredRecordStore(heapBudget == null ? 0 : heapBudget.asLongValue(),
+        Path.of(spillPath == null ? "data/spill" : spillPath), this::layoutOf);
+    bindMetrics();
+  }
+
+  private void bindMetrics() {
+    recordGauges = metrics.partitionGauges("aurenworks.store.records", "component", partitions,
+        partition -> partition.count.sum());
+    filterTimer = metrics.phaseTimer("records", "filter");
+    sortTimer = metrics.phaseTimer("records", "sort");
+    validationTimer = metrics.phaseTimer("records", "validate");
+    listFlights = coalescing.singleFlight("records", "list");
+    expiredCounter = metrics.counter("aurenworks.records.expired", "Records evicted because their TTL passed");
+
+    String reads = "aurenworks.records.tier.reads";
+    metrics.functionCounter(reads, "Record reads by the tier that served them", records,
+        TieredRecordStore::hotReads, "tier", "hot");
+    metrics.functionCounter(reads, "Record reads by the tier that served them", records,
+        TieredRecordStore::coldReads, "tier", "cold");
+    metrics.functionCounter(reads, "Record reads by the tier that served them", records,
+        TieredRecordStore::absentReads, "tier", "none");
+    metrics.functionCounter("aurenworks.records.tier.bloom.rejections",
+        "Cold-tier lookups that the Bloom filters answered without a disk read", records,
+        TieredRecordStore::bloomRejections);
+    metrics.functionCounter("aurenworks.records.tier.spilled", "Records written to the cold tier", records,
+        TieredRecordStore::spilledRecords);
+    metrics.gauge("aurenworks.records.tier.hit.ratio", "Share of record reads served from the heap", records,
+        TieredRecordStore::hitRatio);
+    metrics.gauge("aurenworks.records.tier.records", "Records held per tier", records,
+        TieredRecordStore::hotRecords, "tier", "hot");
+    metrics.gauge("aurenworks.records.tier.records", "Records held per tier", records,
+        TieredRecordStore::coldRecords, "tier", "cold");
+    metrics.gauge("aurenworks.records.tier.heap.bytes", "Estimated heap held by hot records", records,
+        TieredRecordStore::hotBytes);
+    metrics.gauge("aurenworks.records.tier.segments", "Spill segment files on disk", records,
+        TieredRecordStore::segmentCount);
+  }
+
+  void onStart(@Observes StartupEvent event) {
+    if (expiryEnabled) {
+      expiryScheduler = Executors
+          .newSingleThreadScheduledExecutor(Thread.ofPlatform().name("aurenworks-expiry").daemon().factory());
+      expiryScheduler.scheduleWithFixedDelay(this::periodicExpiry, EXPIRY_TICK_MILLIS, EXPIRY_TICK_MILLIS,
+          TimeUnit.MILLISECONDS);
     }
+  }
 
-    // Validate record values against component schema
-    validateRecordValues(request.values(), component);
+  void onStop(@Observes ShutdownEvent event) {
+    if (expiryScheduler != null) {
+      expiryScheduler.shutdownNow();
+    }
+  }
 
-    // Create new record
-    String recordId = UUID.randomUUID().toString();
-    Instant now = Instant.now();
+  public RecordResponse createRecord(CreateRecordRequest request) {
+    ServiceEvents.RecordCreate event = new ServiceEvents.RecordCreate();
+    event.begin();
 
-    Record record = new Record(recordId, request.componentId(), request.values(), now, now, "system", // TODO: Get from
-                                                                                                      // security
-                                                                                                      // context
-        request.metadata());
+    // Validate component exists
+    Component component = request.componentId() == null ? null : components.get(request.componentId());
+    if (component == null) {
+      throw DomainException.Validation.field("componentId", "Component not found: " + request.componentId());
+    }
 
-    records.put(recordId, record);
+    // Values parsed from a request body were validated while they were read; anything else is validated now
+    RecordSchema schema = schemaOf(component);
+    Map<String, Object> requested = request.values() == null ? Map.of() : request.values();
+    RecordRow values = schema.built(requested)
+        ? (RecordRow) requested
+        : validationTimer.record(() -> schema.rowOf(requested));
+
+    Duration ttl = request.ttl() != null ? parseTtl("ttl", request.ttl()) : defaultTtls.get(component.id());
+
+    // Create new record; the id is time-ordered and createdAt is the timestamp it carries
+    long sequence = recordIds.nextSequence();
+    String recordId = RecordIds.format(sequence);
+    Instant now = RecordIds.createdAt(sequence);
+    Instant expiresAt = ttl == null ? null : now.plusMillis(ttl.toMillis());
+
+    Record record = new Record(recordId, request.componentId(), values, now, now, "system", // TODO: Get from security
+                                                                                              // context
+        request.metadata(), expiresAt);
+
+    snapshotLock.readLock().lock();
+    try {
+      records.put(record);
+      partitions.computeIfAbsent(record.componentId(), id -> new RecordPartition()).add(recordId);
+      recordGauges.track(record.componentId());
+      searchIndex.index(record, component);
+      aggregates.apply(record);
+      if (expiresAt != null) {
+        expiryWheel.schedule(recordId, expiresAt.toEpochMilli());
+      }
+      writeVersion.incrementAndGet();
+    } finally {
+      snapshotLock.readLock().unlock();
+    }
 
     // Log audit trail
     logAuditEvent("RECORD_CREATED", recordId, request.componentId());
 
-    return toRecordResponse(record);
+    RecordResponse response = toRecordResponse(record);
+    changeFeed.publish(ChangeEvent.EntityType.RECORD, ChangeEvent.Operation.CREATED,
+        componentService.projectOf(request.componentId()), request.componentId(), recordId, response);
+    event.complete(request.componentId(), recordId, values.size());
+    return response;
   }
 
   public RecordsListResponse getRecords(String componentId, int page, int size, String sortBy, String sortOrder) {
-    List<Record> filteredRecords = records.values().stream()
-        .filter(record -> componentId == null || record.componentId().equals(componentId)).collect(Collectors.toList());
-
-    // Apply sorting
-    if (sortBy != null && !sortBy.isEmpty()) {
-      filteredRecords.sort((r1, r2) -> {
-        Object v1 = r1.values().get(sortBy);
-        Object v2 = r2.values().get(sortBy);
-
-        if (v1 == null && v2 == null)
-          return 0;
-        if (v1 == null)
-          return "asc".equals(sortOrder) ? 1 : -1;
-        if (v2 == null)
-          return "asc".equals(sortOrder) ? -1 : 1;
-
-        int comparison = v1.toString().compareTo(v2.toString());
-        return "desc".equals(sortOrder) ? -comparison : comparison;
-      });
-    } else {
-      // Default sort by createdAt desc
-      filteredRecords.sort((r1, r2) -> r2.createdAt().compareTo(r1.createdAt()));
-    }
+    return getRecords(componentId, page, size, sortBy, sortOrder, TotalMode.EXACT);
+  }
+
+  public RecordsListResponse getRecords(String componentId, int page, int size, String sortBy, String sortOrder,
+      TotalMode totalMode) {
+    return getRecords(componentId, page, size, sortBy, sortOrder, totalMode, CreatedRange.ALL);
+  }
+
+  public RecordsListResponse getRecords(String componentId, int page, int size, String sortBy, String sortOrder,
+      TotalMode totalMode, CreatedRange created) {
+    ListKey key = new ListKey(componentId, page, size, sortBy, sortOrder, totalMode, created, writeVersion.get());
+    return listFlights.execute(key,
+        () -> query(componentId, page, size, sortBy, sortOrder, totalMode, created).response());
+  }
+
+  public RecordQueryPlan explainRecords(String componentId, int page, int size, String sortBy, String sortOrder,
+      TotalMode totalMode) {
+    return explainRecords(componentId, page, size, sortBy, sortOrder, totalMode, CreatedRange.ALL);
+  }
 
-    // Apply pagination
-    int total = filteredRecords.size();
-    int totalPages = (int) Math.ceil((double) total / size);
-    int startIndex = page * size;
-    int endIndex = Math.min(startIndex + size, total);
+  /**
+   * Runs the query exactly as {@link #getRecords} would and returns how it was executed instead of the records.
+   */
+  public RecordQueryPlan explainRecords(String componentId, int page, int size, String sortBy, String sortOrder,
+      TotalMode totalMode, CreatedRange created) {
+    return query(componentId, page, size, sortBy, sortOrder, totalMode, created).plan();
+  }
 
-    List<Record> paginatedRecords = filteredRecords.subList(startIndex, endIndex);
+  private RecordQuery query(String componentId, int page, int size, String sortBy, String sortOrder,
+      TotalMode totalMode, CreatedRange created) {
+    ServiceEvents.RecordList event = new ServiceEvents.RecordList();
+    event.begin();
+    long started = System.nanoTime();
+
+    // Totals come from live counters; a creation-time window is an id range that has to be walked to be counted,
+    // which is skipped when no total is wanted (-1), folded into the scan when sorting, and replaced by an estimate
+    // from the partitions' creation-time spans when an estimate will do
+    IdRange range = IdRange.of(created);
+    boolean sorted = sortBy != null && !sortBy.isEmpty();
+    long candidateCount;
+    Long estimatedTotal = null;
+    if (range == null) {
+      candidateCount = componentId == null ? records.size() : partitionSize(componentId);
+    } else if (sorted || totalMode == TotalMode.NONE) {
+      candidateCount = -1;
+    } else if (totalMode == TotalMode.ESTIMATE) {
+      candidateCount = -1;
+      estimatedTotal = estimateWindow(componentId, range);
+    } else {
+      candidateCount = countWindow(componentId, range);
+    }
+    long offset = (long) page * size;
+    long counted = System.nanoTime();
+
+    // Fetch one record past the page so hasNext is known even when the total is not reported
+    List<Record> pageWithLookahead;
+    String sortStrategy;
+    Integer heapSize = null;
+    long examined;
+    if (candidateCount >= 0 && offset >= candidateCount) {
+      pageWithLookahead = List.of();
+      sortStrategy = "none";
+      examined = 0;
+    } else if (sorted) {
+      // Bounded heap of the first (offset + size + 1) records instead of sorting every candidate
+      ServiceEvents.RecordSort sortEvent = new ServiceEvents.RecordSort();
+      sortEvent.begin();
+      // Without a count (a creation-time window) the heap is bounded by the candidates the scan finds, not by the
+      // requested offset: it starts small and only grows with them
+      heapSize = (int) Math.min(candidateCount < 0 ? offset + size + 1 : Math.min(offset + size + 1, candidateCount),
+          Integer.MAX_VALUE - 1);
+      long[] visited = new long[1];
+      List<Record> top = topRecords(candidates(componentId, range), valueComparator(sortBy, sortOrder), heapSize,
+          visited);
+      if (candidateCount < 0) {
+        candidateCount = visited[0];
+      }
+      sortEvent.complete(componentId, sortBy, candidateCount, top.size());
+      pageWithLookahead = top.subList((int) Math.min(offset, top.size()), top.size());
+      sortStrategy = "top-k-heap";
+      examined = visited[0];
+    } else {
+      // Default order is newest first, which is descending id order within each partition; only the requested
+      // window is visited
+      pageWithLookahead = newestFirst(componentId, range).skip(offset).limit(size + 1L).map(records::peek)
+          .filter(Objects::nonNull).collect(Collectors.toList());
+      sortStrategy = componentId == null ? "k-way-merge" : "index-order";
+      examined = candidateCount < 0 ? offset + pageWithLookahead.size() : Math.min(candidateCount, offset + size + 1);
+    }
+    long selected = System.nanoTime();
+    (sorted ? sortTimer : filterTimer).record(selected - counted, TimeUnit.NANOSECONDS);
 
-    List<RecordResponse> recordResponses = paginatedRecords.stream().map(this::toRecordResponse)
+    boolean hasMore = pageWithLookahead.size() > size;
+    List<RecordResponse> recordResponses = pageWithLookahead.stream().limit(size).map(this::toRecordResponse)
         .collect(Collectors.toList());
 
-    RecordsListResponse.PaginationInfo pagination = new RecordsListResponse.PaginationInfo(page, size, total,
-        totalPages, page < totalPages - 1, page > 0);
+    Long total = estimatedTotal != null ? estimatedTotal
+        : totalMode == TotalMode.NONE || candidateCount < 0 ? null : candidateCount;
+    Integer totalPages = total == null ? null : (int) Math.ceil((double) total / size);
+    // An estimated total can be off either way, so only the lookahead decides whether there is a next page
+    boolean hasNext = totalPages == null || estimatedTotal != null ? hasMore : page < totalPages - 1;
 
-    return new RecordsListResponse(recordResponses, pagination);
+    RecordsListResponse.PaginationInfo pagination = new RecordsListResponse.PaginationInfo(page, size, total,
+        totalPages, hasNext, page > 0, estimatedTotal != null);
+    long finished = System.nanoTime();
+
+    Map<String, Long> phaseMicros = new LinkedHashMap<>();
+    phaseMicros.put("count", TimeUnit.NANOSECONDS.toMicros(counted - started));
+    phaseMicros.put(sorted ? "sort" : "scan", TimeUnit.NANOSECONDS.toMicros(selected - counted));
+    phaseMicros.put("materialize", TimeUnit.NANOSECONDS.toMicros(finished - selected));
+    String access = range != null ? "id-range" : componentId == null ? "full-scan" : "component-index";
+    RecordQueryPlan plan = new RecordQueryPlan(componentId, page, size, sortBy, sortOrder, totalMode, created.after(),
+        created.before(), access, sortStrategy, heapSize, candidateCount, examined, recordResponses.size(),
+        phaseMicros, TimeUnit.NANOSECONDS.toMicros(finished - started));
+    slowQueryLog.record("getRecords", finished - started, plan);
+
+    event.complete(componentId, page, size, sortBy, sortOrder, candidateCount, recordResponses.size());
+    return new RecordQuery(new RecordsListResponse(recordResponses, pagination), plan);
   }
 
   public RecordResponse getRecord(String id) {
     Record record = records.get(id);
     if (record == null) {
-      throw new IllegalArgumentException("Record not found: " + id);
+      throw new DomainException.NotFound("Record not found: " + id, Map.of("recordId", id));
     }
     return toRecordResponse(record);
   }
 
-  private void validateRecordValues(Map<String, Object> values, Component component) {
-    for (Component.ComponentField field : component.fields()) {
-      Object value = values.get(field.name());
+  /**
+   * Looks up every id in one pass over the store. Duplicate ids are answered once; ids that do not exist are reported
+   * in {@code missingIds} instead of failing the batch. Like a scan, a batch reads cold records in place rather than
+   * promoting them, so one large batch does not flush the hot tier.
+   */
+  public RecordBatchResponse getRecords(Collection<String> ids) {
+    Set<String> unique = new LinkedHashSet<>(ids);
+    Map<String, Record> stored = records.peekAll(unique);
+    List<RecordResponse> found = new ArrayList<>(stored.size());
+    List<String> missing = new ArrayList<>();
+    for (String id : unique) {
+      Record record = stored.get(id);
+      if (record != null) {
+        found.add(toRecordResponse(record));
+      } else {
+        missing.add(id);
+      }
+    }
+    return new RecordBatchResponse(found, missing);
+  }
+
+  public RecordSearchResponse searchRecords(String componentId, String query, boolean prefix, int limit) {
+    if (componentId == null || componentId.isEmpty()) {
+      throw DomainException.Validation.field("componentId", "componentId is required");
+    }
+    if (!components.containsKey(componentId)) {
+      throw DomainException.Validation.field("componentId", "Component not found: " + componentId);
+    }
+    if (query == null || query.isBlank()) {
+      throw DomainException.Validation.field("q", "Query must not be empty");
+    }
 
-      if (field.required() && value == null) {
-        throw new IllegalArgumentException("Required field missing: " + field.name());
+    // Like a batch get, hits are resolved in one pass without promotion, so a broad query does not flush the hot tier
+    List<RecordSearchIndex.Hit> ranked = searchIndex.search(componentId, query, prefix, limit);
+    List<String> ids = new ArrayList<>(ranked.size());
+    for (RecordSearchIndex.Hit hit : ranked) {
+      ids.add(hit.recordId());
+    }
+    Map<String, Record> stored = records.peekAll(ids);
+    List<RecordSearchResponse.SearchHit> hits = new ArrayList<>(ranked.size());
+    for (RecordSearchIndex.Hit hit : ranked) {
+      Record record = stored.get(hit.recordId());
+      if (record != null) {
+        hits.add(new RecordSearchResponse.SearchHit(hit.score(), toRecordResponse(record)));
       }
+    }
 
-      if (value != null) {
-        validateFieldType(value, field);
+    return new RecordSearchResponse(hits, hits.size());
+  }
+
+  public RecordAggregateResponse aggregateRecords(String componentId, String groupBy, String field) {
+    Component component = components.get(componentId);
+    if (component == null) {
+      throw DomainException.Validation.field("componentId", "Component not found: " + componentId);
+    }
+    validateAggregate(component, groupBy, field);
+
+    if (aggregates.hasStaleExtrema(componentId)) {
+      // An expired record held a min or max; rescan once with writes held off
+      snapshotLock.writeLock().lock();
+      try {
+        aggregates.refreshExtrema(componentId, recordsOf(componentId));
+      } finally {
+        snapshotLock.writeLock().unlock();
       }
     }
+    List<RecordAggregateResponse.Group> groups = aggregates.materializedGroups(componentId, groupBy, field);
+    boolean materialized = groups != null;
+    if (!materialized) {
+      groups = RecordAggregates.scan(recordsOf(componentId), groupBy, field);
+    }
+    return new RecordAggregateResponse(componentId, groupBy, field, materialized, groups);
   }
 
-  private void validateFieldType(Object value, Component.ComponentField field) {
-    String expectedType = field.type().toLowerCase();
+  public void registerAggregate(String componentId, String groupBy, String field) {
+    Component component = components.get(componentId);
+    if (component == null) {
+      throw DomainException.Validation.field("componentId", "Component not found: " + componentId);
+    }
+    validateAggregate(component, groupBy, field);
+    // Writes are held off for the backfill: one running alongside it would be counted by both apply() and the scan, or
+    // by neither. Registration is rare (component setup), so the pause is a one-off.
+    snapshotLock.writeLock().lock();
+    try {
+      aggregates.register(componentId, groupBy, field, recordsOf(componentId));
+    } finally {
+      snapshotLock.writeLock().unlock();
+    }
+  }
 
-    switch (expectedType) {
-      case "string" :
-        if (!(value instanceof String)) {
-          throw new IllegalArgumentException("Field " + field.name() + " must be a string");
-        }
-        break;
-      case "number" :
-        if (!(value instanceof Number)) {
-          throw new IllegalArgumentException("Field " + field.name() + " must be a number");
-        }
-        break;
-      case "boolean" :
-        if (!(value instanceof Boolean)) {
-          throw new IllegalArgumentException("Field " + field.name() + " must be a boolean");
-        }
-        break;
-      case "array" :
-        if (!(value instanceof List)) {
-          throw new IllegalArgumentException("Field " + field.name() + " must be an array");
+  private void validateAggregate(Component component, String groupBy, String field) {
+    Component.ComponentField groupField = findField(component, groupBy);
+    if (groupField == null || !("string".equalsIgnoreCase(groupField.type())
+        || "boolean".equalsIgnoreCase(groupField.type()))) {
+      throw DomainException.Validation.field("groupBy", "groupBy must be a string or boolean field: " + groupBy);
+    }
+    if (field != null) {
+      Component.ComponentField valueField = findField(component, field);
+      if (valueField == null || !"number".equalsIgnoreCase(valueField.type())) {
+        throw DomainException.Validation.field("field", "field must be a number field: " + field);
+      }
+    }
+  }
+
+  private Component.ComponentField findField(Component component, String name) {
+    return component.fields().stream().filter(f -> f.name().equals(name)).findFirst().orElse(null);
+  }
+
+  private List<Record> recordsOf(String componentId) {
+    RecordPartition partition = partitions.get(componentId);
+    return partition == null ? List.of() : resolve(partition.ids.stream()).toList();
+  }
+
+  private Iterable<Record> candidates(String componentId, IdRange range) {
+    if (componentId != null) {
+      RecordPartition partition = partitions.get(componentId);
+      return partition == null ? List.of() : () -> resolve(partition.window(range).stream()).iterator();
+    }
+    return () -> resolve(partitions.values().stream().flatMap(partition -> partition.window(range).stream()))
+        .iterator();
+  }
+
+  // Scans read through the tiers without promoting, so they do not evict what point reads keep hot; an id whose
+  // record expired since it was listed is skipped
+  private Stream<Record> resolve(Stream<String> ids) {
+    return ids.map(records::peek).filter(Objects::nonNull);
+  }
+
+  private long countWindow(String componentId, IdRange range) {
+    if (componentId != null) {
+      RecordPartition partition = partitions.get(componentId);
+      return partition == null ? 0 : partition.window(range).size();
+    }
+    long count = 0;
+    for (RecordPartition partition : partitions.values()) {
+      count += partition.window(range).size();
+    }
+    return count;
+  }
+
+  private long estimateWindow(String componentId, IdRange range) {
+    if (componentId != null) {
+      RecordPartition partition = partitions.get(componentId);
+      return partition == null ? 0 : partition.estimate(range);
+    }
+    long estimate = 0;
+    for (RecordPartition partition : partitions.values()) {
+      estimate += partition.estimate(range);
+    }
+    return estimate;
+  }
+
+  private long partitionSize(String componentId) {
+    RecordPartition partition = partitions.get(componentId);
+    return partition == null ? 0 : partition.count.sum();
+  }
+
+  /** Record ids, newest first; the records are only read for the page that is kept. */
+  private Stream<String> newestFirst(String componentId, IdRange range) {
+    if (componentId != null) {
+      RecordPartition partition = partitions.get(componentId);
+      return partition == null ? Stream.empty() : partition.window(range).descendingSet().stream();
+    }
+
+    // k-way merge of the per-component partitions, each already ordered newest first
+    PriorityQueue<PeekingIterator> heads = new PriorityQueue<>((a, b) -> b.head.compareTo(a.head));
+    for (RecordPartition partition : partitions.values()) {
+      Iterator<String> iterator = partition.window(range).descendingIterator();
+      if (iterator.hasNext()) {
+        heads.add(new PeekingIterator(iterator));
+      }
+    }
+    Iterator<String> merged = new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return !heads.isEmpty();
+      }
+
+      @Override
+      public String next() {
+        PeekingIterator head = heads.poll();
+        if (head == null) {
+          throw new NoSuchElementException();
         }
-        break;
-      case "object" :
-        if (!(value instanceof Map)) {
-          throw new IllegalArgumentException("Field " + field.name() + " must be an object");
+        String id = head.head;
+        if (head.advance()) {
+          heads.add(head);
         }
-        break;
-      default :
-        // For unknown types, just log a warning but don't fail
-        System.out.println("Warning: Unknown field type " + expectedType + " for field " + field.name());
+        return id;
+      }
+    };
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false);
+  }
+
+  private static List<Record> topRecords(Iterable<Record> candidates, Comparator<Record> order, int limit,
+      long[] visited) {
+    PriorityQueue<Record> heap = new PriorityQueue<>(Math.min(limit, INITIAL_HEAP_CAPACITY) + 1, order.reversed());
+    for (Record record : candidates) {
+      visited[0]++;
+      if (heap.size() < limit) {
+        heap.offer(record);
+      } else if (order.compare(record, heap.peek()) < 0) {
+        heap.poll();
+        heap.offer(record);
+      }
     }
+    List<Record> top = new ArrayList<>(heap);
+    top.sort(order);
+    return top;
+  }
+
+  private static Comparator<Record> valueComparator(String sortBy, String sortOrder) {
+    Comparator<Record> byValue = (r1, r2) -> {
+      Object v1 = r1.values().get(sortBy);
+      Object v2 = r2.values().get(sortBy);
+
+      if (v1 == null && v2 == null)
+        return 0;
+      if (v1 == null)
+        return "asc".equals(sortOrder) ? 1 : -1;
+      if (v2 == null)
+        return "asc".equals(sortOrder) ? -1 : 1;
+
+      int comparison = v1.toString().compareTo(v2.toString());
+      return "desc".equals(sortOrder) ? -comparison : comparison;
+    };
+    return byValue.thenComparing(Record::id);
+  }
+
+  /** Validates values against the component's schema and copies them into a row. */
+  RecordRow validateRecordValues(Map<String, Object> values, Component component) {
+    return schemaOf(component).rowOf(values);
+  }
+
+  /** The compiled schema of a registered component, or {@code null}; request bodies are validated against it. */
+  public RecordSchema schema(String componentId) {
+    return componentId == null ? null : schemas.get(componentId);
+  }
+
+  private RecordSchema schemaOf(Component component) {
+    RecordSchema schema = schemas.get(component.id());
+    // Compiled on the spot when the component was replaced since it was looked up
+    return schema != null && schema.component() == component ? schema : RecordSchema.compile(component);
+  }
+
+  private RecordRow.Layout layoutOf(String componentId) {
+    RecordSchema schema = schemas.get(componentId);
+    return schema == null ? null : schema.layout();
   }
 
-  private RecordResponse toRecordResponse(Record record) {
+  RecordResponse toRecordResponse(Record record) {
     return new RecordResponse(record.id(), record.componentId(), record.values(), record.createdAt(),
-        record.updatedAt(), record.createdBy(), record.metadata());
+        record.updatedAt(), record.createdBy(), record.metadata(), record.expiresAt());
   }
 
   private void logAuditEvent(String action, String recordId, String componentId) {
@@ -167,14 +630,354 @@ public class RecordService {
 
   private void initializeSampleComponents() {
     // Sample component for testing
-    Component.ComponentField nameField = new Component.ComponentField("name", "string", true, Map.of("maxLength", 100));
-    Component.ComponentField ageField = new Component.ComponentField("age", "number", false,
-        Map.of("min", 0, "max", 150));
-    Component.ComponentField activeField = new Component.ComponentField("active", "boolean", false, Map.of());
+    registerComponent(SampleData.USER);
+  }
+
+  /**
+   * Makes a component's records writable: compiles its schema and applies what its metadata declares, a default TTL
+   * ({@code "ttl"}) and materialized aggregates ({@code "aggregates"}). {@link ComponentService} calls it before it
+   * stores a created or updated component, so an invalid declaration rejects that write rather than being skipped.
+   * Aggregates are only ever added; one dropped from the metadata keeps being maintained.
+   */
+  void registerComponent(Component component) {
+    Duration ttl = defaultTtl(component);
+    for (String[] aggregate : declaredAggregates(component)) {
+      validateAggregate(component, aggregate[0], aggregate[1]);
+    }
+    snapshotLock.readLock().lock();
+    try {
+      components.put(component.id(), component);
+      schemas.put(component.id(), RecordSchema.compile(component));
+      if (ttl != null) {
+        defaultTtls.put(component.id(), ttl);
+      } else {
+        defaultTtls.remove(component.id());
+      }
+    } finally {
+      snapshotLock.readLock().unlock();
+    }
+
+    for (String[] aggregate : declaredAggregates(component)) {
+      registerAggregate(component.id(), aggregate[0], aggregate[1]);
+    }
+  }
+
+  /** Stops accepting records for a deleted component; records it already holds stay readable until they expire. */
+  void unregisterComponent(String componentId) {
+    snapshotLock.readLock().lock();
+    try {
+      components.remove(componentId);
+      schemas.remove(componentId);
+      defaultTtls.remove(componentId);
+    } finally {
+      snapshotLock.readLock().unlock();
+    }
+  }
+
+  // Components declare dashboard aggregates in metadata, e.g. "aggregates": [{"groupBy": "active", "field": "age"}];
+  // each is returned as {groupBy, field}, field null for a count
+  private static List<String[]> declaredAggregates(Component component) {
+    List<String[]> aggregates = new ArrayList<>();
+    if (component.metadata() != null && component.metadata().get("aggregates") instanceof List<?> declared) {
+      for (Object declaration : declared) {
+        if (declaration instanceof Map<?, ?> spec && spec.get("groupBy") instanceof String groupBy) {
+          aggregates.add(new String[] { groupBy, spec.get("field") instanceof String field ? field : null });
+        }
+      }
+    }
+    return aggregates;
+  }
+
+  /**
+   * Encodes the store for {@link SnapshotService}: the component schemas, then per component its records (in id
+   * order), search index and aggregates. Writes wait only while a consistent cut is taken: the in-memory sections are
+   * encoded, and the records are pinned as each partition's ids plus a {@link TieredRecordStore.View}. The records,
+   * usually the bulk of the snapshot and partly on disk, are encoded in parallel after writes resume.
+   */
+  List<SnapshotFile.Section> snapshotSections() {
+    Map<String, List<String>> partitionIds = new LinkedHashMap<>();
+    TieredRecordStore.View view;
+    List<SnapshotFile.Section> sections;
+    snapshotLock.writeLock().lock();
+    try {
+      partitions.forEach((componentId, partition) -> partitionIds.put(componentId, List.copyOf(partition.ids)));
+      view = records.view();
+      // Extrema go stale only when a record holding one was removed; only then are the component's records read here
+      for (String componentId : aggregates.componentIds()) {
+        if (aggregates.hasStaleExtrema(componentId)) {
+          aggregates.refreshExtrema(componentId, recordsOf(componentId));
+        }
+      }
+      List<Supplier<SnapshotFile.Section>> encoders = new ArrayList<>();
+      encoders.add(() -> {
+        SnapshotFile.Writer out = new SnapshotFile.Writer();
+        out.writeVarInt(components.size());
+        components.values().forEach(component -> SnapshotFile.writeComponent(out, component));
+        return SnapshotFile.Section.of(SnapshotFile.Kind.RECORD_SCHEMAS, out);
+      });
+      searchIndex.componentIds().forEach(componentId -> encoders.add(() -> {
+        SnapshotFile.Writer out = new SnapshotFile.Writer();
+        searchIndex.writeSnapshot(componentId, out);
+        return SnapshotFile.Section.of(SnapshotFile.Kind.SEARCH_INDEX, out);
+      }));
+      aggregates.componentIds().forEach(componentId -> encoders.add(() -> {
+        SnapshotFile.Writer out = new SnapshotFile.Writer();
+        aggregates.writeSnapshot(componentId, out);
+        return SnapshotFile.Section.of(SnapshotFile.Kind.AGGREGATES, out);
+      }));
+      sections = new ArrayList<>(encoders.parallelStream().map(Supplier::get).toList());
+    } finally {
+      snapshotLock.writeLock().unlock();
+    }
+    // The sections keep their order in the file: schemas, records, then the search index and aggregates
+    sections.addAll(1, partitionIds.entrySet().parallelStream()
+        .map(partition -> encodePartition(partition.getKey(), partition.getValue(), view)).toList());
+    return sections;
+  }
+
+  private static SnapshotFile.Section encodePartition(String componentId, List<String> ids,
+      TieredRecordStore.View view) {
+    SnapshotFile.Writer out = new SnapshotFile.Writer();
+    out.writeString(componentId);
+    // The view was taken with the ids, so every id resolves and the count matches
+    out.writeVarLong(ids.size());
+    for (String id : ids) {
+      SnapshotFile.writeRecord(out, view.get(id));
+    }
+    return SnapshotFile.Section.of(SnapshotFile.Kind.RECORDS_WITH_EXPIRY, out);
+  }
+
+  /** Empties the store ahead of a restore; only called at startup, before any traffic. */
+  void clearForRestore() {
+    records.clear();
+    partitions.clear();
+    components.clear();
+    searchIndex.clear();
+    aggregates.clear();
+    defaultTtls.clear();
+    schemas.clear();
+    expiryWheel.clear();
+  }
+
+  /** Loads one section; sections touch disjoint keys, so several may be restored concurrently. */
+  void restoreSection(SnapshotFile.Section section) throws IOException {
+    SnapshotFile.Reader in = section.reader();
+    switch (section.kind()) {
+      case RECORD_SCHEMAS -> {
+        int count = in.readVarInt();
+        for (int i = 0; i < count; i++) {
+          Component component = SnapshotFile.readComponent(in);
+          components.put(component.id(), component);
+          schemas.put(component.id(), RecordSchema.compile(component));
+          Duration ttl = defaultTtl(component);
+          if (ttl != null) {
+            defaultTtls.put(component.id(), ttl);
+          }
+        }
+      }
+      case RECORDS, RECORDS_WITH_EXPIRY -> {
+        boolean withExpiry = section.kind() == SnapshotFile.Kind.RECORDS_WITH_EXPIRY;
+        String componentId = in.readString();
+        long count = in.readVarLong();
+        RecordPartition partition = new RecordPartition();
+        for (long i = 0; i < count; i++) {
+          Record record = SnapshotFile.readRecord(in, componentId, layoutOf(componentId), withExpiry);
+          // Ids were written in ascending order, so every insert appends to the skip list
+          partition.add(record.id());
+          records.put(record);
+          if (record.expiresAt() != null) {
+            // Records whose deadline passed while the service was down go on the next tick
+            expiryWheel.schedule(record.id(), record.expiresAt().toEpochMilli());
+          }
+        }
+        partitions.put(componentId, partition);
+      }
+      case SEARCH_INDEX -> searchIndex.restoreSnapshot(in);
+      case AGGREGATES -> aggregates.restoreSnapshot(in);
+      default -> throw new IOException("Unexpected " + section.kind() + " section for the record store");
+    }
+  }
+
+  void restoreCompleted() {
+    partitions.keySet().forEach(recordGauges::track);
+    writeVersion.incrementAndGet();
+  }
 
-    Component userComponent = new Component("user", "User", "User information component",
-        List.of(nameField, ageField, activeField), Map.of("version", "1.0"));
+  long recordCount() {
+    return records.size();
+  }
+
+  /**
+   * Evicts every record whose TTL passed by {@code nowMillis}, in batches of {@link #EXPIRY_BATCH}. Each record leaves
+   * the store, its component partition, the search index and the materialized aggregates in O(1), and a
+   * {@code DELETED} change event is published for it. Returns the number of records evicted.
+   */
+  int expireRecords(long nowMillis) {
+    List<ExpiryWheel.Entry> due = expiryWheel.advance(nowMillis);
+    int expired = 0;
+    for (int from = 0; from < due.size(); from += EXPIRY_BATCH) {
+      List<Record> removed = new ArrayList<>(Math.min(EXPIRY_BATCH, due.size() - from));
+      snapshotLock.readLock().lock();
+      try {
+        for (ExpiryWheel.Entry entry : due.subList(from, Math.min(from + EXPIRY_BATCH, due.size()))) {
+          Record record = records.peek(entry.id());
+          // Skip entries left over from before a restore
+          if (record == null || record.expiresAt() == null
+              || record.expiresAt().toEpochMilli() != entry.expiresAtMillis() || records.remove(entry.id()) == null) {
+            continue;
+          }
+          RecordPartition partition = partitions.get(record.componentId());
+          if (partition != null) {
+            partition.remove(record.id());
+          }
+          Component component = components.get(record.componentId());
+          if (component != null) {
+            searchIndex.remove(record, component);
+          }
+          aggregates.remove(record);
+          removed.add(record);
+        }
+        if (!removed.isEmpty()) {
+          writeVersion.incrementAndGet();
+        }
+      } finally {
+        snapshotLock.readLock().unlock();
+      }
+      for (Record record : removed) {
+        logAuditEvent("RECORD_EXPIRED", record.id(), record.componentId());
+        changeFeed.publish(ChangeEvent.EntityType.RECORD, ChangeEvent.Operation.DELETED,
+            componentService.projectOf(record.componentId()), record.componentId(), record.id(), null);
+      }
+      expiredCounter.increment(removed.size());
+      expired += removed.size();
+    }
+    return expired;
+  }
+
+  int scheduledExpiries() {
+    return expiryWheel.size();
+  }
+
+  private void periodicExpiry() {
+    try {
+      expireRecords(System.currentTimeMillis());
+    } catch (RuntimeException e) {
+      // Keep the schedule alive; the entries that failed are gone from the wheel but the next ones still fire
+      LOG.errorf(e, "Record expiry failed");
+    }
+  }
+
+  private static Duration defaultTtl(Component component) {
+    Object ttl = component.metadata() == null ? null : component.metadata().get("ttl");
+    return ttl == null ? null : parseTtl("metadata.ttl", ttl);
+  }
+
+  private static Duration parseTtl(String field, Object value) {
+    Duration ttl;
+    try {
+      ttl = value instanceof String text ? Duration.parse(text) : null;
+    } catch (DateTimeParseException e) {
+      ttl = null;
+    }
+    if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+      throw DomainException.Validation.field(field, field + " must be a positive ISO-8601 duration, e.g. PT30M");
+    }
+    return ttl;
+  }
+
+  /**
+   * A creation-time window translated to record ids: {@code from} inclusive, {@code to} exclusive, either may be
+   * {@code null}. Record timestamps have millisecond precision, so the bounds are rounded outwards to whole
+   * milliseconds.
+   */
+  private record IdRange(String from, String to) {
+    static IdRange of(CreatedRange created) {
+      if (created == null || !created.isBounded()) {
+        return null;
+      }
+      String from = created.after() == null ? null : RecordIds.lowerBound(created.after().toEpochMilli() + 1);
+      String to = created.before() == null ? null : RecordIds.lowerBound(ceilMillis(created.before()));
+      return new IdRange(from, to);
+    }
+
+    private static long ceilMillis(Instant instant) {
+      long millis = instant.toEpochMilli();
+      return instant.getNano() % 1_000_000 == 0 ? millis : millis + 1;
+    }
+  }
 
-    components.put("user", userComponent);
+  private record ListKey(String componentId, int page, int size, String sortBy, String sortOrder,
+      TotalMode totalMode, CreatedRange created, long writeVersion) {
+  }
+
+  private record RecordQuery(RecordsListResponse response, RecordQueryPlan plan) {
+  }
+
+  private static final class RecordPartition {
+    // Ids are time-ordered, so this is also creation order; the records themselves live in the tiered store
+    private final ConcurrentSkipListSet<String> ids = new ConcurrentSkipListSet<>();
+    private final LongAdder count = new LongAdder();
+
+    void add(String id) {
+      if (ids.add(id)) {
+        count.increment();
+      }
+    }
+
+    void remove(String id) {
+      if (ids.remove(id)) {
+        count.decrement();
+      }
+    }
+
+    NavigableSet<String> window(IdRange range) {
+      if (range == null) {
+        return ids;
+      }
+      if (range.from() != null && range.to() != null) {
+        return range.from().compareTo(range.to()) >= 0
+            ? ids.subSet(range.from(), true, range.from(), false)
+            : ids.subSet(range.from(), true, range.to(), false);
+      }
+      return range.from() != null ? ids.tailSet(range.from(), true) : ids.headSet(range.to(), false);
+    }
+
+    /**
+     * Records in the window, assuming they were created at an even rate between the oldest and the newest: two
+     * lookups instead of a walk of the window, and exact when the window covers the whole partition.
+     */
+    long estimate(IdRange range) {
+      String oldestId;
+      String newestId;
+      try {
+        oldestId = ids.first();
+        newestId = ids.last();
+      } catch (NoSuchElementException e) {
+        return 0;
+      }
+      long oldest = RecordIds.epochMillis(oldestId);
+      long newest = RecordIds.epochMillis(newestId) + 1;
+      long from = range.from() == null ? oldest : Math.max(oldest, RecordIds.epochMillis(range.from()));
+      long to = range.to() == null ? newest : Math.min(newest, RecordIds.epochMillis(range.to()));
+      return to <= from ? 0 : Math.round((double) count.sum() * (to - from) / (newest - oldest));
+    }
+  }
+
+  private static final class PeekingIterator {
+    private final Iterator<String> iterator;
+    private String head;
+
+    PeekingIterator(Iterator<String> iterator) {
+      this.iterator = iterator;
+      this.head = iterator.next();
+    }
+
+    boolean advance() {
+      if (!iterator.hasNext()) {
+        return false;
+      }
+      head = iterator.next();
+      return true;
+    }
   }
 }
@@ -0,0 +1,31 @@
+package com.aurenworks.service;
+
+import java.util.List;
+import java.util.Map;
+
+import com.aurenworks.model.Component;
+
+/**
+ * The sample {@code user} component both services start with.
+ *
+ * <p>
+ * Only immutable values live here, so a native build initializes this class at build time and the definitions are part
+ * of the image heap instead of being rebuilt on every cold start. Anything tied to the running process (timestamps,
+ * ETags, ids) is still created by the services at runtime.
+ */
+final class SampleData {
+
+  static final String DEFAULT_PROJECT = "default-project";
+
+  static final List<Component.ComponentField> USER_FIELDS = List.of(
+      new Component.ComponentField("name", "string", true, Map.of("maxLength", 100)),
+      new Component.ComponentField("age", "number", false, Map.of("min", 0, "max", 150)),
+      new Component.ComponentField("active", "boolean", false, Map.of()));
+
+  // Served by ComponentService and registered with RecordService, along with the dashboard aggregate it declares
+  static final Component USER = new Component("user", "User", "User information component", USER_FIELDS,
+      Map.of("version", "1.0", "aggregates", List.of(Map.of("groupBy", "active", "field", "age"))));
+
+  private SampleData() {
+  }
+}
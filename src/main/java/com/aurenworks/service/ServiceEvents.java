@@ -0,0 +1,189 @@
+package com.aurenworks.service;
+
+import java.util.List;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events for the service operations, so that GC and allocation samples in a recording can be
+ * matched to the query that caused them.
+ *
+ * <p>
+ * Each event is begun before the operation and completed after it; the duration is the event's own. When no
+ * recording has an event enabled, {@code begin()} and {@code shouldCommit()} are the only cost.
+ */
+final class ServiceEvents {
+
+  static final List<Class<? extends Event>> ALL = List.of(RecordCreate.class, RecordList.class,
+      RecordValidate.class, RecordSort.class, ComponentOperation.class);
+
+  private ServiceEvents() {
+  }
+
+  @Name("com.aurenworks.RecordCreate")
+  @Label("Record Create")
+  @Category({"Aurenworks", "Records"})
+  @StackTrace(false)
+  static final class RecordCreate extends Event {
+    @Label("Component Id")
+    String componentId;
+
+    @Label("Record Id")
+    String recordId;
+
+    @Label("Value Count")
+    int valueCount;
+
+    void complete(String componentId, String recordId, int valueCount) {
+      end();
+      if (shouldCommit()) {
+        this.componentId = componentId;
+        this.recordId = recordId;
+        this.valueCount = valueCount;
+        commit();
+      }
+    }
+  }
+
+  @Name("com.aurenworks.RecordList")
+  @Label("Record List")
+  @Description("GET /records: candidate set, requested window and the number of records returned")
+  @Category({"Aurenworks", "Records"})
+  @StackTrace(false)
+  static final class RecordList extends Event {
+    @Label("Component Id")
+    String componentId;
+
+    @Label("Page")
+    int page;
+
+    @Label("Page Size")
+    int size;
+
+    @Label("Sort Field")
+    String sortBy;
+
+    @Label("Sort Order")
+    String sortOrder;
+
+    @Label("Candidate Count")
+    long candidateCount;
+
+    @Label("Result Size")
+    int resultSize;
+
+    void complete(String componentId, int page, int size, String sortBy, String sortOrder, long candidateCount,
+        int resultSize) {
+      end();
+      if (shouldCommit()) {
+        this.componentId = componentId;
+        this.page = page;
+        this.size = size;
+        this.sortBy = sortBy;
+        this.sortOrder = sortOrder;
+        this.candidateCount = candidateCount;
+        this.resultSize = resultSize;
+        commit();
+      }
+    }
+  }
+
+  @Name("com.aurenworks.RecordValidate")
+  @Label("Record Validate")
+  @Category({"Aurenworks", "Records"})
+  @StackTrace(false)
+  static final class RecordValidate extends Event {
+    @Label("Component Id")
+    String componentId;
+
+    @Label("Field Count")
+    int fieldCount;
+
+    @Label("Valid")
+    boolean valid;
+
+    void complete(String componentId, int fieldCount, boolean valid) {
+      end();
+      if (shouldCommit()) {
+        this.componentId = componentId;
+        this.fieldCount = fieldCount;
+        this.valid = valid;
+        commit();
+      }
+    }
+  }
+
+  @Name("com.aurenworks.RecordSort")
+  @Label("Record Sort")
+  @Description("Bounded top-k selection for a sorted page")
+  @Category({"Aurenworks", "Records"})
+  @StackTrace(false)
+  static final class RecordSort extends Event {
+    @Label("Component Id")
+    String componentId;
+
+    @Label("Sort Field")
+    String sortBy;
+
+    @Label("Candidate Count")
+    long candidateCount;
+
+    @Label("Result Size")
+    int resultSize;
+
+    void complete(String componentId, String sortBy, long candidateCount, int resultSize) {
+      end();
+      if (shouldCommit()) {
+        this.componentId = componentId;
+        this.sortBy = sortBy;
+        this.candidateCount = candidateCount;
+        this.resultSize = resultSize;
+        commit();
+      }
+    }
+  }
+
+  @Name("com.aurenworks.ComponentOperation")
+  @Label("Component Operation")
+  @Category({"Aurenworks", "Components"})
+  @StackTrace(false)
+  static final class ComponentOperation extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Project Id")
+    String projectId;
+
+    @Label("Component Id")
+    String componentId;
+
+    @Label("Sort Field")
+    String sortBy;
+
+    @Label("Result Size")
+    int resultSize;
+
+    static ComponentOperation start(String operation) {
+      ComponentOperation event = new ComponentOperation();
+      event.operation = operation;
+      event.begin();
+      return event;
+    }
+
+    void complete(String projectId, String componentId, String sortBy, int resultSize) {
+      end();
+      if (shouldCommit()) {
+        this.projectId = projectId;
+        this.componentId = componentId;
+        this.sortBy = sortBy;
+        this.resultSize = resultSize;
+        commit();
+      }
+    }
+  }
+}
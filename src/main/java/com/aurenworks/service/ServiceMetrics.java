@@ -0,0 +1,114 @@
+package com.aurenworks.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Meters for the in-memory stores and the service hot paths, exported in Prometheus format at {@code /q/metrics}.
+ *
+ * <p>
+ * Store cardinality gauges carry the partition (project or component) as a tag, but only for the first
+ * {@code aurenworks.metrics.max-tagged-partitions} partitions of each store. Every later partition is summed into a
+ * single {@code _other} series, so the number of series stays bounded with thousands of projects.
+ */
+@ApplicationScoped
+public class ServiceMetrics {
+
+  static final String OTHER = "_other";
+
+  @Inject
+  MeterRegistry registry;
+
+  @ConfigProperty(name = "aurenworks.metrics.max-tagged-partitions", defaultValue = "100")
+  int maxTaggedPartitions;
+
+  Timer phaseTimer(String service, String phase) {
+    return Timer.builder("aurenworks.service.phase").description("Time spent in a service hot-path phase")
+        .tags("service", service, "phase", phase).publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofNanos(1_000)).maximumExpectedValue(Duration.ofSeconds(1)).register(registry);
+  }
+
+  Counter counter(String name, String description, String... tags) {
+    return Counter.builder(name).description(description).tags(tags).register(registry);
+  }
+
+  <T> void functionCounter(String name, String description, T source, ToDoubleFunction<T> count, String... tags) {
+    FunctionCounter.builder(name, source, count).description(description).tags(tags).register(registry);
+  }
+
+  <T> void gauge(String name, String description, T source, ToDoubleFunction<T> value, String... tags) {
+    Gauge.builder(name, source, value).description(description).tags(tags).strongReference(true).register(registry);
+  }
+
+  <P> PartitionGauges<P> partitionGauges(String name, String tag, Map<String, P> partitions,
+      ToDoubleFunction<P> size) {
+    PartitionGauges<P> gauges = new PartitionGauges<>(name, tag, partitions, size);
+    Gauge.builder(name, gauges, PartitionGauges::untaggedSize).tag(tag, OTHER).strongReference(true)
+        .register(registry);
+    partitions.keySet().forEach(gauges::track);
+    return gauges;
+  }
+
+  final class PartitionGauges<P> {
+    private final String name;
+    private final String tag;
+    private final Map<String, P> partitions;
+    private final ToDoubleFunction<P> size;
+    private final Set<String> tagged = ConcurrentHashMap.newKeySet();
+    // Not a monitor: writes run on virtual threads, which must not pin their carrier
+    private final ReentrantLock registration = new ReentrantLock();
+
+    private PartitionGauges(String name, String tag, Map<String, P> partitions, ToDoubleFunction<P> size) {
+      this.name = name;
+      this.tag = tag;
+      this.partitions = partitions;
+      this.size = size;
+    }
+
+    /**
+     * Gives the partition its own series while the tag budget lasts; called on every write, so the common case is a
+     * set lookup.
+     */
+    void track(String key) {
+      if (tagged.contains(key) || tagged.size() >= maxTaggedPartitions) {
+        return;
+      }
+      registration.lock();
+      try {
+        if (tagged.size() < maxTaggedPartitions && tagged.add(key)) {
+          Gauge.builder(name, partitions, store -> sizeOf(store.get(key))).tag(tag, key).register(registry);
+        }
+      } finally {
+        registration.unlock();
+      }
+    }
+
+    private double sizeOf(P partition) {
+      return partition == null ? 0 : size.applyAsDouble(partition);
+    }
+
+    private double untaggedSize() {
+      double total = 0;
+      for (Map.Entry<String, P> entry : partitions.entrySet()) {
+        if (!tagged.contains(entry.getKey())) {
+          total += sizeOf(entry.getValue());
+        }
+      }
+      return total;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.aurenworks.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * Coalesces concurrent calls with equal keys: the first caller (the leader) computes the value, callers arriving while
+ * it runs (followers) wait for and share its result or exception.
+ *
+ * <p>
+ * A follower waits at most {@code followerTimeoutNanos}; after that it computes the value itself, so a stuck leader
+ * degrades to uncoalesced behaviour instead of failing requests. Nothing is cached: the key is released as soon as the
+ * leader finishes.
+ */
+final class SingleFlight<K, V> {
+
+  private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final boolean enabled;
+  private final long followerTimeoutNanos;
+  private final Counter shared;
+  private final Counter timeouts;
+
+  SingleFlight(boolean enabled, long followerTimeoutNanos, Counter shared, Counter timeouts) {
+    this.enabled = enabled;
+    this.followerTimeoutNanos = followerTimeoutNanos;
+    this.shared = shared;
+    this.timeouts = timeouts;
+  }
+
+  V execute(K key, Supplier<V> computation) {
+    if (!enabled) {
+      return computation.get();
+    }
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+    if (leader == null) {
+      return lead(key, flight, computation);
+    }
+    try {
+      V value = leader.get(followerTimeoutNanos, TimeUnit.NANOSECONDS);
+      shared.increment();
+      return value;
+    } catch (TimeoutException e) {
+      timeouts.increment();
+      return computation.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return computation.get();
+    } catch (ExecutionException e) {
+      shared.increment();
+      if (e.getCause() instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      throw (Error) e.getCause();
+    }
+  }
+
+  int inFlight() {
+    return inFlight.size();
+  }
+
+  private V lead(K key, CompletableFuture<V> flight, Supplier<V> computation) {
+    try {
+      V value = computation.get();
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.aurenworks.service;
+
+import java.time.Duration;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Logs list queries slower than {@code aurenworks.slow-query.threshold} with their parameters and plan.
+ *
+ * <p>
+ * Entries go to the dedicated {@value #CATEGORY} category so they can be routed to their own handler. Plans contain
+ * ids, sort fields and counts only, never record values.
+ */
+@ApplicationScoped
+public class SlowQueryLog {
+
+  public static final String CATEGORY = "com.aurenworks.slowquery";
+
+  private static final Logger LOG = Logger.getLogger(CATEGORY);
+
+  @ConfigProperty(name = "aurenworks.slow-query.threshold", defaultValue = "100ms")
+  Duration threshold;
+
+  void record(String operation, long elapsedNanos, Object plan) {
+    if (elapsedNanos >= threshold.toNanos()) {
+      LOG.warnf("%s took %.3f ms: %s", operation, elapsedNanos / 1_000_000.0, plan);
+    }
+  }
+}
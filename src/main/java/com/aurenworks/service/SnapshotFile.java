@@ -0,0 +1,528 @@
+package com.aurenworks.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import com.aurenworks.model.Component;
+import com.aurenworks.model.Record;
+import com.aurenworks.model.RecordRow;
+
+/**
+ * Binary snapshot file: a fixed header, a section table and the length-prefixed section payloads.
+ *
+ * <pre>
+ * header    magic "AWSN" | version u16 | reserved u16 | createdAt millis i64 | section count i32
+ * table     per section: kind i32 | offset i64 | length i64 | CRC32C i32, followed by the CRC32C of header + table
+ * sections  payloads at their offsets, each encoded with {@link Writer}
+ * </pre>
+ *
+ * <p>
+ * Sections are self-contained (including their key dictionary), so they can be mapped, verified and decoded
+ * independently and in parallel. Each one is memory-mapped on its own, which also keeps a store larger than 2 GiB
+ * readable as long as no single section is.
+ */
+final class SnapshotFile {
+
+  static final int MAGIC = 0x4157534E;
+  static final short VERSION = 1;
+  private static final int HEADER_SIZE = 20;
+  private static final int TABLE_ENTRY_SIZE = 24;
+
+  /** Section kinds; the codes are part of the file format. */
+  enum Kind {
+    COMPONENTS(1), RECORD_SCHEMAS(2), RECORDS(3), SEARCH_INDEX(4), AGGREGATES(5),
+    // RECORDS plus each record's expiry; files written before TTLs existed only contain RECORDS
+    RECORDS_WITH_EXPIRY(6);
+
+    final int code;
+
+    Kind(int code) {
+      this.code = code;
+    }
+
+    static Kind of(int code) throws IOException {
+      for (Kind kind : values()) {
+        if (kind.code == code) {
+          return kind;
+        }
+      }
+      throw new IOException("Unknown snapshot section kind " + code);
+    }
+  }
+
+  record Section(Kind kind, ByteBuffer payload, int checksum) {
+
+    static Section of(Kind kind, Writer writer) {
+      ByteBuffer payload = writer.toByteBuffer();
+      return new Section(kind, payload, crc(payload));
+    }
+
+    /** Decoder over the payload, after checking it against the checksum from the section table. */
+    Reader reader() throws IOException {
+      if (crc(payload) != checksum) {
+        throw new IOException("Snapshot section " + kind + " is corrupt (checksum mismatch)");
+      }
+      return new Reader(payload.duplicate());
+    }
+  }
+
+  record Contents(Instant createdAt, List<Section> sections) {
+  }
+
+  private SnapshotFile() {
+  }
+
+  /**
+   * Writes the sections to a temporary file next to {@code file}, forces it to disk and moves it into place, so a
+   * crash mid-write never leaves a truncated snapshot behind.
+   */
+  static long write(Path file, Instant createdAt, List<Section> sections) throws IOException {
+    Path parent = file.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path temp = parent.resolve(file.getFileName() + ".tmp");
+
+    ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE + sections.size() * TABLE_ENTRY_SIZE + Integer.BYTES)
+        .order(ByteOrder.BIG_ENDIAN);
+    head.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(createdAt.toEpochMilli())
+        .putInt(sections.size());
+    long offset = head.capacity();
+    for (Section section : sections) {
+      head.putInt(section.kind().code).putLong(offset).putLong(section.payload().remaining())
+          .putInt(section.checksum());
+      offset += section.payload().remaining();
+    }
+    head.putInt(crc(head.duplicate().flip()));
+    head.flip();
+
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      writeFully(channel, head);
+      for (Section section : sections) {
+        writeFully(channel, section.payload().duplicate());
+      }
+      channel.force(true);
+    }
+    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    return offset;
+  }
+
+  /**
+   * Validates the header and section table and maps every section read-only. Section checksums are verified by
+   * {@link Section#reader()}, on whichever thread decodes the section.
+   */
+  static Contents map(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      ByteBuffer header = readFully(channel, 0, HEADER_SIZE, size);
+      if (header.getInt() != MAGIC) {
+        throw new IOException("Not a snapshot file: " + file);
+      }
+      short version = header.getShort();
+      if (version != VERSION) {
+        throw new IOException("Unsupported snapshot version " + version + ": " + file);
+      }
+      header.getShort();
+      Instant createdAt = Instant.ofEpochMilli(header.getLong());
+      int count = header.getInt();
+      if (count < 0 || (long) count * TABLE_ENTRY_SIZE > size) {
+        throw new IOException("Snapshot section table is corrupt: " + file);
+      }
+
+      ByteBuffer table = readFully(channel, HEADER_SIZE, count * TABLE_ENTRY_SIZE + Integer.BYTES, size);
+      CRC32C crc = new CRC32C();
+      crc.update(header.flip());
+      crc.update(table.duplicate().limit(count * TABLE_ENTRY_SIZE));
+      if ((int) crc.getValue() != table.getInt(count * TABLE_ENTRY_SIZE)) {
+        throw new IOException("Snapshot section table is corrupt (checksum mismatch): " + file);
+      }
+
+      List<Section> sections = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        Kind kind = Kind.of(table.getInt());
+        long offset = table.getLong();
+        long length = table.getLong();
+        int checksum = table.getInt();
+        if (offset < 0 || length < 0 || length > Integer.MAX_VALUE || offset + length > size) {
+          throw new IOException("Snapshot section " + i + " lies outside the file: " + file);
+        }
+        sections.add(new Section(kind, channel.map(FileChannel.MapMode.READ_ONLY, offset, length), checksum));
+      }
+      return new Contents(createdAt, sections);
+    }
+  }
+
+  static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static ByteBuffer readFully(FileChannel channel, long position, int length, long size)
+      throws IOException {
+    if (position + length > size) {
+      throw new IOException("Snapshot file is truncated");
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Snapshot file is truncated");
+      }
+    }
+    return buffer.flip();
+  }
+
+  private static int crc(ByteBuffer buffer) {
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.duplicate());
+    return (int) crc.getValue();
+  }
+
+  static void writeComponent(Writer out, Component component) {
+    out.writeString(component.id());
+    out.writeString(component.name());
+    out.writeString(component.description());
+    List<Component.ComponentField> fields = component.fields() == null ? List.of() : component.fields();
+    out.writeVarInt(fields.size());
+    for (Component.ComponentField field : fields) {
+      out.writeKey(field.name());
+      out.writeString(field.type());
+      out.writeBoolean(field.required());
+      out.writeValue(field.constraints());
+    }
+    out.writeValue(component.metadata());
+  }
+
+  @SuppressWarnings("unchecked")
+  static Component readComponent(Reader in) {
+    String id = in.readString();
+    String name = in.readString();
+    String description = in.readString();
+    int fieldCount = in.readVarInt();
+    List<Component.ComponentField> fields = new ArrayList<>(fieldCount);
+    for (int i = 0; i < fieldCount; i++) {
+      fields.add(new Component.ComponentField(in.readKey(), in.readString(), in.readBoolean(),
+          (Map<String, Object>) in.readValue()));
+    }
+    return new Component(id, name, description, fields, (Map<String, Object>) in.readValue());
+  }
+
+  /** A record without its component id, which the enclosing section or block carries once. */
+  static void writeRecord(Writer out, Record record) {
+    out.writeString(record.id());
+    out.writeValue(record.values());
+    out.writeInstant(record.createdAt());
+    out.writeInstant(record.updatedAt());
+    out.writeString(record.createdBy());
+    out.writeValue(record.metadata());
+    out.writeVarLong(record.expiresAt() == null ? 0 : record.expiresAt().toEpochMilli());
+  }
+
+  /**
+   * Reads a record written by {@link #writeRecord}, with its values as a row of {@code layout} unless that is
+   * {@code null}; {@code withExpiry} is false for {@link Kind#RECORDS}.
+   */
+  @SuppressWarnings("unchecked")
+  static Record readRecord(Reader in, String componentId, RecordRow.Layout layout, boolean withExpiry) {
+    String id = in.readString();
+    Map<String, Object> values = (Map<String, Object>) in.readValue();
+    if (layout != null && values != null) {
+      values = RecordRow.of(layout, values);
+    }
+    Instant createdAt = in.readInstant();
+    Instant updatedAt = in.readInstant();
+    String createdBy = in.readString();
+    Map<String, Object> metadata = (Map<String, Object>) in.readValue();
+    long expiresAtMillis = withExpiry ? in.readVarLong() : 0;
+    return new Record(id, componentId, values, createdAt, updatedAt, createdBy, metadata,
+        expiresAtMillis == 0 ? null : Instant.ofEpochMilli(expiresAtMillis));
+  }
+
+  /**
+   * Section encoder: unsigned LEB128 varints, zig-zag for signed values, length-prefixed UTF-8 strings and a
+   * per-section dictionary for map keys and field names, which repeat in every record.
+   */
+  static final class Writer {
+    private byte[] bytes = new byte[256];
+    private int size;
+    private final Map<String, Integer> keys = new HashMap<>();
+
+    void writeByte(int value) {
+      ensureCapacity(1);
+      bytes[size++] = (byte) value;
+    }
+
+    void writeBoolean(boolean value) {
+      writeByte(value ? 1 : 0);
+    }
+
+    void writeVarInt(int value) {
+      writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    void writeSignedVarLong(long value) {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeDouble(double value) {
+      long bits = Double.doubleToRawLongBits(value);
+      ensureCapacity(8);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        bytes[size++] = (byte) (bits >>> shift);
+      }
+    }
+
+    /** {@code null} is encoded as length 0, every other string as its UTF-8 length + 1. */
+    void writeString(String value) {
+      if (value == null) {
+        writeVarInt(0);
+        return;
+      }
+      byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(utf8.length + 1);
+      ensureCapacity(utf8.length);
+      System.arraycopy(utf8, 0, bytes, size, utf8.length);
+      size += utf8.length;
+    }
+
+    /** A key seen before in this section is written as its dictionary index + 1; 0 introduces a new key. */
+    void writeKey(String key) {
+      Integer index = keys.get(key);
+      if (index != null) {
+        writeVarInt(index + 1);
+        return;
+      }
+      writeVarInt(0);
+      writeString(key);
+      keys.put(key, keys.size());
+    }
+
+    void writeInstant(Instant value) {
+      writeSignedVarLong(value.getEpochSecond());
+      writeVarInt(value.getNano());
+    }
+
+    /** The JSON value types Jackson produces for {@code Map<String, Object>}. */
+    void writeValue(Object value) {
+      switch (value) {
+        case null -> writeByte(Tag.NULL);
+        case String text -> {
+          writeByte(Tag.STRING);
+          writeString(text);
+        }
+        case Boolean flag -> writeByte(flag ? Tag.TRUE : Tag.FALSE);
+        case Integer number -> {
+          writeByte(Tag.INT);
+          writeSignedVarLong(number);
+        }
+        case Long number -> {
+          writeByte(Tag.LONG);
+          writeSignedVarLong(number);
+        }
+        case Double number -> {
+          writeByte(Tag.DOUBLE);
+          writeDouble(number);
+        }
+        case BigDecimal number -> {
+          writeByte(Tag.BIG_DECIMAL);
+          writeString(number.toString());
+        }
+        case BigInteger number -> {
+          writeByte(Tag.BIG_INTEGER);
+          writeString(number.toString());
+        }
+        case List<?> list -> {
+          writeByte(Tag.LIST);
+          writeVarInt(list.size());
+          for (Object element : list) {
+            writeValue(element);
+          }
+        }
+        case Map<?, ?> map -> {
+          writeByte(Tag.MAP);
+          writeVarInt(map.size());
+          for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeKey(String.valueOf(entry.getKey()));
+            writeValue(entry.getValue());
+          }
+        }
+        default -> throw new IllegalArgumentException("Cannot snapshot value of type " + value.getClass().getName());
+      }
+    }
+
+    /** Appends another writer's bytes, length-prefixed, so a reader can skip them without decoding them. */
+    void writeNested(Writer nested) {
+      writeVarInt(nested.size);
+      ensureCapacity(nested.size);
+      System.arraycopy(nested.bytes, 0, bytes, size, nested.size);
+      size += nested.size;
+    }
+
+    ByteBuffer toByteBuffer() {
+      return ByteBuffer.wrap(bytes, 0, size).slice();
+    }
+
+    private void ensureCapacity(int extra) {
+      if (size + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+      }
+    }
+  }
+
+  static final class Reader {
+    private final ByteBuffer buffer;
+    private final List<String> keys = new ArrayList<>();
+
+    Reader(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    boolean hasRemaining() {
+      return buffer.hasRemaining();
+    }
+
+    int readByte() {
+      return buffer.get();
+    }
+
+    boolean readBoolean() {
+      return buffer.get() != 0;
+    }
+
+    int readVarInt() {
+      return (int) readVarLong();
+    }
+
+    long readVarLong() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = buffer.get();
+        value |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+      throw new IllegalStateException("Malformed varint in snapshot");
+    }
+
+    long readSignedVarLong() {
+      long encoded = readVarLong();
+      return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    double readDouble() {
+      return Double.longBitsToDouble(buffer.getLong());
+    }
+
+    String readString() {
+      int length = readVarInt();
+      if (length == 0) {
+        return null;
+      }
+      byte[] utf8 = new byte[length - 1];
+      buffer.get(utf8);
+      return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    String readKey() {
+      int index = readVarInt();
+      if (index > 0) {
+        return keys.get(index - 1);
+      }
+      String key = readString();
+      keys.add(key);
+      return key;
+    }
+
+    /** Decoder over the bytes of a {@link Writer#writeNested}, with its own key dictionary. */
+    Reader readNested() {
+      int length = readVarInt();
+      Reader nested = new Reader(buffer.slice(buffer.position(), length));
+      buffer.position(buffer.position() + length);
+      return nested;
+    }
+
+    void skipNested() {
+      int length = readVarInt();
+      buffer.position(buffer.position() + length);
+    }
+
+    Instant readInstant() {
+      return Instant.ofEpochSecond(readSignedVarLong(), readVarInt());
+    }
+
+    Object readValue() {
+      int tag = readByte();
+      return switch (tag) {
+        case Tag.NULL -> null;
+        case Tag.STRING -> readString();
+        case Tag.TRUE -> Boolean.TRUE;
+        case Tag.FALSE -> Boolean.FALSE;
+        case Tag.INT -> (int) readSignedVarLong();
+        case Tag.LONG -> readSignedVarLong();
+        case Tag.DOUBLE -> readDouble();
+        case Tag.BIG_DECIMAL -> new BigDecimal(readString());
+        case Tag.BIG_INTEGER -> new BigInteger(readString());
+        case Tag.LIST -> {
+          int count = readVarInt();
+          List<Object> list = new ArrayList<>(count);
+          for (int i = 0; i < count; i++) {
+            list.add(readValue());
+          }
+          yield list;
+        }
+        case Tag.MAP -> {
+          int count = readVarInt();
+          Map<String, Object> map = new LinkedHashMap<>(Math.max(4, count * 4 / 3 + 1));
+          for (int i = 0; i < count; i++) {
+            map.put(readKey(), readValue());
+          }
+          yield map;
+        }
+        default -> throw new IllegalStateException("Unknown value tag " + tag + " in snapshot");
+      };
+    }
+  }
+
+  private static final class Tag {
+    static final int NULL = 0;
+    static final int STRING = 1;
+    static final int TRUE = 2;
+    static final int FALSE = 3;
+    static final int INT = 4;
+    static final int LONG = 5;
+    static final int DOUBLE = 6;
+    static final int BIG_DECIMAL = 7;
+    static final int BIG_INTEGER = 8;
+    static final int LIST = 9;
+    static final int MAP = 10;
+
+    private Tag() {
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package com.aurenworks.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.aurenworks.api.dto.SnapshotResponse;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Binary snapshots of the component and record stores, indexes included, for warm restarts.
+ *
+ * <p>
+ * When {@code aurenworks.snapshot.enabled=true}, the file at {@code aurenworks.snapshot.path} is restored at boot,
+ * rewritten every {@code aurenworks.snapshot.interval} and on shutdown, and can be written on demand with
+ * {@link #snapshot()}. Restoring maps the file and decodes its sections in parallel; the search index and aggregates
+ * are loaded as stored rather than rebuilt from the records. See {@link SnapshotFile} for the layout.
+ */
+@ApplicationScoped
+public class SnapshotService {
+
+  private static final Logger LOG = Logger.getLogger(SnapshotService.class);
+
+  @Inject
+  ComponentService componentService;
+
+  @Inject
+  RecordService recordService;
+
+  @ConfigProperty(name = "aurenworks.snapshot.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @ConfigProperty(name = "aurenworks.snapshot.path", defaultValue = "data/aurenworks.snapshot")
+  String path;
+
+  // 0 turns periodic snapshots off
+  @ConfigProperty(name = "aurenworks.snapshot.interval", defaultValue = "5m")
+  Duration interval;
+
+  @ConfigProperty(name = "aurenworks.snapshot.restore-on-start", defaultValue = "true")
+  boolean restoreOnStart;
+
+  @ConfigProperty(name = "aurenworks.snapshot.on-shutdown", defaultValue = "true")
+  boolean snapshotOnShutdown;
+
+  // One snapshot or restore at a time; file I/O under a ReentrantLock does not pin a virtual thread's carrier
+  private final ReentrantLock lock = new ReentrantLock();
+  private ScheduledExecutorService scheduler;
+
+  void onStart(@Observes StartupEvent event) throws IOException {
+    if (!enabled) {
+      return;
+    }
+    if (restoreOnStart && Files.isRegularFile(Path.of(path))) {
+      restore();
+    }
+    if (!interval.isZero()) {
+      scheduler = Executors
+          .newSingleThreadScheduledExecutor(Thread.ofPlatform().name("aurenworks-snapshot").daemon().factory());
+      scheduler.scheduleWithFixedDelay(this::periodicSnapshot, interval.toMillis(), interval.toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  void onStop(@Observes ShutdownEvent event) {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    if (enabled && snapshotOnShutdown) {
+      periodicSnapshot();
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Writes both stores to the snapshot file, replacing the previous one atomically. */
+  public SnapshotResponse snapshot() throws IOException {
+    lock.lock();
+    try {
+      long started = System.nanoTime();
+      Instant createdAt = Instant.now();
+      List<SnapshotFile.Section> sections = new ArrayList<>(componentService.snapshotSections());
+      sections.addAll(recordService.snapshotSections());
+      long size = SnapshotFile.write(Path.of(path), createdAt, sections);
+      long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+      LOG.infof("Snapshot written to %s: %d sections, %d bytes in %d ms", path, sections.size(), size, millis);
+      return new SnapshotResponse(path, size, sections.size(), createdAt, millis);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Replaces both stores with the contents of the snapshot file. Meant for startup: requests running at the same
+   * time may see a partially restored store.
+   */
+  public SnapshotResponse restore() throws IOException {
+    lock.lock();
+    try {
+      long started = System.nanoTime();
+      Path file = Path.of(path);
+      SnapshotFile.Contents contents = SnapshotFile.map(file);
+      componentService.clearForRestore();
+      recordService.clearForRestore();
+      try {
+        // Record rows are laid out by their component's schema, so the schemas are loaded before anything else
+        for (SnapshotFile.Section section : contents.sections()) {
+          if (section.kind() == SnapshotFile.Kind.RECORD_SCHEMAS) {
+            recordService.restoreSection(section);
+          }
+        }
+        contents.sections().parallelStream().filter(section -> section.kind() != SnapshotFile.Kind.RECORD_SCHEMAS)
+            .forEach(section -> {
+              try {
+                if (section.kind() == SnapshotFile.Kind.COMPONENTS) {
+                  componentService.restoreSection(section);
+                } else {
+                  recordService.restoreSection(section);
+                }
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      componentService.restoreCompleted();
+      recordService.restoreCompleted();
+      long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+      LOG.infof("Snapshot from %s restored: %d components, %d records in %d ms", contents.createdAt(),
+          componentService.componentCount(), recordService.recordCount(), millis);
+      return new SnapshotResponse(path, Files.size(file), contents.sections().size(), contents.createdAt(), millis);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void periodicSnapshot() {
+    try {
+      snapshot();
+    } catch (IOException | RuntimeException e) {
+      // Keep the schedule alive; the previous snapshot file is still intact
+      LOG.errorf(e, "Snapshot to %s failed", path);
+    }
+  }
+}
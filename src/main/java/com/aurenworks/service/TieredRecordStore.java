@@ -0,0 +1,808 @@
+package com.aurenworks.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.jboss.logging.Logger;
+
+import com.aurenworks.model.Record;
+import com.aurenworks.model.RecordRow;
+
+/**
+ * Record bodies in two tiers: recently read or written records on the heap, bounded by an estimated byte budget, and
+ * colder ones in spill segments on local disk.
+ *
+ * <p>
+ * When the hot tier outgrows the budget, a CLOCK sweep picks the records to spill: one read since the last sweep is
+ * passed over once, the rest go until the tier is back under 90% of the budget. They are written, in id order and in
+ * blocks of {@link #BLOCK_RECORDS}, to a new segment file that is then memory-mapped; only the first id of each block
+ * and a Bloom filter of the segment's ids stay on the heap. A lookup that misses the hot tier probes the segments
+ * newest first; a segment whose id range or filter rules the id out costs no read, so unknown ids are answered without
+ * touching disk. A record found cold is decoded from one block and, for point reads, promoted back to the hot tier.
+ *
+ * <p>
+ * Segments are immutable. A record that is promoted or removed is marked dropped in its segment, the file is deleted
+ * once none of its records are live, and the sparsest segments are merged (see {@link #compact()}) so a lookup
+ * probes a bounded number of them. Spill files are scratch space, not durable state: leftovers are deleted
+ * when a store is created on the same directory, and {@link SnapshotService} is what keeps records across restarts.
+ * With a budget of 0 the hot tier is unbounded and nothing is written to disk.
+ */
+final class TieredRecordStore {
+
+  private static final Logger LOG = Logger.getLogger(TieredRecordStore.class);
+  static final int BLOCK_RECORDS = 8;
+  // About 14 bits per cold record; a miss probes every segment, so with 32 of them 3% of misses still read a block
+  static final double FALSE_POSITIVE_RATE = 0.001;
+  private static final String FILE_PREFIX = "records-";
+  private static final String FILE_SUFFIX = ".spill";
+  // A lookup probes at most this many segments; past it, the sparsest are merged
+  static final int MAX_SEGMENTS = 32;
+  static final int MERGE_FANOUT = 4;
+
+  private final long heapBudget;
+  private final Path directory;
+  // Component id to the layout cold records are decoded into; null keeps a decoded record's values as a plain map
+  private final Function<String, RecordRow.Layout> layouts;
+  private final Map<String, HotEntry> hot = new ConcurrentHashMap<>();
+  // Hot entries in CLOCK order, only kept when the budget is bounded; removed entries are skipped by the sweep
+  private final Queue<HotEntry> clock = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger clockGarbage = new AtomicInteger();
+  // Newest first
+  private final List<Segment> segments = new CopyOnWriteArrayList<>();
+  // Held by spills and removals, never by reads; not a monitor, since writes run on virtual threads
+  private final ReentrantLock spillLock = new ReentrantLock();
+  private final AtomicLong size = new AtomicLong();
+  private final AtomicLong hotBytes = new AtomicLong();
+  private final AtomicLong coldRecords = new AtomicLong();
+  private long nextSegment;
+
+  private final LongAdder hotReads = new LongAdder();
+  private final LongAdder coldReads = new LongAdder();
+  private final LongAdder absentReads = new LongAdder();
+  private final LongAdder bloomRejections = new LongAdder();
+  private final LongAdder spilledRecords = new LongAdder();
+
+  TieredRecordStore(long heapBudget, Path directory) {
+    this(heapBudget, directory, componentId -> null);
+  }
+
+  TieredRecordStore(long heapBudget, Path directory, Function<String, RecordRow.Layout> layouts) {
+    this.heapBudget = heapBudget;
+    this.directory = directory;
+    this.layouts = layouts;
+    if (bounded()) {
+      deleteSpillFiles();
+    }
+  }
+
+  /** Adds a record under a new id. */
+  void put(Record record) {
+    HotEntry entry = new HotEntry(record, estimateBytes(record));
+    HotEntry previous = hot.put(record.id(), entry);
+    if (previous == null) {
+      size.incrementAndGet();
+    } else {
+      retire(previous);
+    }
+    hotBytes.addAndGet(entry.bytes);
+    if (bounded()) {
+      clock.offer(entry);
+      spillIfOverBudget();
+    }
+  }
+
+  /** Point read: a record found cold is promoted to the hot tier. */
+  Record get(String id) {
+    return read(id, true);
+  }
+
+  /** Scan read: a record found cold is returned without promoting it, so a scan does not flush the hot tier. */
+  Record peek(String id) {
+    return read(id, false);
+  }
+
+  /**
+   * Scan read of many ids at once, none of them promoted. Ids missing the hot tier are looked up in id order, segment
+   * by segment: each segment's Bloom filter and block index are probed once per id, and each block is decoded at most
+   * once, however many of the ids it holds. Ids that are not stored are absent from the result.
+   */
+  Map<String, Record> peekAll(Collection<String> ids) {
+    Map<String, Record> found = new HashMap<>(ids.size() * 4 / 3 + 1);
+    List<String> remaining = new ArrayList<>();
+    for (String id : ids) {
+      HotEntry entry = hot.get(id);
+      Record record = entry == null ? null : entry.record;
+      if (record != null) {
+        entry.referenced = true;
+        hotReads.increment();
+        found.put(id, record);
+      } else {
+        remaining.add(id);
+      }
+    }
+    remaining.sort(null);
+    Set<String> dropped = new HashSet<>();
+    for (Segment segment : segments) {
+      if (remaining.isEmpty()) {
+        break;
+      }
+      List<String> candidates = new ArrayList<>();
+      boolean anyDropped = false;
+      for (String id : remaining) {
+        if (segment.covers(id) && segment.bloom.mightContain(BloomFilter.hash(id))) {
+          // As in a point read, the newest copy decides: a dropped one was promoted or removed since
+          if (segment.dropped.contains(id)) {
+            anyDropped |= dropped.add(id);
+          } else {
+            candidates.add(id);
+          }
+        }
+      }
+      if (!candidates.isEmpty() || anyDropped) {
+        int before = found.size();
+        segment.readAll(candidates, found);
+        coldReads.add(found.size() - before);
+        remaining.removeIf(id -> found.containsKey(id) || dropped.contains(id));
+      }
+    }
+    absentReads.add(remaining.size());
+    // Rare: the copy was promoted or removed while the batch ran, so these go through the point-read path
+    for (String id : dropped) {
+      Record record = peek(id);
+      if (record != null) {
+        found.put(id, record);
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Pins what the store holds now, for a reader that outlives the moment, such as a snapshot: hot records are kept by
+   * reference and the current segments by their mappings. Only references are copied, nothing is read from disk, and
+   * the view keeps answering the same after later spills, promotions, merges and removals. The caller must keep puts
+   * and removals out while it is taken.
+   */
+  View view() {
+    // Spills and merges wait, so no record can move from the heap to a segment the view would not see. Promotions
+    // still run, but a promoted record stays readable in the captured segment, whose mapping outlives its file
+    spillLock.lock();
+    try {
+      List<Segment> captured = List.copyOf(segments);
+      Map<String, Record> pinned = new HashMap<>(hot.size() * 4 / 3 + 1);
+      hot.forEach((id, entry) -> {
+        Record record = entry.record;
+        if (record != null) {
+          pinned.put(id, record);
+        }
+      });
+      return new View(pinned, captured);
+    } finally {
+      spillLock.unlock();
+    }
+  }
+
+  /** Removes the record and returns it, or {@code null} when there is none. */
+  Record remove(String id) {
+    spillLock.lock();
+    try {
+      boolean rechecked = false;
+      while (true) {
+        HotEntry entry = hot.remove(id);
+        if (entry != null) {
+          Record record = entry.record;
+          retire(entry);
+          size.decrementAndGet();
+          compactClock();
+          return record;
+        }
+        Cold cold = findCold(id);
+        if (cold == null) {
+          return null;
+        }
+        if (cold == Cold.DROPPED) {
+          // Promoted since the hot lookup: the promotion put it on the heap before dropping it here
+          if (rechecked) {
+            return null;
+          }
+          rechecked = true;
+          continue;
+        }
+        if (cold.segment.drop(id)) {
+          coldRecords.decrementAndGet();
+          size.decrementAndGet();
+          deleteIfEmpty(cold.segment);
+          return cold.record;
+        }
+      }
+    } finally {
+      spillLock.unlock();
+    }
+  }
+
+  void clear() {
+    spillLock.lock();
+    try {
+      hot.clear();
+      clock.clear();
+      clockGarbage.set(0);
+      List<Segment> dropped = new ArrayList<>(segments);
+      segments.clear();
+      dropped.forEach(TieredRecordStore::deleteFile);
+      size.set(0);
+      hotBytes.set(0);
+      coldRecords.set(0);
+    } finally {
+      spillLock.unlock();
+    }
+  }
+
+  long size() {
+    return size.get();
+  }
+
+  long hotRecords() {
+    return hot.size();
+  }
+
+  long coldRecords() {
+    return coldRecords.get();
+  }
+
+  long hotBytes() {
+    return hotBytes.get();
+  }
+
+  int segmentCount() {
+    return segments.size();
+  }
+
+  long hotReads() {
+    return hotReads.sum();
+  }
+
+  long coldReads() {
+    return coldReads.sum();
+  }
+
+  long absentReads() {
+    return absentReads.sum();
+  }
+
+  long bloomRejections() {
+    return bloomRejections.sum();
+  }
+
+  long spilledRecords() {
+    return spilledRecords.sum();
+  }
+
+  /** Share of reads of existing records that the hot tier served; 1 before the first read. */
+  double hitRatio() {
+    long hits = hotReads.sum();
+    long total = hits + coldReads.sum();
+    return total == 0 ? 1 : (double) hits / total;
+  }
+
+  private boolean bounded() {
+    return heapBudget > 0;
+  }
+
+  private Record read(String id, boolean promote) {
+    boolean rechecked = false;
+    while (true) {
+      HotEntry entry = hot.get(id);
+      // The record is null when it was removed between the lookup and here
+      Record record = entry == null ? null : entry.record;
+      if (record != null) {
+        entry.referenced = true;
+        hotReads.increment();
+        return record;
+      }
+      Cold cold = findCold(id);
+      if (cold == Cold.DROPPED && !rechecked) {
+        // Possibly promoted by another reader since the hot lookup, which puts it on the heap before dropping it here
+        rechecked = true;
+        continue;
+      }
+      if (cold == null || cold == Cold.DROPPED) {
+        absentReads.increment();
+        return null;
+      }
+      if (!promote) {
+        coldReads.increment();
+        return cold.record;
+      }
+      Record promoted = promote(cold);
+      if (promoted != null) {
+        coldReads.increment();
+        return promoted;
+      }
+      // Lost a race with a removal or with another promotion; look again
+    }
+  }
+
+  /**
+   * Finds the newest cold copy of the record; {@link Cold#DROPPED} when that copy has since been promoted or removed.
+   */
+  private Cold findCold(String id) {
+    long hash = BloomFilter.hash(id);
+    boolean probed = false;
+    for (Segment segment : segments) {
+      if (!segment.covers(id) || !segment.bloom.mightContain(hash)) {
+        continue;
+      }
+      probed = true;
+      if (segment.dropped.contains(id)) {
+        return Cold.DROPPED;
+      }
+      Record record = segment.read(id);
+      if (record != null) {
+        return new Cold(segment, record);
+      }
+    }
+    if (!probed && !segments.isEmpty()) {
+      bloomRejections.increment();
+    }
+    return null;
+  }
+
+  private Record promote(Cold cold) {
+    Record record = cold.record;
+    HotEntry entry = new HotEntry(record, estimateBytes(record));
+    entry.referenced = true;
+    HotEntry current = hot.putIfAbsent(record.id(), entry);
+    if (current != null) {
+      return current.record;
+    }
+    hotBytes.addAndGet(entry.bytes);
+    if (!cold.segment.drop(record.id())) {
+      // Removed, or promoted and spilled again, while this copy was being read
+      if (hot.remove(record.id(), entry)) {
+        hotBytes.addAndGet(-entry.bytes);
+      }
+      return null;
+    }
+    coldRecords.decrementAndGet();
+    deleteIfEmpty(cold.segment);
+    if (bounded()) {
+      clock.offer(entry);
+      spillIfOverBudget();
+    }
+    return record;
+  }
+
+  private void retire(HotEntry entry) {
+    entry.record = null;
+    hotBytes.addAndGet(-entry.bytes);
+    if (bounded()) {
+      clockGarbage.incrementAndGet();
+    }
+  }
+
+  // Removed entries stay queued until the sweep reaches them; without spills it never does, so they are purged here
+  private void compactClock() {
+    if (clockGarbage.get() > hot.size() + 1024) {
+      clock.removeIf(entry -> entry.record == null);
+      clockGarbage.set(0);
+    }
+  }
+
+  private void spillIfOverBudget() {
+    // Writers that find a spill in progress carry on; the next write past the budget spills again
+    if (hotBytes.get() <= heapBudget || !spillLock.tryLock()) {
+      return;
+    }
+    try {
+      spill();
+    } finally {
+      spillLock.unlock();
+    }
+  }
+
+  private void spill() {
+    long target = heapBudget - heapBudget / 10;
+    List<HotEntry> victims = new ArrayList<>();
+    List<Record> spilled = new ArrayList<>();
+    long freed = 0;
+    // Two laps at most: the first clears every reference bit, the second finds victims
+    long steps = 2L * (hot.size() + clockGarbage.get()) + 1;
+    while (hotBytes.get() - freed > target && steps-- > 0) {
+      HotEntry entry = clock.poll();
+      if (entry == null) {
+        break;
+      }
+      Record record = entry.record;
+      if (record == null) {
+        clockGarbage.decrementAndGet();
+      } else if (entry.referenced) {
+        entry.referenced = false;
+        clock.offer(entry);
+      } else {
+        victims.add(entry);
+        spilled.add(record);
+        freed += entry.bytes;
+      }
+    }
+    if (victims.isEmpty()) {
+      return;
+    }
+
+    Segment segment;
+    try {
+      segment = writeSegment(spilled);
+    } catch (IOException | RuntimeException e) {
+      LOG.errorf(e, "Could not spill %d records to %s; keeping them on the heap", victims.size(), directory);
+      victims.forEach(clock::offer);
+      return;
+    }
+    // Published before the records leave the heap, so a concurrent read finds each of them in one tier or the other
+    segments.addFirst(segment);
+    for (HotEntry victim : victims) {
+      if (hot.remove(victim.id, victim)) {
+        hotBytes.addAndGet(-victim.bytes);
+        coldRecords.incrementAndGet();
+      } else {
+        segment.drop(victim.id);
+      }
+    }
+    deleteIfEmpty(segment);
+    spilledRecords.add(victims.size());
+    compact();
+  }
+
+  /**
+   * Keeps at most {@link #MAX_SEGMENTS} segments by merging the {@link #MERGE_FANOUT} with the fewest live records.
+   * Those are the ones emptied most by promotions and removals, so a merge rewrites little and reclaims the copies left
+   * behind; when nothing is read back, segments merge by size and each record is rewritten O(log n) times.
+   */
+  private void compact() {
+    while (segments.size() > MAX_SEGMENTS) {
+      List<Segment> sparsest = segments.stream().sorted(Comparator.comparingInt(segment -> segment.live.get()))
+          .limit(MERGE_FANOUT).toList();
+      if (!merge(sparsest)) {
+        return;
+      }
+    }
+  }
+
+  private boolean merge(List<Segment> group) {
+    List<Record> records = new ArrayList<>();
+    List<Segment> sources = new ArrayList<>();
+    for (Segment source : group) {
+      source.forEachLive(record -> {
+        records.add(record);
+        sources.add(source);
+      });
+    }
+    if (records.isEmpty()) {
+      group.forEach(this::deleteIfEmpty);
+      return false;
+    }
+    Segment merged;
+    try {
+      merged = writeSegment(records);
+    } catch (IOException | RuntimeException e) {
+      LOG.errorf(e, "Could not merge %d spill segments in %s", group.size(), directory);
+      return false;
+    }
+    // Every live copy is the only one in the cold tier, so the merged segment can go first. A record promoted since it
+    // was read here keeps its promotion, and its copy in the merged segment is dropped
+    segments.addFirst(merged);
+    for (int i = 0; i < records.size(); i++) {
+      if (!sources.get(i).drop(records.get(i).id())) {
+        merged.drop(records.get(i).id());
+      }
+    }
+    group.forEach(this::deleteIfEmpty);
+    deleteIfEmpty(merged);
+    return true;
+  }
+
+  private Segment writeSegment(List<Record> unsorted) throws IOException {
+    List<Record> records = unsorted.stream().sorted(Comparator.comparing(Record::id)).toList();
+    int blocks = Math.ceilDiv(records.size(), BLOCK_RECORDS);
+    String[] firstIds = new String[blocks];
+    int[] offsets = new int[blocks + 1];
+    ByteBuffer[] payloads = new ByteBuffer[blocks];
+    BloomFilter bloom = BloomFilter.forKeys(records.size(), FALSE_POSITIVE_RATE);
+    for (int block = 0; block < blocks; block++) {
+      // Each record is its id followed by the record, nested with its own key dictionary, so a lookup decodes only
+      // the ids of the records before it
+      SnapshotFile.Writer out = new SnapshotFile.Writer();
+      List<Record> members = records.subList(block * BLOCK_RECORDS,
+          Math.min((block + 1) * BLOCK_RECORDS, records.size()));
+      firstIds[block] = members.getFirst().id();
+      for (Record record : members) {
+        SnapshotFile.Writer body = new SnapshotFile.Writer();
+        body.writeString(record.componentId());
+        SnapshotFile.writeRecord(body, record);
+        out.writeString(record.id());
+        out.writeNested(body);
+        bloom.add(record.id());
+      }
+      payloads[block] = out.toByteBuffer();
+      offsets[block + 1] = offsets[block] + payloads[block].remaining();
+    }
+
+    Files.createDirectories(directory);
+    Path file = directory.resolve(FILE_PREFIX + nextSegment++ + FILE_SUFFIX);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      for (ByteBuffer payload : payloads) {
+        SnapshotFile.writeFully(channel, payload);
+      }
+      // Reads come from the mapping, which outlives the channel and is not closed by an interrupted reader
+      ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, offsets[blocks]);
+      return new Segment(file, data, firstIds, records.getLast().id(), offsets, bloom, records.size());
+    }
+  }
+
+  private void deleteIfEmpty(Segment segment) {
+    if (segment.live.get() == 0 && segment.deleted.compareAndSet(false, true)) {
+      segments.remove(segment);
+      deleteFile(segment);
+    }
+  }
+
+  private static void deleteFile(Segment segment) {
+    try {
+      // Readers still holding the mapping keep working; the pages are released with it
+      Files.deleteIfExists(segment.file);
+    } catch (IOException e) {
+      LOG.warnf(e, "Could not delete spill segment %s", segment.file);
+    }
+  }
+
+  private void deleteSpillFiles() {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+      for (Path file : files) {
+        Files.deleteIfExists(file);
+      }
+    } catch (IOException e) {
+      LOG.warnf(e, "Could not delete leftover spill segments in %s", directory);
+    }
+  }
+
+  /**
+   * Approximate retained size of a record on a 64-bit JVM with compressed oops and compact strings. It only has to
+   * rank records against the budget consistently, not match a heap dump.
+   */
+  static int estimateBytes(Record record) {
+    long bytes = 64 + stringBytes(record.id()) + stringBytes(record.componentId()) + stringBytes(record.createdBy())
+        + 2 * 24 + valueBytes(record.values()) + valueBytes(record.metadata());
+    return (int) Math.min(bytes, Integer.MAX_VALUE);
+  }
+
+  private static long valueBytes(Object value) {
+    return switch (value) {
+      case null -> 0;
+      case String text -> stringBytes(text);
+      // Boolean.TRUE and Boolean.FALSE are shared
+      case Boolean flag -> 0;
+      case Integer number -> 16;
+      case BigDecimal number -> 40 + number.unscaledValue().bitLength() / 8;
+      case BigInteger number -> 40 + number.bitLength() / 8;
+      case Number number -> 24;
+      case RecordRow row -> row.footprint(TieredRecordStore::valueBytes);
+      case Map<?, ?> map -> {
+        long total = 64 + 4L * map.size() + 40L * map.size();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          total += valueBytes(entry.getKey()) + valueBytes(entry.getValue());
+        }
+        yield total;
+      }
+      case List<?> list -> {
+        long total = 40 + 8L * list.size();
+        for (Object element : list) {
+          total += valueBytes(element);
+        }
+        yield total;
+      }
+      default -> 16;
+    };
+  }
+
+  private static long stringBytes(String text) {
+    return text == null ? 0 : 40 + text.length();
+  }
+
+  private static final class HotEntry {
+    final String id;
+    // Cleared when the entry is removed, so a queued entry does not keep the record alive
+    volatile Record record;
+    final int bytes;
+    // Set on every read, cleared by the sweep
+    volatile boolean referenced;
+
+    HotEntry(Record record, int bytes) {
+      this.id = record.id();
+      this.record = record;
+      this.bytes = bytes;
+    }
+  }
+
+  /** The store as it was when {@link #view()} was called. */
+  final class View {
+    private final Map<String, Record> hotRecords;
+    private final List<Segment> coldSegments;
+
+    private View(Map<String, Record> hotRecords, List<Segment> coldSegments) {
+      this.hotRecords = hotRecords;
+      this.coldSegments = coldSegments;
+    }
+
+    /**
+     * The record, or {@code null} when the store did not hold it. A record's content never changes under its id, so
+     * any copy in a segment is the record, whether or not it was dropped there since.
+     */
+    Record get(String id) {
+      Record record = hotRecords.get(id);
+      if (record != null) {
+        return record;
+      }
+      long hash = BloomFilter.hash(id);
+      for (Segment segment : coldSegments) {
+        if (segment.covers(id) && segment.bloom.mightContain(hash)) {
+          record = segment.read(id);
+          if (record != null) {
+            return record;
+          }
+        }
+      }
+      return null;
+    }
+  }
+
+  private record Cold(Segment segment, Record record) {
+    static final Cold DROPPED = new Cold(null, null);
+  }
+
+  private final class Segment {
+    private final Path file;
+    private final ByteBuffer data;
+    private final String[] firstIds;
+    private final String lastId;
+    private final int[] offsets;
+    private final BloomFilter bloom;
+    // Ids promoted or removed since the spill; their copies here are stale
+    private final Set<String> dropped = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger live;
+    private final AtomicBoolean deleted = new AtomicBoolean();
+
+    Segment(Path file, ByteBuffer data, String[] firstIds, String lastId, int[] offsets, BloomFilter bloom,
+        int records) {
+      this.file = file;
+      this.data = data;
+      this.firstIds = firstIds;
+      this.lastId = lastId;
+      this.offsets = offsets;
+      this.bloom = bloom;
+      this.live = new AtomicInteger(records);
+    }
+
+    /** Whether the id falls in this segment's id range; ids are time-ordered, so most segments span a time window. */
+    boolean covers(String id) {
+      return id.compareTo(firstIds[0]) >= 0 && id.compareTo(lastId) <= 0;
+    }
+
+    Record read(String id) {
+      int block = blockOf(id);
+      if (block < 0) {
+        return null;
+      }
+      SnapshotFile.Reader in = block(block);
+      while (in.hasRemaining()) {
+        int order = in.readString().compareTo(id);
+        if (order == 0) {
+          return decode(in.readNested());
+        }
+        if (order > 0) {
+          return null;
+        }
+        in.skipNested();
+      }
+      return null;
+    }
+
+    /** Reads the records of {@code sortedIds} held here into {@code into}, decoding each block once. */
+    void readAll(List<String> sortedIds, Map<String, Record> into) {
+      int next = 0;
+      while (next < sortedIds.size()) {
+        int block = blockOf(sortedIds.get(next));
+        if (block < 0) {
+          next++;
+          continue;
+        }
+        String end = block + 1 < firstIds.length ? firstIds[block + 1] : null;
+        SnapshotFile.Reader in = block(block);
+        while (in.hasRemaining() && next < sortedIds.size() && before(sortedIds.get(next), end)) {
+          String id = in.readString();
+          while (next < sortedIds.size() && sortedIds.get(next).compareTo(id) < 0) {
+            next++;
+          }
+          if (next < sortedIds.size() && sortedIds.get(next).equals(id)) {
+            into.put(id, decode(in.readNested()));
+            next++;
+          } else {
+            in.skipNested();
+          }
+        }
+        // Ids past the last record of the block are not in this segment
+        while (next < sortedIds.size() && before(sortedIds.get(next), end)) {
+          next++;
+        }
+      }
+    }
+
+    private static boolean before(String id, String end) {
+      return end == null || id.compareTo(end) < 0;
+    }
+
+    // The block whose first id is the greatest at or below the id, or -1 when the id precedes every block
+    private int blockOf(String id) {
+      int block = Arrays.binarySearch(firstIds, id);
+      return block >= 0 ? block : -block - 2;
+    }
+
+    void forEachLive(Consumer<Record> action) {
+      for (int block = 0; block < firstIds.length; block++) {
+        SnapshotFile.Reader in = block(block);
+        while (in.hasRemaining()) {
+          if (dropped.contains(in.readString())) {
+            in.skipNested();
+          } else {
+            action.accept(decode(in.readNested()));
+          }
+        }
+      }
+    }
+
+    private Record decode(SnapshotFile.Reader in) {
+      String componentId = in.readString();
+      return SnapshotFile.readRecord(in, componentId, layouts.apply(componentId), true);
+    }
+
+    private SnapshotFile.Reader block(int block) {
+      return new SnapshotFile.Reader(data.slice(offsets[block], offsets[block + 1] - offsets[block]));
+    }
+
+    /** Marks a record of this segment as no longer held here; {@code false} when it already was. */
+    boolean drop(String id) {
+      if (!dropped.add(id)) {
+        return false;
+      }
+      live.decrementAndGet();
+      return true;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.aurenworks.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single "theoretical arrival time" (GCRA), so taking a token is one CAS and concurrent
+ * requests never wait on each other.
+ *
+ * <p>
+ * Tokens refill at {@code ratePerSecond}; up to {@code burst} requests are admitted back to back from a full bucket.
+ */
+final class TokenBucket {
+
+  private final long intervalNanos;
+  private final long capacityNanos;
+  private final AtomicLong theoreticalArrival;
+
+  TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+    if (ratePerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+    }
+    this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+    this.capacityNanos = intervalNanos * burst;
+    this.theoreticalArrival = new AtomicLong(nowNanos);
+  }
+
+  /**
+   * Takes a token if one is available.
+   *
+   * @return {@code 0} when the request is admitted, otherwise the nanoseconds until the next token is available
+   */
+  long tryAcquire(long nowNanos) {
+    while (true) {
+      long current = theoreticalArrival.get();
+      long next = Math.max(current, nowNanos) + intervalNanos;
+      long excess = next - nowNanos - capacityNanos;
+      if (excess > 0) {
+        return excess;
+      }
+      if (theoreticalArrival.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+
+  /** A full bucket holds no state worth keeping: dropping it and creating a new one later is equivalent. */
+  boolean isFull(long nowNanos) {
+    return theoreticalArrival.get() - nowNanos <= 0;
+  }
+}
@@ -0,0 +1,88 @@
+package com.aurenworks.api;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(AdmissionFilterTest.TightLimits.class)
+class AdmissionFilterTest {
+
+  private static final String COMPONENT = """
+      {"name": "Throttled", "description": "d", "fields": [{"name": "t", "type": "string", "required": true,
+       "constraints": {}}], "metadata": {}}""";
+
+  public static class TightLimits implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Map.of("aurenworks.admission.list.rate", "0.1", "aurenworks.admission.list.burst", "2",
+          "aurenworks.admission.read.rate", "0.1", "aurenworks.admission.read.burst", "5",
+          "aurenworks.admission.write.rate", "0.1", "aurenworks.admission.write.burst", "3");
+    }
+  }
+
+  @Test
+  void testListQueriesOverBurstAreShedWithRetryAfter() {
+    String projectId = UUID.randomUUID().toString();
+    given().when().get("/projects/" + projectId + "/components").then().statusCode(200);
+    given().when().get("/projects/" + projectId + "/components").then().statusCode(200);
+
+    String retryAfter = given().when().get("/projects/" + projectId + "/components").then().statusCode(429)
+        .body("error.code", equalTo("RATE_LIMITED")).body("error.details.routeClass", equalTo("list"))
+        .body("error.requestId", notNullValue()).extract().header("Retry-After");
+    assertEquals(10, Integer.parseInt(retryAfter));
+  }
+
+  @Test
+  void testBucketsArePerProjectAndRouteClass() {
+    String busy = UUID.randomUUID().toString();
+    given().when().get("/projects/" + busy + "/components").then().statusCode(200);
+    given().when().get("/projects/" + busy + "/components").then().statusCode(200);
+    given().when().get("/projects/" + busy + "/components").then().statusCode(429);
+
+    // Reads of the same project and lists of another project still have their own tokens
+    given().when().get("/projects/" + busy + "/components/missing").then().statusCode(404);
+    given().when().get("/projects/" + UUID.randomUUID() + "/components").then().statusCode(200);
+  }
+
+  @Test
+  void testRecordWritesAreChargedBeforeTheirBodyIsRead() {
+    // Invalid bodies are charged like valid ones: the token is taken before the body is parsed or validated
+    Map<String, Object> invalid = Map.of("componentId", "user", "values", Map.of("name", 42));
+    for (int i = 0; i < 3; i++) {
+      given().contentType("application/json").body(invalid).when().post("/records").then().statusCode(400);
+    }
+    given().contentType("application/json").body("{not json").when().post("/records").then().statusCode(429)
+        .body("error.code", equalTo("RATE_LIMITED")).body("error.details.routeClass", equalTo("write"))
+        .body("error.requestId", notNullValue());
+    given().contentType("application/json").body(Map.of("componentId", "user", "values", Map.of("name", "Valid")))
+        .when().post("/records").then().statusCode(429);
+
+    // Record creates carry no project outside their body, so they used the caller's bucket, not default-project's
+    given().contentType("application/json").body(COMPONENT).when().post("/projects/default-project/components")
+        .then().statusCode(201);
+
+    // Every admitted request gave its permit back
+    given().when().get("/q/metrics").then().statusCode(200)
+        .body(containsString("aurenworks_admission_concurrency_in_flight 0.0"));
+  }
+
+  @Test
+  void testUnknownComponentIdsShareTheCallersBucket() {
+    given().when().get("/records?componentId=" + UUID.randomUUID()).then().statusCode(200);
+    given().when().get("/records?componentId=" + UUID.randomUUID()).then().statusCode(200);
+    given().when().get("/records?componentId=" + UUID.randomUUID()).then().statusCode(429);
+    given().when().get("/records").then().statusCode(429);
+  }
+}
@@ -0,0 +1,78 @@
+package com.aurenworks.api;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+
+@QuarkusTest
+class BinaryBodyProviderTest {
+
+  private static final ObjectMapper CBOR = new CBORMapper();
+  private static final ObjectMapper SMILE = new SmileMapper();
+
+  @Test
+  void testCreateAndGetRecordAsCbor() throws IOException {
+    byte[] body = CBOR.writeValueAsBytes(
+        Map.of("componentId", "user", "values", Map.of("name", "Cbor Client", "age", 41, "active", false)));
+
+    byte[] created = given().contentType(BinaryMediaTypes.CBOR).accept(BinaryMediaTypes.CBOR).body(body).when()
+        .post("/records").then().statusCode(201).contentType(BinaryMediaTypes.CBOR).extract().asByteArray();
+    JsonNode record = CBOR.readTree(created);
+    assertEquals("Cbor Client", record.path("values").path("name").asText());
+    assertEquals(41, record.path("values").path("age").asInt());
+    assertNotNull(record.get("createdAt"));
+
+    byte[] fetched = given().accept(BinaryMediaTypes.CBOR).when().get("/records/" + record.get("id").asText()).then()
+        .statusCode(200).extract().asByteArray();
+    assertEquals(record, CBOR.readTree(fetched));
+  }
+
+  @Test
+  void testListRecordsAsSmile() throws IOException {
+    byte[] page = given().accept(BinaryMediaTypes.SMILE).when().get("/records?componentId=user&size=5").then()
+        .statusCode(200).contentType(BinaryMediaTypes.SMILE).extract().asByteArray();
+
+    JsonNode response = SMILE.readTree(page);
+    assertFalse(response.path("records").isEmpty());
+    assertEquals(5, response.path("pagination").path("size").asInt());
+  }
+
+  @Test
+  void testCreateComponentAsSmile() throws IOException {
+    byte[] body = SMILE.writeValueAsBytes(Map.of("name", "Smile Component", "description", "Created over Smile",
+        "fields", List.of(Map.of("name", "title", "type", "string", "required", true, "constraints", Map.of())),
+        "metadata", Map.of("version", "1.0")));
+
+    byte[] created = given().contentType(BinaryMediaTypes.SMILE).accept(BinaryMediaTypes.SMILE).body(body).when()
+        .post("/projects/default-project/components").then().statusCode(201).extract().asByteArray();
+    assertEquals("Smile Component", SMILE.readTree(created).path("name").asText());
+  }
+
+  @Test
+  void testJsonRemainsTheDefault() {
+    given().when().get("/projects/default-project/components").then().statusCode(200).contentType(ContentType.JSON);
+  }
+
+  @Test
+  void testMalformedBinaryBodyIsValidationError() {
+    given().contentType(BinaryMediaTypes.CBOR).accept(BinaryMediaTypes.CBOR).body(new byte[]{(byte) 0xff, 0x01})
+        .when().post("/records").then().statusCode(400).contentType(ContentType.JSON)
+        .body("error.code", is("VALIDATION_ERROR")).body("error.details.contentType", is(BinaryMediaTypes.CBOR));
+  }
+}
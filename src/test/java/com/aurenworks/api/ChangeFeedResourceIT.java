@@ -0,0 +1,8 @@
+package com.aurenworks.api;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+@QuarkusIntegrationTest
+class ChangeFeedResourceIT extends ChangeFeedResourceTest {
+  // Execute the same tests but in packaged mode.
+}
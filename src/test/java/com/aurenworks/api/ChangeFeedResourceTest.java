@@ -0,0 +1,70 @@
+package com.aurenworks.api;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class ChangeFeedResourceTest {
+
+  @TestHTTPResource("/changes")
+  URI changesUri;
+
+  @Test
+  void testStreamReplaysCreatedRecordFromLastEventId() throws Exception {
+    String recordId = given().contentType("application/json")
+        .body(Map.of("componentId", "user", "values", Map.of("name", "Feed User"))).when().post("/records").then()
+        .statusCode(201).extract().path("id");
+
+    HttpRequest request = HttpRequest.newBuilder(URI.create(changesUri + "?componentId=user"))
+        .header("Accept", "text/event-stream").header("Last-Event-ID", "0").build();
+    HttpResponse<InputStream> response = HttpClient.newHttpClient().send(request,
+        HttpResponse.BodyHandlers.ofInputStream());
+    assertEquals(200, response.statusCode());
+
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+      CompletableFuture<String> event = CompletableFuture.supplyAsync(() -> readEventFor(reader, recordId));
+      String block = event.get(10, TimeUnit.SECONDS);
+      assertTrue(block.contains("event:record.created"));
+      assertTrue(block.contains("id:"));
+    }
+  }
+
+  private static String readEventFor(BufferedReader reader, String recordId) {
+    try {
+      StringBuilder block = new StringBuilder();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty()) {
+          if (block.indexOf(recordId) >= 0) {
+            return block.toString().replace(" ", "");
+          }
+          block.setLength(0);
+        } else {
+          block.append(line).append('\n');
+        }
+      }
+      throw new IllegalStateException("Stream ended before record event was received");
+    } catch (java.io.IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package com.aurenworks.api;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+@QuarkusIntegrationTest
+class ComponentsResourceIT extends ComponentsResourceTest {
+  // Execute the same tests but in packaged mode.
+}
@@ -71,6 +71,30 @@ class ComponentsResourceTest {
         .body("metadata.version", equalTo("1.0")).header("ETag", notNullValue());
   }
 
+  @Test
+  void testCreateComponent_IdempotencyKeyReplaysTheFirstResponse() {
+    String createRequest = """
+        {
+          "name": "Retried Component",
+          "description": "Created once however often it is sent",
+          "fields": [{"name": "title", "type": "string", "required": true, "constraints": {}}],
+          "metadata": {}
+        }
+        """;
+
+    String id = given().contentType(ContentType.JSON).header("Idempotency-Key", "component-retry").body(createRequest)
+        .when().post("/projects/" + PROJECT_ID + "/components").then().statusCode(201)
+        .header("Idempotent-Replayed", nullValue()).extract().path("id");
+
+    given().contentType(ContentType.JSON).header("Idempotency-Key", "component-retry").body(createRequest).when()
+        .post("/projects/" + PROJECT_ID + "/components").then().statusCode(201)
+        .header("Idempotent-Replayed", equalTo("true")).header("ETag", notNullValue()).body("id", equalTo(id));
+    // The key is scoped to the project
+    given().contentType(ContentType.JSON).header("Idempotency-Key", "component-retry").body(createRequest).when()
+        .post("/projects/other-project/components").then().statusCode(201)
+        .header("Idempotent-Replayed", nullValue()).body("id", not(equalTo(id)));
+  }
+
   @Test
   void testCreateComponent_ValidationError_EmptyFields() {
     String createRequest = """
@@ -105,9 +129,19 @@ class ComponentsResourceTest {
 
   @Test
   void testUpdateComponent_Success() {
+    // Updates a component of its own, since the update replaces the record schema of the shared "user" sample
+    String componentId = given().contentType(ContentType.JSON).body("""
+        {
+          "name": "User",
+          "description": "User information component",
+          "fields": [{"name": "name", "type": "string", "required": true, "constraints": {}}],
+          "metadata": {"version": "1.0"}
+        }
+        """).when().post("/projects/" + PROJECT_ID + "/components").then().statusCode(201).extract().path("id");
+
     // First get the current ETag
-    String etag = given().when().get("/projects/" + PROJECT_ID + "/components/user").then().statusCode(200).extract()
-        .header("ETag");
+    String etag = given().when().get("/projects/" + PROJECT_ID + "/components/" + componentId).then().statusCode(200)
+        .extract().header("ETag");
 
     // Update the component
     String updateRequest = """
@@ -133,8 +167,8 @@ class ComponentsResourceTest {
         """;
 
     given().contentType(ContentType.JSON).header("If-Match", etag).body(updateRequest).when()
-        .put("/projects/" + PROJECT_ID + "/components/user").then().statusCode(200).contentType(ContentType.JSON)
-        .body("id", equalTo("user")).body("name", equalTo("Updated User"))
+        .put("/projects/" + PROJECT_ID + "/components/" + componentId).then().statusCode(200)
+        .contentType(ContentType.JSON).body("id", equalTo(componentId)).body("name", equalTo("Updated User"))
         .body("description", equalTo("Updated user information component")).body("fields", hasSize(2))
         .body("metadata.version", equalTo("2.0")).header("ETag", notNullValue());
   }
@@ -253,6 +287,66 @@ class ComponentsResourceTest {
     given().when().get("/projects/" + PROJECT_ID + "/components/" + componentId).then().statusCode(404);
   }
 
+  @Test
+  void testCreatedComponentAppliesItsDeclaredTtlAndAggregates() {
+    String createRequest = """
+        {
+          "name": "Signups",
+          "description": "Expiring records with a dashboard aggregate",
+          "fields": [
+            {"name": "plan", "type": "string", "required": true, "constraints": {}},
+            {"name": "seats", "type": "number", "required": false, "constraints": {}},
+            {"name": "paid", "type": "boolean", "required": false, "constraints": {}}
+          ],
+          "metadata": {"ttl": "PT15M", "aggregates": [{"groupBy": "paid", "field": "seats"}]}
+        }
+        """;
+
+    String componentId = given().contentType(ContentType.JSON).body(createRequest).when()
+        .post("/projects/" + PROJECT_ID + "/components").then().statusCode(201).extract().path("id");
+
+    given().contentType(ContentType.JSON).body("""
+        {"componentId": "%s", "values": {"plan": "team", "seats": 5, "paid": true}}
+        """.formatted(componentId)).when().post("/records").then().statusCode(201)
+        .body("expiresAt", notNullValue());
+
+    given().queryParam("componentId", componentId).queryParam("groupBy", "paid").queryParam("field", "seats").when()
+        .get("/records/aggregate").then().statusCode(200).body("materialized", is(true))
+        .body("groups.find { it.key == true }.count", equalTo(1));
+
+    // Once the component is gone its records can no longer be written
+    given().when().delete("/projects/" + PROJECT_ID + "/components/" + componentId).then().statusCode(204);
+    given().contentType(ContentType.JSON).body("""
+        {"componentId": "%s", "values": {"plan": "solo"}}
+        """.formatted(componentId)).when().post("/records").then().statusCode(400)
+        .body("error.code", equalTo("VALIDATION_ERROR"));
+  }
+
+  @Test
+  void testCreateComponent_InvalidDeclarationsAreRejected() {
+    String badTtl = """
+        {
+          "name": "Bad TTL",
+          "description": "Declares a TTL that is not a duration",
+          "fields": [{"name": "title", "type": "string", "required": true, "constraints": {}}],
+          "metadata": {"ttl": "soon"}
+        }
+        """;
+    given().contentType(ContentType.JSON).body(badTtl).when().post("/projects/" + PROJECT_ID + "/components").then()
+        .statusCode(400).body("error.code", equalTo("VALIDATION_ERROR"));
+
+    String badAggregate = """
+        {
+          "name": "Bad Aggregate",
+          "description": "Groups by a field it does not have",
+          "fields": [{"name": "title", "type": "string", "required": true, "constraints": {}}],
+          "metadata": {"aggregates": [{"groupBy": "missing"}]}
+        }
+        """;
+    given().contentType(ContentType.JSON).body(badAggregate).when().post("/projects/" + PROJECT_ID + "/components")
+        .then().statusCode(400).body("error.code", equalTo("VALIDATION_ERROR"));
+  }
+
   @Test
   void testDeleteComponent_NotFound() {
     given().when().delete("/projects/" + PROJECT_ID + "/components/nonexistent").then().statusCode(404)
@@ -0,0 +1,117 @@
+package com.aurenworks.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.model.Component;
+import com.aurenworks.model.RecordRow;
+import com.aurenworks.service.DomainException;
+import com.aurenworks.service.RecordSchema;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+class CreateRecordRequestDeserializerTest {
+
+  private static final RecordSchema USER = RecordSchema.compile(new Component("user", "User", null,
+      List.of(new Component.ComponentField("name", "string", true, Map.of()),
+          new Component.ComponentField("age", "number", false, Map.of()),
+          new Component.ComponentField("active", "boolean", false, Map.of()),
+          new Component.ComponentField("tags", "array", false, Map.of())),
+      Map.of()));
+
+  // Configured like the application's mapper, which ignores unknown properties
+  private final ObjectMapper mapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+      .registerModule(JacksonConfiguration.recordsModule(id -> "user".equals(id) ? USER : null));
+
+  @Test
+  void testValuesAreReadIntoAValidatedRow() throws Exception {
+    CreateRecordRequest request = mapper.readValue("""
+        {"componentId": "user", "values": {"name": "Ada", "age": 36, "active": true, "tags": ["a"], "nick": {"x": 1}},
+         "metadata": {"source": "test"}, "ttl": "PT1H", "ignored": [1, 2]}""", CreateRecordRequest.class);
+
+    assertEquals("user", request.componentId());
+    assertTrue(USER.built(request.values()));
+    assertEquals(Map.of("name", "Ada", "age", 36, "active", true, "tags", List.of("a"), "nick", Map.of("x", 1)),
+        request.values());
+    assertEquals(Map.of("source", "test"), request.metadata());
+    assertEquals("PT1H", request.ttl());
+  }
+
+  @Test
+  void testValuesBeforeComponentIdAreBufferedAndStillValidated() throws Exception {
+    CreateRecordRequest request = mapper.readValue("""
+        {"values": {"name": "Ada", "age": 36}, "componentId": "user"}""", CreateRecordRequest.class);
+    assertTrue(USER.built(request.values()));
+    assertEquals(Map.of("name", "Ada", "age", 36), request.values());
+
+    DomainException.Validation error = assertThrows(DomainException.Validation.class,
+        () -> mapper.readValue("""
+            {"values": {"name": "Ada", "age": "old"}, "componentId": "user"}""", CreateRecordRequest.class));
+    assertEquals("Field age must be a number", error.getMessage());
+  }
+
+  @Test
+  void testNumbersKeepTheTypesAMapWouldGiveThem() throws Exception {
+    Map<String, Object> values = mapper.readValue("""
+        {"componentId": "user", "values": {"name": "Ada", "age": 12345678901}}""", CreateRecordRequest.class)
+        .values();
+    assertEquals(12345678901L, values.get("age"));
+    assertEquals(2.5, mapper.readValue("""
+        {"componentId": "user", "values": {"name": "Ada", "age": 2.5}}""", CreateRecordRequest.class).values()
+        .get("age"));
+    assertEquals(new BigInteger("123456789012345678901234567890"), mapper.readValue("""
+        {"componentId": "user", "values": {"name": "Ada", "age": 123456789012345678901234567890}}""",
+        CreateRecordRequest.class).values().get("age"));
+  }
+
+  @Test
+  void testFirstViolationEndsTheReadBeforeTheRestOfTheBody() {
+    // The body is cut off after the bad value; a full parse would fail on the syntax instead
+    DomainException.Validation error = assertThrows(DomainException.Validation.class,
+        () -> mapper.readValue("{\"componentId\": \"user\", \"values\": {\"active\": \"yes\", \"name\": \"A",
+            CreateRecordRequest.class));
+    assertEquals("Field active must be a boolean", error.getMessage());
+    assertEquals(Map.of("field", "active"), error.details());
+
+    error = assertThrows(DomainException.Validation.class,
+        () -> mapper.readValue("{\"componentId\": \"nope\", \"values\": {\"name\": ", CreateRecordRequest.class));
+    assertEquals("Component not found: nope", error.getMessage());
+  }
+
+  @Test
+  void testRequiredFieldsAreCheckedAtTheEndOfValues() {
+    DomainException.Validation error = assertThrows(DomainException.Validation.class,
+        () -> mapper.readValue("""
+            {"componentId": "user", "values": {"age": 3, "name": null}}""", CreateRecordRequest.class));
+    assertEquals("Required field missing: name", error.getMessage());
+
+    error = assertThrows(DomainException.Validation.class,
+        () -> mapper.readValue("""
+            {"values": {"name": "Ada"}}""", CreateRecordRequest.class));
+    assertEquals("Component not found: null", error.getMessage());
+  }
+
+  @Test
+  void testBinaryMappersShareTheDeserializer() throws Exception {
+    ObjectMapper cbor = BinaryBodyProvider.binaryMapper(mapper, new CBORFactory());
+    byte[] body = cbor.writeValueAsBytes(Map.of("componentId", "user", "values", Map.of("name", "Ada", "age", 1.5)));
+
+    CreateRecordRequest request = cbor.readValue(body, CreateRecordRequest.class);
+
+    RecordRow values = assertInstanceOf(RecordRow.class, request.values());
+    assertTrue(USER.built(values));
+    assertEquals(1.5, values.get("age"));
+    assertNull(request.metadata());
+  }
+}
@@ -0,0 +1,26 @@
+package com.aurenworks.api;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class DiagnosticsResourceTest {
+
+  @Test
+  void testDumpReturnsFlightRecording() {
+    given().when().get("/records?componentId=user").then().statusCode(200);
+
+    byte[] dump = given().when().post("/admin/jfr/dump").then().statusCode(200)
+        .header("Content-Disposition", org.hamcrest.Matchers.containsString(".jfr")).extract().asByteArray();
+
+    // Every JFR chunk starts with the "FLR\0" magic
+    assertEquals("FLR", new String(Arrays.copyOf(dump, 3), StandardCharsets.US_ASCII));
+  }
+}
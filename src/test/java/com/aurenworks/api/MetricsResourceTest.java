@@ -0,0 +1,55 @@
+package com.aurenworks.api;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class MetricsResourceTest {
+
+  @ConfigProperty(name = "aurenworks.metrics.max-tagged-partitions")
+  int maxTaggedPartitions;
+
+  @Test
+  void testRouteHistogramsAndPhaseTimersAreExported() {
+    given().contentType("application/json")
+        .body(Map.of("componentId", "user", "values", Map.of("name", "Metrics User", "age", 30))).when()
+        .post("/records").then().statusCode(201);
+    given().queryParam("componentId", "user").queryParam("sortBy", "age").when().get("/records").then()
+        .statusCode(200);
+    given().when().get("/projects/default-project/components").then().statusCode(200);
+
+    given().when().get("/q/metrics").then().statusCode(200)
+        .body(containsString("http_server_requests_seconds_bucket{"))
+        .body(containsString("uri=\"/projects/{projectId}/components\""))
+        .body(containsString("aurenworks_service_phase_seconds_count{phase=\"validate\",service=\"records\"}"))
+        .body(containsString("aurenworks_service_phase_seconds_count{phase=\"sort\",service=\"records\"}"))
+        .body(containsString("aurenworks_service_phase_seconds_count{phase=\"sort\",service=\"components\"}"))
+        .body(containsString("aurenworks_store_records{component=\"user\"}"));
+  }
+
+  @Test
+  void testStoreGaugeTagsAreBounded() {
+    for (int i = 0; i < maxTaggedPartitions + 3; i++) {
+      given().contentType("application/json")
+          .body(Map.of("name", "Metrics Component", "description", "Gauge cardinality", "fields",
+              List.of(Map.of("name", "title", "type", "string", "required", true, "constraints", Map.of())),
+              "metadata", Map.of()))
+          .when().post("/projects/metrics-" + UUID.randomUUID() + "/components").then().statusCode(201);
+    }
+
+    String scrape = given().when().get("/q/metrics").then().statusCode(200).extract().asString();
+    long projectSeries = scrape.lines().filter(line -> line.startsWith("aurenworks_store_components{")).count();
+    assertTrue(projectSeries <= maxTaggedPartitions + 1, "series: " + projectSeries);
+    assertTrue(scrape.contains("aurenworks_store_components{project=\"_other\"}"));
+  }
+}
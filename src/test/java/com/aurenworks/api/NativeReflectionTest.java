@@ -0,0 +1,33 @@
+package com.aurenworks.api;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+class NativeReflectionTest {
+
+  @Test
+  void testEveryDtoIsRegisteredForReflection() throws IOException, ClassNotFoundException {
+    Set<Class<?>> registered = Set.of(NativeReflection.class.getAnnotation(RegisterForReflection.class).targets());
+
+    List<String> dtoNames;
+    try (Stream<Path> files = Files.list(Path.of("src/main/java/com/aurenworks/api/dto"))) {
+      dtoNames = files.map(file -> file.getFileName().toString()).filter(name -> name.endsWith(".java"))
+          .map(name -> "com.aurenworks.api.dto." + name.substring(0, name.length() - ".java".length())).toList();
+    }
+    assertFalse(dtoNames.isEmpty());
+    for (String dtoName : dtoNames) {
+      assertTrue(registered.contains(Class.forName(dtoName)), dtoName + " is not listed in NativeReflection");
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package com.aurenworks.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.aurenworks.api.dto.RecordResponse;
+import com.aurenworks.api.dto.RecordsListResponse;
+import com.aurenworks.service.DomainException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+class RecordProjectionTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule())
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+  private static RecordResponse record() {
+    Map<String, Object> values = new LinkedHashMap<>();
+    values.put("name", "Ada");
+    values.put("age", 36);
+    values.put("metadata", "a value named like a property");
+    values.put("nickname", null);
+    return new RecordResponse("r-1", "user", values, Instant.parse("2026-01-01T00:00:00Z"),
+        Instant.parse("2026-01-02T00:00:00Z"), "system", Map.of("source", "test"));
+  }
+
+  @Test
+  void testSelectsValueKeysAndProperties() {
+    JsonNode json = MAPPER.valueToTree(RecordProjection.parse("age,createdAt,missing,nickname").apply(record()));
+
+    assertEquals(List.of("id", "values", "createdAt"), fieldNames(json));
+    assertEquals(List.of("age", "nickname"), fieldNames(json.get("values")));
+    assertEquals(36, json.get("values").get("age").asInt());
+    assertEquals("2026-01-01T00:00:00Z", json.get("createdAt").asText());
+  }
+
+  @Test
+  void testValuesPrefixAndAllValues() {
+    JsonNode prefixed = MAPPER.valueToTree(RecordProjection.parse("values.metadata").apply(record()));
+    assertEquals(List.of("metadata"), fieldNames(prefixed.get("values")));
+
+    JsonNode all = MAPPER.valueToTree(RecordProjection.parse("values,metadata").apply(record()));
+    assertEquals(List.of("id", "values", "metadata"), fieldNames(all));
+    assertEquals(4, all.get("values").size());
+  }
+
+  @Test
+  void testProjectsEveryRecordOfAPage() {
+    RecordsListResponse page = new RecordsListResponse(List.of(record(), record()),
+        new RecordsListResponse.PaginationInfo(0, 2, 2L, 1, false, false, false));
+
+    JsonNode json = MAPPER.valueToTree(RecordProjection.parse("name").apply(page));
+
+    assertEquals(2, json.get("records").size());
+    assertEquals(List.of("id", "values"), fieldNames(json.get("records").get(1)));
+    assertEquals(2, json.get("pagination").get("total").asInt());
+  }
+
+  @Test
+  void testParse() {
+    assertNull(RecordProjection.parse(null));
+    assertNull(RecordProjection.parse(""));
+    assertThrows(DomainException.Validation.class, () -> RecordProjection.parse("name,,age"));
+    assertThrows(DomainException.Validation.class, () -> RecordProjection.parse("values."));
+    assertThrows(DomainException.Validation.class,
+        () -> RecordProjection.parse("f,".repeat(RecordProjection.MAX_FIELDS) + "f"));
+  }
+
+  private static List<String> fieldNames(JsonNode node) {
+    return node.properties().stream().map(Map.Entry::getKey).toList();
+  }
+}
@@ -2,8 +2,14 @@ package com.aurenworks.api;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.Test;
@@ -50,6 +56,32 @@ class RecordsResourceTest {
         .body("error.message", is("Field age must be a number"));
   }
 
+  @Test
+  void testCreateRecordStopsReadingAtTheFirstInvalidValue() {
+    // Cut off after the bad value: the body is rejected for the value, not for its syntax
+    given().contentType("application/json")
+        .body("{\"componentId\": \"user\", \"values\": {\"age\": \"old\", \"name\": \"").when().post("/records")
+        .then().statusCode(400).body("error.code", is("VALIDATION_ERROR"))
+        .body("error.message", is("Field age must be a number")).body("error.details.field", is("age"))
+        .body("error.requestId", notNullValue());
+  }
+
+  @Test
+  void testCreateRecordRetryWithIdempotencyKeyReturnsTheFirstRecord() {
+    Map<String, Object> body = Map.of("componentId", "user", "values", Map.of("name", "Retried", "age", 41));
+    String id = given().contentType("application/json").header("Idempotency-Key", "create-retried").body(body).when()
+        .post("/records").then().statusCode(201).header("Idempotent-Replayed", nullValue()).extract().path("id");
+
+    given().contentType("application/json").header("Idempotency-Key", "create-retried").body(body).when()
+        .post("/records").then().statusCode(201).header("Idempotent-Replayed", is("true")).body("id", is(id))
+        .body("values.name", is("Retried"));
+
+    given().contentType("application/json").header("Idempotency-Key", "create-retried")
+        .body(Map.of("componentId", "user", "values", Map.of("name", "Someone else"))).when().post("/records").then()
+        .statusCode(422).body("error.code", is("UNPROCESSABLE")).body("error.details.field", is("Idempotency-Key"))
+        .body("error.requestId", notNullValue());
+  }
+
   @Test
   void testGetRecords() {
     // First create a record
@@ -101,4 +133,133 @@ class RecordsResourceTest {
     given().when().get("/records/nonexistent-id").then().statusCode(404).body("error.code", is("NOT_FOUND"))
         .body("error.message", is("Record not found: nonexistent-id"));
   }
+
+  @Test
+  void testSearchRecords() {
+    given().contentType("application/json")
+        .body(Map.of("componentId", "user", "values", Map.of("name", "Searchable Zanzibar Person"))).when()
+        .post("/records").then().statusCode(201);
+
+    given().when().get("/records/search?componentId=user&q=zanzibar").then().statusCode(200).body("count", is(1))
+        .body("hits[0].record.values.name", is("Searchable Zanzibar Person")).body("hits[0].score", notNullValue());
+
+    given().when().get("/records/search?componentId=user&q=zanz&prefix=true").then().statusCode(200)
+        .body("count", is(1));
+  }
+
+  @Test
+  void testSearchRecordsWithoutQuery() {
+    given().when().get("/records/search?componentId=user").then().statusCode(400)
+        .body("error.code", is("VALIDATION_ERROR")).body("error.message", is("Query must not be empty"));
+  }
+
+  @Test
+  void testAggregateRecords() {
+    given().contentType("application/json")
+        .body(Map.of("componentId", "user", "values", Map.of("name", "Aggregate User", "age", 33, "active", true)))
+        .when().post("/records").then().statusCode(201);
+
+    given().when().get("/records/aggregate?componentId=user&groupBy=active&field=age").then().statusCode(200)
+        .body("materialized", is(true)).body("groups.find { it.key == true }.count", notNullValue());
+  }
+
+  @Test
+  void testAggregateRecordsWithInvalidGroupBy() {
+    given().when().get("/records/aggregate?componentId=user&groupBy=age").then().statusCode(400)
+        .body("error.code", is("VALIDATION_ERROR"));
+  }
+
+  @Test
+  void testGetRecordsWithoutTotal() {
+    given().when().get("/records?componentId=user&includeTotal=false").then().statusCode(200)
+        .body("pagination.total", nullValue()).body("pagination.totalPages", nullValue())
+        .body("pagination.hasNext", notNullValue());
+  }
+
+  @Test
+  void testGetRecordsWithInvalidIncludeTotal() {
+    given().when().get("/records?includeTotal=sometimes").then().statusCode(400)
+        .body("error.code", is("VALIDATION_ERROR"));
+  }
+
+  @Test
+  void testGetRecordsExplain() {
+    given().when().get("/records?componentId=user&sortBy=name&size=5&explain=true").then().statusCode(200)
+        .body("records", nullValue()).body("access", is("component-index")).body("sortStrategy", is("top-k-heap"))
+        .body("phaseMicros.sort", notNullValue()).body("candidateCount", notNullValue());
+  }
+
+  @Test
+  void testGetRecordsCreatedRange() {
+    given().when().get("/records?componentId=user&createdAfter=2000-01-01T00:00:00Z&explain=true").then()
+        .statusCode(200).body("access", is("id-range")).body("createdAfter", is("2000-01-01T00:00:00Z"));
+    given().when().get("/records?componentId=user&createdBefore=2000-01-01T00:00:00Z").then().statusCode(200)
+        .body("records.size()", is(0)).body("pagination.total", is(0));
+    given().when().get("/records?createdAfter=yesterday").then().statusCode(400)
+        .body("error.code", is("VALIDATION_ERROR")).body("error.details.field", is("createdAfter"));
+  }
+
+  @Test
+  void testDeepPagesAreRejected() {
+    given().when().get("/records?componentId=user&page=20000000&size=100&sortBy=name&createdAfter=2000-01-01T00:00:00Z")
+        .then().statusCode(400).body("error.code", is("VALIDATION_ERROR")).body("error.details.field", is("page"));
+    given().when().get("/records?page=" + Integer.MAX_VALUE + "&size=100").then().statusCode(400)
+        .body("error.details.field", is("page"));
+    given().when().get("/records?componentId=user&page=99&size=100&sortBy=name&createdAfter=2000-01-01T00:00:00Z")
+        .then().statusCode(200).body("records.size()", is(0));
+  }
+
+  @Test
+  void testGetRecordsWithFields() {
+    given().when().get("/records?componentId=user&size=5&fields=name,createdAt").then().statusCode(200)
+        .body("records[0].id", notNullValue()).body("records[0].values.name", notNullValue())
+        .body("records[0].values.age", nullValue()).body("records[0].createdAt", notNullValue())
+        .body("records[0].metadata", nullValue()).body("pagination.size", is(5));
+    given().when().get("/records?fields=name,,age").then().statusCode(400).body("error.code", is("VALIDATION_ERROR"))
+        .body("error.details.field", is("fields"));
+  }
+
+  @Test
+  void testGetRecordByIdWithFields() {
+    String id = given().contentType("application/json")
+        .body(Map.of("componentId", "user", "values", Map.of("name", "Projected", "age", 52))).when().post("/records")
+        .then().statusCode(201).extract().path("id");
+
+    given().when().get("/records/" + id + "?fields=age,createdBy").then().statusCode(200).body("id", is(id))
+        .body("values.age", is(52)).body("values.name", nullValue()).body("createdBy", is("system"))
+        .body("componentId", nullValue());
+  }
+
+  @Test
+  void testBatchGetRecords() {
+    String id = given().contentType("application/json")
+        .body(Map.of("componentId", "user", "values", Map.of("name", "Batched"))).when().post("/records").then()
+        .statusCode(201).extract().path("id");
+
+    given().contentType("application/json").body(Map.of("ids", List.of(id, "does-not-exist"))).when()
+        .post("/records/batch-get").then().statusCode(200).body("records.size()", is(1))
+        .body("records[0].id", is(id)).body("records[0].values.name", is("Batched"))
+        .body("missingIds", contains("does-not-exist"));
+  }
+
+  @Test
+  void testBatchGetRecordsValidation() {
+    given().contentType("application/json").body(Map.of("ids", List.of())).when().post("/records/batch-get").then()
+        .statusCode(400).body("error.code", is("VALIDATION_ERROR")).body("error.details.field", is("ids"));
+    given().contentType("application/json")
+        .body(Map.of("ids", Collections.nCopies(RecordsResource.MAX_BATCH_IDS + 1, "id"))).when()
+        .post("/records/batch-get").then().statusCode(400).body("error.details.field", is("ids"));
+  }
+
+  @Test
+  void testCreateRecordWithTtl() {
+    given().contentType("application/json")
+        .body(Map.of("componentId", "user", "values", Map.of("name", "Short-lived"), "ttl", "PT15M")).when()
+        .post("/records").then().statusCode(201).body("expiresAt", notNullValue());
+    given().contentType("application/json").body(Map.of("componentId", "user", "values", Map.of("name", "Forever")))
+        .when().post("/records").then().statusCode(201).body("$", not(hasKey("expiresAt")));
+    given().contentType("application/json")
+        .body(Map.of("componentId", "user", "values", Map.of("name", "Bad"), "ttl", "15 minutes")).when()
+        .post("/records").then().statusCode(400).body("error.details.field", is("ttl"));
+  }
 }
@@ -0,0 +1,56 @@
+package com.aurenworks.api;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.Response;
+
+@QuarkusTest
+class RequestIdFilterTest {
+
+  @Test
+  void testErrorEnvelopeCarriesTheResponseRequestId() {
+    Response response = given().when().get("/records/nonexistent-id").then().statusCode(404)
+        .body("error.code", equalTo("NOT_FOUND")).body("error.details.recordId", equalTo("nonexistent-id")).extract()
+        .response();
+
+    String header = response.header(RequestIdFilter.HEADER);
+    assertEquals(header, response.path("error.requestId"));
+    assertTrue(header.matches("[0-9a-f]{12}-[0-9a-f]{12}"), header);
+  }
+
+  @Test
+  void testSuccessfulResponsesGetDistinctIds() {
+    String first = given().when().get("/records?size=1").then().statusCode(200).extract()
+        .header(RequestIdFilter.HEADER);
+    String second = given().when().get("/records?size=1").then().statusCode(200).extract()
+        .header(RequestIdFilter.HEADER);
+    assertNotEquals(first, second);
+  }
+
+  @Test
+  void testWellFormedCallerIdIsKept() {
+    given().header(RequestIdFilter.HEADER, "gateway-7f3a.1").when().get("/records?page=-1").then().statusCode(400)
+        .header(RequestIdFilter.HEADER, "gateway-7f3a.1").body("error.requestId", equalTo("gateway-7f3a.1"))
+        .body("error.details.field", equalTo("page"));
+
+    String replaced = given().header(RequestIdFilter.HEADER, "bad idé").when().get("/records?size=1").then()
+        .statusCode(200).extract().header(RequestIdFilter.HEADER);
+    assertNotEquals("bad idé", replaced);
+  }
+
+  @Test
+  void testCallerIdValidation() {
+    assertTrue(RequestIds.isAcceptable("abc-DEF_123.x"));
+    assertFalse(RequestIds.isAcceptable(""));
+    assertFalse(RequestIds.isAcceptable("a".repeat(65)));
+    assertFalse(RequestIds.isAcceptable("line\nbreak"));
+  }
+}
@@ -0,0 +1,19 @@
+package com.aurenworks.api;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.greaterThan;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class SnapshotResourceTest {
+
+  @Test
+  void testSnapshotIsWrittenOnDemand() {
+    given().when().post("/admin/snapshot").then().statusCode(200).body("path", endsWith("aurenworks.snapshot"))
+        .body("sizeBytes", greaterThan(0)).body("sections", greaterThan(0));
+  }
+}
@@ -0,0 +1,55 @@
+package com.aurenworks.api;
+
+import static io.restassured.RestAssured.given;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit5.virtual.ShouldNotPin;
+import io.quarkus.test.junit5.virtual.VirtualThreadUnit;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
+
+/**
+ * The records and components endpoints run on virtual threads, so nothing they call may block while holding a
+ * monitor; the JFR pinning events of every request are checked.
+ */
+@QuarkusTest
+@VirtualThreadUnit
+@ShouldNotPin
+class VirtualThreadsResourceTest {
+
+  @Test
+  void testRecordEndpointsDoNotPin() {
+    String id = given().contentType("application/json")
+        .body(Map.of("componentId", "user", "values", Map.of("name", "Virtual User", "age", 41))).when()
+        .post("/records").then().statusCode(201).extract().path("id");
+    given().when().get("/records/" + id).then().statusCode(200);
+    given().when().get("/records?componentId=user&sortBy=name").then().statusCode(200);
+    given().when().get("/records").then().statusCode(200);
+    given().when().get("/records/search?componentId=user&q=virtual").then().statusCode(200);
+    given().when().get("/records/aggregate?componentId=user&groupBy=active&field=age").then().statusCode(200);
+  }
+
+  @Test
+  void testComponentEndpointsDoNotPin() {
+    // A new project registers its store gauge, which takes the registration lock
+    String path = "/projects/virtual-" + UUID.randomUUID() + "/components";
+    Map<String, Object> body = Map.of("name", "Virtual", "description", "Pinning check", "fields",
+        List.of(Map.of("name", "title", "type", "string", "required", true, "constraints", Map.of())), "metadata",
+        Map.of());
+    ExtractableResponse<Response> created = given().contentType("application/json").body(body).when().post(path)
+        .then().statusCode(201).extract();
+    String componentPath = path + "/" + created.path("id");
+
+    given().when().get(path + "?sortBy=name").then().statusCode(200);
+    given().when().get(componentPath).then().statusCode(200);
+    given().contentType("application/json").header("If-Match", created.header("ETag")).body(body).when()
+        .put(componentPath).then().statusCode(200);
+    given().when().delete(componentPath).then().statusCode(204);
+  }
+}
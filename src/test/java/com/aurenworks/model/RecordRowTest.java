@@ -0,0 +1,157 @@
+package com.aurenworks.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class RecordRowTest {
+
+  private static final String[] TYPES = {"string", "number", "boolean"};
+
+  private static final Component USER = new Component("user", "User", null,
+      List.of(new Component.ComponentField("name", "string", true, Map.of()),
+          new Component.ComponentField("age", "number", false, Map.of()),
+          new Component.ComponentField("active", "boolean", false, Map.of()),
+          new Component.ComponentField("tags", "array", false, Map.of())),
+      Map.of());
+
+  @Test
+  void testRowEqualsTheMapItWasBuiltFrom() {
+    Map<String, Object> values = new LinkedHashMap<>();
+    values.put("active", true);
+    values.put("name", "Ada");
+    values.put("age", 36);
+    values.put("tags", List.of("admin"));
+
+    RecordRow row = RecordRow.of(RecordRow.Layout.of(USER), values);
+
+    assertEquals(values, row);
+    assertEquals(row, values);
+    assertEquals(values.hashCode(), row.hashCode());
+    assertEquals(4, row.size());
+    assertEquals(36, row.get("age"));
+    assertEquals(Boolean.TRUE, row.get("active"));
+    // Schema order, not insertion order
+    assertEquals(List.of("name", "age", "active", "tags"), new ArrayList<>(row.keySet()));
+  }
+
+  @Test
+  void testNumberKindsAndNullsRoundTrip() {
+    RecordRow.Layout layout = RecordRow.Layout.of(USER);
+    for (Object age : new Object[]{7, 7L, 7.5, -0.0, Long.MIN_VALUE, new BigDecimal("1.10")}) {
+      Map<String, Object> values = new LinkedHashMap<>();
+      values.put("age", age);
+      RecordRow row = RecordRow.of(layout, values);
+      assertEquals(age, row.get("age"));
+      assertEquals(age.getClass(), row.get("age").getClass());
+      assertEquals(values, row);
+    }
+
+    Map<String, Object> nulls = new LinkedHashMap<>();
+    nulls.put("name", null);
+    nulls.put("active", null);
+    RecordRow row = RecordRow.of(layout, nulls);
+    assertEquals(nulls, row);
+    assertTrue(row.containsKey("name"));
+    assertTrue(row.containsKey("active"));
+    assertFalse(row.containsKey("age"));
+    assertNull(row.get("age"));
+  }
+
+  @Test
+  void testKeysOutsideTheSchemaAreKept() {
+    Map<String, Object> values = new LinkedHashMap<>();
+    values.put("name", "Ada");
+    values.put("nickname", "ada");
+    values.put("active", "yes");
+
+    RecordRow row = RecordRow.of(RecordRow.Layout.of(USER), values);
+
+    assertEquals(values, row);
+    assertEquals("ada", row.get("nickname"));
+    // A value of the wrong type for its slot is kept as is
+    assertEquals("yes", row.get("active"));
+    assertEquals(List.of("name", "nickname", "active"), new ArrayList<>(row.keySet()));
+  }
+
+  @Test
+  void testRowIsReadOnly() {
+    RecordRow row = RecordRow.of(RecordRow.Layout.of(USER), Map.of("name", "Ada"));
+
+    assertThrows(UnsupportedOperationException.class, () -> row.put("name", "Grace"));
+    assertThrows(UnsupportedOperationException.class, () -> row.remove("name"));
+    assertThrows(UnsupportedOperationException.class, () -> row.entrySet().iterator().next().setValue("Grace"));
+    assertThrows(UnsupportedOperationException.class, row::clear);
+  }
+
+  @Test
+  void testScalarsCostNothingBeyondTheirSlots() {
+    Component component = component(20);
+    RecordRow.Layout layout = RecordRow.Layout.of(component);
+    String[] texts = new String[20];
+    for (int field = 0; field < 20; field += TYPES.length) {
+      texts[field] = "value " + field;
+    }
+    RecordRow small = RecordRow.of(layout, values(component, texts, 7));
+    RecordRow large = RecordRow.of(layout, values(component, texts, 8));
+    Map<String, Object> textsOnly = new LinkedHashMap<>();
+    for (int field = 0; field < 20; field += TYPES.length) {
+      textsOnly.put("f" + field, texts[field]);
+    }
+    RecordRow scalarFree = RecordRow.of(layout, textsOnly);
+    assertEquals(values(component, texts, 7), small);
+
+    // Set, changed or absent, ints, doubles and booleans only fill the row's primitive slots, where a map would hold a
+    // box per number; the layout is shared by every row of the component and not counted at all
+    assertEquals(scalarFree.footprint(reference -> 0), small.footprint(reference -> 0));
+    assertEquals(small.footprint(reference -> 0), large.footprint(reference -> 0));
+
+    // Only the values held by reference are charged to the caller's estimate, once each
+    List<Object> charged = new ArrayList<>();
+    long withStrings = small.footprint(reference -> {
+      charged.add(reference);
+      return 100;
+    });
+    assertEquals(7, charged.size());
+    assertTrue(charged.stream().allMatch(String.class::isInstance), charged::toString);
+    assertEquals(small.footprint(reference -> 0) + 7 * 100, withStrings);
+
+    // Keys outside the schema go in a side map, which is charged as one more reference
+    Map<String, Object> extra = new LinkedHashMap<>(textsOnly);
+    extra.put("undeclared", 1);
+    assertEquals(scalarFree.footprint(reference -> 0) + 100,
+        RecordRow.of(layout, extra).footprint(reference -> reference instanceof Map ? 100 : 0));
+  }
+
+  private static Component component(int fieldCount) {
+    List<Component.ComponentField> fields = new ArrayList<>(fieldCount);
+    for (int i = 0; i < fieldCount; i++) {
+      fields.add(new Component.ComponentField("f" + i, TYPES[i % TYPES.length], false, Map.of()));
+    }
+    return new Component("wide", "Wide", null, fields, Map.of());
+  }
+
+  // What Jackson builds for a request body: a LinkedHashMap with boxed numbers
+  private static Map<String, Object> values(Component component, String[] texts, int seed) {
+    Map<String, Object> values = new LinkedHashMap<>();
+    for (int field = 0; field < component.fields().size(); field++) {
+      String key = component.fields().get(field).name();
+      values.put(key, switch (field % TYPES.length) {
+        case 0 -> texts[field];
+        case 1 -> field % 2 == 0 ? (Object) (100_000 + seed) : (Object) (seed + 0.5);
+        default -> seed % 2 == 0;
+      });
+    }
+    return values;
+  }
+}
@@ -0,0 +1,70 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdmissionControlTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void testTokenBucketAdmitsBurstThenRefillsAtRate() {
+    long now = 1_000 * SECOND;
+    TokenBucket bucket = new TokenBucket(2, 3, now);
+
+    assertEquals(0, bucket.tryAcquire(now));
+    assertEquals(0, bucket.tryAcquire(now));
+    assertEquals(0, bucket.tryAcquire(now));
+    long wait = bucket.tryAcquire(now);
+    assertEquals(SECOND / 2, wait);
+    assertFalse(bucket.isFull(now));
+
+    assertEquals(0, bucket.tryAcquire(now + wait));
+    assertTrue(bucket.tryAcquire(now + wait) > 0);
+    assertTrue(bucket.isFull(now + 10 * SECOND));
+  }
+
+  @Test
+  void testConcurrencyLimitRejectsAtLimitAndBacksOffOnSlowResponses() {
+    long target = TimeUnit.MILLISECONDS.toNanos(100);
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 20, target);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(limit.tryAcquire());
+    }
+    assertFalse(limit.tryAcquire());
+
+    limit.release(target * 2);
+    assertEquals(9, limit.limit());
+    assertEquals(9, limit.inFlight());
+    assertFalse(limit.tryAcquire());
+
+    for (int i = 0; i < 50; i++) {
+      limit.release(target * 2);
+      limit.tryAcquire();
+    }
+    assertEquals(2, limit.limit());
+  }
+
+  @Test
+  void testConcurrencyLimitGrowsOnlyWhenUtilized() {
+    long target = TimeUnit.MILLISECONDS.toNanos(100);
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 6, target);
+
+    assertTrue(limit.tryAcquire());
+    limit.release(1);
+    assertEquals(4, limit.limit());
+
+    for (int round = 0; round < 5; round++) {
+      while (limit.tryAcquire()) {
+        // fill up to the current limit
+      }
+      limit.release(1);
+    }
+    assertEquals(6, limit.limit());
+  }
+}
@@ -0,0 +1,36 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+  @Test
+  void testAddedKeysAreAlwaysFound() {
+    BloomFilter filter = BloomFilter.forKeys(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      filter.add("record-" + i);
+    }
+    for (int i = 0; i < 10_000; i++) {
+      assertTrue(filter.mightContain("record-" + i));
+    }
+  }
+
+  @Test
+  void testFalsePositiveRateIsNearTarget() {
+    BloomFilter filter = BloomFilter.forKeys(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      filter.add("record-" + i);
+    }
+    int falsePositives = 0;
+    for (int i = 0; i < 100_000; i++) {
+      if (filter.mightContain("other-" + i)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 2_000, falsePositives + " false positives in 100000");
+    // About 9.6 bits per key at 1%
+    assertTrue(filter.sizeInBytes() < 10_000 * 10 / 8 + 64);
+  }
+}
@@ -0,0 +1,168 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.api.dto.RecordResponse;
+import com.aurenworks.model.ChangeEvent;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class ChangeFeedServiceTest {
+
+  @Inject
+  ChangeFeedService changeFeed;
+
+  @Inject
+  RecordService recordService;
+
+  @ConfigProperty(name = "aurenworks.change-feed.retention")
+  int retention;
+
+  @ConfigProperty(name = "aurenworks.change-feed.max-in-flight")
+  int maxInFlight;
+
+  @Test
+  void testSubscriberReceivesMatchingEventsInOffsetOrder() {
+    String projectId = UUID.randomUUID().toString();
+    CollectingSubscriber subscriber = new CollectingSubscriber();
+    changeFeed.subscribe(projectId, null, null, subscriber);
+
+    publishComponent(projectId, "a");
+    publishComponent("other-project", "b");
+    publishComponent(projectId, "c");
+
+    assertEquals(2, subscriber.events.size());
+    assertEquals("a", subscriber.events.get(0).componentId());
+    assertEquals("c", subscriber.events.get(1).componentId());
+    assertTrue(subscriber.events.get(0).offset() < subscriber.events.get(1).offset());
+    assertNull(subscriber.resetOffset);
+  }
+
+  @Test
+  void testRecordEventsCarryTheComponentsProject() {
+    CollectingSubscriber subscriber = new CollectingSubscriber();
+    ChangeFeedService.Subscription subscription = changeFeed.subscribe(SampleData.DEFAULT_PROJECT, "user", null,
+        subscriber);
+
+    RecordResponse record = recordService.createRecord(new CreateRecordRequest("user", Map.of("name", "Feed"),
+        Map.of()));
+
+    subscription.cancel();
+    ChangeEvent event = subscriber.events.stream().filter(candidate -> record.id().equals(candidate.entityId()))
+        .findFirst().orElseThrow();
+    assertEquals(SampleData.DEFAULT_PROJECT, event.projectId());
+    assertEquals(ChangeEvent.EntityType.RECORD, event.entityType());
+  }
+
+  @Test
+  void testResumeFromLastEventId() {
+    String componentId = UUID.randomUUID().toString();
+    ChangeEvent first = publishRecord(componentId);
+    publishRecord(componentId);
+    publishRecord(componentId);
+
+    CollectingSubscriber subscriber = new CollectingSubscriber();
+    changeFeed.subscribe(null, componentId, first.offset(), subscriber);
+
+    assertEquals(2, subscriber.events.size());
+    assertTrue(subscriber.events.stream().allMatch(event -> event.offset() > first.offset()));
+    assertNull(subscriber.resetOffset);
+  }
+
+  @Test
+  void testUnknownOffsetResetsSubscriber() {
+    CollectingSubscriber subscriber = new CollectingSubscriber();
+    changeFeed.subscribe(null, UUID.randomUUID().toString(), changeFeed.lastOffset() + 100, subscriber);
+
+    assertEquals(changeFeed.oldestOffset(), subscriber.resetOffset);
+  }
+
+  @Test
+  void testSlowSubscriberIsBoundedAndDisconnectedWhenLapped() {
+    String componentId = UUID.randomUUID().toString();
+    CollectingSubscriber subscriber = new CollectingSubscriber();
+    subscriber.acknowledge = false;
+    ChangeFeedService.Subscription subscription = changeFeed.subscribe(null, componentId, null, subscriber);
+
+    for (int i = 0; i < maxInFlight * 2; i++) {
+      publishRecord(componentId);
+    }
+    assertEquals(maxInFlight, subscriber.events.size());
+    assertFalse(subscriber.closed);
+
+    for (int i = 0; i < retention; i++) {
+      publishRecord(componentId);
+    }
+    subscriber.acknowledgePending();
+
+    assertTrue(subscriber.closed);
+    assertTrue(subscription.isCancelled());
+  }
+
+  private ChangeEvent publishComponent(String projectId, String componentId) {
+    return changeFeed.publish(ChangeEvent.EntityType.COMPONENT, ChangeEvent.Operation.CREATED, projectId,
+        componentId, componentId, null);
+  }
+
+  private ChangeEvent publishRecord(String componentId) {
+    return changeFeed.publish(ChangeEvent.EntityType.RECORD, ChangeEvent.Operation.CREATED, null, componentId,
+        UUID.randomUUID().toString(), null);
+  }
+
+  private static final class CollectingSubscriber implements ChangeFeedService.Subscriber {
+    final List<ChangeEvent> events = new CopyOnWriteArrayList<>();
+    final List<CompletableFuture<Void>> pending = new CopyOnWriteArrayList<>();
+    volatile boolean acknowledge = true;
+    volatile boolean closed;
+    volatile Long resetOffset;
+
+    @Override
+    public CompletionStage<?> send(ChangeEvent event) {
+      events.add(event);
+      if (acknowledge) {
+        return CompletableFuture.completedFuture(null);
+      }
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      pending.add(future);
+      return future;
+    }
+
+    @Override
+    public void reset(long oldestOffset) {
+      resetOffset = oldestOffset;
+    }
+
+    @Override
+    public boolean isClosed() {
+      return closed;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    void acknowledgePending() {
+      for (CompletableFuture<Void> future : new ArrayList<>(pending)) {
+        future.complete(null);
+      }
+    }
+  }
+}
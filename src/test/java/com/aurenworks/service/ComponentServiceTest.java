@@ -47,8 +47,8 @@ class ComponentServiceTest {
     // Given
     Role userRole = Role.VIEWER;
 
-    // When & Then - requesting a page that's out of bounds should throw IllegalArgumentException
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+    // When & Then - requesting a page that's out of bounds is a validation error
+    DomainException.Validation exception = assertThrows(DomainException.Validation.class,
         () -> componentService.listComponents(PROJECT_ID, 999, 10, null, "asc", userRole));
     assertTrue(exception.getMessage().contains("out of bounds"));
   }
@@ -101,16 +101,18 @@ class ComponentServiceTest {
     Role userRole = Role.VIEWER;
 
     // When & Then
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+    DomainException.NotFound exception = assertThrows(DomainException.NotFound.class,
         () -> componentService.getComponent(PROJECT_ID, componentId, userRole));
     assertEquals("Component not found: nonexistent", exception.getMessage());
   }
 
   @Test
   void testUpdateComponent_Success() {
-    // Given
-    String componentId = "user";
+    // Given - a component of its own, since the update replaces the record schema of the shared "user" sample
     Role userRole = Role.BUILDER;
+    String componentId = componentService.createComponent(PROJECT_ID, new CreateComponentRequest("User",
+        "User information component", List.of(new Component.ComponentField("name", "string", true, Map.of())),
+        Map.of("version", "1.0")), userRole).id();
     UpdateComponentRequest request = new UpdateComponentRequest("Updated User", "Updated user information component",
         List.of(new Component.ComponentField("name", "string", true, Map.of("maxLength", 200)),
             new Component.ComponentField("email", "string", true, Map.of("maxLength", 255))),
@@ -145,7 +147,7 @@ class ComponentServiceTest {
     String wrongETag = "wrong-etag";
 
     // When & Then
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+    DomainException.Conflict exception = assertThrows(DomainException.Conflict.class,
         () -> componentService.updateComponent(PROJECT_ID, componentId, request, wrongETag, userRole));
     assertEquals("ETag mismatch: component was modified by another user", exception.getMessage());
   }
@@ -159,7 +161,7 @@ class ComponentServiceTest {
         List.of(new Component.ComponentField("name", "string", true, Map.of())), Map.of());
 
     // When & Then
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+    DomainException.Forbidden exception = assertThrows(DomainException.Forbidden.class,
         () -> componentService.updateComponent(PROJECT_ID, componentId, request, null, userRole));
     assertEquals("Insufficient permissions: VIEWER role cannot modify components", exception.getMessage());
   }
@@ -175,7 +177,7 @@ class ComponentServiceTest {
         Map.of());
 
     // When & Then
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+    DomainException.Validation exception = assertThrows(DomainException.Validation.class,
         () -> componentService.updateComponent(PROJECT_ID, componentId, request, null, userRole));
     assertEquals("Component must have at least one field", exception.getMessage());
   }
@@ -190,7 +192,7 @@ class ComponentServiceTest {
         Map.of());
 
     // When & Then
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+    DomainException.Validation exception = assertThrows(DomainException.Validation.class,
         () -> componentService.updateComponent(PROJECT_ID, componentId, request, null, userRole));
     assertEquals("Field name cannot be empty", exception.getMessage());
   }
@@ -205,7 +207,7 @@ class ComponentServiceTest {
         Map.of());
 
     // When & Then
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+    DomainException.Validation exception = assertThrows(DomainException.Validation.class,
         () -> componentService.updateComponent(PROJECT_ID, componentId, request, null, userRole));
     assertEquals("Field type cannot be empty for field: name", exception.getMessage());
   }
@@ -225,7 +227,7 @@ class ComponentServiceTest {
     componentService.deleteComponent(PROJECT_ID, componentId, userRole);
 
     // Then - verify it's deleted
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+    DomainException.NotFound exception = assertThrows(DomainException.NotFound.class,
         () -> componentService.getComponent(PROJECT_ID, componentId, Role.VIEWER));
     assertEquals("Component not found: " + componentId, exception.getMessage());
   }
@@ -237,7 +239,7 @@ class ComponentServiceTest {
     Role userRole = Role.BUILDER;
 
     // When & Then
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+    DomainException.NotFound exception = assertThrows(DomainException.NotFound.class,
         () -> componentService.deleteComponent(PROJECT_ID, componentId, userRole));
     assertEquals("Component not found: nonexistent", exception.getMessage());
   }
@@ -249,7 +251,7 @@ class ComponentServiceTest {
     Role userRole = Role.VIEWER; // VIEWER cannot delete
 
     // When & Then
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+    DomainException.Forbidden exception = assertThrows(DomainException.Forbidden.class,
         () -> componentService.deleteComponent(PROJECT_ID, componentId, userRole));
     assertEquals("Insufficient permissions: VIEWER role cannot delete components", exception.getMessage());
   }
@@ -0,0 +1,80 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ExpiryWheelTest {
+
+  private static final long TICK = 1000;
+  private static final long START = 1_700_000_000_000L;
+
+  @Test
+  void testFiresOnlyWhenDue() {
+    ExpiryWheel wheel = new ExpiryWheel(TICK, START);
+    wheel.schedule("soon", START + 5 * TICK);
+    wheel.schedule("later", START + 90 * TICK);
+
+    assertTrue(wheel.advance(START + 4 * TICK).isEmpty());
+    assertEquals(List.of("soon"), ids(wheel.advance(START + 5 * TICK)));
+    assertTrue(wheel.advance(START + 89 * TICK).isEmpty());
+    assertEquals(List.of("later"), ids(wheel.advance(START + 90 * TICK)));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void testCascadesEveryLevel() {
+    ExpiryWheel wheel = new ExpiryWheel(TICK, START);
+    // One deadline per level, plus one beyond the wheel's span that has to be re-placed
+    long[] deadlines = {30, 3_000, 200_000, 10_000_000, 20_000_000};
+    for (long deadline : deadlines) {
+      wheel.schedule("t" + deadline, START + deadline * TICK + 1);
+    }
+
+    for (int i = 0; i < deadlines.length; i++) {
+      long deadline = deadlines[i];
+      // Nothing fires before the (rounded-up) deadline tick, and on it exactly this entry does
+      assertTrue(wheel.advance(START + deadline * TICK).isEmpty());
+      assertEquals(deadlines.length - i, wheel.size());
+      assertEquals(List.of("t" + deadline), ids(wheel.advance(START + (deadline + 1) * TICK)));
+    }
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void testPastDeadlineFiresOnNextAdvance() {
+    ExpiryWheel wheel = new ExpiryWheel(TICK, START);
+    wheel.schedule("late", START - 10 * TICK);
+
+    assertTrue(wheel.advance(START).isEmpty());
+    assertEquals(List.of("late"), ids(wheel.advance(START + TICK)));
+  }
+
+  @Test
+  void testBatchOfSameTick() {
+    ExpiryWheel wheel = new ExpiryWheel(TICK, START);
+    for (int i = 0; i < 1000; i++) {
+      wheel.schedule("r" + i, START + 100 * TICK + 1 + i % 999);
+    }
+
+    assertTrue(wheel.advance(START + 100 * TICK).isEmpty());
+    assertEquals(1000, wheel.advance(START + 101 * TICK).size());
+  }
+
+  @Test
+  void testClear() {
+    ExpiryWheel wheel = new ExpiryWheel(TICK, START);
+    wheel.schedule("a", START + 2 * TICK);
+    wheel.clear();
+
+    assertEquals(0, wheel.size());
+    assertTrue(wheel.advance(START + 10 * TICK).isEmpty());
+  }
+
+  private static List<String> ids(List<ExpiryWheel.Entry> entries) {
+    return entries.stream().map(ExpiryWheel.Entry::id).toList();
+  }
+}
@@ -0,0 +1,204 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IdempotencyKeysTest {
+
+  private final AtomicLong now = new AtomicLong();
+  private final AtomicInteger writes = new AtomicInteger();
+
+  private IdempotencyKeys keys(int maxEntries, Duration waitTimeout) {
+    ServiceMetrics metrics = new ServiceMetrics();
+    metrics.registry = new SimpleMeterRegistry();
+    metrics.maxTaggedPartitions = 100;
+    IdempotencyKeys keys = new IdempotencyKeys();
+    keys.metrics = metrics;
+    keys.ttl = Duration.ofHours(1);
+    keys.maxEntries = maxEntries;
+    keys.waitTimeout = waitTimeout;
+    keys.clock = now::get;
+    keys.init();
+    return keys;
+  }
+
+  private IdempotencyKeys.Outcome<Integer> create(IdempotencyKeys keys, String scope, String key, Object request) {
+    return keys.execute(scope, key, request, writes::incrementAndGet);
+  }
+
+  @Test
+  void testRetryReplaysTheFirstResultWithoutWriting() {
+    IdempotencyKeys keys = keys(100, Duration.ofSeconds(1));
+
+    IdempotencyKeys.Outcome<Integer> first = create(keys, "records/user", "k1", Map.of("name", "Ada"));
+    IdempotencyKeys.Outcome<Integer> retry = create(keys, "records/user", "k1", Map.of("name", "Ada"));
+
+    assertFalse(first.replayed());
+    assertTrue(retry.replayed());
+    assertEquals(first.value(), retry.value());
+    assertEquals(1, writes.get());
+    // Scopes and keys are independent, and no key means no deduplication
+    assertEquals(2, create(keys, "records/order", "k1", Map.of("name", "Ada")).value());
+    assertEquals(3, create(keys, "records/user", "k2", Map.of("name", "Ada")).value());
+    assertEquals(4, create(keys, "records/user", null, Map.of("name", "Ada")).value());
+    assertEquals(5, create(keys, "records/user", null, Map.of("name", "Ada")).value());
+  }
+
+  @Test
+  void testKeyReusedForAnotherRequestIsRejected() {
+    IdempotencyKeys keys = keys(100, Duration.ofSeconds(1));
+    create(keys, "records/user", "k1", Map.of("name", "Ada"));
+
+    DomainException.Unprocessable error = assertThrows(DomainException.Unprocessable.class,
+        () -> create(keys, "records/user", "k1", Map.of("name", "Grace")));
+    assertEquals(Map.of("field", "Idempotency-Key"), error.details());
+    assertEquals(1, writes.get());
+
+    // Equal hash codes are not enough: "Aa" and "BB" collide
+    assertEquals(Map.of("name", "Aa").hashCode(), Map.of("name", "BB").hashCode());
+    create(keys, "records/user", "k2", Map.of("name", "Aa"));
+    assertThrows(DomainException.Unprocessable.class, () -> create(keys, "records/user", "k2", Map.of("name", "BB")));
+    assertEquals(2, writes.get());
+
+    assertThrows(DomainException.Validation.class, () -> create(keys, "records/user", " ", null));
+    assertThrows(DomainException.Validation.class, () -> create(keys, "records/user", "k".repeat(256), null));
+  }
+
+  @Test
+  void testFailedWriteReleasesTheKey() {
+    IdempotencyKeys keys = keys(100, Duration.ofSeconds(1));
+    assertThrows(DomainException.Validation.class, () -> keys.execute("records/user", "k1", "bad", () -> {
+      throw DomainException.Validation.field("age", "Field age must be a number");
+    }));
+
+    IdempotencyKeys.Outcome<Integer> retry = create(keys, "records/user", "k1", "fixed");
+    assertFalse(retry.replayed());
+    assertEquals(1, writes.get());
+    assertEquals(1, keys.size());
+  }
+
+  @Test
+  void testEntriesExpireAndAreBounded() {
+    IdempotencyKeys keys = keys(3, Duration.ofSeconds(1));
+    for (int i = 0; i < 5; i++) {
+      create(keys, "records/user", "k" + i, null);
+    }
+    assertEquals(3, keys.size());
+    // The two oldest were dropped, so their keys write again
+    assertFalse(create(keys, "records/user", "k0", null).replayed());
+    assertTrue(create(keys, "records/user", "k4", null).replayed());
+
+    now.addAndGet(Duration.ofHours(1).toNanos());
+    assertFalse(create(keys, "records/user", "k4", null).replayed());
+    assertEquals(1, keys.size());
+  }
+
+  @Test
+  void testRunningWritesAreNotEvicted() throws Exception {
+    IdempotencyKeys keys = keys(2, Duration.ofSeconds(10));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<IdempotencyKeys.Outcome<Integer>> original = executor.submit(() -> keys.execute("records/user", "k0",
+          "body", () -> {
+            started.countDown();
+            await(release);
+            return writes.incrementAndGet();
+          }));
+      started.await();
+      for (int i = 1; i <= 3; i++) {
+        create(keys, "records/user", "k" + i, "body");
+      }
+      // The oldest entry is still running, so the completed ones after it were dropped instead
+      assertEquals(2, keys.size());
+      release.countDown();
+      assertEquals(4, original.get(10, TimeUnit.SECONDS).value());
+    }
+    assertTrue(create(keys, "records/user", "k0", "body").replayed());
+    assertEquals(4, writes.get());
+  }
+
+  @Test
+  void testConcurrentRetriesWaitForTheRunningWrite() throws Exception {
+    IdempotencyKeys keys = keys(100, Duration.ofSeconds(10));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Object result = new Object();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<IdempotencyKeys.Outcome<Object>>> calls = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        calls.add(executor.submit(() -> keys.execute("records/user", "k1", "body", () -> {
+          writes.incrementAndGet();
+          started.countDown();
+          await(release);
+          return result;
+        })));
+        started.await();
+      }
+      Thread.sleep(100);
+      release.countDown();
+      int replayed = 0;
+      for (Future<IdempotencyKeys.Outcome<Object>> call : calls) {
+        IdempotencyKeys.Outcome<Object> outcome = call.get(10, TimeUnit.SECONDS);
+        assertSame(result, outcome.value());
+        replayed += outcome.replayed() ? 1 : 0;
+      }
+      assertEquals(9, replayed);
+    }
+    assertEquals(1, writes.get());
+  }
+
+  @Test
+  void testRetryGivesUpOnAStuckWrite() throws Exception {
+    IdempotencyKeys keys = keys(100, Duration.ofMillis(50));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<IdempotencyKeys.Outcome<Integer>> original = executor.submit(() -> keys.execute("records/user", "k1",
+          "body", () -> {
+            started.countDown();
+            await(release);
+            return writes.incrementAndGet();
+          }));
+      started.await();
+
+      DomainException.Conflict error = assertThrows(DomainException.Conflict.class,
+          () -> create(keys, "records/user", "k1", "body"));
+      assertEquals("A request with this Idempotency-Key is still in progress", error.getMessage());
+      release.countDown();
+      assertEquals(1, original.get(10, TimeUnit.SECONDS).value());
+    }
+    assertTrue(create(keys, "records/user", "k1", "body").replayed());
+    assertEquals(1, writes.get());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class RecordIdsTest {
+
+  private static final long NOW = Instant.parse("2025-06-01T12:00:00Z").toEpochMilli();
+
+  @Test
+  void testIdsAreVersion7AndSortInGenerationOrderWithinOneMillisecond() {
+    RecordIds ids = new RecordIds(() -> NOW);
+    List<String> generated = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      generated.add(RecordIds.format(ids.nextSequence()));
+    }
+
+    List<String> sorted = new ArrayList<>(generated);
+    sorted.sort(null);
+    assertEquals(generated, sorted);
+    UUID uuid = UUID.fromString(generated.get(0));
+    assertEquals(7, uuid.version());
+    assertEquals(2, uuid.variant());
+    assertEquals(NOW, uuid.getMostSignificantBits() >>> 16);
+  }
+
+  @Test
+  void testCounterOverflowCarriesIntoTheTimestamp() {
+    RecordIds ids = new RecordIds(() -> NOW);
+    long sequence = 0;
+    for (int i = 0; i <= 4096; i++) {
+      sequence = ids.nextSequence();
+    }
+    assertEquals(Instant.ofEpochMilli(NOW + 1), RecordIds.createdAt(sequence));
+  }
+
+  @Test
+  void testClockGoingBackwardsKeepsIdsMonotonic() {
+    AtomicLong clock = new AtomicLong(NOW);
+    RecordIds ids = new RecordIds(clock::get);
+    String first = RecordIds.format(ids.nextSequence());
+    clock.set(NOW - 1_000);
+    String second = RecordIds.format(ids.nextSequence());
+    assertTrue(first.compareTo(second) < 0);
+  }
+
+  @Test
+  void testLowerBoundSeparatesMilliseconds() {
+    RecordIds ids = new RecordIds(() -> NOW);
+    String id = RecordIds.format(ids.nextSequence());
+    assertTrue(RecordIds.lowerBound(NOW).compareTo(id) <= 0);
+    assertTrue(RecordIds.lowerBound(NOW + 1).compareTo(id) > 0);
+    assertEquals(NOW, RecordIds.epochMillis(id));
+    assertEquals(NOW + 1, RecordIds.epochMillis(RecordIds.lowerBound(NOW + 1)));
+  }
+}
@@ -0,0 +1,106 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.aurenworks.model.Component;
+import com.aurenworks.model.Record;
+
+class RecordSearchIndexTest {
+
+  private static final Component NOTE = new Component("note", "Note", "Notes",
+      List.of(new Component.ComponentField("title", "string", true, Map.of()),
+          new Component.ComponentField("body", "string", false, Map.of()),
+          new Component.ComponentField("priority", "number", false, Map.of())),
+      Map.of());
+
+  @Test
+  void testTokenizeLowercasesAndSplitsOnNonAlphanumerics() {
+    assertEquals(List.of("hello", "world", "42"), RecordSearchIndex.tokenize("Hello, WORLD-42!"));
+  }
+
+  @Test
+  void testTokenizeIgnoresTheDefaultLocale() {
+    Locale previous = Locale.getDefault();
+    Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+    try {
+      assertEquals(List.of("invoice", "title"), RecordSearchIndex.tokenize("INVOICE TITLE"));
+    } finally {
+      Locale.setDefault(previous);
+    }
+  }
+
+  @Test
+  void testSearchRanksMoreRelevantRecordsFirst() {
+    RecordSearchIndex index = new RecordSearchIndex();
+    index.index(note("1", "Quarterly report", "numbers for the quarterly report"), NOTE);
+    index.index(note("2", "Team lunch", "report back about lunch"), NOTE);
+    index.index(note("3", "Holiday plan", "beach"), NOTE);
+
+    List<RecordSearchIndex.Hit> hits = index.search("note", "quarterly report", false, 10);
+
+    assertEquals(2, hits.size());
+    assertEquals("1", hits.get(0).recordId());
+    assertEquals("2", hits.get(1).recordId());
+    assertTrue(hits.get(0).score() > hits.get(1).score());
+  }
+
+  @Test
+  void testPrefixSearchAndLimit() {
+    RecordSearchIndex index = new RecordSearchIndex();
+    index.index(note("1", "Reporting", null), NOTE);
+    index.index(note("2", "Reporter", null), NOTE);
+    index.index(note("3", "Repair", null), NOTE);
+
+    assertEquals(0, index.search("note", "report", false, 10).size());
+    assertEquals(2, index.search("note", "report", true, 10).size());
+    assertEquals(1, index.search("note", "rep", true, 1).size());
+  }
+
+  @Test
+  void testRemovedRecordsAreNoLongerFound() {
+    RecordSearchIndex index = new RecordSearchIndex();
+    Record record = note("1", "Disposable note", null);
+    index.index(record, NOTE);
+    index.remove(record, NOTE);
+
+    assertTrue(index.search("note", "disposable", false, 10).isEmpty());
+  }
+
+  @Test
+  void testAddsRacingWithRemovalsOfTheSameTermAreKept() throws Exception {
+    RecordSearchIndex index = new RecordSearchIndex();
+    int kept = 2_000;
+    try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+      for (int i = 0; i < kept; i++) {
+        // One record empties the "shared" posting list while another is added to it
+        Record churn = note("churn-" + i, "shared", null);
+        index.index(churn, NOTE);
+        Record keep = note("keep-" + i, "shared", null);
+        Future<?> removal = executor.submit(() -> index.remove(churn, NOTE));
+        Future<?> addition = executor.submit(() -> index.index(keep, NOTE));
+        removal.get(10, TimeUnit.SECONDS);
+        addition.get(10, TimeUnit.SECONDS);
+        assertEquals(1, index.search("note", "shared", false, 10).size(), "keep-" + i + " was lost");
+        index.remove(keep, NOTE);
+      }
+    }
+  }
+
+  private static Record note(String id, String title, String body) {
+    Map<String, Object> values = body == null ? Map.of("title", title) : Map.of("title", title, "body", body);
+    Instant now = Instant.now();
+    return new Record(id, "note", values, now, now, "system", Map.of());
+  }
+}
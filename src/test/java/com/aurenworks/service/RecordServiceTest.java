@@ -1,18 +1,29 @@
 package com.aurenworks.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.api.dto.RecordAggregateResponse;
+import com.aurenworks.api.dto.RecordBatchResponse;
+import com.aurenworks.api.dto.RecordQueryPlan;
 import com.aurenworks.api.dto.RecordResponse;
+import com.aurenworks.api.dto.RecordSearchResponse;
 import com.aurenworks.api.dto.RecordsListResponse;
+import com.aurenworks.model.Component;
+import com.aurenworks.model.CreatedRange;
+import com.aurenworks.model.TotalMode;
 
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
@@ -23,6 +34,11 @@ class RecordServiceTest {
   @Inject
   RecordService recordService;
 
+  @Inject
+  ChangeFeedService changeFeed;
+
+  private static long wheelTime;
+
   @BeforeEach
   void setUp() {
     // Service is already initialized with sample components
@@ -49,7 +65,7 @@ class RecordServiceTest {
   void testCreateRecordWithInvalidComponent() {
     CreateRecordRequest request = new CreateRecordRequest("nonexistent", Map.of("name", "Test"), Map.of());
 
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+    DomainException.Validation exception = assertThrows(DomainException.Validation.class, () -> {
       recordService.createRecord(request);
     });
 
@@ -61,7 +77,7 @@ class RecordServiceTest {
     CreateRecordRequest request = new CreateRecordRequest("user", Map.of("age", 30), // Missing required 'name' field
         Map.of());
 
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+    DomainException.Validation exception = assertThrows(DomainException.Validation.class, () -> {
       recordService.createRecord(request);
     });
 
@@ -75,7 +91,7 @@ class RecordServiceTest {
                                                                                                                    // number
     ), Map.of());
 
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+    DomainException.Validation exception = assertThrows(DomainException.Validation.class, () -> {
       recordService.createRecord(request);
     });
 
@@ -128,12 +144,282 @@ class RecordServiceTest {
     assertEquals(25, retrievedRecord.values().get("age"));
   }
 
+  @Test
+  void testGetRecordsByIds() {
+    RecordResponse first = recordService
+        .createRecord(new CreateRecordRequest("user", Map.of("name", "First"), Map.of()));
+    RecordResponse second = recordService
+        .createRecord(new CreateRecordRequest("user", Map.of("name", "Second"), Map.of()));
+
+    RecordBatchResponse batch = recordService
+        .getRecords(List.of(second.id(), "missing-1", first.id(), second.id(), "missing-2"));
+
+    assertEquals(List.of(second.id(), first.id()), batch.records().stream().map(RecordResponse::id).toList());
+    assertEquals(List.of("missing-1", "missing-2"), batch.missingIds());
+  }
+
+  @Test
+  void testRecordsPastHeapBudgetAreReadFromColdTier() {
+    // The test profile's heap budget is 64K, a few hundred records
+    recordService.registerComponent(new Component("tiered", "Tiered", "Spills to disk",
+        List.of(new Component.ComponentField("name", "string", true, Map.of()),
+            new Component.ComponentField("rank", "number", false, Map.of())),
+        Map.of()));
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      ids.add(recordService.createRecord(
+          new CreateRecordRequest("tiered", Map.of("name", "record " + i, "rank", i), Map.of())).id());
+    }
+
+    assertEquals("record 0", recordService.getRecord(ids.get(0)).values().get("name"));
+    RecordsListResponse byRank = recordService.getRecords("tiered", 0, 10, "rank", "asc");
+    assertEquals(1000L, byRank.pagination().total());
+    // Values sort as strings
+    assertEquals(List.of(0, 1, 10, 100, 101), byRank.records().stream().limit(5)
+        .map(record -> record.values().get("rank")).toList());
+    RecordsListResponse newest = recordService.getRecords("tiered", 99, 10, null, null);
+    assertEquals(List.of(ids.get(9), ids.get(8)), newest.records().stream().limit(2).map(RecordResponse::id).toList());
+    assertEquals(1000, recordService.getRecords(ids).records().size());
+  }
+
   @Test
   void testGetRecordByIdNotFound() {
-    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+    DomainException.NotFound exception = assertThrows(DomainException.NotFound.class, () -> {
       recordService.getRecord("nonexistent-id");
     });
 
     assertEquals("Record not found: nonexistent-id", exception.getMessage());
   }
+
+  @Test
+  void testMaterializedAggregateIsUpdatedOnWrite() {
+    RecordAggregateResponse before = recordService.aggregateRecords("user", "active", "age");
+    assertTrue(before.materialized());
+
+    recordService.createRecord(
+        new CreateRecordRequest("user", Map.of("name", "Aggregated", "age", 40, "active", true), Map.of()));
+
+    RecordAggregateResponse after = recordService.aggregateRecords("user", "active", "age");
+    RecordAggregateResponse.Group beforeGroup = group(before, true);
+    RecordAggregateResponse.Group afterGroup = group(after, true);
+    long beforeCount = beforeGroup == null ? 0 : beforeGroup.count();
+    double beforeSum = beforeGroup == null || beforeGroup.sum() == null ? 0 : beforeGroup.sum();
+
+    assertEquals(beforeCount + 1, afterGroup.count());
+    assertEquals(beforeSum + 40, afterGroup.sum());
+    assertTrue(afterGroup.max() >= 40);
+  }
+
+  @Test
+  void testAdHocAggregateMatchesMaterialized() {
+    recordService.createRecord(new CreateRecordRequest("user", Map.of("name", "Counted", "active", false), Map.of()));
+
+    RecordAggregateResponse materialized = recordService.aggregateRecords("user", "active", "age");
+    RecordAggregateResponse adHoc = recordService.aggregateRecords("user", "active", null);
+
+    assertFalse(adHoc.materialized());
+    assertEquals(materialized.groups().size(), adHoc.groups().size());
+    for (RecordAggregateResponse.Group group : adHoc.groups()) {
+      assertEquals(group(materialized, group.key()).count(), group.count());
+    }
+  }
+
+  @Test
+  void testAggregateRejectsNonNumericField() {
+    DomainException.Validation exception = assertThrows(DomainException.Validation.class,
+        () -> recordService.aggregateRecords("user", "active", "name"));
+
+    assertEquals("field must be a number field: name", exception.getMessage());
+  }
+
+  @Test
+  void testSearchHitsKeepTheirRankAfterBatchResolution() {
+    for (String name : List.of("Qwvrt", "Qwvrt Qwvrt Qwvrt", "Qwvrt Qwvrt")) {
+      recordService.createRecord(new CreateRecordRequest("user", Map.of("name", name), Map.of()));
+    }
+
+    List<RecordSearchResponse.SearchHit> hits = recordService.searchRecords("user", "qwvrt", false, 10).hits();
+
+    assertEquals(3, hits.size());
+    for (int i = 1; i < hits.size(); i++) {
+      assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+    }
+    assertEquals("Qwvrt Qwvrt Qwvrt", hits.get(0).record().values().get("name"));
+  }
+
+  @Test
+  void testPerRecordTtlExpiresRecordEverywhere() {
+    RecordAggregateResponse.Group before = group(recordService.aggregateRecords("user", "active", "age"), true);
+    long totalBefore = recordService.getRecords("user", 0, 1, null, "asc").pagination().total();
+    RecordResponse expiring = recordService.createRecord(new CreateRecordRequest("user",
+        Map.of("name", "Ephemeral Zyxwv", "age", 149, "active", true), Map.of(), "PT1H"));
+
+    assertEquals(expiring.createdAt().plusSeconds(3600), expiring.expiresAt());
+    assertEquals(before.count() + 1, group(recordService.aggregateRecords("user", "active", "age"), true).count());
+
+    long lastEvent = changeFeed.lastOffset();
+    assertEquals(1, expireAfter(2 * 3_600_000));
+
+    assertThrows(DomainException.NotFound.class, () -> recordService.getRecord(expiring.id()));
+    assertEquals(totalBefore, recordService.getRecords("user", 0, 1, null, "asc").pagination().total());
+    assertTrue(recordService.searchRecords("user", "zyxwv", false, 10).hits().isEmpty());
+    RecordAggregateResponse.Group after = group(recordService.aggregateRecords("user", "active", "age"), true);
+    assertEquals(before.count(), after.count());
+    assertEquals(before.max(), after.max());
+    assertEquals(lastEvent + 1, changeFeed.lastOffset());
+  }
+
+  @Test
+  void testComponentDefaultTtl() {
+    recordService.registerComponent(new Component("ttl-session", "Session", "Short-lived sessions",
+        List.of(new Component.ComponentField("name", "string", true, Map.of())), Map.of("ttl", "PT10M")));
+
+    RecordResponse defaulted = recordService
+        .createRecord(new CreateRecordRequest("ttl-session", Map.of("name", "default"), Map.of()));
+    RecordResponse overridden = recordService
+        .createRecord(new CreateRecordRequest("ttl-session", Map.of("name", "override"), Map.of(), "P1D"));
+    assertEquals(defaulted.createdAt().plusSeconds(600), defaulted.expiresAt());
+
+    expireAfter(3_600_000);
+    assertThrows(DomainException.NotFound.class, () -> recordService.getRecord(defaulted.id()));
+    assertEquals(overridden.id(), recordService.getRecord(overridden.id()).id());
+  }
+
+  @Test
+  void testInvalidTtl() {
+    DomainException.Validation exception = assertThrows(DomainException.Validation.class, () -> recordService
+        .createRecord(new CreateRecordRequest("user", Map.of("name", "Bad ttl"), Map.of(), "-PT1H")));
+    assertEquals("ttl", exception.details().get("field"));
+    assertThrows(DomainException.Validation.class,
+        () -> recordService.registerComponent(new Component("ttl-bad", "Bad", "Bad ttl",
+            List.of(new Component.ComponentField("name", "string", true, Map.of())), Map.of("ttl", "1h"))));
+  }
+
+  /**
+   * The expiry wheel is shared by the whole test application and only moves forward, so every advance goes past the
+   * previous one regardless of the order tests run in.
+   */
+  private int expireAfter(long millis) {
+    wheelTime = Math.max(System.currentTimeMillis() + millis, wheelTime + 2 * RecordService.EXPIRY_TICK_MILLIS);
+    return recordService.expireRecords(wheelTime);
+  }
+
+  private static RecordAggregateResponse.Group group(RecordAggregateResponse response, Object key) {
+    return response.groups().stream().filter(group -> java.util.Objects.equals(group.key(), key)).findFirst()
+        .orElse(null);
+  }
+
+  @Test
+  void testGetRecordsPagesNewestFirstWithLiveTotal() {
+    long before = recordService.getRecords("user", 0, 1, null, "asc").pagination().total();
+    RecordResponse older = recordService
+        .createRecord(new CreateRecordRequest("user", Map.of("name", "Older"), Map.of()));
+    RecordResponse newer = recordService
+        .createRecord(new CreateRecordRequest("user", Map.of("name", "Newer"), Map.of()));
+
+    RecordsListResponse firstPage = recordService.getRecords("user", 0, 1, null, "asc");
+    RecordsListResponse secondPage = recordService.getRecords("user", 1, 1, null, "asc");
+
+    assertEquals(before + 2, firstPage.pagination().total());
+    assertEquals(newer.id(), firstPage.records().get(0).id());
+    assertEquals(older.id(), secondPage.records().get(0).id());
+    assertTrue(firstPage.pagination().hasNext());
+  }
+
+  @Test
+  void testGetRecordsWithoutTotal() {
+    recordService.createRecord(new CreateRecordRequest("user", Map.of("name", "Uncounted"), Map.of()));
+    recordService.createRecord(new CreateRecordRequest("user", Map.of("name", "Uncounted Too"), Map.of()));
+
+    RecordsListResponse response = recordService.getRecords("user", 0, 1, "name", "asc", TotalMode.NONE);
+
+    assertNull(response.pagination().total());
+    assertNull(response.pagination().totalPages());
+    assertTrue(response.pagination().hasNext());
+    assertEquals(1, response.records().size());
+  }
+
+  @Test
+  void testGetRecordsSortedPageMatchesFullSort() {
+    for (String name : List.of("delta", "alpha", "charlie", "bravo")) {
+      recordService.createRecord(new CreateRecordRequest("user", Map.of("name", "sorted-" + name), Map.of()));
+    }
+
+    RecordsListResponse all = recordService.getRecords("user", 0, 100, "name", "asc");
+    RecordsListResponse second = recordService.getRecords("user", 1, 2, "name", "asc");
+
+    assertEquals(all.records().get(2).id(), second.records().get(0).id());
+    assertEquals(all.records().get(3).id(), second.records().get(1).id());
+  }
+
+  @Test
+  void testExplainRecords() {
+    recordService.createRecord(new CreateRecordRequest("user", Map.of("name", "Explained"), Map.of()));
+    long total = recordService.getRecords("user", 0, 1, null, null).pagination().total();
+
+    RecordQueryPlan sorted = recordService.explainRecords("user", 0, 5, "name", "asc", TotalMode.EXACT);
+    assertEquals("component-index", sorted.access());
+    assertEquals("top-k-heap", sorted.sortStrategy());
+    assertEquals(Math.min(6, total), (long) sorted.heapSize());
+    assertEquals(sorted.candidateCount(), sorted.examinedCount());
+    assertTrue(sorted.phaseMicros().containsKey("sort"));
+
+    RecordQueryPlan newestFirst = recordService.explainRecords(null, 0, 5, null, null, TotalMode.NONE);
+    assertEquals("full-scan", newestFirst.access());
+    assertEquals("k-way-merge", newestFirst.sortStrategy());
+    assertNull(newestFirst.heapSize());
+    assertTrue(newestFirst.examinedCount() <= 6);
+    assertEquals(List.of("count", "scan", "materialize"), List.copyOf(newestFirst.phaseMicros().keySet()));
+  }
+
+  @Test
+  void testCreatedRangeIsAnIdRangeScan() throws InterruptedException {
+    String componentId = "ranged-" + System.nanoTime();
+    recordService.registerComponent(new Component(componentId, "Ranged", "Ranged records",
+        List.of(new Component.ComponentField("name", "string", true, Map.of())), Map.of()));
+    List<RecordResponse> created = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      created.add(recordService.createRecord(new CreateRecordRequest(componentId, Map.of("name", "r" + i), Map.of())));
+      Thread.sleep(3);
+    }
+    for (int i = 1; i < created.size(); i++) {
+      assertTrue(created.get(i - 1).id().compareTo(created.get(i).id()) < 0);
+    }
+
+    CreatedRange middle = new CreatedRange(created.get(0).createdAt(), created.get(3).createdAt());
+    RecordsListResponse window = recordService.getRecords(componentId, 0, 10, null, null, TotalMode.EXACT, middle);
+    assertEquals(List.of(created.get(2).id(), created.get(1).id()),
+        window.records().stream().map(RecordResponse::id).toList());
+    assertEquals(2L, window.pagination().total());
+
+    RecordsListResponse after = recordService.getRecords(componentId, 0, 10, "name", "desc", TotalMode.EXACT,
+        new CreatedRange(created.get(1).createdAt(), null));
+    assertEquals(List.of("r3", "r2"), after.records().stream().map(r -> r.values().get("name")).toList());
+
+    // Estimated totals are scaled from the partition's creation-time span instead of walking the window
+    RecordsListResponse estimated = recordService.getRecords(componentId, 0, 1, null, null, TotalMode.ESTIMATE,
+        middle);
+    assertTrue(estimated.pagination().estimated());
+    assertTrue(estimated.pagination().total() >= 0 && estimated.pagination().total() <= 4);
+    assertTrue(estimated.pagination().hasNext());
+    RecordsListResponse everything = recordService.getRecords(componentId, 0, 10, null, null, TotalMode.ESTIMATE,
+        new CreatedRange(created.get(0).createdAt().minusSeconds(1), null));
+    assertEquals(4L, everything.pagination().total());
+    assertFalse(everything.pagination().hasNext());
+    assertFalse(window.pagination().estimated());
+
+    // A sorted window is not counted up front; a page far past it must not size the heap by its depth
+    RecordsListResponse deep = recordService.getRecords(componentId, 20_000_000, 100, "name", "asc", TotalMode.EXACT,
+        middle);
+    assertTrue(deep.records().isEmpty());
+    assertEquals(2L, deep.pagination().total());
+    assertTrue(recordService.getRecords(componentId, Integer.MAX_VALUE, 100, "name", "asc", TotalMode.NONE, middle)
+        .records().isEmpty());
+
+    RecordQueryPlan plan = recordService.explainRecords(componentId, 0, 10, null, null, TotalMode.NONE, middle);
+    assertEquals("id-range", plan.access());
+    assertEquals("index-order", plan.sortStrategy());
+    assertEquals(-1, plan.candidateCount());
+    assertEquals(2, plan.resultSize());
+  }
 }
@@ -0,0 +1,92 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.aurenworks.api.dto.CreateComponentRequest;
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.model.Component;
+import com.aurenworks.model.Role;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@QuarkusTest
+class ServiceEventsTest {
+
+  @Inject
+  RecordService recordService;
+
+  @Inject
+  ComponentService componentService;
+
+  @Test
+  void testServiceOperationsEmitFlightRecorderEvents() throws Exception {
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      for (Class<? extends Event> type : ServiceEvents.ALL) {
+        recording.enable(type).withThreshold(Duration.ZERO);
+      }
+      recording.start();
+
+      String recordId = recordService.createRecord(new CreateRecordRequest("user", Map.of("name", "JFR User"), null))
+          .id();
+      recordService.getRecords("user", 0, 5, "name", "asc");
+      try {
+        recordService.createRecord(new CreateRecordRequest("user", Map.of("age", 5), null));
+      } catch (DomainException.Validation expected) {
+        // missing required name
+      }
+      componentService.createComponent("jfr-project", new CreateComponentRequest("JFR", "JFR component",
+          List.of(new Component.ComponentField("title", "string", true, Map.of())), Map.of()), Role.BUILDER);
+
+      recording.stop();
+      Path file = Files.createTempFile("service-events-", ".jfr");
+      try {
+        recording.dump(file);
+        events = RecordingFile.readAllEvents(file);
+      } finally {
+        Files.deleteIfExists(file);
+      }
+
+      RecordedEvent create = single(events, "com.aurenworks.RecordCreate", "recordId", recordId);
+      assertEquals("user", create.getString("componentId"));
+      assertFalse(create.getDuration().isNegative());
+
+      RecordedEvent list = events.stream().filter(event -> is(event, "com.aurenworks.RecordList"))
+          .filter(event -> "name".equals(event.getString("sortBy"))).findFirst().orElseThrow();
+      assertEquals(5, list.getInt("size"));
+      assertTrue(list.getLong("candidateCount") >= list.getInt("resultSize"));
+
+      assertTrue(events.stream().anyMatch(event -> is(event, "com.aurenworks.RecordSort")));
+      assertTrue(events.stream().anyMatch(event -> is(event, "com.aurenworks.RecordValidate")
+          && !event.getBoolean("valid")));
+      assertEquals("create", single(events, "com.aurenworks.ComponentOperation", "projectId", "jfr-project")
+          .getString("operation"));
+    }
+  }
+
+  private static boolean is(RecordedEvent event, String name) {
+    return event.getEventType().getName().equals(name);
+  }
+
+  private static RecordedEvent single(List<RecordedEvent> events, String name, String field, String value) {
+    List<RecordedEvent> matching = events.stream()
+        .filter(event -> is(event, name) && value.equals(event.getString(field))).toList();
+    assertEquals(1, matching.size(), name);
+    return matching.get(0);
+  }
+}
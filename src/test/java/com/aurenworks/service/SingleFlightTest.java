@@ -0,0 +1,124 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SingleFlightTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final Counter shared = registry.counter("shared");
+  private final Counter timeouts = registry.counter("timeouts");
+
+  @Test
+  void testConcurrentCallersShareOneComputation() throws Exception {
+    SingleFlight<String, Object> flight = new SingleFlight<>(true, TimeUnit.SECONDS.toNanos(10), shared, timeouts);
+    AtomicInteger computations = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Object result = new Object();
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<Object>> calls = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        calls.add(executor.submit(() -> flight.execute("page-0", () -> {
+          computations.incrementAndGet();
+          started.countDown();
+          await(release);
+          return result;
+        })));
+        started.await();
+      }
+      // Give the followers time to reach the in-flight computation before the leader finishes
+      Thread.sleep(200);
+      release.countDown();
+      for (Future<Object> call : calls) {
+        assertSame(result, call.get(10, TimeUnit.SECONDS));
+      }
+    }
+    assertEquals(1, computations.get());
+    assertEquals(19.0, shared.count());
+    assertEquals(0, flight.inFlight());
+  }
+
+  @Test
+  void testFollowersReceiveTheLeadersException() throws Exception {
+    SingleFlight<String, Object> flight = new SingleFlight<>(true, TimeUnit.SECONDS.toNanos(10), shared, timeouts);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<Object> leader = executor.submit(() -> flight.execute("key", () -> {
+        started.countDown();
+        await(release);
+        throw new IllegalArgumentException("Page 3 is out of bounds");
+      }));
+      started.await();
+      Future<Object> follower = executor.submit(() -> flight.execute("key", () -> {
+        throw new AssertionError("follower must not compute");
+      }));
+      Thread.sleep(50);
+      release.countDown();
+
+      ExecutionException error = assertThrows(ExecutionException.class, () -> follower.get(10, TimeUnit.SECONDS));
+      assertEquals("Page 3 is out of bounds", error.getCause().getMessage());
+      assertThrows(ExecutionException.class, () -> leader.get(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void testFollowerComputesItselfAfterTimeout() throws Exception {
+    SingleFlight<String, String> flight = new SingleFlight<>(true, TimeUnit.MILLISECONDS.toNanos(20), shared,
+        timeouts);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+        started.countDown();
+        await(release);
+        return "leader";
+      }));
+      started.await();
+
+      assertEquals("follower", flight.execute("key", () -> "follower"));
+      assertEquals(1.0, timeouts.count());
+
+      release.countDown();
+      assertEquals("leader", leader.get(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void testDisabledFlightAlwaysComputes() {
+    SingleFlight<String, Integer> flight = new SingleFlight<>(false, 0, shared, timeouts);
+    AtomicInteger computations = new AtomicInteger();
+    flight.execute("key", computations::incrementAndGet);
+    flight.execute("key", computations::incrementAndGet);
+    assertEquals(2, computations.get());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class SlowQueryLogTest {
+
+  @Inject
+  SlowQueryLog slowQueryLog;
+
+  @Test
+  void testOnlyQueriesOverThresholdAreLoggedToDedicatedCategory() {
+    List<LogRecord> logged = new CopyOnWriteArrayList<>();
+    Handler handler = new Handler() {
+      @Override
+      public void publish(LogRecord record) {
+        logged.add(record);
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    Logger category = Logger.getLogger(SlowQueryLog.CATEGORY);
+    category.addHandler(handler);
+    try {
+      // Threshold is 50ms in the test profile
+      slowQueryLog.record("getRecords", TimeUnit.MILLISECONDS.toNanos(10), Map.of("componentId", "fast"));
+      slowQueryLog.record("getRecords", TimeUnit.MILLISECONDS.toNanos(75), Map.of("componentId", "slow"));
+    } finally {
+      category.removeHandler(handler);
+    }
+
+    assertEquals(1, logged.size());
+    String message = logged.get(0).getMessage();
+    assertTrue(message.contains("getRecords took 75.000 ms"), message);
+    assertTrue(message.contains("componentId=slow"), message);
+  }
+}
@@ -0,0 +1,120 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.aurenworks.model.Component;
+
+class SnapshotFileTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testValuesRoundTrip() {
+    Map<String, Object> values = new LinkedHashMap<>();
+    values.put("name", "Zoë ✓");
+    values.put("age", 42);
+    values.put("big", 1L << 40);
+    values.put("negative", -7);
+    values.put("ratio", 0.25);
+    values.put("active", true);
+    values.put("missing", null);
+    values.put("price", new BigDecimal("19.99"));
+    values.put("huge", new BigInteger("123456789012345678901234567890"));
+    values.put("tags", List.of("a", 1, false));
+    values.put("nested", Map.of("name", "inner"));
+
+    SnapshotFile.Writer out = new SnapshotFile.Writer();
+    out.writeValue(values);
+    out.writeValue(values);
+    out.writeInstant(Instant.parse("2026-01-02T03:04:05.123456789Z"));
+    out.writeString(null);
+
+    SnapshotFile.Reader in = new SnapshotFile.Reader(out.toByteBuffer());
+    assertEquals(values, in.readValue());
+    // The second copy refers to the keys of the first through the section dictionary
+    assertEquals(values, in.readValue());
+    assertEquals(Instant.parse("2026-01-02T03:04:05.123456789Z"), in.readInstant());
+    assertNull(in.readString());
+    assertFalse(in.hasRemaining());
+  }
+
+  @Test
+  void testRepeatedKeysAreWrittenOnce() {
+    SnapshotFile.Writer once = new SnapshotFile.Writer();
+    once.writeValue(Map.of("a-rather-long-field-name", 1));
+    SnapshotFile.Writer twice = new SnapshotFile.Writer();
+    twice.writeValue(Map.of("a-rather-long-field-name", 1));
+    twice.writeValue(Map.of("a-rather-long-field-name", 1));
+
+    // Map tag, size, key index, value tag, value
+    assertEquals(once.toByteBuffer().remaining() + 5, twice.toByteBuffer().remaining());
+  }
+
+  @Test
+  void testFileRoundTripMapsEverySection() throws IOException {
+    Component component = new Component("user", "User", null,
+        List.of(new Component.ComponentField("name", "string", true, Map.of("maxLength", 100))), Map.of());
+    SnapshotFile.Writer first = new SnapshotFile.Writer();
+    SnapshotFile.writeComponent(first, component);
+    SnapshotFile.Writer second = new SnapshotFile.Writer();
+    second.writeString("records");
+    Path file = directory.resolve("store.snapshot");
+    Instant createdAt = Instant.ofEpochMilli(1_700_000_000_123L);
+
+    long size = SnapshotFile.write(file, createdAt,
+        List.of(SnapshotFile.Section.of(SnapshotFile.Kind.RECORD_SCHEMAS, first),
+            SnapshotFile.Section.of(SnapshotFile.Kind.RECORDS, second)));
+
+    assertEquals(Files.size(file), size);
+    SnapshotFile.Contents contents = SnapshotFile.map(file);
+    assertEquals(createdAt, contents.createdAt());
+    assertEquals(List.of(SnapshotFile.Kind.RECORD_SCHEMAS, SnapshotFile.Kind.RECORDS),
+        contents.sections().stream().map(SnapshotFile.Section::kind).toList());
+    assertEquals(component, SnapshotFile.readComponent(contents.sections().get(0).reader()));
+    assertEquals("records", contents.sections().get(1).reader().readString());
+  }
+
+  @Test
+  void testCorruptSectionIsRejected() throws IOException {
+    SnapshotFile.Writer out = new SnapshotFile.Writer();
+    out.writeString("payload");
+    Path file = directory.resolve("corrupt.snapshot");
+    SnapshotFile.write(file, Instant.now(), List.of(SnapshotFile.Section.of(SnapshotFile.Kind.RECORDS, out)));
+
+    byte[] bytes = Files.readAllBytes(file);
+    bytes[bytes.length - 1] ^= 1;
+    Files.write(file, bytes);
+    SnapshotFile.Section section = SnapshotFile.map(file).sections().get(0);
+    assertThrows(IOException.class, section::reader);
+
+    byte[] header = Arrays.copyOf(bytes, bytes.length);
+    header[0] = 'X';
+    Files.write(file, header);
+    assertThrows(IOException.class, () -> SnapshotFile.map(file));
+
+    byte[] table = Files.readAllBytes(file);
+    table[0] = bytes[0];
+    // The section length in the table
+    table[20 + 4 + 8 + 7] ^= 1;
+    Files.write(file, table);
+    assertThrows(IOException.class, () -> SnapshotFile.map(file));
+  }
+}
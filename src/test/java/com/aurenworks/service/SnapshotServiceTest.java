@@ -0,0 +1,86 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.aurenworks.api.dto.ComponentResponse;
+import com.aurenworks.api.dto.CreateComponentRequest;
+import com.aurenworks.api.dto.CreateRecordRequest;
+import com.aurenworks.api.dto.RecordAggregateResponse;
+import com.aurenworks.api.dto.RecordSearchResponse;
+import com.aurenworks.api.dto.RecordsListResponse;
+import com.aurenworks.api.dto.SnapshotResponse;
+import com.aurenworks.model.Component;
+import com.aurenworks.model.Role;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class SnapshotServiceTest {
+
+  @Inject
+  SnapshotService snapshotService;
+
+  @Inject
+  RecordService recordService;
+
+  @Inject
+  ComponentService componentService;
+
+  @Test
+  void testRestoreReproducesStoresAndIndexes() throws IOException {
+    String componentId = "snapshot-" + System.nanoTime();
+    recordService.registerComponent(new Component(componentId, "Snapshot", "Snapshot records",
+        List.of(new Component.ComponentField("name", "string", true, Map.of()),
+            new Component.ComponentField("age", "number", false, Map.of()),
+            new Component.ComponentField("active", "boolean", false, Map.of()),
+            new Component.ComponentField("tags", "array", false, Map.of())),
+        Map.of("aggregates", List.of(Map.of("groupBy", "active", "field", "age")))));
+    for (int i = 0; i < 20; i++) {
+      recordService.createRecord(new CreateRecordRequest(componentId,
+          Map.of("name", "Émile note " + i, "age", i, "active", i % 2 == 0, "tags", List.of("t" + i % 3, i)),
+          Map.of("source", "snapshot-test"), i % 5 == 0 ? "PT6H" : null));
+    }
+    String projectId = "snapshot-project-" + System.nanoTime();
+    ComponentResponse component = componentService.createComponent(projectId,
+        new CreateComponentRequest("Order", "Orders",
+            List.of(new Component.ComponentField("total", "number", true, Map.of("min", 0))), Map.of("version", "2")),
+        Role.OWNER);
+
+    RecordsListResponse records = recordService.getRecords(componentId, 0, 50, null, null);
+    RecordSearchResponse search = recordService.searchRecords(componentId, "note 7", false, 50);
+    RecordAggregateResponse aggregate = recordService.aggregateRecords(componentId, "active", "age");
+
+    SnapshotResponse written = snapshotService.snapshot();
+    assertTrue(written.sizeBytes() > 0);
+    SnapshotResponse restored = snapshotService.restore();
+    assertEquals(written.sections(), restored.sections());
+    assertEquals(written.createdAt().toEpochMilli(), restored.createdAt().toEpochMilli());
+
+    // Includes expiresAt; the restored deadlines are back on the expiry wheel
+    assertEquals(records, recordService.getRecords(componentId, 0, 50, null, null));
+    assertTrue(recordService.scheduledExpiries() >= 4);
+    assertEquals(search, recordService.searchRecords(componentId, "note 7", false, 50));
+    RecordAggregateResponse restoredAggregate = recordService.aggregateRecords(componentId, "active", "age");
+    assertTrue(restoredAggregate.materialized());
+    assertEquals(aggregate, restoredAggregate);
+    assertEquals(component, componentService.getComponent(projectId, component.id(), Role.VIEWER));
+
+    // The restored store keeps accepting writes, and its indexes keep up with them
+    recordService.createRecord(new CreateRecordRequest(componentId,
+        Map.of("name", "after restore", "age", 100, "active", true), Map.of()));
+    assertEquals(21L, recordService.getRecords(componentId, 0, 50, null, null).pagination().total());
+    assertFalse(recordService.searchRecords(componentId, "restore", false, 5).hits().isEmpty());
+    long activeCount = recordService.aggregateRecords(componentId, "active", "age").groups().stream()
+        .filter(group -> Boolean.TRUE.equals(group.key())).findFirst().orElseThrow().count();
+    assertEquals(11, activeCount);
+  }
+}
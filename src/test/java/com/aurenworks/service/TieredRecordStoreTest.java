@@ -0,0 +1,273 @@
+package com.aurenworks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.aurenworks.model.Record;
+
+class TieredRecordStoreTest {
+
+  private static final long BUDGET = 64 * 1024;
+  private static final long START = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testUnboundedStoreNeverSpills() throws IOException {
+    TieredRecordStore store = new TieredRecordStore(0, directory);
+    List<Record> records = records(2000);
+    records.forEach(store::put);
+
+    assertEquals(2000, store.size());
+    assertEquals(2000, store.hotRecords());
+    assertEquals(0, store.segmentCount());
+    assertEquals(0, spillFiles());
+    assertEquals(records.get(0), store.get(records.get(0).id()));
+    assertEquals(1.0, store.hitRatio());
+  }
+
+  @Test
+  void testSpillsPastBudgetAndReadsBackFromDisk() throws IOException {
+    TieredRecordStore store = new TieredRecordStore(BUDGET, directory);
+    List<Record> records = records(2000);
+    records.forEach(store::put);
+
+    assertEquals(2000, store.size());
+    assertTrue(store.hotBytes() <= BUDGET, "hot tier holds " + store.hotBytes() + " bytes");
+    assertEquals(2000, store.hotRecords() + store.coldRecords());
+    assertTrue(store.segmentCount() > 0);
+    assertEquals(store.segmentCount(), spillFiles());
+    for (Record record : records) {
+      assertEquals(record, store.peek(record.id()));
+    }
+    assertTrue(store.coldReads() > 0);
+    assertTrue(store.hitRatio() < 1.0);
+    // Scans do not promote
+    assertEquals(2000 - store.hotRecords(), store.coldRecords());
+  }
+
+  @Test
+  void testPointReadPromotesColdRecord() {
+    TieredRecordStore store = new TieredRecordStore(BUDGET, directory);
+    List<Record> records = records(2000);
+    records.forEach(store::put);
+    // The oldest records were spilled first
+    Record oldest = records.get(0);
+    long coldBefore = store.coldRecords();
+    long coldReadsBefore = store.coldReads();
+
+    assertEquals(oldest, store.get(oldest.id()));
+    assertEquals(coldReadsBefore + 1, store.coldReads());
+    assertEquals(coldBefore - 1, store.coldRecords());
+
+    long hotReadsBefore = store.hotReads();
+    assertEquals(oldest, store.get(oldest.id()));
+    assertEquals(hotReadsBefore + 1, store.hotReads());
+    assertEquals(2000, store.size());
+  }
+
+  @Test
+  void testPeekAllReadsBothTiersWithoutPromoting() {
+    TieredRecordStore store = new TieredRecordStore(BUDGET, directory);
+    List<Record> records = records(2000);
+    records.forEach(store::put);
+    // Some promoted, which spills others: both tiers and several segments are involved
+    for (int i = 0; i < records.size(); i += 7) {
+      store.get(records.get(i).id());
+    }
+    long cold = store.coldRecords();
+    assertTrue(cold > 0 && store.segmentCount() > 1);
+
+    List<String> ids = new ArrayList<>(records.stream().map(Record::id).toList());
+    String unknown = RecordIds.lowerBound(START);
+    ids.add(unknown);
+    ids.add("not-an-id");
+    Map<String, Record> found = store.peekAll(ids.reversed());
+
+    assertEquals(records.size(), found.size());
+    for (Record record : records) {
+      assertEquals(record, found.get(record.id()));
+    }
+    assertFalse(found.containsKey(unknown));
+    assertEquals(cold, store.coldRecords());
+  }
+
+  @Test
+  void testUnknownIdsAreRejectedByBloomFilters() {
+    TieredRecordStore store = new TieredRecordStore(BUDGET, directory);
+    records(2000).forEach(store::put);
+    int segments = store.segmentCount();
+
+    RecordIds unknown = new RecordIds(() -> START + 1);
+    for (int i = 0; i < 1000; i++) {
+      assertNull(store.get(RecordIds.format(unknown.nextSequence())));
+    }
+    assertEquals(1000, store.absentReads());
+    // Each segment lets FALSE_POSITIVE_RATE of unknown ids through to a block read
+    double expectedProbes = 1000 * (1 - Math.pow(1 - TieredRecordStore.FALSE_POSITIVE_RATE, segments));
+    assertTrue(store.bloomRejections() >= 1000 - 3 * expectedProbes - 10,
+        store.bloomRejections() + " of 1000 rejected by " + segments + " filters");
+  }
+
+  @Test
+  void testRemoveFromEitherTierAndDeleteDrainedSegments() throws IOException {
+    TieredRecordStore store = new TieredRecordStore(BUDGET, directory);
+    List<Record> records = records(2000);
+    records.forEach(store::put);
+    Record hotRecord = records.get(records.size() - 1);
+    Record coldRecord = records.get(0);
+
+    assertEquals(hotRecord, store.remove(hotRecord.id()));
+    assertEquals(coldRecord, store.remove(coldRecord.id()));
+    assertNull(store.remove(coldRecord.id()));
+    assertNull(store.get(hotRecord.id()));
+    assertNull(store.get(coldRecord.id()));
+    assertEquals(1998, store.size());
+
+    for (Record record : records) {
+      store.remove(record.id());
+    }
+    assertEquals(0, store.size());
+    assertEquals(0, store.coldRecords());
+    assertEquals(0, store.segmentCount());
+    assertEquals(0, spillFiles());
+  }
+
+  @Test
+  void testPromotionsDoNotLeaveSegmentsBehind() throws IOException {
+    TieredRecordStore store = new TieredRecordStore(BUDGET, directory);
+    List<Record> records = records(20_000);
+    records.forEach(store::put);
+    for (int i = 0; i < 20_000; i++) {
+      Record record = records.get(ThreadLocalRandom.current().nextInt(records.size()));
+      assertEquals(record, store.get(record.id()));
+    }
+
+    assertTrue(store.segmentCount() <= TieredRecordStore.MAX_SEGMENTS, store.segmentCount() + " segments");
+    assertEquals(store.segmentCount(), spillFiles());
+    assertEquals(20_000, store.size());
+    assertEquals(20_000, store.hotRecords() + store.coldRecords());
+    for (Record record : records) {
+      assertEquals(record, store.peek(record.id()));
+    }
+  }
+
+  @Test
+  void testViewKeepsItsRecordsWhileTheStoreChanges() throws IOException {
+    TieredRecordStore store = new TieredRecordStore(BUDGET, directory);
+    List<Record> records = records(2000);
+    records.forEach(store::put);
+    TieredRecordStore.View view = store.view();
+
+    // Promote some, remove the rest (draining and deleting every segment), then spill new records
+    for (int i = 0; i < records.size(); i++) {
+      if (i % 3 == 0) {
+        store.get(records.get(i).id());
+      }
+    }
+    records.forEach(record -> store.remove(record.id()));
+    assertEquals(0, spillFiles());
+    // Same timestamps, new random bits: distinct ids
+    List<Record> later = records(2000);
+    later.forEach(store::put);
+
+    for (Record record : records) {
+      assertEquals(record, view.get(record.id()));
+    }
+    assertNull(view.get(later.get(0).id()));
+  }
+
+  @Test
+  void testLeftoverSpillFilesAreDeleted() throws IOException {
+    TieredRecordStore first = new TieredRecordStore(BUDGET, directory);
+    records(2000).forEach(first::put);
+    assertTrue(spillFiles() > 0);
+
+    new TieredRecordStore(BUDGET, directory);
+    assertEquals(0, spillFiles());
+
+    first.clear();
+    assertEquals(0, first.size());
+    assertEquals(0, first.segmentCount());
+  }
+
+  @Test
+  void testConcurrentReadsWhileSpilling() throws Exception {
+    TieredRecordStore store = new TieredRecordStore(BUDGET, directory);
+    List<Record> records = records(4000);
+    records.subList(0, 1000).forEach(store::put);
+
+    ExecutorService readers = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> results = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        boolean promote = t % 2 == 0;
+        results.add(readers.submit(() -> {
+          int missing = 0;
+          for (int i = 0; i < 5000; i++) {
+            Record record = records.get(ThreadLocalRandom.current().nextInt(1000));
+            if (!record.equals(promote ? store.get(record.id()) : store.peek(record.id()))) {
+              missing++;
+            }
+          }
+          return missing;
+        }));
+      }
+      records.subList(1000, 4000).forEach(store::put);
+      for (Future<Integer> result : results) {
+        assertEquals(0, result.get());
+      }
+    } finally {
+      readers.shutdownNow();
+    }
+
+    assertEquals(4000, store.size());
+    assertEquals(4000, store.hotRecords() + store.coldRecords());
+    for (Record record : records) {
+      assertNotNull(store.peek(record.id()));
+    }
+    assertFalse(store.hotBytes() < 0);
+  }
+
+  private static List<Record> records(int count) {
+    RecordIds ids = new RecordIds(() -> START);
+    List<Record> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      long sequence = ids.nextSequence();
+      String id = RecordIds.format(sequence);
+      Instant createdAt = RecordIds.createdAt(sequence);
+      Map<String, Object> values = Map.of("name", "record " + i, "age", i % 90, "active", i % 2 == 0);
+      records.add(new Record(id, "user", values, createdAt, createdAt, "system", Map.of("source", "test"), null));
+    }
+    return records;
+  }
+
+  private long spillFiles() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return 0;
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.count();
+    }
+  }
+}